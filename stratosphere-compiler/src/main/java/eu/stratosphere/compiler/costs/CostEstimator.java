@@ -164,9 +164,16 @@ public abstract class CostEstimator {
 		case SORTED_GROUP:
 			// grouping or co-grouping over sorted streams for free
 			
+		case SORTED_REDUCE:
+			// pairwise reduction over sorted streams for free
+			
 		case PARTIAL_GROUP:
+		case HASH_COMBINE:
 			// partial grouping is always local and main memory resident. we should add a relative cpu cost at some point
 		
+		case HASH_REDUCE:
+			// hash aggregation is chosen only if the aggregates are expected to fit into memory
+		
 		case UNION:
 			// pipelined local union is for free
 			
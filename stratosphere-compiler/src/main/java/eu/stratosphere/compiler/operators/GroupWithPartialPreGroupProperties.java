@@ -20,6 +20,7 @@ import eu.stratosphere.api.common.operators.Ordering;
 import eu.stratosphere.api.common.operators.util.FieldSet;
 import eu.stratosphere.compiler.costs.Costs;
 import eu.stratosphere.compiler.dag.GroupReduceNode;
+import eu.stratosphere.compiler.dag.ReduceNode;
 import eu.stratosphere.compiler.dag.SingleInputNode;
 import eu.stratosphere.compiler.dataproperties.GlobalProperties;
 import eu.stratosphere.compiler.dataproperties.LocalProperties;
@@ -34,6 +35,12 @@ import eu.stratosphere.pact.runtime.task.util.LocalStrategy;
 
 public final class GroupWithPartialPreGroupProperties extends OperatorDescriptorSingle {
 	
+	/**
+	 * The maximal estimated number of distinct keys per parallel instance for which pairwise reductions
+	 * are computed in a hash table, rather than by sorting.
+	 */
+	private static final long MAX_HASH_AGGREGATION_KEYS_PER_INSTANCE = 100000;
+	
 	private final Ordering ordering;		// ordering that we need to use if an additional ordering is requested 
 	
 	
@@ -69,6 +76,10 @@ public final class GroupWithPartialPreGroupProperties extends OperatorDescriptor
 
 	@Override
 	public SingleInputPlanNode instantiate(Channel in, SingleInputNode node) {
+		if (node instanceof ReduceNode) {
+			return instantiateReduce(in, (ReduceNode) node);
+		}
+		
 		if (in.getShipStrategy() == ShipStrategyType.FORWARD) {
 			// adjust a sort (changes grouping, so it must be for this driver to combining sort
 			if (in.getLocalStrategy() == LocalStrategy.SORT) {
@@ -97,6 +108,65 @@ public final class GroupWithPartialPreGroupProperties extends OperatorDescriptor
 			return new SingleInputPlanNode(node, "Reduce("+node.getPactContract().getName()+")", toReducer, DriverStrategy.SORTED_GROUP, this.keyList);
 		}
 	}
+	
+	/**
+	 * Instantiates a pairwise {@link eu.stratosphere.api.common.functions.GenericReduce} function. Pairwise
+	 * reductions are always combinable and can be computed in a hash table instead of over sorted input. Hashing
+	 * is chosen when the estimated number of distinct keys per parallel instance is small enough for the
+	 * aggregates to stay in memory. The hash reducer falls back to sorting, should the estimate be wrong.
+	 */
+	private SingleInputPlanNode instantiateReduce(Channel in, ReduceNode node) {
+		final boolean hash = this.ordering == null && useHashAggregation(node);
+		
+		if (in.getShipStrategy() == ShipStrategyType.FORWARD) {
+			if (in.getLocalStrategy() == LocalStrategy.SORT) {
+				if (!in.getLocalStrategyKeys().isValidUnorderedPrefix(this.keys)) {
+					throw new RuntimeException("Bug: Inconsistent sort for group strategy.");
+				}
+				if (hash) {
+					in.setLocalStrategy(LocalStrategy.NONE);
+					return new SingleInputPlanNode(node, "Reduce("+node.getPactContract().getName()+")", in, DriverStrategy.HASH_REDUCE, this.keyList);
+				}
+			}
+			// the input is grouped already (or sorted for us)
+			return new SingleInputPlanNode(node, "Reduce("+node.getPactContract().getName()+")", in, DriverStrategy.SORTED_REDUCE, this.keyList);
+		} else {
+			// non forward case. all local properties are killed anyways, so we can safely plug in a combiner
+			Channel toCombiner = new Channel(in.getSource());
+			toCombiner.setShipStrategy(ShipStrategyType.FORWARD);
+			// create an input node for combine with same DOP as input node
+			ReduceNode combinerNode = node.getCombinerUtilityNode();
+			combinerNode.setDegreeOfParallelism(in.getSource().getDegreeOfParallelism());
+			combinerNode.setSubtasksPerInstance(in.getSource().getSubtasksPerInstance());
+			
+			SingleInputPlanNode combiner = new SingleInputPlanNode(combinerNode, "Combine("+node.getPactContract().getName()+")", toCombiner, DriverStrategy.HASH_COMBINE, this.keyList);
+			combiner.setCosts(new Costs(0, 0));
+			combiner.initProperties(toCombiner.getGlobalProperties(), toCombiner.getLocalProperties());
+			
+			Channel toReducer = new Channel(combiner);
+			toReducer.setShipStrategy(in.getShipStrategy(), in.getShipStrategyKeys(), in.getShipStrategySortOrder());
+			if (hash) {
+				return new SingleInputPlanNode(node, "Reduce("+node.getPactContract().getName()+")", toReducer, DriverStrategy.HASH_REDUCE, this.keyList);
+			} else {
+				toReducer.setLocalStrategy(LocalStrategy.SORT, in.getLocalStrategyKeys(), in.getLocalStrategySortOrder());
+				return new SingleInputPlanNode(node, "Reduce("+node.getPactContract().getName()+")", toReducer, DriverStrategy.SORTED_REDUCE, this.keyList);
+			}
+		}
+	}
+	
+	/**
+	 * Checks whether the estimated number of distinct keys that each parallel instance of the reducer sees
+	 * is low enough to aggregate them in a hash table. The number of distinct keys is the output cardinality
+	 * of the reducer, which is only known through compiler hints.
+	 */
+	private static boolean useHashAggregation(ReduceNode node) {
+		final long numKeys = node.getEstimatedNumRecords();
+		if (numKeys < 0) {
+			return false;
+		}
+		final int dop = Math.max(node.getDegreeOfParallelism(), 1);
+		return numKeys / dop <= MAX_HASH_AGGREGATION_KEYS_PER_INSTANCE;
+	}
 
 	@Override
 	protected List<RequestedGlobalProperties> createPossibleGlobalProperties() {
@@ -231,7 +231,8 @@ public class PlanJSONDumpGenerator {
 		
 		String name = n.getName();
 		if (name.equals("Reduce") && (node instanceof SingleInputPlanNode) && 
-				((SingleInputPlanNode) node).getDriverStrategy() == DriverStrategy.PARTIAL_GROUP) {
+				(((SingleInputPlanNode) node).getDriverStrategy() == DriverStrategy.PARTIAL_GROUP ||
+				((SingleInputPlanNode) node).getDriverStrategy() == DriverStrategy.HASH_COMBINE)) {
 			name = "Combine";
 		}
 		
@@ -409,6 +410,15 @@ public class PlanJSONDumpGenerator {
 			case SORTED_GROUP:
 				locString = "Ordered Grouping";
 				break;
+			case SORTED_REDUCE:
+				locString = "Sorted Reduce";
+				break;
+			case HASH_COMBINE:
+				locString = "Hash Partial Reduce";
+				break;
+			case HASH_REDUCE:
+				locString = "Hash Reduce";
+				break;
 			case ALL_GROUP: 
 				locString = "Group all into a single group";
 				break;
@@ -122,6 +122,18 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 	
 	private final float defaultSortSpillingThreshold;
 	
+	private final int defaultSortThreads;
+	
+	private final int defaultSortMergeReadBuffers;
+	
+	private final boolean hashJoinBloomFilters;
+	
+	private final boolean hashJoinAdaptiveTableSize;
+	
+	private final boolean hashJoinSkewHandling;
+	
+	private final boolean compressNetworkTransfers; // whether to compress the buffers of repartitioning channels
+	
 	private int iterationIdEnumerator = 1;
 	
 	private IterationPlanNode currentIteration;	// hack: as long as no nesting is possible, remember the enclosing iteration
@@ -129,11 +141,24 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 	// ------------------------------------------------------------------------
 
 	/**
-	 * Creates a new job graph generator that uses the default values for its resource configuration.
+	 * Creates a new job graph generator that uses the default values for its resource configuration, and takes
+	 * the runtime options of the task managers from the global configuration.
 	 */
 	public NepheleJobGraphGenerator() {
 		this.defaultMaxFan = ConfigConstants.DEFAULT_SPILLING_MAX_FAN;
 		this.defaultSortSpillingThreshold = ConfigConstants.DEFAULT_SORT_SPILLING_THRESHOLD;
+		this.defaultSortThreads = Math.max(1, GlobalConfiguration.getInteger(ConfigConstants.TASK_MANAGER_SORT_THREADS_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_SORT_THREADS));
+		this.defaultSortMergeReadBuffers = Math.max(1, GlobalConfiguration.getInteger(
+			ConfigConstants.TASK_MANAGER_SORT_MERGE_READ_BUFFERS_KEY, ConfigConstants.DEFAULT_TASK_MANAGER_SORT_MERGE_READ_BUFFERS));
+		this.hashJoinBloomFilters = GlobalConfiguration.getBoolean(ConfigConstants.HASHJOIN_BLOOM_FILTERS_KEY,
+			ConfigConstants.DEFAULT_HASHJOIN_BLOOM_FILTERS);
+		this.hashJoinAdaptiveTableSize = GlobalConfiguration.getBoolean(ConfigConstants.HASHJOIN_ADAPTIVE_TABLE_SIZE_KEY,
+			ConfigConstants.DEFAULT_HASHJOIN_ADAPTIVE_TABLE_SIZE);
+		this.hashJoinSkewHandling = GlobalConfiguration.getBoolean(ConfigConstants.HASHJOIN_SKEW_HANDLING_KEY,
+			ConfigConstants.DEFAULT_HASHJOIN_SKEW_HANDLING);
+		this.compressNetworkTransfers = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_NETWORK_COMPRESSION_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_NETWORK_COMPRESSION);
 	}
 	
 	public NepheleJobGraphGenerator(Configuration config) {
@@ -141,6 +166,18 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 				ConfigConstants.DEFAULT_SPILLING_MAX_FAN);
 		this.defaultSortSpillingThreshold = config.getFloat(ConfigConstants.DEFAULT_SORT_SPILLING_THRESHOLD_KEY,
 			ConfigConstants.DEFAULT_SORT_SPILLING_THRESHOLD);
+		this.defaultSortThreads = Math.max(1, config.getInteger(ConfigConstants.TASK_MANAGER_SORT_THREADS_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_SORT_THREADS));
+		this.defaultSortMergeReadBuffers = Math.max(1, config.getInteger(
+			ConfigConstants.TASK_MANAGER_SORT_MERGE_READ_BUFFERS_KEY, ConfigConstants.DEFAULT_TASK_MANAGER_SORT_MERGE_READ_BUFFERS));
+		this.hashJoinBloomFilters = config.getBoolean(ConfigConstants.HASHJOIN_BLOOM_FILTERS_KEY,
+			ConfigConstants.DEFAULT_HASHJOIN_BLOOM_FILTERS);
+		this.hashJoinAdaptiveTableSize = config.getBoolean(ConfigConstants.HASHJOIN_ADAPTIVE_TABLE_SIZE_KEY,
+			ConfigConstants.DEFAULT_HASHJOIN_ADAPTIVE_TABLE_SIZE);
+		this.hashJoinSkewHandling = config.getBoolean(ConfigConstants.HASHJOIN_SKEW_HANDLING_KEY,
+			ConfigConstants.DEFAULT_HASHJOIN_SKEW_HANDLING);
+		this.compressNetworkTransfers = config.getBoolean(ConfigConstants.TASK_MANAGER_NETWORK_COMPRESSION_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_NETWORK_COMPRESSION);
 	}
 
 	/**
@@ -831,6 +868,11 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 		
 		// assign memory, file-handles, etc.
 		assignDriverResources(node, config);
+		
+		// pass the size estimates of the inputs, from which the hash join derives the layout of its table
+		assignInputEstimates(node.getInput1(), node, config, 0);
+		assignInputEstimates(node.getInput2(), node, config, 1);
+		assignHashJoinOptions(ds, config);
 		return vertex;
 	}
 
@@ -1012,11 +1054,33 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 		}
 	}
 	
+	private void assignInputEstimates(Channel c, PlanNode target, TaskConfig config, int inputNum) {
+		final long numRecords = c.getEstimatedNumRecords();
+		if (numRecords > 0) {
+			// the estimate covers all parallel instances of the target
+			config.setEstimatedNumRecordsInput(inputNum, Math.max(1, numRecords / Math.max(1, target.getDegreeOfParallelism())));
+		}
+		final float width = c.getEstimatedAvgWidthPerOutputRecord();
+		if (width > 0) {
+			config.setEstimatedRecordWidthInput(inputNum, width);
+		}
+	}
+	
+	private void assignHashJoinOptions(DriverStrategy ds, TaskConfig config) {
+		if (ds == DriverStrategy.HYBRIDHASH_BUILD_FIRST || ds == DriverStrategy.HYBRIDHASH_BUILD_SECOND) {
+			config.setHashJoinBloomFilters(this.hashJoinBloomFilters);
+			config.setHashJoinAdaptiveTableSize(this.hashJoinAdaptiveTableSize);
+			config.setHashJoinSkewHandling(this.hashJoinSkewHandling);
+		}
+	}
+	
 	private void assignLocalStrategyResources(Channel c, TaskConfig config, int inputNum) {
 		if (c.getMemoryLocalStrategy() > 0) {
 			config.setMemoryInput(inputNum, c.getMemoryLocalStrategy());
 			config.setFilehandlesInput(inputNum, this.defaultMaxFan);
 			config.setSpillingThresholdInput(inputNum, this.defaultSortSpillingThreshold);
+			config.setSortThreadsInput(inputNum, this.defaultSortThreads);
+			config.setSortMergeReadBuffersInput(inputNum, this.defaultSortMergeReadBuffers);
 		}
 	}
 
@@ -1065,7 +1129,9 @@ public class NepheleJobGraphGenerator implements Visitor<PlanNode> {
 				throw new RuntimeException("Unknown runtime ship strategy: " + channel.getShipStrategy());
 		}
 		
-		sourceVertex.connectTo(targetVertex, channelType, distributionPattern);
+		// only the repartitioning and broadcasting edges transfer (most of) their data over the network
+		final boolean compress = this.compressNetworkTransfers && distributionPattern == DistributionPattern.BIPARTITE;
+		sourceVertex.connectTo(targetVertex, channelType, -1, -1, distributionPattern, compress);
 
 		// -------------- configure the source task's ship strategy strategies in task config --------------
 		final int outputIndex = sourceConfig.getNumOutputs();
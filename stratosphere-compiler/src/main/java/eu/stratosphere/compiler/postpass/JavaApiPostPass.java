@@ -24,12 +24,15 @@ import eu.stratosphere.api.common.typeutils.TypeComparatorFactory;
 import eu.stratosphere.api.common.typeutils.TypePairComparatorFactory;
 import eu.stratosphere.api.common.typeutils.TypeSerializerFactory;
 import eu.stratosphere.api.java.operators.translation.BinaryJavaPlanNode;
+import eu.stratosphere.api.java.operators.Keys;
 import eu.stratosphere.api.java.operators.translation.JavaPlanNode;
+import eu.stratosphere.api.java.operators.translation.KeySelectorPlanNode;
 import eu.stratosphere.api.java.operators.translation.PlanDataSource;
 import eu.stratosphere.api.java.operators.translation.UnaryJavaPlanNode;
 import eu.stratosphere.api.java.typeutils.AtomicType;
 import eu.stratosphere.api.java.typeutils.CompositeType;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
+import eu.stratosphere.api.java.typeutils.runtime.KeySelectorComparator;
 import eu.stratosphere.api.java.typeutils.runtime.ReferenceWrappedComparator;
 import eu.stratosphere.api.java.typeutils.runtime.ReferenceWrappedPairComparator.ReferenceWrappedPairComparatorFactory;
 import eu.stratosphere.api.java.typeutils.runtime.ReferenceWrappedSerializer;
@@ -239,7 +242,7 @@ public class JavaApiPostPass implements OptimizerPostPass {
 			
 			// parameterize the node's driver strategy
 			if (sn.getDriverStrategy().requiresComparator()) {
-				sn.setComparator(createComparator(javaNode.getInputType(), sn.getKeys(), 
+				sn.setComparator(createComparator(javaNode.getInputType(), getSelectorKeys(javaNode, 0), sn.getKeys(), 
 					getSortOrders(sn.getKeys(), sn.getSortOrders())));
 			}
 			
@@ -263,9 +266,9 @@ public class JavaApiPostPass implements OptimizerPostPass {
 			
 			// parameterize the node's driver strategy
 			if (dn.getDriverStrategy().requiresComparator()) {
-				dn.setComparator1(createComparator(javaNode.getInputType1(), dn.getKeysForInput1(), 
+				dn.setComparator1(createComparator(javaNode.getInputType1(), getSelectorKeys(javaNode, 0), dn.getKeysForInput1(), 
 					getSortOrders(dn.getKeysForInput1(), dn.getSortOrders())));
-				dn.setComparator2(createComparator(javaNode.getInputType2(), dn.getKeysForInput2(), 
+				dn.setComparator2(createComparator(javaNode.getInputType2(), getSelectorKeys(javaNode, 1), dn.getKeysForInput2(), 
 						getSortOrders(dn.getKeysForInput2(), dn.getSortOrders())));
 
 				dn.setPairComparator(createPairComparator(javaNode.getInputType1(), javaNode.getInputType2()));
@@ -445,16 +448,21 @@ public class JavaApiPostPass implements OptimizerPostPass {
 		
 		// the serializer always exists
 		channel.setSerializer(createSerializer(type));
+		
+		// if the target groups its input by a key selector, the channel's comparators need to evaluate it
+		PlanNode target = channel.getTarget();
+		int targetInput = (target instanceof DualInputPlanNode && ((DualInputPlanNode) target).getInput2() == channel) ? 1 : 0;
+		Keys.SelectorFunctionKeys<?, ?> selectorKeys = getSelectorKeys(target.getPactContract(), targetInput);
 			
 		// parameterize the ship strategy
 		if (channel.getShipStrategy().requiresComparator()) {
-			channel.setShipStrategyComparator(createComparator(type, channel.getShipStrategyKeys(), 
+			channel.setShipStrategyComparator(createComparator(type, selectorKeys, channel.getShipStrategyKeys(), 
 				getSortOrders(channel.getShipStrategyKeys(), channel.getShipStrategySortOrder())));
 		}
 			
 		// parameterize the local strategy
 		if (channel.getLocalStrategy().requiresComparator()) {
-			channel.setLocalStrategyComparator(createComparator(type, channel.getLocalStrategyKeys(),
+			channel.setLocalStrategyComparator(createComparator(type, selectorKeys, channel.getLocalStrategyKeys(),
 				getSortOrders(channel.getLocalStrategyKeys(), channel.getLocalStrategySortOrder())));
 		}
 		
@@ -485,10 +493,14 @@ public class JavaApiPostPass implements OptimizerPostPass {
 	
 	
 	@SuppressWarnings("unchecked")
-	private static <T> TypeComparatorFactory<?> createComparator(TypeInformation<T> typeInfo, FieldList keys, boolean[] sortOrder) {
-		
+	private static <T> TypeComparatorFactory<?> createComparator(TypeInformation<T> typeInfo, Keys.SelectorFunctionKeys<?, ?> selectorKeys,
+			FieldList keys, boolean[] sortOrder)
+	{
 		TypeComparator<T> comparator;
-		if (typeInfo instanceof CompositeType) {
+		if (selectorKeys != null) {
+			comparator = createKeySelectorComparator(typeInfo, (Keys.SelectorFunctionKeys<T, ?>) selectorKeys, sortOrder[0]);
+		}
+		else if (typeInfo instanceof CompositeType) {
 			comparator = ((CompositeType<T>) typeInfo).createComparator(keys.toArray(), sortOrder);
 		}
 		else if (typeInfo instanceof AtomicType) {
@@ -504,6 +516,42 @@ public class JavaApiPostPass implements OptimizerPostPass {
 		return new ReferenceWrappedComparator.ReferenceWrappedComparatorFactory<T>(wrappingComparator);
 	}
 	
+	@SuppressWarnings("unchecked")
+	private static <T, K> TypeComparator<T> createKeySelectorComparator(TypeInformation<T> typeInfo, 
+			Keys.SelectorFunctionKeys<T, ?> rawKeys, boolean ascending)
+	{
+		final Keys.SelectorFunctionKeys<T, K> keys = (Keys.SelectorFunctionKeys<T, K>) rawKeys;
+		final TypeInformation<K> keyType = keys.getKeyType();
+		
+		TypeComparator<K> keyComparator;
+		if (keyType instanceof AtomicType && keyType.isKeyType()) {
+			keyComparator = ((AtomicType<K>) keyType).createComparator(ascending);
+		}
+		else if (keyType instanceof CompositeType) {
+			// composite keys are compared on all of their fields
+			int[] keyFields = new int[keyType.getArity()];
+			boolean[] keyOrders = new boolean[keyFields.length];
+			for (int i = 0; i < keyFields.length; i++) {
+				keyFields[i] = i;
+				keyOrders[i] = ascending;
+			}
+			keyComparator = ((CompositeType<K>) keyType).createComparator(keyFields, keyOrders);
+		}
+		else {
+			throw new RuntimeException("The key selector returns a type that cannot be used as a key: " + keyType);
+		}
+		
+		return new KeySelectorComparator<T, K>(keys.getKeyExtractor(), keyComparator, typeInfo.createSerializer());
+	}
+	
+	private static Keys.SelectorFunctionKeys<?, ?> getSelectorKeys(Object contract, int input) {
+		if (contract instanceof KeySelectorPlanNode) {
+			return ((KeySelectorPlanNode) contract).getSelectorKeys(input);
+		} else {
+			return null;
+		}
+	}
+	
 	private static <T1, T2> TypePairComparatorFactory<?,?> createPairComparator(TypeInformation<T1> typeInfo1, TypeInformation<T2> typeInfo2) {
 		return new ReferenceWrappedPairComparatorFactory<T1,T2>();
 	}
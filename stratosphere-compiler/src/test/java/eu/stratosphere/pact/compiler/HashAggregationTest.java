@@ -0,0 +1,152 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.pact.compiler;
+
+import static org.junit.Assert.fail;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.stratosphere.api.common.Plan;
+import eu.stratosphere.api.common.functions.AbstractFunction;
+import eu.stratosphere.api.common.functions.GenericReduce;
+import eu.stratosphere.api.common.operators.FileDataSink;
+import eu.stratosphere.api.common.operators.FileDataSource;
+import eu.stratosphere.api.common.operators.RecordOperator;
+import eu.stratosphere.api.common.operators.base.ReduceOperatorBase;
+import eu.stratosphere.compiler.CompilerException;
+import eu.stratosphere.compiler.plan.Channel;
+import eu.stratosphere.compiler.plan.OptimizedPlan;
+import eu.stratosphere.compiler.plan.SingleInputPlanNode;
+import eu.stratosphere.compiler.plantranslate.NepheleJobGraphGenerator;
+import eu.stratosphere.pact.compiler.util.DummyInputFormat;
+import eu.stratosphere.pact.compiler.util.DummyOutputFormat;
+import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
+import eu.stratosphere.pact.runtime.task.DriverStrategy;
+import eu.stratosphere.pact.runtime.task.util.LocalStrategy;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.Key;
+import eu.stratosphere.types.Record;
+
+/**
+ * Tests that pairwise reducers are combined in a hash table, and that the reducer aggregates in a hash table
+ * exactly when the compiler hints promise few enough keys per parallel instance.
+ */
+public class HashAggregationTest extends CompilerTestBase {
+
+	@Test
+	public void testHashReduceForFewKeys() {
+		SingleInputPlanNode reducer = compileReduce(1000);
+		
+		Assert.assertEquals(DriverStrategy.HASH_REDUCE, reducer.getDriverStrategy());
+		Channel toReducer = reducer.getInput();
+		Assert.assertEquals(ShipStrategyType.PARTITION_HASH, toReducer.getShipStrategy());
+		Assert.assertEquals(LocalStrategy.NONE, toReducer.getLocalStrategy());
+		
+		assertHashCombiner(toReducer);
+	}
+	
+	@Test
+	public void testSortedReduceForManyKeys() {
+		SingleInputPlanNode reducer = compileReduce(100000000L);
+		
+		Assert.assertEquals(DriverStrategy.SORTED_REDUCE, reducer.getDriverStrategy());
+		Channel toReducer = reducer.getInput();
+		Assert.assertEquals(ShipStrategyType.PARTITION_HASH, toReducer.getShipStrategy());
+		Assert.assertEquals(LocalStrategy.SORT, toReducer.getLocalStrategy());
+		
+		assertHashCombiner(toReducer);
+	}
+	
+	@Test
+	public void testSortedReduceWithoutEstimate() {
+		SingleInputPlanNode reducer = compileReduce(-1);
+		
+		Assert.assertEquals(DriverStrategy.SORTED_REDUCE, reducer.getDriverStrategy());
+		Assert.assertEquals(LocalStrategy.SORT, reducer.getInput().getLocalStrategy());
+		
+		assertHashCombiner(reducer.getInput());
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Compiles a plan with a pairwise reducer down to the job graph and returns the reducer's plan node.
+	 * 
+	 * @param numKeys The output cardinality hint of the reducer, or -1 for none.
+	 */
+	private SingleInputPlanNode compileReduce(long numKeys) {
+		FileDataSource source = new FileDataSource(new DummyInputFormat(), IN_FILE, "Source");
+		
+		PairwiseReduce reduce = new PairwiseReduce();
+		reduce.setInput(source);
+		if (numKeys >= 0) {
+			reduce.getCompilerHints().setOutputCardinality(numKeys);
+		}
+		
+		FileDataSink sink = new FileDataSink(new DummyOutputFormat(), OUT_FILE, reduce, "Sink");
+		
+		Plan plan = new Plan(sink, "Hash Aggregation Test");
+		plan.setDefaultParallelism(DEFAULT_PARALLELISM);
+		
+		try {
+			OptimizedPlan oPlan = compileNoStats(plan);
+			new NepheleJobGraphGenerator().compileJobGraph(oPlan);
+			return getOptimizerPlanNodeResolver(oPlan).getNode("Reduce");
+		} catch(CompilerException ce) {
+			ce.printStackTrace();
+			fail("The pact compiler is unable to compile this plan correctly.");
+			return null; // silence the compiler
+		}
+	}
+	
+	private static void assertHashCombiner(Channel toReducer) {
+		SingleInputPlanNode combiner = (SingleInputPlanNode) toReducer.getSource();
+		Assert.assertEquals(DriverStrategy.HASH_COMBINE, combiner.getDriverStrategy());
+		Assert.assertEquals(ShipStrategyType.FORWARD, combiner.getInput().getShipStrategy());
+		Assert.assertEquals(LocalStrategy.NONE, combiner.getInput().getLocalStrategy());
+	}
+	
+	private static final class PairwiseReduce extends ReduceOperatorBase<GenericReduce<Record>> implements RecordOperator {
+		
+		PairwiseReduce() {
+			super(new SumReduce(), new int[] {0}, "Reduce");
+		}
+		
+		@SuppressWarnings("unchecked")
+		@Override
+		public Class<? extends Key>[] getKeyClasses() {
+			return new Class[] { IntValue.class };
+		}
+	}
+	
+	private static final class SumReduce extends AbstractFunction implements GenericReduce<Record> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final IntValue value1 = new IntValue();
+		
+		private final IntValue value2 = new IntValue();
+		
+		@Override
+		public Record reduce(Record record1, Record record2) {
+			record1.getFieldInto(1, this.value1);
+			record2.getFieldInto(1, this.value2);
+			this.value1.setValue(this.value1.getValue() + this.value2.getValue());
+			record1.setField(1, this.value1);
+			return record1;
+		}
+	}
+}
@@ -55,7 +55,16 @@ public final class LongComparator extends BasicTypeComparator<Long> {
 
 	@Override
 	public void putNormalizedKey(Long lValue, MemorySegment target, int offset, int numBytes) {
-		long value = lValue.longValue() - Long.MIN_VALUE;
+		putNormalizedKey(lValue.longValue(), target, offset, numBytes);
+	}
+	
+	/**
+	 * Writes the normalized key of the given primitive value, for callers that hold the value unboxed.
+	 * 
+	 * @see #putNormalizedKey(Long, MemorySegment, int, int)
+	 */
+	public static void putNormalizedKey(long record, MemorySegment target, int offset, int numBytes) {
+		long value = record - Long.MIN_VALUE;
 		
 		// see IntValue for an explanation of the logic
 		if (numBytes == 8) {
@@ -79,6 +88,6 @@ public final class LongComparator extends BasicTypeComparator<Long> {
 
 	@Override
 	public LongComparator duplicate() {
-		return new LongComparator(ascendingComparison);
+		return new LongComparator(!ascendingComparison);
 	}
 }
@@ -103,6 +103,6 @@ public final class StringComparator extends BasicTypeComparator<String> {
 
 	@Override
 	public StringComparator duplicate() {
-		return new StringComparator(ascendingComparison);
+		return new StringComparator(!ascendingComparison);
 	}
 }
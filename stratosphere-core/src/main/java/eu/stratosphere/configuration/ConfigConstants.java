@@ -81,6 +81,47 @@ public final class ConfigConstants {
 	 * The config parameter defining the fraction of free memory allocated by the memory manager.
 	 */
 	public static final String TASK_MANAGER_MEMORY_FRACTION_KEY = "taskmanager.memory.fraction";
+	
+	/**
+	 * The config parameter defining whether the memory manager allocates its memory outside the heap. Off-heap
+	 * memory must be covered by the JVM's direct memory limit (<i>-XX:MaxDirectMemorySize</i>), and the heap
+	 * should be sized down accordingly. The memory size should then be set explicitly via
+	 * {@link #TASK_MANAGER_MEMORY_SIZE_KEY}, since the default is computed as a fraction of the free heap.
+	 */
+	public static final String TASK_MANAGER_MEMORY_OFF_HEAP_KEY = "taskmanager.memory.off-heap";
+	
+	/**
+	 * The config parameter defining whether the memory manager allocates its memory lazily, when it is first
+	 * requested, rather than when the task manager starts.
+	 */
+	public static final String TASK_MANAGER_MEMORY_LAZY_ALLOCATION_KEY = "taskmanager.memory.lazy-allocation";
+	
+	/**
+	 * The config parameter defining the time (in milliseconds) after which the memory manager gives unused memory
+	 * back, if no memory has been requested in the meantime. Requires lazy allocation. A value of zero or less
+	 * means that memory is never given back.
+	 */
+	public static final String TASK_MANAGER_MEMORY_IDLE_RELEASE_TIMEOUT_KEY = "taskmanager.memory.idle-release-timeout";
+	
+	/**
+	 * The config parameter defining the number of I/O threads per temporary directory, for reading and for
+	 * writing each. With more than one thread, multiple channels on the same directory are served concurrently,
+	 * which keeps several requests in flight on devices such as SSDs.
+	 */
+	public static final String TASK_MANAGER_IO_THREADS_PER_PATH_KEY = "taskmanager.io.threads-per-path";
+	
+	/**
+	 * The config parameter defining the codec with which the I/O manager compresses spilled data, for example
+	 * the sorted runs of external sorts and the partitions of hybrid hash joins. Valid values are <i>none</i>
+	 * and <i>lz4</i>. Compression trades CPU time for disk bandwidth.
+	 */
+	public static final String TASK_MANAGER_IO_COMPRESSION_KEY = "taskmanager.io.compression";
+	
+	/**
+	 * The parameter in the job configuration that overrides the task manager's compression codec for
+	 * spilled data ({@link #TASK_MANAGER_IO_COMPRESSION_KEY}) for a single job.
+	 */
+	public static final String JOB_IO_COMPRESSION_KEY = "job.io.compression";
 
 	/**
 	 * The config parameter defining the number of buffers used in the network stack. This defines the
@@ -92,6 +133,13 @@ public final class ConfigConstants {
 	 * The config parameter defining the size of the buffers used in the network stack.
 	 */
 	public static final String TASK_MANAGER_NETWORK_BUFFER_SIZE_KEY = "taskmanager.network.bufferSizeInBytes";
+
+	/**
+	 * The config parameter defining whether the buffers of repartitioning and broadcasting channels are compressed
+	 * before they are sent over the network. The compiler marks the corresponding edges of the job graph.
+	 * Compression trades CPU time for network bandwidth.
+	 */
+	public static final String TASK_MANAGER_NETWORK_COMPRESSION_KEY = "taskmanager.network.compression";
 	
 	/**
 	 * Parameter for the maximum fan for out-of-core algorithms.
@@ -105,6 +153,39 @@ public final class ConfigConstants {
 	 * sorter will start spilling to disk.
 	 */
 	public static final String DEFAULT_SORT_SPILLING_THRESHOLD_KEY = "taskmanager.runtime.sort-spilling-threshold";
+
+	/**
+	 * The config parameter defining the number of threads with which each external sort sorts its buffers. With
+	 * more than one thread, the buffers are partitioned and their parts sorted in parallel, and several buffers
+	 * may be sorted at the same time. The threads of all sorts in a task manager compete for its cores.
+	 */
+	public static final String TASK_MANAGER_SORT_THREADS_KEY = "taskmanager.runtime.sort-threads";
+	
+	/**
+	 * The config parameter defining the minimal number of read buffers that each sorted run gets when the external
+	 * sort merges its runs. The buffers are filled asynchronously ahead of the merge, and the merge fan-in is
+	 * limited such that every run gets at least this many buffers. Devices with expensive seeks benefit from
+	 * larger values, which result in larger sequential reads at the cost of a lower fan-in.
+	 */
+	public static final String TASK_MANAGER_SORT_MERGE_READ_BUFFERS_KEY = "taskmanager.runtime.sort-merge-read-buffers";
+	
+	/**
+	 * The config parameter defining whether the hash join keeps bloom filters for its spilled partitions, with
+	 * which it drops probe-side records without join partner instead of spilling them.
+	 */
+	public static final String HASHJOIN_BLOOM_FILTERS_KEY = "taskmanager.runtime.hashjoin-bloom-filters";
+	
+	/**
+	 * The config parameter defining whether the hash join re-sizes its bucket table after it has seen the first
+	 * build-side records and knows their actual width.
+	 */
+	public static final String HASHJOIN_ADAPTIVE_TABLE_SIZE_KEY = "taskmanager.runtime.hashjoin-adaptive-table-size";
+	
+	/**
+	 * The config parameter defining whether the hash join detects keys with very many build-side records, and
+	 * joins them separately with a block-nested-loops join instead of partitioning them recursively.
+	 */
+	public static final String HASHJOIN_SKEW_HANDLING_KEY = "taskmanager.runtime.hashjoin-skew-handling";
 	
 	/**
 	 * The config parameter defining the timeout for filesystem stream opening.
@@ -293,6 +374,31 @@ public final class ConfigConstants {
 	 * The default fraction of the free memory allocated by the task manager's memory manager.
 	 */
 	public static final float DEFAULT_MEMORY_MANAGER_MEMORY_FRACTION = 0.7f;
+	
+	/**
+	 * The default setting whether the memory manager allocates its memory outside the heap.
+	 */
+	public static final boolean DEFAULT_MEMORY_MANAGER_OFF_HEAP = false;
+	
+	/**
+	 * The default setting whether the memory manager allocates its memory lazily.
+	 */
+	public static final boolean DEFAULT_MEMORY_MANAGER_LAZY_ALLOCATION = false;
+	
+	/**
+	 * The default idle release timeout of the memory manager. By default, memory is never given back.
+	 */
+	public static final long DEFAULT_MEMORY_MANAGER_IDLE_RELEASE_TIMEOUT = -1;
+	
+	/**
+	 * The default number of I/O threads per temporary directory, for reading and for writing each.
+	 */
+	public static final int DEFAULT_TASK_MANAGER_IO_THREADS_PER_PATH = 1;
+	
+	/**
+	 * The default codec for spilled data. By default, spilled data is not compressed.
+	 */
+	public static final String DEFAULT_TASK_MANAGER_IO_COMPRESSION = "none";
 
 	/**
 	 * Default number of buffers used in the network stack.
@@ -303,6 +409,11 @@ public final class ConfigConstants {
 	 * Default size of network stack buffers.
 	 */
 	public static final int DEFAULT_TASK_MANAGER_NETWORK_BUFFER_SIZE = 32768;
+
+	/**
+	 * By default, buffers are sent over the network uncompressed.
+	 */
+	public static final boolean DEFAULT_TASK_MANAGER_NETWORK_COMPRESSION = false;
 	
 	/**
 	 * The default value for the JobClient's polling interval. 2 Seconds.
@@ -318,6 +429,31 @@ public final class ConfigConstants {
 	 * The default percentage of the sort memory to be full before data is spilled.
 	 */
 	public static final float DEFAULT_SORT_SPILLING_THRESHOLD = 0.8f;
+
+	/**
+	 * By default, each sort sorts its buffers with a single thread.
+	 */
+	public static final int DEFAULT_TASK_MANAGER_SORT_THREADS = 1;
+	
+	/**
+	 * By default, each merged run gets two read buffers, such that one buffer is read while the other one is merged.
+	 */
+	public static final int DEFAULT_TASK_MANAGER_SORT_MERGE_READ_BUFFERS = 2;
+	
+	/**
+	 * By default, the hash join uses bloom filters for its spilled partitions.
+	 */
+	public static final boolean DEFAULT_HASHJOIN_BLOOM_FILTERS = true;
+	
+	/**
+	 * By default, the hash join re-sizes its bucket table after the first build-side records.
+	 */
+	public static final boolean DEFAULT_HASHJOIN_ADAPTIVE_TABLE_SIZE = true;
+	
+	/**
+	 * By default, the hash join joins keys with very many build-side records separately.
+	 */
+	public static final boolean DEFAULT_HASHJOIN_SKEW_HANDLING = true;
 	
 	/**
 	 * The default timeout for filesystem stream opening: infinite (means max long milliseconds).
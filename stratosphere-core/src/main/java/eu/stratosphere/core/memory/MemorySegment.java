@@ -16,6 +16,7 @@ package eu.stratosphere.core.memory;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.Buffer;
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
@@ -23,8 +24,10 @@ import java.nio.ByteOrder;
 
 /**
  * This class represents a piece of memory allocated from the memory manager. The segment is backed
- * by a byte array and features random put and get methods for the basic types that are stored in a byte-wise
- * fashion in the memory.
+ * either by a byte array on the heap, or by off-heap memory held in a direct byte buffer, and features
+ * random put and get methods for the basic types that are stored in a byte-wise fashion in the memory.
+ * All accesses go through the same code paths for both kinds of memory: Heap memory is addressed relative
+ * to the byte array object, off-heap memory through its absolute address.
  * 
  * <p>
  * 
@@ -70,28 +73,76 @@ public class MemorySegment {
 	private static final boolean CHECKED = true;
 	
 	/**
-	 * The array in which the data is stored.
+	 * The array in which the data is stored, or null, if the segment is backed by off-heap memory.
 	 */
 	protected byte[] memory;
 	
+	/**
+	 * The direct byte buffer holding the off-heap memory, or null, if the segment is backed by an array.
+	 */
+	protected ByteBuffer offHeapBuffer;
+	
 	/**
 	 * Wrapper for I/O requests.
 	 */
 	protected ByteBuffer wrapper;
 	
+	/**
+	 * The address of the first byte of the segment. For heap memory, this is the offset relative to the
+	 * array object, for off-heap memory, this is the absolute memory address.
+	 */
+	protected long address;
+	
+	/**
+	 * The address one byte after the last addressable byte. Once the segment is freed, the address
+	 * is set beyond this limit, such that all accesses fail.
+	 */
+	protected long addressLimit;
+	
+	/**
+	 * The size of the segment, in bytes.
+	 */
+	protected int size;
+	
+	/**
+	 * Duplicate of the off-heap buffer for bulk copies, created lazily.
+	 */
+	private ByteBuffer offHeapView;
+	
 	// -------------------------------------------------------------------------
 	//                             Constructors
 	// -------------------------------------------------------------------------
 
 	/**
-	 * Creates a new memory segment of given size with the provided views.
+	 * Creates a new memory segment that represents the given byte array.
 	 * 
-	 * @param size The size of the memory segment.
-	 * @param inputView The input view to use.
-	 * @param outputView The output view to use.
+	 * @param memory The byte array holding the segment's memory.
 	 */
 	public MemorySegment(byte[] memory) {
+		if (memory == null) {
+			throw new NullPointerException("The memory must not be null.");
+		}
 		this.memory = memory;
+		this.size = memory.length;
+		this.address = BASE_OFFSET;
+		this.addressLimit = BASE_OFFSET + memory.length;
+	}
+	
+	/**
+	 * Creates a new memory segment that represents the off-heap memory of the given direct byte buffer.
+	 * The segment covers the buffer's entire capacity, independent of the buffer's position and limit.
+	 * 
+	 * @param buffer The direct byte buffer holding the segment's memory.
+	 * @throws IllegalArgumentException Thrown, if the buffer is not a direct byte buffer.
+	 */
+	public MemorySegment(ByteBuffer buffer) {
+		if (buffer == null || !buffer.isDirect()) {
+			throw new IllegalArgumentException("The memory of an off-heap segment must be a direct byte buffer.");
+		}
+		this.offHeapBuffer = buffer;
+		this.size = buffer.capacity();
+		this.address = getAddress(buffer);
+		this.addressLimit = this.address + this.size;
 	}
 
 	// -------------------------------------------------------------------------
@@ -105,17 +156,38 @@ public class MemorySegment {
 	 * @return True, if the segment has been freed, false otherwise.
 	 */
 	public final boolean isFreed() {
-		return this.memory == null;
+		return this.address > this.addressLimit;
+	}
+	
+	/**
+	 * Checks whether this memory segment is backed by off-heap memory.
+	 * 
+	 * @return True, if the segment's memory is off-heap memory, false if it is a heap byte array.
+	 */
+	public final boolean isOffHeap() {
+		return this.offHeapBuffer != null;
 	}
 	
 	/**
 	 * Gets the size of the memory segment, in bytes. Because segments
-	 * are backed by arrays, they cannot be larger than two GiBytes.
+	 * are addressed with integers, they cannot be larger than two GiBytes.
 	 * 
 	 * @return The size in bytes.
 	 */
 	public final int size() {
-		return this.memory.length;
+		return this.size;
+	}
+	
+	/**
+	 * Frees this memory segment. All further accesses to the segment fail. The memory itself is not
+	 * released, but remains with the creator of the segment, who may hand it out in a new segment.
+	 */
+	protected void free() {
+		this.memory = null;
+		this.offHeapBuffer = null;
+		this.offHeapView = null;
+		this.wrapper = null;
+		this.address = this.addressLimit + 1;
 	}
 
 	/**
@@ -129,17 +201,19 @@ public class MemorySegment {
 	 *                                   or if the offset plus the length is larger than the segment size.
 	 */
 	public ByteBuffer wrap(int offset, int length) {
-		if (offset > this.memory.length || offset > this.memory.length - length) {
+		if (isFreed()) {
+			throw new IllegalStateException("The memory segment has been freed.");
+		}
+		if (offset < 0 || length < 0 || offset > this.size - length) {
 			throw new IndexOutOfBoundsException();
 		}
 		
 		if (this.wrapper == null) {
-			this.wrapper = ByteBuffer.wrap(this.memory, offset, length);
-		}
-		else {
-			this.wrapper.position(offset);
-			this.wrapper.limit(offset + length);
+			this.wrapper = this.memory != null ? ByteBuffer.wrap(this.memory) : this.offHeapBuffer.duplicate();
 		}
+		// set the limit first, such that the position is always within the limit
+		this.wrapper.limit(offset + length);
+		this.wrapper.position(offset);
 		
 		return this.wrapper;
 	}
@@ -168,8 +242,14 @@ public class MemorySegment {
 	 * @throws IndexOutOfBoundsException Thrown, if the index is negative, or larger or equal to the size of
 	 *                                   the memory segment.
 	 */
+	@SuppressWarnings("restriction")
 	public final byte get(int index) {
-		return this.memory[index];
+		final long pos = this.address + index;
+		if (index >= 0 && pos < this.addressLimit) {
+			return UNSAFE.getByte(this.memory, pos);
+		} else {
+			throw accessError();
+		}
 	}
 
 	/**
@@ -182,8 +262,14 @@ public class MemorySegment {
 	 * @throws IndexOutOfBoundsException Thrown, if the index is negative, or larger or equal to the size of
 	 *                                   the memory segment.
 	 */
+	@SuppressWarnings("restriction")
 	public final void put(int index, byte b) {
-		this.memory[index] = b;
+		final long pos = this.address + index;
+		if (index >= 0 && pos < this.addressLimit) {
+			UNSAFE.putByte(this.memory, pos, b);
+		} else {
+			throw accessError();
+		}
 	}
 
 	/**
@@ -236,8 +322,13 @@ public class MemorySegment {
 	 *                                   segment's end.
 	 */
 	public final void get(int index, byte[] dst, int offset, int length) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(this.memory, index, dst, offset, length);
+		if (this.memory != null) {
+			// system arraycopy does the boundary checks anyways, no need to check extra
+			System.arraycopy(this.memory, index, dst, offset, length);
+		} else {
+			// the byte buffer checks the target array bounds
+			offHeapView(index, length).get(dst, offset, length);
+		}
 	}
 
 	/**
@@ -256,8 +347,13 @@ public class MemorySegment {
 	 *                                   segment's end.
 	 */
 	public final void put(int index, byte[] src, int offset, int length) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(src, offset, this.memory, index, length);
+		if (this.memory != null) {
+			// system arraycopy does the boundary checks anyways, no need to check extra
+			System.arraycopy(src, offset, this.memory, index, length);
+		} else {
+			// the byte buffer checks the source array bounds
+			offHeapView(index, length).put(src, offset, length);
+		}
 	}
 
 	/**
@@ -271,7 +367,7 @@ public class MemorySegment {
 	 *                                   size minus 1.
 	 */
 	public final boolean getBoolean(int index) {
-		return this.memory[index] != 0;
+		return get(index) != 0;
 	}
 
 	/**
@@ -286,7 +382,7 @@ public class MemorySegment {
 	 *                                   size minus 1.
 	 */
 	public final void putBoolean(int index, boolean value) {
-		this.memory[index] = (byte) (value ? 1 : 0);
+		put(index, (byte) (value ? 1 : 0));
 	}
 
 	/**
@@ -300,8 +396,8 @@ public class MemorySegment {
 	 *                                   size minus 2.
 	 */
 	public final char getChar(int index) {
-		return (char) ( ((this.memory[index    ] & 0xff) << 8) | 
-		                 (this.memory[index + 1] & 0xff) );
+		return (char) ( ((get(index    ) & 0xff) << 8) | 
+		                 (get(index + 1) & 0xff) );
 	}
 
 	/**
@@ -316,8 +412,8 @@ public class MemorySegment {
 	 *                                   size minus 2.
 	 */
 	public final void putChar(int index, char value) {
-		this.memory[index    ] = (byte) (value >> 8);
-		this.memory[index + 1] = (byte) value;
+		put(index    , (byte) (value >> 8));
+		put(index + 1, (byte) value);
 	}
 
 	/**
@@ -332,8 +428,8 @@ public class MemorySegment {
 	 */
 	public final short getShort(int index) {
 		return (short) (
-				((this.memory[index    ] & 0xff) << 8) |
-				((this.memory[index + 1] & 0xff)) );
+				((get(index    ) & 0xff) << 8) |
+				((get(index + 1) & 0xff)) );
 	}
 
 	/**
@@ -347,8 +443,8 @@ public class MemorySegment {
 	 *                                   size minus 2.
 	 */
 	public final void putShort(int index, short value) {
-		this.memory[index    ] = (byte) (value >> 8);
-		this.memory[index + 1] = (byte) value;
+		put(index    , (byte) (value >> 8));
+		put(index + 1, (byte) value);
 	}
 	
 	/**
@@ -367,14 +463,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final int getInt(int index) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 4) {
-				return UNSAFE.getInt(this.memory, BASE_OFFSET + index);
+			if (index >= 0 && pos <= this.addressLimit - 4) {
+				return UNSAFE.getInt(this.memory, pos);
 			} else {
-				throw new IndexOutOfBoundsException();
+				throw accessError();
 			}
 		} else {
-			return UNSAFE.getInt(this.memory, BASE_OFFSET + index);
+			return UNSAFE.getInt(this.memory, pos);
 		}
 	}
 	
@@ -438,14 +535,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final void putInt(int index, int value) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 4) {
-				UNSAFE.putInt(this.memory, BASE_OFFSET + index, value);
+			if (index >= 0 && pos <= this.addressLimit - 4) {
+				UNSAFE.putInt(this.memory, pos, value);
 			} else {
-				throw new IndexOutOfBoundsException();
+				throw accessError();
 			}
 		} else {
-			UNSAFE.putInt(this.memory, BASE_OFFSET + index, value);
+			UNSAFE.putInt(this.memory, pos, value);
 		}
 	}
 	
@@ -509,14 +607,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final long getLong(int index) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 8) {
-				return UNSAFE.getLong(this.memory, BASE_OFFSET + index);
+			if (index >= 0 && pos <= this.addressLimit - 8) {
+				return UNSAFE.getLong(this.memory, pos);
 			} else {
-				throw new IndexOutOfBoundsException();
+				throw accessError();
 			}
 		} else {
-			return UNSAFE.getLong(this.memory, BASE_OFFSET + index);
+			return UNSAFE.getLong(this.memory, pos);
 		}
 	}
 	
@@ -580,14 +679,15 @@ public class MemorySegment {
 	 */
 	@SuppressWarnings("restriction")
 	public final void putLong(int index, long value) {
+		final long pos = this.address + index;
 		if (CHECKED) {
-			if (index >= 0 && index <= this.memory.length - 8) {
-				UNSAFE.putLong(this.memory, BASE_OFFSET + index, value);
+			if (index >= 0 && pos <= this.addressLimit - 8) {
+				UNSAFE.putLong(this.memory, pos, value);
 			} else {
-				throw new IndexOutOfBoundsException();
+				throw accessError();
 			}
 		} else {
-			UNSAFE.putLong(this.memory, BASE_OFFSET + index, value);
+			UNSAFE.putLong(this.memory, pos, value);
 		}
 	}
 	
@@ -867,7 +967,18 @@ public class MemorySegment {
 	 * @throws IOException Thrown, if the DataOutput encountered a problem upon writing.
 	 */
 	public final void get(DataOutput out, int offset, int length) throws IOException {
-		out.write(this.memory, offset, length);
+		if (this.memory != null) {
+			out.write(this.memory, offset, length);
+		} else {
+			final byte[] chunk = new byte[Math.min(length, BULK_CHUNK_SIZE)];
+			while (length > 0) {
+				final int toCopy = Math.min(length, chunk.length);
+				get(offset, chunk, 0, toCopy);
+				out.write(chunk, 0, toCopy);
+				offset += toCopy;
+				length -= toCopy;
+			}
+		}
 	}
 
 	/**
@@ -882,7 +993,18 @@ public class MemorySegment {
 	 *                     such as an End-Of-File.
 	 */
 	public final void put(DataInput in, int offset, int length) throws IOException {
-		in.readFully(this.memory, offset, length);
+		if (this.memory != null) {
+			in.readFully(this.memory, offset, length);
+		} else {
+			final byte[] chunk = new byte[Math.min(length, BULK_CHUNK_SIZE)];
+			while (length > 0) {
+				final int toCopy = Math.min(length, chunk.length);
+				in.readFully(chunk, 0, toCopy);
+				put(offset, chunk, 0, toCopy);
+				offset += toCopy;
+				length -= toCopy;
+			}
+		}
 	}
 	
 	/**
@@ -901,8 +1023,15 @@ public class MemorySegment {
 	 *           not have enough space for the bytes.
 	 */
 	public final void get(int offset, ByteBuffer target, int numBytes) {
-		// ByteBuffer performs the boundy checks
-		target.put(this.memory, offset, numBytes);
+		if (this.memory != null) {
+			// ByteBuffer performs the boundy checks
+			target.put(this.memory, offset, numBytes);
+		} else {
+			if (target.remaining() < numBytes) {
+				throw new BufferOverflowException();
+			}
+			target.put(offHeapView(offset, numBytes));
+		}
 	}
 	
 	/**
@@ -923,8 +1052,19 @@ public class MemorySegment {
 	 *           not have enough space for the bytes (counting from offset).
 	 */
 	public final void put(int offset, ByteBuffer source, int numBytes) {
-		// ByteBuffer performs the boundy checks
-		source.get(this.memory, offset, numBytes);
+		if (this.memory != null) {
+			// ByteBuffer performs the boundy checks
+			source.get(this.memory, offset, numBytes);
+		} else {
+			if (source.remaining() < numBytes) {
+				throw new BufferUnderflowException();
+			}
+			final ByteBuffer view = offHeapView(offset, numBytes);
+			final int sourceLimit = source.limit();
+			source.limit(source.position() + numBytes);
+			view.put(source);
+			source.limit(sourceLimit);
+		}
 	}
 	
 	/**
@@ -941,9 +1081,29 @@ public class MemorySegment {
 	 *           contain the given number of bytes (starting from offset), or the target segment does
 	 *           not have enough space for the bytes (counting from targetOffset).
 	 */
+	@SuppressWarnings("restriction")
 	public final void copyTo(int offset, MemorySegment target, int targetOffset, int numBytes) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(this.memory, offset, target.memory, targetOffset, numBytes);
+		if (this.memory != null && target.memory != null) {
+			// system arraycopy does the boundary checks anyways, no need to check extra
+			System.arraycopy(this.memory, offset, target.memory, targetOffset, numBytes);
+		} else if (this.memory != null) {
+			target.put(targetOffset, this.memory, offset, numBytes);
+		} else if (target.memory != null) {
+			get(offset, target.memory, targetOffset, numBytes);
+		} else {
+			// both segments are off-heap
+			final long pos = this.address + offset;
+			final long targetPos = target.address + targetOffset;
+			if (numBytes >= 0 && offset >= 0 && targetOffset >= 0 &&
+					pos <= this.addressLimit - numBytes && targetPos <= target.addressLimit - numBytes)
+			{
+				UNSAFE.copyMemory(pos, targetPos, numBytes);
+			} else if (isFreed() || target.isFreed()) {
+				throw new IllegalStateException("The memory segment has been freed.");
+			} else {
+				throw new IndexOutOfBoundsException();
+			}
+		}
 	}
 	
 	// -------------------------------------------------------------------------
@@ -955,27 +1115,83 @@ public class MemorySegment {
 		final byte[] b2 = seg2.memory;
 		
 		int val = 0;
-		for (int pos = 0;
-			pos < len && (val = (b1[offset1 + pos] & 0xff) - (b2[offset2 + pos] & 0xff)) == 0; pos++);
+		if (b1 != null && b2 != null) {
+			for (int pos = 0;
+				pos < len && (val = (b1[offset1 + pos] & 0xff) - (b2[offset2 + pos] & 0xff)) == 0; pos++);
+		} else {
+			for (int pos = 0;
+				pos < len && (val = (seg1.get(offset1 + pos) & 0xff) - (seg2.get(offset2 + pos) & 0xff)) == 0; pos++);
+		}
 		return val;
 	}
 	
 	public static final void swapBytes(MemorySegment seg1, MemorySegment seg2, byte[] tempBuffer, int offset1, int offset2, int len) {
-		// system arraycopy does the boundary checks anyways, no need to check extra
-		System.arraycopy(seg1.memory, offset1, tempBuffer, 0, len);
-		System.arraycopy(seg2.memory, offset2, seg1.memory, offset1, len);
-		System.arraycopy(tempBuffer, 0, seg2.memory, offset2, len);
+		if (seg1.memory != null && seg2.memory != null) {
+			// system arraycopy does the boundary checks anyways, no need to check extra
+			System.arraycopy(seg1.memory, offset1, tempBuffer, 0, len);
+			System.arraycopy(seg2.memory, offset2, seg1.memory, offset1, len);
+			System.arraycopy(tempBuffer, 0, seg2.memory, offset2, len);
+		} else {
+			seg1.get(offset1, tempBuffer, 0, len);
+			seg2.copyTo(offset2, seg1, offset1, len);
+			seg2.put(offset2, tempBuffer, 0, len);
+		}
 	}
 	
 	// --------------------------------------------------------------------------------------------
 	//                     Utilities for native memory accesses and checks
 	// --------------------------------------------------------------------------------------------
 	
+	/**
+	 * Gets a view on the given range of the off-heap memory, for bulk copies.
+	 */
+	private final ByteBuffer offHeapView(int offset, int length) {
+		if (isFreed()) {
+			throw new IllegalStateException("The memory segment has been freed.");
+		}
+		if (offset < 0 || length < 0 || offset > this.size - length) {
+			throw new IndexOutOfBoundsException();
+		}
+		
+		if (this.offHeapView == null) {
+			this.offHeapView = this.offHeapBuffer.duplicate();
+		}
+		this.offHeapView.limit(offset + length);
+		this.offHeapView.position(offset);
+		return this.offHeapView;
+	}
+	
+	private final RuntimeException accessError() {
+		return isFreed() ? new IllegalStateException("The memory segment has been freed.") : new IndexOutOfBoundsException();
+	}
+	
+	@SuppressWarnings("restriction")
+	private static long getAddress(ByteBuffer directBuffer) {
+		return UNSAFE.getLong(directBuffer, ADDRESS_FIELD_OFFSET);
+	}
+	
+	@SuppressWarnings("restriction")
+	private static long getAddressFieldOffset() {
+		try {
+			return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+		} catch (NoSuchFieldException e) {
+			throw new RuntimeException("The address field of direct buffers was not found. Off-heap memory is not supported on this JVM.");
+		}
+	}
+	
+	/**
+	 * The size of the chunks in which bulk transfers between off-heap memory and streams are done.
+	 */
+	private static final int BULK_CHUNK_SIZE = 4096;
+	
 	@SuppressWarnings("restriction")
 	private static final sun.misc.Unsafe UNSAFE = MemoryUtils.UNSAFE;
 	
 	@SuppressWarnings("restriction")
 	private static final long BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
 	
+	@SuppressWarnings("restriction")
+	private static final long ADDRESS_FIELD_OFFSET = getAddressFieldOffset();
+	
 	private static final boolean LITTLE_ENDIAN = (MemoryUtils.NATIVE_BYTE_ORDER == ByteOrder.LITTLE_ENDIAN);
 }
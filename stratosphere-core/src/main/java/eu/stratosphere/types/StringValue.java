@@ -684,6 +684,7 @@ public class StringValue implements Key, NormalizableKey, CharSequence, Resettab
 				target.writeByte(curr);
 			}
 			len |= curr << shift;
+			target.writeByte(curr);
 		}
 
 		for (int i = 0; i < len; i++) {
@@ -694,6 +695,7 @@ public class StringValue implements Key, NormalizableKey, CharSequence, Resettab
 				while ((curr = in.readUnsignedByte()) >= HIGH_BIT) {
 					target.writeByte(curr);
 				}
+				target.writeByte(curr);
 			}
 		}
 	}
@@ -795,6 +797,7 @@ public class StringValue implements Key, NormalizableKey, CharSequence, Resettab
 				out.writeByte(curr);
 			}
 			len |= curr << shift;
+			out.writeByte(curr);
 		}
 
 		for (int i = 0; i < len; i++) {
@@ -805,6 +808,7 @@ public class StringValue implements Key, NormalizableKey, CharSequence, Resettab
 				while ((curr = in.readUnsignedByte()) >= HIGH_BIT) {
 					out.writeByte(curr);
 				}
+				out.writeByte(curr);
 			}
 		}
 	}
@@ -0,0 +1,148 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.common.typeutils.base;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.core.memory.MemorySegment;
+
+public class BasicTypeComparatorTest {
+
+	@Test
+	public void testBoolean() {
+		Boolean[] values = { Boolean.FALSE, Boolean.TRUE, Boolean.FALSE };
+		assertNormalizedKeys(new BooleanComparator(true), values);
+	}
+	
+	@Test
+	public void testByte() {
+		Byte[] values = { (byte) 0, (byte) 10, (byte) -10, Byte.MAX_VALUE, Byte.MIN_VALUE, (byte) -1, (byte) 1 };
+		assertNormalizedKeys(new ByteComparator(true), values);
+	}
+	
+	@Test
+	public void testShort() {
+		Short[] values = { (short) 0, (short) 10, (short) -10, (short) 255, (short) -256, Short.MAX_VALUE, Short.MIN_VALUE };
+		assertNormalizedKeys(new ShortComparator(true), values);
+	}
+	
+	@Test
+	public void testChar() {
+		Character[] values = { 'a', 'Z', '0', (char) 255, (char) 256, Character.MIN_VALUE, Character.MAX_VALUE };
+		assertNormalizedKeys(new CharComparator(true), values);
+	}
+	
+	@Test
+	public void testFloat() {
+		Float[] values = { 0.0f, -0.0f, 1.5f, -1.5f, 1e-30f, -1e-30f, Float.MAX_VALUE, -Float.MAX_VALUE,
+				Float.MIN_VALUE, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NaN };
+		assertNormalizedKeys(new FloatComparator(true), values);
+	}
+	
+	@Test
+	public void testDouble() {
+		Double[] values = { 0.0, -0.0, 1.5, -1.5, 1e-300, -1e-300, Double.MAX_VALUE, -Double.MAX_VALUE,
+				Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN };
+		assertNormalizedKeys(new DoubleComparator(true), values);
+	}
+	
+	@Test
+	public void testDuplicateKeepsOrder() {
+		for (boolean ascending : new boolean[] { true, false }) {
+			assertDuplicateKeepsOrder(new BooleanComparator(ascending), new BooleanComparator(ascending),
+					ascending, Boolean.FALSE, Boolean.TRUE);
+			assertDuplicateKeepsOrder(new ByteComparator(ascending), new ByteComparator(ascending),
+					ascending, (byte) -1, (byte) 1);
+			assertDuplicateKeepsOrder(new ShortComparator(ascending), new ShortComparator(ascending),
+					ascending, (short) -1, (short) 1);
+			assertDuplicateKeepsOrder(new CharComparator(ascending), new CharComparator(ascending),
+					ascending, 'a', 'b');
+			assertDuplicateKeepsOrder(new FloatComparator(ascending), new FloatComparator(ascending),
+					ascending, -1.0f, 1.0f);
+			assertDuplicateKeepsOrder(new IntComparator(ascending), new IntComparator(ascending),
+					ascending, -1, 1);
+			assertDuplicateKeepsOrder(new LongComparator(ascending), new LongComparator(ascending),
+					ascending, -1L, 1L);
+			assertDuplicateKeepsOrder(new DoubleComparator(ascending), new DoubleComparator(ascending),
+					ascending, -1.0, 1.0);
+			assertDuplicateKeepsOrder(new StringComparator(ascending), new StringComparator(ascending),
+					ascending, "a", "b");
+		}
+	}
+	
+	/**
+	 * Checks that the comparator and its duplicate order the smaller value first if ascending and last otherwise,
+	 * and that both invert their normalized keys alike.
+	 * 
+	 * @param comparator The comparator to duplicate.
+	 * @param reference A comparator with the same order, to hold the larger value.
+	 */
+	private <T> void assertDuplicateKeepsOrder(TypeComparator<T> comparator, TypeComparator<T> reference,
+			boolean ascending, T smaller, T larger)
+	{
+		TypeComparator<T> duplicate = comparator.duplicate();
+		Assert.assertEquals(comparator.invertNormalizedKey(), duplicate.invertNormalizedKey());
+		
+		reference.setReference(larger);
+		comparator.setReference(smaller);
+		duplicate.setReference(smaller);
+		
+		int expected = ascending ? -1 : 1;
+		Assert.assertEquals(expected, Integer.signum(comparator.compareToReference(reference)));
+		Assert.assertEquals("Duplicate of " + comparator.getClass().getSimpleName() + " changed the order.",
+				expected, Integer.signum(duplicate.compareToReference(reference)));
+	}
+	
+	private <T extends Comparable<T>> void assertNormalizedKeys(TypeComparator<T> comparator, T[] values) {
+		Assert.assertTrue(comparator.supportsNormalizedKey());
+		
+		for (int len = 1; len <= comparator.getNormalizeKeyLen() + 2; len++) {
+			for (int x = 0; x < values.length; x++) {
+				for (int y = 0; y < values.length; y++) {
+					assertNormalizedKey(comparator, values[x], values[y], len);
+				}
+			}
+		}
+	}
+	
+	private <T extends Comparable<T>> void assertNormalizedKey(TypeComparator<T> comparator, T key1, T key2, int len) {
+		
+		byte[] normalizedKeys = new byte[2*len];
+		MemorySegment wrapper = new MemorySegment(normalizedKeys);
+		
+		comparator.putNormalizedKey(key1, wrapper, 0, len);
+		comparator.putNormalizedKey(key2, wrapper, len, len);
+		
+		for (int i = 0; i < len; i++) {
+			int comp;
+			int normKey1 = normalizedKeys[i] & 0xFF;
+			int normKey2 = normalizedKeys[len + i] & 0xFF;
+			
+			if ((comp = (normKey1 - normKey2)) != 0) {
+				if (Math.signum(key1.compareTo(key2)) != Math.signum(comp)) {
+					Assert.fail("Normalized key comparison differs from actual key comparision for " + key1 + " and " + key2);
+				}
+				return;
+			}
+		}
+		if (key1.compareTo(key2) != 0 && !comparator.isNormalizedKeyPrefixOnly(len)) {
+			Assert.fail("Normalized key was not able to distinguish keys " + key1 + " and " + key2 + 
+					", although it should as the length of it sufficies to uniquely identify them");
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.common.typeutils.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
+
+public class BasicTypeSerializerTest {
+
+	@Test
+	public void testBoolean() throws IOException {
+		Boolean[] values = { Boolean.FALSE, Boolean.TRUE };
+		assertRoundTrip(BooleanSerializer.INSTANCE, values);
+	}
+	
+	@Test
+	public void testByte() throws IOException {
+		Byte[] values = { (byte) 0, (byte) 10, (byte) -10, Byte.MAX_VALUE, Byte.MIN_VALUE };
+		assertRoundTrip(ByteSerializer.INSTANCE, values);
+	}
+	
+	@Test
+	public void testShort() throws IOException {
+		Short[] values = { (short) 0, (short) 255, (short) -256, Short.MAX_VALUE, Short.MIN_VALUE };
+		assertRoundTrip(ShortSerializer.INSTANCE, values);
+	}
+	
+	@Test
+	public void testChar() throws IOException {
+		Character[] values = { 'a', '0', (char) 255, (char) 256, Character.MIN_VALUE, Character.MAX_VALUE };
+		assertRoundTrip(CharSerializer.INSTANCE, values);
+	}
+	
+	@Test
+	public void testFloat() throws IOException {
+		Float[] values = { 0.0f, -0.0f, 1.5f, -1e-30f, Float.MAX_VALUE, Float.MIN_VALUE,
+				Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NaN };
+		assertRoundTrip(FloatSerializer.INSTANCE, values);
+	}
+	
+	/**
+	 * Serializes the values, checks their fixed length, and reads them back directly and after copying them
+	 * in serialized form.
+	 */
+	private <T> void assertRoundTrip(Serializer<T> serializer, T[] values) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputView out = new OutputView(bytes);
+		for (T value : values) {
+			serializer.serialize(value, out);
+		}
+		out.flush();
+		Assert.assertEquals(values.length * serializer.getLength(), bytes.size());
+		
+		InputView in = new InputView(bytes.toByteArray());
+		T reuse = serializer.createInstance();
+		for (T value : values) {
+			reuse = serializer.deserialize(reuse, in);
+			Assert.assertEquals(value, reuse);
+			Assert.assertEquals(value, serializer.copy(value, serializer.createInstance()));
+		}
+		Assert.assertEquals(0, in.available());
+		
+		ByteArrayOutputStream copied = new ByteArrayOutputStream();
+		OutputView copyOut = new OutputView(copied);
+		in = new InputView(bytes.toByteArray());
+		for (int i = 0; i < values.length; i++) {
+			serializer.copy(in, copyOut);
+		}
+		copyOut.flush();
+		Assert.assertEquals(0, in.available());
+		
+		InputView copyIn = new InputView(copied.toByteArray());
+		for (T value : values) {
+			Assert.assertEquals(value, serializer.deserialize(serializer.createInstance(), copyIn));
+		}
+		Assert.assertEquals(0, copyIn.available());
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static final class OutputView extends DataOutputStream implements DataOutputView {
+
+		public OutputView(ByteArrayOutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void skipBytesToWrite(int numBytes) throws IOException {
+			for (int i = 0; i < numBytes; i++) {
+				write(0);
+			}
+		}
+
+		@Override
+		public void write(DataInputView source, int numBytes) throws IOException {
+			for (int i = 0; i < numBytes; i++) {
+				write(source.readByte());
+			}
+		}
+	}
+	
+	private static final class InputView extends DataInputStream implements DataInputView {
+
+		public InputView(byte[] data) {
+			super(new ByteArrayInputStream(data));
+		}
+
+		@Override
+		public void skipBytesToRead(int numBytes) throws IOException {
+			skipBytes(numBytes);
+		}
+	}
+}
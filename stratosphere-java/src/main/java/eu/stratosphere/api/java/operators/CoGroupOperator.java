@@ -19,12 +19,7 @@ import eu.stratosphere.api.java.DataSet;
 import eu.stratosphere.api.java.functions.CoGroupFunction;
 import eu.stratosphere.api.java.functions.KeySelector;
 import eu.stratosphere.api.java.operators.translation.BinaryNodeTranslation;
-import eu.stratosphere.api.java.operators.translation.KeyExtractingMapper;
 import eu.stratosphere.api.java.operators.translation.PlanCogroupOperator;
-import eu.stratosphere.api.java.operators.translation.PlanMapOperator;
-import eu.stratosphere.api.java.operators.translation.PlanUnwrappingCoGroupOperator;
-import eu.stratosphere.api.java.tuple.Tuple2;
-import eu.stratosphere.api.java.typeutils.TupleTypeInfo;
 import eu.stratosphere.api.java.typeutils.TypeExtractor;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
 
@@ -79,8 +74,8 @@ public class CoGroupOperator<I1, I2, OUT> extends TwoInputUdfOperator<I1, I2, OU
 					getInput1Type(), getInput2Type(), getResultType(), name);
 			
 		}
-		else if (keys1 instanceof Keys.FieldPositionKeys 
-				&& keys2 instanceof Keys.FieldPositionKeys 
+		else if (((keys1 instanceof Keys.FieldPositionKeys && keys2 instanceof Keys.FieldPositionKeys) ||
+					(keys1 instanceof Keys.ExpressionKeys && keys2 instanceof Keys.ExpressionKeys))
 				&& keys1.areCompatibale(keys2)
 			) {
 		
@@ -96,30 +91,14 @@ public class CoGroupOperator<I1, I2, OUT> extends TwoInputUdfOperator<I1, I2, OU
 		}
 	}
 	
-	private static <I1, I2, K, OUT> BinaryNodeTranslation translateSelectorFunctionCoGroup(
+	private static <I1, I2, OUT> BinaryNodeTranslation translateSelectorFunctionCoGroup(
 			Keys.SelectorFunctionKeys<I1, ?> rawKeys1, Keys.SelectorFunctionKeys<I2, ?> rawKeys2, 
 			CoGroupFunction<I1, I2, OUT> function, 
 			TypeInformation<I1> inputType1, TypeInformation<I2> inputType2, TypeInformation<OUT> outputType, String name)
 	{
-		@SuppressWarnings("unchecked")
-		final Keys.SelectorFunctionKeys<I1, K> keys1 = (Keys.SelectorFunctionKeys<I1, K>) rawKeys1;
-		@SuppressWarnings("unchecked")
-		final Keys.SelectorFunctionKeys<I2, K> keys2 = (Keys.SelectorFunctionKeys<I2, K>) rawKeys2;
-		
-		final TypeInformation<Tuple2<K, I1>> typeInfoWithKey1 = new TupleTypeInfo<Tuple2<K, I1>>(keys1.getKeyType(), inputType1);
-		final TypeInformation<Tuple2<K, I2>> typeInfoWithKey2 = new TupleTypeInfo<Tuple2<K, I2>>(keys2.getKeyType(), inputType2);
-		
-		final KeyExtractingMapper<I1, K> extractor1 = new KeyExtractingMapper<I1, K>(keys1.getKeyExtractor());
-		final KeyExtractingMapper<I2, K> extractor2 = new KeyExtractingMapper<I2, K>(keys2.getKeyExtractor());
-		
-		final PlanMapOperator<I1, Tuple2<K, I1>> keyMapper1 = new PlanMapOperator<I1, Tuple2<K, I1>>(extractor1, "Key Extractor 1", inputType1, typeInfoWithKey1);
-		final PlanMapOperator<I2, Tuple2<K, I2>> keyMapper2 = new PlanMapOperator<I2, Tuple2<K, I2>>(extractor2, "Key Extractor 2", inputType2, typeInfoWithKey2);
-		final PlanUnwrappingCoGroupOperator<I1, I2, OUT, K> join = new PlanUnwrappingCoGroupOperator<I1, I2, OUT, K>(function, keys1, keys2, name, outputType, typeInfoWithKey1, typeInfoWithKey2);
-		
-		join.addFirstInput(keyMapper1);
-		join.addSecondInput(keyMapper2);
-		
-		return new BinaryNodeTranslation(keyMapper1, keyMapper2, join);
+		// the inputs are grouped by the key selectors directly, no mappers are needed to attach the keys to the records
+		return new BinaryNodeTranslation(
+				new PlanCogroupOperator<I1, I2, OUT>(function, rawKeys1, rawKeys2, name, inputType1, inputType2, outputType));
 	}
 
 	// --------------------------------------------------------------------------------------------
@@ -18,6 +18,7 @@ import java.util.Arrays;
 
 import eu.stratosphere.api.common.InvalidProgramException;
 import eu.stratosphere.api.java.functions.KeySelector;
+import eu.stratosphere.api.java.typeutils.PojoTypeInfo;
 import eu.stratosphere.api.java.typeutils.TupleTypeInfo;
 import eu.stratosphere.api.java.typeutils.TypeExtractor;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
@@ -150,23 +151,65 @@ public abstract class Keys<T> {
 	// --------------------------------------------------------------------------------------------
 	
 	public static class ExpressionKeys<T> extends Keys<T> {
+		
+		private final int[] logicalPositions;
+		private final TypeInformation<?>[] types;
 
 		public ExpressionKeys(String expression, TypeInformation<T> type) {
+			if (!(type instanceof PojoTypeInfo)) {
+				throw new InvalidProgramException("Specifying keys via field expressions is only valid for POJO data types");
+			}
+			if (expression == null || expression.trim().isEmpty()) {
+				throw new IllegalArgumentException("The key expression must not be empty.");
+			}
+			
+			PojoTypeInfo<T> pojoType = (PojoTypeInfo<T>) type;
+			
+			// the expression is a comma separated list of field names
+			String[] fieldNames = expression.split(",");
+			this.logicalPositions = new int[fieldNames.length];
+			this.types = new TypeInformation[fieldNames.length];
+			
+			for (int i = 0; i < fieldNames.length; i++) {
+				String fieldName = fieldNames[i].trim();
+				int pos = pojoType.getFieldIndex(fieldName);
+				if (pos < 0) {
+					throw new InvalidProgramException("The type " + type + " has no field '" + fieldName + "'.");
+				}
+				this.logicalPositions[i] = pos;
+				this.types[i] = pojoType.getTypeAt(pos);
+			}
 		}
 
 		@Override
 		public int getNumberOfKeyFields() {
-			throw new UnsupportedOperationException("Expression keys not yet implemented");
+			return this.logicalPositions.length;
 		}
 
 		@Override
 		public boolean areCompatibale(Keys<?> other) {
-			throw new UnsupportedOperationException("Expression keys not yet implemented");
+			
+			if (other instanceof ExpressionKeys) {
+				ExpressionKeys<?> oKey = (ExpressionKeys<?>) other;
+				
+				if(oKey.types.length != this.types.length) {
+					return false;
+				}
+				for(int i=0; i<this.types.length; i++) {
+					if(!this.types[i].equals(oKey.types[i])) {
+						return false;
+					}
+				}
+				return true;
+				
+			} else {
+				return false;
+			}
 		}
 
 		@Override
 		public int[] computeLogicalKeyPositions() {
-			throw new UnsupportedOperationException("Expression keys not yet implemented");
+			return this.logicalPositions;
 		}
 	}
 	
@@ -16,13 +16,8 @@ package eu.stratosphere.api.java.operators;
 
 import eu.stratosphere.api.java.DataSet;
 import eu.stratosphere.api.java.functions.GroupReduceFunction;
-import eu.stratosphere.api.java.operators.translation.KeyExtractingMapper;
 import eu.stratosphere.api.java.operators.translation.PlanGroupReduceOperator;
-import eu.stratosphere.api.java.operators.translation.PlanMapOperator;
-import eu.stratosphere.api.java.operators.translation.PlanUnwrappingReduceGroupOperator;
 import eu.stratosphere.api.java.operators.translation.UnaryNodeTranslation;
-import eu.stratosphere.api.java.tuple.Tuple2;
-import eu.stratosphere.api.java.typeutils.TupleTypeInfo;
 import eu.stratosphere.api.java.typeutils.TypeExtractor;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
 
@@ -91,7 +86,7 @@ public class ReduceGroupOperator<IN, OUT> extends SingleInputUdfOperator<IN, OUT
 			
 			return translateSelectorFunctionReducer(selectorKeys, function, getInputType(),getResultType(), name);
 		}
-		else if (grouper.getKeys() instanceof Keys.FieldPositionKeys) {
+		else if (grouper.getKeys() instanceof Keys.FieldPositionKeys || grouper.getKeys() instanceof Keys.ExpressionKeys) {
 			int[] logicalKeyPositions = grouper.getKeys().computeLogicalKeyPositions();
 
 			return new UnaryNodeTranslation(new PlanGroupReduceOperator<IN, OUT>(function, logicalKeyPositions, name, getInputType(), getResultType()));
@@ -104,22 +99,10 @@ public class ReduceGroupOperator<IN, OUT> extends SingleInputUdfOperator<IN, OUT
 	
 	// --------------------------------------------------------------------------------------------
 	
-	private static <IN, OUT, K> UnaryNodeTranslation translateSelectorFunctionReducer(Keys.SelectorFunctionKeys<IN, ?> rawKeys,
+	private static <IN, OUT> UnaryNodeTranslation translateSelectorFunctionReducer(Keys.SelectorFunctionKeys<IN, ?> rawKeys,
 			GroupReduceFunction<IN, OUT> function, TypeInformation<IN> inputType, TypeInformation<OUT> outputType, String name)
 	{
-		@SuppressWarnings("unchecked")
-		final Keys.SelectorFunctionKeys<IN, K> keys = (Keys.SelectorFunctionKeys<IN, K>) rawKeys;
-		
-		TypeInformation<Tuple2<K, IN>> typeInfoWithKey = new TupleTypeInfo<Tuple2<K, IN>>(keys.getKeyType(), inputType);
-		
-		KeyExtractingMapper<IN, K> extractor = new KeyExtractingMapper<IN, K>(keys.getKeyExtractor());
-		
-		PlanUnwrappingReduceGroupOperator<IN, OUT, K> reducer = new PlanUnwrappingReduceGroupOperator<IN, OUT, K>(function, keys, name, inputType, outputType, typeInfoWithKey);
-		
-		PlanMapOperator<IN, Tuple2<K, IN>> mapper = new PlanMapOperator<IN, Tuple2<K, IN>>(extractor, "Key Extractor", inputType, typeInfoWithKey);
-
-		reducer.setInput(mapper);
-		
-		return new UnaryNodeTranslation(mapper, reducer);
+		// the reducer groups by the key selector directly, no mapper is needed to attach the key to the records
+		return new UnaryNodeTranslation(new PlanGroupReduceOperator<IN, OUT>(function, rawKeys, name, inputType, outputType));
 	}
 }
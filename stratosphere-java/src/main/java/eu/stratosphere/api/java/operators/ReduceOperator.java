@@ -16,13 +16,8 @@ package eu.stratosphere.api.java.operators;
 
 import eu.stratosphere.api.java.DataSet;
 import eu.stratosphere.api.java.functions.ReduceFunction;
-import eu.stratosphere.api.java.operators.translation.KeyExtractingMapper;
-import eu.stratosphere.api.java.operators.translation.PlanMapOperator;
 import eu.stratosphere.api.java.operators.translation.PlanReduceOperator;
-import eu.stratosphere.api.java.operators.translation.PlanUnwrappingReduceOperator;
 import eu.stratosphere.api.java.operators.translation.UnaryNodeTranslation;
-import eu.stratosphere.api.java.tuple.Tuple2;
-import eu.stratosphere.api.java.typeutils.TupleTypeInfo;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
 
 /**
@@ -83,7 +78,7 @@ public class ReduceOperator<IN> extends SingleInputUdfOperator<IN, IN, ReduceOpe
 			
 			return translateSelectorFunctionReducer(selectorKeys, function, getInputType(), name);
 		}
-		else if (grouper.getKeys() instanceof Keys.FieldPositionKeys) {
+		else if (grouper.getKeys() instanceof Keys.FieldPositionKeys || grouper.getKeys() instanceof Keys.ExpressionKeys) {
 			int[] logicalKeyPositions = grouper.getKeys().computeLogicalKeyPositions();
 
 			return new UnaryNodeTranslation(new PlanReduceOperator<IN>(function, logicalKeyPositions, name, getInputType()));
@@ -95,22 +90,10 @@ public class ReduceOperator<IN> extends SingleInputUdfOperator<IN, IN, ReduceOpe
 	
 	// --------------------------------------------------------------------------------------------
 	
-	private static <T, K> UnaryNodeTranslation translateSelectorFunctionReducer(Keys.SelectorFunctionKeys<T, ?> rawKeys,
+	private static <T> UnaryNodeTranslation translateSelectorFunctionReducer(Keys.SelectorFunctionKeys<T, ?> rawKeys,
 			ReduceFunction<T> function, TypeInformation<T> inputType, String name)
 	{
-		@SuppressWarnings("unchecked")
-		final Keys.SelectorFunctionKeys<T, K> keys = (Keys.SelectorFunctionKeys<T, K>) rawKeys;
-		
-		TypeInformation<Tuple2<K, T>> typeInfoWithKey = new TupleTypeInfo<Tuple2<K, T>>(keys.getKeyType(), inputType);
-		
-		KeyExtractingMapper<T, K> extractor = new KeyExtractingMapper<T, K>(keys.getKeyExtractor());
-		
-		PlanUnwrappingReduceOperator<T, K> reducer = new PlanUnwrappingReduceOperator<T, K>(function, keys, name, inputType, typeInfoWithKey);
-		
-		PlanMapOperator<T, Tuple2<K, T>> mapper = new PlanMapOperator<T, Tuple2<K, T>>(extractor, "Key Extractor", inputType, typeInfoWithKey);
-
-		reducer.setInput(mapper);
-		
-		return new UnaryNodeTranslation(mapper, reducer);
+		// the reducer groups by the key selector directly, no mapper is needed to attach the key to the records
+		return new UnaryNodeTranslation(new PlanReduceOperator<T>(function, rawKeys, name, inputType));
 	}
 }
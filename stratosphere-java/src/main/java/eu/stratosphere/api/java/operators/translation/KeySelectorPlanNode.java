@@ -14,39 +14,21 @@
  **********************************************************************************************************************/
 package eu.stratosphere.api.java.operators.translation;
 
-import java.util.Iterator;
-
-import eu.stratosphere.api.java.tuple.Tuple2;
-import eu.stratosphere.util.Reference;
+import eu.stratosphere.api.java.operators.Keys;
 
 
 /**
- *
+ * Plan nodes that group or match their inputs by key selector functions rather than by field positions.
+ * The logical key of such an input is the single position 0, and the comparators for it evaluate
+ * the key selector directly on the input records.
  */
-public class TupleUnwrappingIterator<T, K> implements Iterator<T>, java.io.Serializable {
-
-	private static final long serialVersionUID = 1L;
-
-	
-	private Iterator<Reference<Tuple2<K, T>>> iterator;
-
-	
-	public void set(Iterator<Reference<Tuple2<K, T>>> iterator) {
-		this.iterator = iterator;
-	}
-
-	@Override
-	public boolean hasNext() {
-		return iterator.hasNext();
-	}
-
-	@Override
-	public T next() {
-		return iterator.next().ref.T2();
-	}
-
-	@Override
-	public void remove() {
-		throw new UnsupportedOperationException();
-	}
+public interface KeySelectorPlanNode {
+
+	/**
+	 * Gets the key selector keys for the given input.
+	 * 
+	 * @param input The number of the input, starting at 0.
+	 * @return The key selector keys, or null, if the input is keyed by field positions.
+	 */
+	Keys.SelectorFunctionKeys<?, ?> getSelectorKeys(int input);
 }
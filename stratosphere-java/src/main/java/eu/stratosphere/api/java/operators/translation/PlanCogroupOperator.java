@@ -19,26 +19,48 @@ import java.util.Iterator;
 import eu.stratosphere.api.common.functions.GenericCoGrouper;
 import eu.stratosphere.api.common.operators.base.CoGroupOperatorBase;
 import eu.stratosphere.api.java.functions.CoGroupFunction;
+import eu.stratosphere.api.java.operators.Keys;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
+import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.util.Collector;
 import eu.stratosphere.util.Reference;
 
 public class PlanCogroupOperator<IN1, IN2, OUT> 
 	extends CoGroupOperatorBase<GenericCoGrouper<Reference<IN1>, Reference<IN2>, Reference<OUT>>>
-	implements BinaryJavaPlanNode<IN1, IN2, OUT> {
+	implements BinaryJavaPlanNode<IN1, IN2, OUT>, KeySelectorPlanNode {
 	
 	private final TypeInformation<IN1> inType1;
 	private final TypeInformation<IN2> inType2;
 	private final TypeInformation<OUT> outType;
+	
+	private final Keys.SelectorFunctionKeys<IN1, ?> selectorKeys1;
+	private final Keys.SelectorFunctionKeys<IN2, ?> selectorKeys2;
 
 	public PlanCogroupOperator(
 			CoGroupFunction<IN1, IN2, OUT> udf,
 			int[] keyPositions1, int[] keyPositions2, String name, TypeInformation<IN1> inType1, TypeInformation<IN2> inType2, TypeInformation<OUT> outType) {
+		this(udf, keyPositions1, keyPositions2, null, null, name, inType1, inType2, outType);
+	}
+	
+	public PlanCogroupOperator(
+			CoGroupFunction<IN1, IN2, OUT> udf,
+			Keys.SelectorFunctionKeys<IN1, ?> selectorKeys1, Keys.SelectorFunctionKeys<IN2, ?> selectorKeys2,
+			String name, TypeInformation<IN1> inType1, TypeInformation<IN2> inType2, TypeInformation<OUT> outType) {
+		this(udf, new int[] {0}, new int[] {0}, selectorKeys1, selectorKeys2, name, inType1, inType2, outType);
+	}
+	
+	private PlanCogroupOperator(
+			CoGroupFunction<IN1, IN2, OUT> udf,
+			int[] keyPositions1, int[] keyPositions2,
+			Keys.SelectorFunctionKeys<IN1, ?> selectorKeys1, Keys.SelectorFunctionKeys<IN2, ?> selectorKeys2,
+			String name, TypeInformation<IN1> inType1, TypeInformation<IN2> inType2, TypeInformation<OUT> outType) {
 		super(new ReferenceWrappingCogrouper<IN1, IN2, OUT>(udf), keyPositions1, keyPositions2, name);
 		
 		this.inType1 = inType1;
 		this.inType2 = inType2;
 		this.outType = outType;
+		this.selectorKeys1 = selectorKeys1;
+		this.selectorKeys2 = selectorKeys2;
 	}
 	
 	public static final class ReferenceWrappingCogrouper<IN1, IN2, OUT> 
@@ -48,18 +70,42 @@ public class PlanCogroupOperator<IN1, IN2, OUT>
 		
 		private static final long serialVersionUID = 1L;
 		
+		private ReferenceUnWrappingIterator<IN1> iter1;
+		
+		private ReferenceUnWrappingIterator<IN2> iter2;
+		
+		private ReferenceWrappingCollector<OUT> coll;
+		
+		private ReferenceWrappingCollector<IN1> combColl1;
+		
+		private ReferenceWrappingCollector<IN2> combColl2;
+		
 		protected ReferenceWrappingCogrouper(
 				CoGroupFunction<IN1, IN2, OUT> wrappedFunction) {
 			super(wrappedFunction);
 		}
 		
+		@Override
+		public void open(Configuration parameters) throws Exception {
+			super.open(parameters);
+			
+			iter1 = new ReferenceUnWrappingIterator<IN1>();
+			iter2 = new ReferenceUnWrappingIterator<IN2>();
+			coll = new ReferenceWrappingCollector<OUT>();
+			combColl1 = new ReferenceWrappingCollector<IN1>();
+			combColl2 = new ReferenceWrappingCollector<IN2>();
+		}
+		
 		@Override
 		public void coGroup(final Iterator<Reference<IN1>> records1,
 				final Iterator<Reference<IN2>> records2, final Collector<Reference<OUT>> out)
 				throws Exception {
 			
-			this.wrappedFunction.coGroup(new UnwrappingIterator<IN1>(records1), new UnwrappingIterator<IN2>(records2), new UnwrappingCollector<OUT>(out));
+			iter1.set(records1);
+			iter2.set(records2);
+			coll.set(out);
 			
+			this.wrappedFunction.coGroup(iter1, iter2, coll);
 		}
 
 
@@ -67,7 +113,10 @@ public class PlanCogroupOperator<IN1, IN2, OUT>
 		public void combineFirst(Iterator<Reference<IN1>> records,
 				Collector<Reference<IN1>> out) throws Exception {
 			
-			this.wrappedFunction.combineFirst(new UnwrappingIterator<IN1>(records), new UnwrappingCollector<IN1>(out));
+			iter1.set(records);
+			combColl1.set(out);
+			
+			this.wrappedFunction.combineFirst(iter1, combColl1);
 		}
 
 
@@ -75,7 +124,10 @@ public class PlanCogroupOperator<IN1, IN2, OUT>
 		public void combineSecond(Iterator<Reference<IN2>> records,
 				Collector<Reference<IN2>> out) throws Exception {
 
-			this.wrappedFunction.combineSecond(new UnwrappingIterator<IN2>(records), new UnwrappingCollector<IN2>(out));
+			iter2.set(records);
+			combColl2.set(out);
+			
+			this.wrappedFunction.combineSecond(iter2, combColl2);
 		}
 	}
 
@@ -96,9 +148,16 @@ public class PlanCogroupOperator<IN1, IN2, OUT>
 		return this.inType2;
 	}
 	
+	@Override
+	public Keys.SelectorFunctionKeys<?, ?> getSelectorKeys(int input) {
+		return input == 0 ? this.selectorKeys1 : this.selectorKeys2;
+	}
+	
 	public static class UnwrappingCollector<T> implements Collector<T> {
 		
 		Collector<Reference<T>> outerCollector;
+		
+		private final Reference<T> ref = new Reference<T>();
 
 		public UnwrappingCollector(Collector<Reference<T>> outerCollector) {
 			this.outerCollector = outerCollector;
@@ -106,7 +165,8 @@ public class PlanCogroupOperator<IN1, IN2, OUT>
 		
 		@Override
 		public void collect(T record) {
-			this.outerCollector.collect(new Reference<T>(record));
+			this.ref.ref = record;
+			this.outerCollector.collect(this.ref);
 		}
 
 		@Override
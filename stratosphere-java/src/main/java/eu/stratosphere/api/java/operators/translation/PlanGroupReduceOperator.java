@@ -19,6 +19,7 @@ import java.util.Iterator;
 import eu.stratosphere.api.common.functions.GenericGroupReduce;
 import eu.stratosphere.api.common.operators.base.GroupReduceOperatorBase;
 import eu.stratosphere.api.java.functions.GroupReduceFunction;
+import eu.stratosphere.api.java.operators.Keys;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.util.Collector;
@@ -28,21 +29,36 @@ import eu.stratosphere.util.Reference;
  *
  */
 public class PlanGroupReduceOperator<IN, OUT> extends GroupReduceOperatorBase<GenericGroupReduce<Reference<IN>,Reference<OUT>>>
-	implements UnaryJavaPlanNode<IN, OUT>
+	implements UnaryJavaPlanNode<IN, OUT>, KeySelectorPlanNode
 {
 
 	private final TypeInformation<IN> inType;
 	
 	private final TypeInformation<OUT> outType;
 	
+	private final Keys.SelectorFunctionKeys<IN, ?> selectorKeys;
+	
 	
 	public PlanGroupReduceOperator(GroupReduceFunction<IN, OUT> udf, int[] logicalGroupingFields, String name, 
 				TypeInformation<IN> inputType, TypeInformation<OUT> outputType)
+	{
+		this(udf, logicalGroupingFields, null, name, inputType, outputType);
+	}
+	
+	public PlanGroupReduceOperator(GroupReduceFunction<IN, OUT> udf, Keys.SelectorFunctionKeys<IN, ?> selectorKeys, String name, 
+				TypeInformation<IN> inputType, TypeInformation<OUT> outputType)
+	{
+		this(udf, new int[] {0}, selectorKeys, name, inputType, outputType);
+	}
+	
+	private PlanGroupReduceOperator(GroupReduceFunction<IN, OUT> udf, int[] logicalGroupingFields, Keys.SelectorFunctionKeys<IN, ?> selectorKeys,
+				String name, TypeInformation<IN> inputType, TypeInformation<OUT> outputType)
 	{
 		super(new ReferenceWrappingGroupReducer<IN, OUT>(udf), logicalGroupingFields, name);
 		
 		this.inType = inputType;
 		this.outType = outputType;
+		this.selectorKeys = selectorKeys;
 	}
 	
 	
@@ -56,6 +72,11 @@ public class PlanGroupReduceOperator<IN, OUT> extends GroupReduceOperatorBase<Ge
 		return this.inType;
 	}
 	
+	@Override
+	public Keys.SelectorFunctionKeys<?, ?> getSelectorKeys(int input) {
+		return this.selectorKeys;
+	}
+	
 	
 	// --------------------------------------------------------------------------------------------
 	
@@ -17,26 +17,47 @@ package eu.stratosphere.api.java.operators.translation;
 import eu.stratosphere.api.common.functions.GenericJoiner;
 import eu.stratosphere.api.common.operators.base.JoinOperatorBase;
 import eu.stratosphere.api.java.functions.JoinFunction;
+import eu.stratosphere.api.java.operators.Keys;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
 import eu.stratosphere.util.Collector;
 import eu.stratosphere.util.Reference;
 
 public class PlanJoinOperator<IN1, IN2, OUT> 
 	extends JoinOperatorBase<GenericJoiner<Reference<IN1>, Reference<IN2>, Reference<OUT>>>
-	implements BinaryJavaPlanNode<IN1, IN2, OUT> {
+	implements BinaryJavaPlanNode<IN1, IN2, OUT>, KeySelectorPlanNode {
 	
 	private final TypeInformation<IN1> inType1;
 	private final TypeInformation<IN2> inType2;
 	private final TypeInformation<OUT> outType;
+	
+	private final Keys.SelectorFunctionKeys<IN1, ?> selectorKeys1;
+	private final Keys.SelectorFunctionKeys<IN2, ?> selectorKeys2;
 
 	public PlanJoinOperator(
 			JoinFunction<IN1, IN2, OUT> udf,
 			int[] keyPositions1, int[] keyPositions2, String name, TypeInformation<IN1> inType1, TypeInformation<IN2> inType2, TypeInformation<OUT> outType) {
+		this(udf, keyPositions1, keyPositions2, null, null, name, inType1, inType2, outType);
+	}
+	
+	public PlanJoinOperator(
+			JoinFunction<IN1, IN2, OUT> udf,
+			Keys.SelectorFunctionKeys<IN1, ?> selectorKeys1, Keys.SelectorFunctionKeys<IN2, ?> selectorKeys2,
+			String name, TypeInformation<IN1> inType1, TypeInformation<IN2> inType2, TypeInformation<OUT> outType) {
+		this(udf, new int[] {0}, new int[] {0}, selectorKeys1, selectorKeys2, name, inType1, inType2, outType);
+	}
+	
+	private PlanJoinOperator(
+			JoinFunction<IN1, IN2, OUT> udf,
+			int[] keyPositions1, int[] keyPositions2,
+			Keys.SelectorFunctionKeys<IN1, ?> selectorKeys1, Keys.SelectorFunctionKeys<IN2, ?> selectorKeys2,
+			String name, TypeInformation<IN1> inType1, TypeInformation<IN2> inType2, TypeInformation<OUT> outType) {
 		super(new ReferenceWrappingJoiner<IN1, IN2, OUT>(udf), keyPositions1, keyPositions2, name);
 		
 		this.inType1 = inType1;
 		this.inType2 = inType2;
 		this.outType = outType;
+		this.selectorKeys1 = selectorKeys1;
+		this.selectorKeys2 = selectorKeys2;
 	}
 	
 	@Override
@@ -54,6 +75,11 @@ public class PlanJoinOperator<IN1, IN2, OUT>
 		return this.inType2;
 	}
 	
+	@Override
+	public Keys.SelectorFunctionKeys<?, ?> getSelectorKeys(int input) {
+		return input == 0 ? this.selectorKeys1 : this.selectorKeys2;
+	}
+	
 	public static final class ReferenceWrappingJoiner<IN1, IN2, OUT> 
 		extends WrappingFunction<JoinFunction<IN1, IN2, OUT>>
 		implements GenericJoiner<Reference<IN1>, Reference<IN2>, Reference<OUT>>
@@ -19,6 +19,7 @@ import java.util.Iterator;
 import eu.stratosphere.api.common.functions.GenericGroupReduce;
 import eu.stratosphere.api.common.operators.base.GroupReduceOperatorBase;
 import eu.stratosphere.api.java.functions.ReduceFunction;
+import eu.stratosphere.api.java.operators.Keys;
 import eu.stratosphere.api.java.typeutils.TypeInformation;
 import eu.stratosphere.util.Collector;
 import eu.stratosphere.util.Reference;
@@ -27,15 +28,28 @@ import eu.stratosphere.util.Reference;
  *
  */
 public class PlanReduceOperator<T> extends GroupReduceOperatorBase<GenericGroupReduce<Reference<T>,Reference<T>>>
-	implements UnaryJavaPlanNode<T, T>
+	implements UnaryJavaPlanNode<T, T>, KeySelectorPlanNode
 {
 
 	private final TypeInformation<T> type;
 	
+	private final Keys.SelectorFunctionKeys<T, ?> selectorKeys;
+	
 	
 	public PlanReduceOperator(ReduceFunction<T> udf, int[] logicalGroupingFields, String name, TypeInformation<T> type) {
+		this(udf, logicalGroupingFields, null, name, type);
+	}
+	
+	public PlanReduceOperator(ReduceFunction<T> udf, Keys.SelectorFunctionKeys<T, ?> selectorKeys, String name, TypeInformation<T> type) {
+		this(udf, new int[] {0}, selectorKeys, name, type);
+	}
+	
+	private PlanReduceOperator(ReduceFunction<T> udf, int[] logicalGroupingFields, Keys.SelectorFunctionKeys<T, ?> selectorKeys,
+			String name, TypeInformation<T> type)
+	{
 		super(new ReferenceWrappingReducer<T>(udf), logicalGroupingFields, name);
 		this.type = type;
+		this.selectorKeys = selectorKeys;
 	}
 	
 	
@@ -49,6 +63,11 @@ public class PlanReduceOperator<T> extends GroupReduceOperatorBase<GenericGroupR
 		return this.type;
 	}
 	
+	@Override
+	public Keys.SelectorFunctionKeys<?, ?> getSelectorKeys(int input) {
+		return this.selectorKeys;
+	}
+	
 	
 	// --------------------------------------------------------------------------------------------
 	
@@ -18,6 +18,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.java.typeutils.runtime.GenericArraySerializer;
 
 
 public class ArrayTypeInfo<T, C> extends TypeInformation<T> {
@@ -79,8 +80,15 @@ public class ArrayTypeInfo<T, C> extends TypeInformation<T> {
 	}
 	
 	@Override
+	@SuppressWarnings("unchecked")
 	public Serializer<T> createSerializer() {
-		throw new UnsupportedOperationException("Array serialization is currently not implemented.");
+		Serializer<C> componentSerializer = BasicTypeInfo.getInfoFor(this.componentClass).createSerializer();
+		return (Serializer<T>) new GenericArraySerializer<C>(this.componentClass, componentSerializer);
+	}
+	
+	@Override
+	public String toString() {
+		return "BasicArrayType<" + componentClass.getSimpleName() + ">";
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -0,0 +1,303 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.java.tuple.Tuple;
+import eu.stratosphere.api.java.typeutils.runtime.PojoComparator;
+import eu.stratosphere.api.java.typeutils.runtime.PojoSerializer;
+import eu.stratosphere.types.Value;
+
+
+/**
+ * Type information for plain Java objects (POJOs). A class is treated as a POJO if it is public,
+ * not abstract, has a public nullary constructor, and each of its non-static, non-transient fields
+ * is either public or has a public getter and setter. The fields are serialized one after the
+ * other with the serializers of their types, and can be referred to as keys by name.
+ * <p>
+ * Fields that are themselves neither basic types, arrays of basic types, nor values are handled
+ * as generic types.
+ */
+public class PojoTypeInfo<T> extends TypeInformation<T> implements CompositeType<T> {
+
+	private final Class<T> typeClass;
+	
+	private final Field[] fields;
+	
+	private final TypeInformation<?>[] types;
+	
+	
+	public PojoTypeInfo(Class<T> typeClass) {
+		if (!isPojo(typeClass)) {
+			throw new IllegalArgumentException("The class " + typeClass.getName() + " is not a valid POJO type.");
+		}
+		
+		this.typeClass = typeClass;
+		this.fields = getPojoFields(typeClass);
+		this.types = new TypeInformation<?>[this.fields.length];
+		
+		for (int i = 0; i < this.fields.length; i++) {
+			this.types[i] = getFieldType(this.fields[i].getType());
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public boolean isBasicType() {
+		return false;
+	}
+
+	@Override
+	public boolean isTupleType() {
+		return false;
+	}
+
+	@Override
+	public int getArity() {
+		return this.fields.length;
+	}
+
+	@Override
+	public Class<T> getTypeClass() {
+		return this.typeClass;
+	}
+	
+	@Override
+	public boolean isKeyType() {
+		return false;
+	}
+	
+	public <X> TypeInformation<X> getTypeAt(int pos) {
+		if (pos < 0 || pos >= this.types.length)
+			throw new IndexOutOfBoundsException();
+
+		@SuppressWarnings("unchecked")
+		TypeInformation<X> typed = (TypeInformation<X>) this.types[pos];
+		return typed;
+	}
+	
+	public String getFieldNameAt(int pos) {
+		return this.fields[pos].getName();
+	}
+	
+	/**
+	 * Gets the position of the field with the given name, or -1, if the POJO has no such field.
+	 * 
+	 * @param fieldName The name of the field.
+	 * @return The logical position of the field.
+	 */
+	public int getFieldIndex(String fieldName) {
+		for (int i = 0; i < this.fields.length; i++) {
+			if (this.fields[i].getName().equals(fieldName)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	@Override
+	public Serializer<T> createSerializer() {
+		Serializer<?>[] fieldSerializers = new Serializer<?>[this.types.length];
+		for (int i = 0; i < this.types.length; i++) {
+			fieldSerializers[i] = this.types[i].createSerializer();
+		}
+		
+		return new PojoSerializer<T>(this.typeClass, this.fields, fieldSerializers);
+	}
+	
+	@Override
+	public TypeComparator<T> createComparator(int[] logicalKeyFields, boolean[] orders) {
+		// sanity checks
+		if (logicalKeyFields == null || orders == null || logicalKeyFields.length != orders.length ||
+				logicalKeyFields.length > this.types.length)
+		{
+			throw new IllegalArgumentException();
+		}
+		
+		// create the comparators for the individual fields
+		Field[] keyFields = new Field[logicalKeyFields.length];
+		TypeComparator<?>[] fieldComparators = new TypeComparator<?>[logicalKeyFields.length];
+		
+		for (int i = 0; i < logicalKeyFields.length; i++) {
+			int field = logicalKeyFields[i];
+			
+			if (field < 0 || field >= this.types.length) {
+				throw new IllegalArgumentException("The field position " + field + " is out of range [0," + this.types.length + ")");
+			}
+			if (this.types[field].isKeyType() && this.types[field] instanceof AtomicType) {
+				keyFields[i] = this.fields[field];
+				fieldComparators[i] = ((AtomicType<?>) this.types[field]).createComparator(orders[i]);
+			} else {
+				throw new IllegalArgumentException("The field '" + this.fields[field].getName() + "' (" + this.types[field] + ") is no atomic key type.");
+			}
+		}
+		
+		return new PojoComparator<T>(keyFields, fieldComparators, orders, createSerializer());
+	}
+	
+	@Override
+	public int hashCode() {
+		return this.typeClass.hashCode();
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		return obj != null && obj.getClass() == PojoTypeInfo.class && ((PojoTypeInfo<?>) obj).typeClass == this.typeClass;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder bld = new StringBuilder("PojoType<");
+		bld.append(this.typeClass.getName()).append(", fields = [");
+		
+		for (int i = 0; i < this.fields.length; i++) {
+			if (i > 0) {
+				bld.append(", ");
+			}
+			bld.append(this.fields[i].getName()).append(": ").append(this.types[i]);
+		}
+		
+		bld.append("]>");
+		return bld.toString();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Checks whether the given class can be handled as a POJO type.
+	 * 
+	 * @param clazz The class to check.
+	 * @return True, if the class is a valid POJO type, false otherwise.
+	 */
+	public static boolean isPojo(Class<?> clazz) {
+		int mods = clazz.getModifiers();
+		if (clazz.isInterface() || clazz.isArray() || clazz.isPrimitive() || clazz.isEnum() ||
+				!Modifier.isPublic(mods) || Modifier.isAbstract(mods) ||
+				(clazz.getEnclosingClass() != null && !Modifier.isStatic(mods)) ||
+				Tuple.class.isAssignableFrom(clazz) || Value.class.isAssignableFrom(clazz) ||
+				clazz.getTypeParameters().length > 0 || clazz.getName().startsWith("java."))
+		{
+			return false;
+		}
+		
+		try {
+			if (!Modifier.isPublic(clazz.getConstructor().getModifiers())) {
+				return false;
+			}
+		}
+		catch (NoSuchMethodException nsmex) {
+			return false;
+		}
+		
+		Field[] fields = getPojoFields(clazz);
+		if (fields.length == 0) {
+			return false;
+		}
+		
+		for (Field f : fields) {
+			if (f.getGenericType() instanceof TypeVariable) {
+				return false;
+			}
+			if (!Modifier.isPublic(f.getModifiers()) && !hasGetterAndSetter(clazz, f)) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static Field[] getPojoFields(Class<?> clazz) {
+		List<Field> fields = new ArrayList<Field>();
+		
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				int mods = f.getModifiers();
+				if (!Modifier.isStatic(mods) && !Modifier.isTransient(mods) && !f.isSynthetic()) {
+					fields.add(f);
+				}
+			}
+		}
+		
+		// order the fields by name, to make the serialization layout independent of the declaration order
+		Field[] result = fields.toArray(new Field[fields.size()]);
+		Arrays.sort(result, new Comparator<Field>() {
+			@Override
+			public int compare(Field o1, Field o2) {
+				int cmp = o1.getName().compareTo(o2.getName());
+				return cmp != 0 ? cmp : o1.getDeclaringClass().getName().compareTo(o2.getDeclaringClass().getName());
+			}
+		});
+		return result;
+	}
+	
+	private static boolean hasGetterAndSetter(Class<?> clazz, Field f) {
+		String name = f.getName();
+		String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		Class<?> type = f.getType();
+		
+		boolean hasGetter = false;
+		boolean hasSetter = false;
+		
+		for (Method m : clazz.getMethods()) {
+			String methodName = m.getName();
+			Class<?>[] params = m.getParameterTypes();
+			
+			if (params.length == 0 && m.getReturnType() == type &&
+					(methodName.equals("get" + suffix) || (methodName.equals("is" + suffix) && type == boolean.class)))
+			{
+				hasGetter = true;
+			}
+			else if (params.length == 1 && params[0] == type && methodName.equals("set" + suffix)) {
+				hasSetter = true;
+			}
+		}
+		return hasGetter && hasSetter;
+	}
+	
+	private static TypeInformation<?> getFieldType(Class<?> fieldClass) {
+		TypeInformation<?> info = BasicTypeInfo.getInfoFor(fieldClass);
+		if (info != null) {
+			return info;
+		}
+		
+		if (fieldClass.isArray()) {
+			info = ArrayTypeInfo.getInfoFor(fieldClass);
+			if (info != null) {
+				return info;
+			}
+		}
+		
+		if (Value.class.isAssignableFrom(fieldClass)) {
+			return ValueTypeInfo.getValueTypeInfo(fieldClass.asSubclass(Value.class));
+		}
+		
+		// nested POJOs are not analyzed further, to avoid cycles in recursive types
+		return createGenericTypeInfo(fieldClass);
+	}
+	
+	private static <X> TypeInformation<X> createGenericTypeInfo(Class<X> clazz) {
+		return new GenericTypeInfo<X>(clazz);
+	}
+}
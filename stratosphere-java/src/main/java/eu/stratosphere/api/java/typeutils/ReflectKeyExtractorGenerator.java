@@ -27,17 +27,37 @@ public class ReflectKeyExtractorGenerator {
 	
 	
 	public static <IN, KEY> KeySelector<IN, KEY> generateKeyExtractor(TypeInformation<IN> type, String expression) {
-		return null;
+		if (!(type instanceof PojoTypeInfo)) {
+			throw new IllegalArgumentException("Key extractors can only be generated for POJO types.");
+		}
+		
+		String fieldName = expression.trim();
+		Class<IN> clazz = type.getTypeClass();
+		
+		for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+			try {
+				return new DirectReflectKeyAccessor<IN, KEY>(c.getDeclaredField(fieldName));
+			}
+			catch (NoSuchFieldException e) {
+				// check the super class
+			}
+		}
+		throw new IllegalArgumentException("The type " + type + " has no field '" + fieldName + "'.");
 	}
 	
 	
-	@SuppressWarnings("unused")
 	private static final class DirectReflectKeyAccessor<IN, KEY> extends KeySelector<IN, KEY> implements Serializable {
 		private static final long serialVersionUID = 1L;
 		
-		private final Field field;
+		private final Class<?> declaringClass;
+		
+		private final String fieldName;
+		
+		private transient Field field;
 		
 		private DirectReflectKeyAccessor(Field field) {
+			this.declaringClass = field.getDeclaringClass();
+			this.fieldName = field.getName();
 			this.field = field;
 			this.field.setAccessible(true);
 		}
@@ -46,6 +66,10 @@ public class ReflectKeyExtractorGenerator {
 		@Override
 		public KEY getKey(IN value) {
 			try {
+				if (this.field == null) {
+					this.field = this.declaringClass.getDeclaredField(this.fieldName);
+					this.field.setAccessible(true);
+				}
 				return (KEY) field.get(value);
 			} catch (Throwable t) {
 				throw new RuntimeException("Reflection key accessor could not extract key: " + t.getMessage(), t);
@@ -52,6 +52,14 @@ public abstract class TypeInformation<T> {
 			}
 		}
 		
+		// check for arrays of basic types
+		if (clazz.isArray()) {
+			TypeInformation<X> arrayTypeInfo = ArrayTypeInfo.getInfoFor(clazz);
+			if (arrayTypeInfo != null) {
+				return arrayTypeInfo;
+			}
+		}
+		
 		// check for subclasses of Value
 		if (Value.class.isAssignableFrom(clazz)) {
 			Class<? extends Value> valueClass = clazz.asSubclass(Value.class);
@@ -63,6 +71,11 @@ public abstract class TypeInformation<T> {
 			LOG.warn("TypeInformation extraction from class for Tuples not supported.");
 		}
 		
+		// check for POJOs
+		if (PojoTypeInfo.isPojo(clazz)) {
+			return new PojoTypeInfo<X>(clazz);
+		}
+		
 		// return a generic type
 		return new GenericTypeInfo<X>(clazz);
 	}	
@@ -0,0 +1,166 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import java.io.IOException;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.java.functions.KeySelector;
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.types.NullKeyFieldException;
+
+
+/**
+ * Comparator that evaluates a key selector on the records and compares the extracted keys with the
+ * comparator of the key type. Hashes and normalized keys are computed from the extracted keys, such
+ * that records can be partitioned, sorted and hashed without first wrapping them together with their key.
+ */
+public final class KeySelectorComparator<T, K> extends TypeComparator<T> implements java.io.Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	
+	private final KeySelector<T, K> keySelector;
+	
+	private final TypeComparator<K> keyComparator;
+	
+	private final Serializer<T> serializer;
+	
+	// comparator and instances used to compare serialized records, created lazily
+	private transient TypeComparator<K> keyComparator2;
+	
+	private transient T reuse1, reuse2;
+	
+	
+	public KeySelectorComparator(KeySelector<T, K> keySelector, TypeComparator<K> keyComparator, Serializer<T> serializer) {
+		this.keySelector = keySelector;
+		this.keyComparator = keyComparator;
+		this.serializer = serializer;
+	}
+	
+	private KeySelectorComparator(KeySelectorComparator<T, K> toClone) {
+		this.keySelector = toClone.keySelector;
+		this.keyComparator = toClone.keyComparator.duplicate();
+		this.serializer = toClone.serializer;
+	}
+	
+	public KeySelector<T, K> getKeySelector() {
+		return this.keySelector;
+	}
+	
+	public TypeComparator<K> getKeyComparator() {
+		return this.keyComparator;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public int hash(T record) {
+		return this.keyComparator.hash(getKey(record));
+	}
+
+	@Override
+	public void setReference(T toCompare) {
+		this.keyComparator.setReference(getKey(toCompare));
+	}
+
+	@Override
+	public boolean equalToReference(T candidate) {
+		return this.keyComparator.equalToReference(getKey(candidate));
+	}
+
+	@Override
+	public int compareToReference(TypeComparator<T> referencedComparator) {
+		// comparators are only compared with duplicates of themselves, so the key types match
+		@SuppressWarnings("unchecked")
+		KeySelectorComparator<T, K> other = (KeySelectorComparator<T, K>) referencedComparator;
+		return this.keyComparator.compareToReference(other.keyComparator);
+	}
+
+	@Override
+	public int compare(DataInputView firstSource, DataInputView secondSource) throws IOException {
+		// the key is not part of the serialized record, so both records are read and the keys extracted
+		if (this.keyComparator2 == null) {
+			this.keyComparator2 = this.keyComparator.duplicate();
+			this.reuse1 = this.serializer.createInstance();
+			this.reuse2 = this.serializer.createInstance();
+		}
+		
+		this.reuse1 = this.serializer.deserialize(this.reuse1, firstSource);
+		this.reuse2 = this.serializer.deserialize(this.reuse2, secondSource);
+		
+		this.keyComparator.setReference(getKey(this.reuse1));
+		this.keyComparator2.setReference(getKey(this.reuse2));
+		return this.keyComparator.compareToReference(this.keyComparator2);
+	}
+
+	@Override
+	public boolean supportsNormalizedKey() {
+		return this.keyComparator.supportsNormalizedKey();
+	}
+
+	@Override
+	public int getNormalizeKeyLen() {
+		return this.keyComparator.getNormalizeKeyLen();
+	}
+
+	@Override
+	public boolean isNormalizedKeyPrefixOnly(int keyBytes) {
+		return this.keyComparator.isNormalizedKeyPrefixOnly(keyBytes);
+	}
+
+	@Override
+	public void putNormalizedKey(T record, MemorySegment target, int offset, int numBytes) {
+		this.keyComparator.putNormalizedKey(getKey(record), target, offset, numBytes);
+	}
+
+	@Override
+	public boolean invertNormalizedKey() {
+		return this.keyComparator.invertNormalizedKey();
+	}
+	
+	@Override
+	public boolean supportsSerializationWithKeyNormalization() {
+		return false;
+	}
+
+	@Override
+	public void writeWithKeyNormalization(T record, DataOutputView target) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void readWithKeyDenormalization(T record, DataInputView source) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public KeySelectorComparator<T, K> duplicate() {
+		return new KeySelectorComparator<T, K>(this);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private K getKey(T record) {
+		K key = this.keySelector.getKey(record);
+		if (key == null) {
+			throw new NullKeyFieldException(0);
+		}
+		return key;
+	}
+}
@@ -0,0 +1,409 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.base.IntComparator;
+import eu.stratosphere.api.common.typeutils.base.LongComparator;
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.types.NullKeyFieldException;
+
+
+/**
+ * Comparator for POJO types, comparing a sequence of key fields with the comparators of the
+ * field types. The normalized key is composed of the normalized keys of the leading key fields,
+ * like in the {@link TupleComparator}.
+ * <p>
+ * Key fields of the primitive types int and long that are compared by the basic type comparator of their type
+ * are read with the typed getters of their field, which do not box the values. The comparator holds their
+ * reference values itself and compares, hashes and normalizes them like the basic type comparators.
+ */
+public final class PojoComparator<T> extends TypeComparator<T> implements java.io.Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	private static final byte KEY_OBJECT = 0;
+	
+	private static final byte KEY_INT = 1;
+	
+	private static final byte KEY_LONG = 2;
+
+	
+	private transient Field[] keyFields;
+	
+	private final TypeComparator<Object>[] comparators;
+	
+	private final boolean[] ascending;
+	
+	private final Serializer<T> serializer;
+	
+	private final int[] normalizedKeyLengths;
+	
+	private final int numLeadingNormalizableKeys;
+	
+	private final int normalizableKeyPrefixLen;
+	
+	private final boolean invertNormKey;
+	
+	// the types of the key fields and the reference values of the primitive ones
+	private transient byte[] keyTypes;
+	
+	private transient long[] references;
+	
+	// comparator and instances used to compare serialized records, created lazily
+	private transient PojoComparator<T> comparator2;
+	
+	private transient T reuse1, reuse2;
+	
+		
+	@SuppressWarnings("unchecked")
+	public PojoComparator(Field[] keyFields, TypeComparator<?>[] comparators, boolean[] orders, Serializer<T> serializer) {
+		if (keyFields.length != comparators.length || keyFields.length != orders.length) {
+			throw new IllegalArgumentException("Number of key fields, comparators and orders differ.");
+		}
+		
+		this.keyFields = keyFields;
+		this.comparators = (TypeComparator<Object>[]) comparators;
+		this.ascending = orders;
+		this.serializer = serializer;
+		
+		for (Field f : keyFields) {
+			f.setAccessible(true);
+		}
+		initKeyTypes();
+		
+		// set up auxiliary fields for normalized key support
+		this.normalizedKeyLengths = new int[keyFields.length];
+		int nKeys = 0;
+		int nKeyLen = 0;
+		boolean inverted = false;
+		
+		for (int i = 0; i < this.comparators.length; i++) {
+			TypeComparator<?> k = this.comparators[i];
+			
+			// as long as the leading keys support normalized keys, we can build up the composite key
+			if (k.supportsNormalizedKey()) {
+				if (i == 0) {
+					// the first comparator decides whether we need to invert the key direction
+					inverted = k.invertNormalizedKey();
+				}
+				else if (k.invertNormalizedKey() != inverted) {
+					// if a successor does not agree on the invertion direction, it cannot be part of the normalized key
+					break;
+				}
+				
+				nKeys++;
+				final int len = k.getNormalizeKeyLen();
+				if (len < 0) {
+					throw new RuntimeException("Comparator " + k.getClass().getName() + " specifies an invalid length for the normalized key: " + len);
+				}
+				this.normalizedKeyLengths[i] = len;
+				nKeyLen += this.normalizedKeyLengths[i];
+				
+				if (nKeyLen < 0) {
+					// overflow, which means we are out of budget for normalized key space anyways
+					nKeyLen = Integer.MAX_VALUE;
+					break;
+				}
+			}
+			else break;
+		}
+		this.numLeadingNormalizableKeys = nKeys;
+		this.normalizableKeyPrefixLen = nKeyLen;
+		this.invertNormKey = inverted;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private PojoComparator(PojoComparator<T> toClone) {
+		this.keyFields = toClone.keyFields;
+		this.comparators = new TypeComparator[toClone.comparators.length];
+		
+		for (int i = 0; i < toClone.comparators.length; i++) {
+			this.comparators[i] = toClone.comparators[i].duplicate();
+		}
+		
+		this.ascending = toClone.ascending;
+		this.keyTypes = toClone.keyTypes;
+		this.references = new long[toClone.references.length];
+		
+		this.serializer = toClone.serializer;
+		this.normalizedKeyLengths = toClone.normalizedKeyLengths;
+		this.numLeadingNormalizableKeys = toClone.numLeadingNormalizableKeys;
+		this.normalizableKeyPrefixLen = toClone.normalizableKeyPrefixLen;
+		this.invertNormKey = toClone.invertNormKey;
+	}
+	
+	public Field[] getKeyFields() {
+		return this.keyFields;
+	}
+	
+	public TypeComparator<Object>[] getComparators() {
+		return this.comparators;
+	}
+	
+	@Override
+	public int hash(T value) {
+		final byte[] types = this.keyTypes;
+		int i = 0;
+		int code = 0;
+		for (; i < this.keyFields.length; i++) {
+			switch (types[i]) {
+			case KEY_INT:
+				code ^= accessInt(this.keyFields[i], value);
+				break;
+			case KEY_LONG:
+				final long l = accessLong(this.keyFields[i], value);
+				code ^= (int) (l ^ (l >>> 32));
+				break;
+			default:
+				code ^= this.comparators[i].hash(accessField(this.keyFields[i], value, i));
+			}
+			code *= HASH_SALT[i & 0x1F]; // salt code with (i % HASH_SALT.length)-th salt component
+		}
+		return code;
+	}
+
+	@Override
+	public void setReference(T toCompare) {
+		final byte[] types = this.keyTypes;
+		for (int i = 0; i < this.keyFields.length; i++) {
+			switch (types[i]) {
+			case KEY_INT:
+				this.references[i] = accessInt(this.keyFields[i], toCompare);
+				break;
+			case KEY_LONG:
+				this.references[i] = accessLong(this.keyFields[i], toCompare);
+				break;
+			default:
+				this.comparators[i].setReference(accessField(this.keyFields[i], toCompare, i));
+			}
+		}
+	}
+
+	@Override
+	public boolean equalToReference(T candidate) {
+		final byte[] types = this.keyTypes;
+		for (int i = 0; i < this.keyFields.length; i++) {
+			final boolean equal;
+			switch (types[i]) {
+			case KEY_INT:
+				equal = accessInt(this.keyFields[i], candidate) == this.references[i];
+				break;
+			case KEY_LONG:
+				equal = accessLong(this.keyFields[i], candidate) == this.references[i];
+				break;
+			default:
+				equal = this.comparators[i].equalToReference(accessField(this.keyFields[i], candidate, i));
+			}
+			if (!equal) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int compareToReference(TypeComparator<T> referencedComparator) {
+		PojoComparator<T> other = (PojoComparator<T>) referencedComparator;
+		
+		final byte[] types = this.keyTypes;
+		for (int i = 0; i < this.keyFields.length; i++) {
+			final int cmp;
+			if (types[i] == KEY_OBJECT) {
+				cmp = this.comparators[i].compareToReference(other.comparators[i]);
+			} else {
+				final long ref = this.references[i];
+				final long otherRef = other.references[i];
+				final int order = ref < otherRef ? -1 : (ref == otherRef ? 0 : 1);
+				cmp = this.ascending[i] ? order : -order;
+			}
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public int compare(DataInputView firstSource, DataInputView secondSource) throws IOException {
+		// the key fields are not at fixed positions in the serialized POJO, so both records are read
+		if (this.comparator2 == null) {
+			this.comparator2 = duplicate();
+			this.reuse1 = this.serializer.createInstance();
+			this.reuse2 = this.serializer.createInstance();
+		}
+		
+		this.reuse1 = this.serializer.deserialize(this.reuse1, firstSource);
+		this.reuse2 = this.serializer.deserialize(this.reuse2, secondSource);
+		
+		setReference(this.reuse1);
+		this.comparator2.setReference(this.reuse2);
+		return compareToReference(this.comparator2);
+	}
+
+	@Override
+	public boolean supportsNormalizedKey() {
+		return this.numLeadingNormalizableKeys > 0;
+	}
+
+	@Override
+	public int getNormalizeKeyLen() {
+		return this.normalizableKeyPrefixLen;
+	}
+
+	@Override
+	public boolean isNormalizedKeyPrefixOnly(int keyBytes) {
+		return this.numLeadingNormalizableKeys < this.keyFields.length ||
+				this.normalizableKeyPrefixLen == Integer.MAX_VALUE ||
+				this.normalizableKeyPrefixLen > keyBytes;
+	}
+
+	@Override
+	public void putNormalizedKey(T value, MemorySegment target, int offset, int numBytes) {
+		for (int i = 0; i < this.numLeadingNormalizableKeys & numBytes > 0; i++)
+		{
+			int len = this.normalizedKeyLengths[i]; 
+			len = numBytes >= len ? len : numBytes;
+			switch (this.keyTypes[i]) {
+			case KEY_INT:
+				IntComparator.putNormalizedKey(accessInt(this.keyFields[i], value), target, offset, len);
+				break;
+			case KEY_LONG:
+				LongComparator.putNormalizedKey(accessLong(this.keyFields[i], value), target, offset, len);
+				break;
+			default:
+				this.comparators[i].putNormalizedKey(accessField(this.keyFields[i], value, i), target, offset, len);
+			}
+			numBytes -= len;
+			offset += len;
+		}
+	}
+
+	@Override
+	public boolean invertNormalizedKey() {
+		return this.invertNormKey;
+	}
+	
+	
+	@Override
+	public boolean supportsSerializationWithKeyNormalization() {
+		return false;
+	}
+	
+	@Override
+	public void writeWithKeyNormalization(T record, DataOutputView target) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void readWithKeyDenormalization(T record, DataInputView source) throws IOException {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public PojoComparator<T> duplicate() {
+		return new PojoComparator<T>(this);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	static Object accessField(Field field, Object record, int keyPos) {
+		final Object value;
+		try {
+			value = field.get(record);
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("Error accessing the key field '" + field.getName() + "'.", e);
+		}
+		
+		if (value == null) {
+			throw new NullKeyFieldException(keyPos);
+		}
+		return value;
+	}
+	
+	private static int accessInt(Field field, Object record) {
+		try {
+			return field.getInt(record);
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("Error accessing the key field '" + field.getName() + "'.", e);
+		}
+	}
+	
+	private static long accessLong(Field field, Object record) {
+		try {
+			return field.getLong(record);
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("Error accessing the key field '" + field.getName() + "'.", e);
+		}
+	}
+	
+	/**
+	 * Resolves the key fields that are handled without their comparator. Only primitive fields with the exact
+	 * basic type comparator of their type are resolved, such that they compare like with their comparator.
+	 */
+	private void initKeyTypes() {
+		this.keyTypes = new byte[this.keyFields.length];
+		this.references = new long[this.keyFields.length];
+		
+		for (int i = 0; i < this.keyFields.length; i++) {
+			final Class<?> type = this.keyFields[i].getType();
+			final Class<?> comparatorClass = this.comparators[i].getClass();
+			
+			if (type == int.class && comparatorClass == IntComparator.class) {
+				this.keyTypes[i] = KEY_INT;
+			} else if (type == long.class && comparatorClass == LongComparator.class) {
+				this.keyTypes[i] = KEY_LONG;
+			} else {
+				this.keyTypes[i] = KEY_OBJECT;
+			}
+		}
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		PojoSerializer.writeFields(out, this.keyFields);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.keyFields = PojoSerializer.readFields(in);
+		initKeyTypes();
+	}
+	
+	/**
+	 * A sequence of prime numbers to be used for salting the computed hash values.
+	 * Based on some empirical evidence, we are using a 32-element subsequence of the  
+	 * OEIS sequence #A068652 (numbers such that every cyclic permutation is a prime).
+	 * 
+	 * @see: http://en.wikipedia.org/wiki/List_of_prime_numbers
+	 * @see: http://oeis.org/A068652
+	 */
+	private static final int[] HASH_SALT = new int[] { 
+		73   , 79   , 97   , 113  , 131  , 197  , 199  , 311   , 
+		337  , 373  , 719  , 733  , 919  , 971  , 991  , 1193  , 
+		1931 , 3119 , 3779 , 7793 , 7937 , 9311 , 9377 , 11939 , 
+		19391, 19937, 37199, 39119, 71993, 91193, 93719, 93911 };
+}
@@ -0,0 +1,98 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypePairComparator;
+
+
+public class PojoPairComparator<T1, T2> extends TypePairComparator<T1, T2> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+	
+	private transient Field[] keyFields1, keyFields2;
+	private final TypeComparator<Object>[] comparators1;
+	private final TypeComparator<Object>[] comparators2;
+	
+	@SuppressWarnings("unchecked")
+	public PojoPairComparator(Field[] keyFields1, Field[] keyFields2, TypeComparator<Object>[] comparators1, TypeComparator<Object>[] comparators2) {
+		
+		if(keyFields1.length != keyFields2.length 
+			|| keyFields1.length != comparators1.length
+			|| keyFields2.length != comparators2.length) {
+			
+			throw new IllegalArgumentException("Number of key fields and comparators differ.");
+		}
+		
+		int numKeys = keyFields1.length;
+		
+		this.keyFields1 = keyFields1;
+		this.keyFields2 = keyFields2;
+		this.comparators1 = new TypeComparator[numKeys];
+		this.comparators2 = new TypeComparator[numKeys];
+		
+		for(int i = 0; i < numKeys; i++) {
+			this.comparators1[i] = comparators1[i].duplicate();
+			this.comparators2[i] = comparators2[i].duplicate();
+		}
+	}
+	
+	@Override
+	public void setReference(T1 reference) {
+		for(int i=0; i < this.comparators1.length; i++) {
+			this.comparators1[i].setReference(PojoComparator.accessField(keyFields1[i], reference, i));
+		}
+	}
+
+	@Override
+	public boolean equalToReference(T2 candidate) {
+		for(int i=0; i < this.comparators1.length; i++) {
+			if(!this.comparators1[i].equalToReference(PojoComparator.accessField(keyFields2[i], candidate, i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int compareToReference(T2 candidate) {
+		for(int i=0; i < this.comparators1.length; i++) {
+			this.comparators2[i].setReference(PojoComparator.accessField(keyFields2[i], candidate, i));
+			int res = this.comparators1[i].compareToReference(this.comparators2[i]);
+			if(res != 0) {
+				return res;
+			}
+		}
+		return 0;
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		PojoSerializer.writeFields(out, this.keyFields1);
+		PojoSerializer.writeFields(out, this.keyFields2);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.keyFields1 = PojoSerializer.readFields(in);
+		this.keyFields2 = PojoSerializer.readFields(in);
+	}
+}
@@ -0,0 +1,352 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.base.BooleanSerializer;
+import eu.stratosphere.api.common.typeutils.base.ByteSerializer;
+import eu.stratosphere.api.common.typeutils.base.CharSerializer;
+import eu.stratosphere.api.common.typeutils.base.DoubleSerializer;
+import eu.stratosphere.api.common.typeutils.base.FloatSerializer;
+import eu.stratosphere.api.common.typeutils.base.IntSerializer;
+import eu.stratosphere.api.common.typeutils.base.LongSerializer;
+import eu.stratosphere.api.common.typeutils.base.ShortSerializer;
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
+
+
+/**
+ * Serializer for POJO types. The fields are written one after the other with their own serializers,
+ * each non-primitive field preceded by a flag that marks null values. The fields are accessed through
+ * reflection, after being made accessible once. Primitive fields with the basic type serializer of
+ * their type are resolved when the serializer is created and accessed with the typed getters and
+ * setters of their field (such as {@link Field#getInt(Object)}), which do not box the values. They
+ * are written in the format of their basic type serializer.
+ */
+public final class PojoSerializer<T> extends Serializer<T> {
+
+	private static final long serialVersionUID = 1L;
+	
+	private static final byte FIELD_OBJECT = 0;
+	
+	private static final byte FIELD_BOOLEAN = 1;
+	
+	private static final byte FIELD_BYTE = 2;
+	
+	private static final byte FIELD_SHORT = 3;
+	
+	private static final byte FIELD_CHAR = 4;
+	
+	private static final byte FIELD_INT = 5;
+	
+	private static final byte FIELD_LONG = 6;
+	
+	private static final byte FIELD_FLOAT = 7;
+	
+	private static final byte FIELD_DOUBLE = 8;
+	
+	
+	private final Class<T> clazz;
+	
+	private final Serializer<Object>[] fieldSerializers;
+	
+	private transient Field[] fields;
+	
+	private transient boolean[] nullable;
+	
+	private transient byte[] fieldTypes;
+	
+	
+	@SuppressWarnings("unchecked")
+	public PojoSerializer(Class<T> clazz, Field[] fields, Serializer<?>[] fieldSerializers) {
+		if (fields.length != fieldSerializers.length) {
+			throw new IllegalArgumentException("Number of fields and serializers differ.");
+		}
+		
+		this.clazz = clazz;
+		this.fieldSerializers = (Serializer<Object>[]) fieldSerializers;
+		this.fields = fields;
+		initFields();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public T createInstance() {
+		try {
+			return this.clazz.newInstance();
+		}
+		catch (Exception e) {
+			throw new RuntimeException("Cannot instantiate class " + this.clazz.getName(), e);
+		}
+	}
+
+	@Override
+	public T copy(T from, T reuse) {
+		try {
+			final byte[] types = this.fieldTypes;
+			for (int i = 0; i < this.fields.length; i++) {
+				final Field f = this.fields[i];
+				switch (types[i]) {
+				case FIELD_BOOLEAN:
+					f.setBoolean(reuse, f.getBoolean(from));
+					break;
+				case FIELD_BYTE:
+					f.setByte(reuse, f.getByte(from));
+					break;
+				case FIELD_SHORT:
+					f.setShort(reuse, f.getShort(from));
+					break;
+				case FIELD_CHAR:
+					f.setChar(reuse, f.getChar(from));
+					break;
+				case FIELD_INT:
+					f.setInt(reuse, f.getInt(from));
+					break;
+				case FIELD_LONG:
+					f.setLong(reuse, f.getLong(from));
+					break;
+				case FIELD_FLOAT:
+					f.setFloat(reuse, f.getFloat(from));
+					break;
+				case FIELD_DOUBLE:
+					f.setDouble(reuse, f.getDouble(from));
+					break;
+				default:
+					final Object value = f.get(from);
+					if (value == null) {
+						f.set(reuse, null);
+					} else {
+						Object reuseValue = f.get(reuse);
+						if (reuseValue == null) {
+							reuseValue = this.fieldSerializers[i].createInstance();
+						}
+						f.set(reuse, this.fieldSerializers[i].copy(value, reuseValue));
+					}
+				}
+			}
+			return reuse;
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("Error accessing the fields of class " + this.clazz.getName(), e);
+		}
+	}
+
+	@Override
+	public int getLength() {
+		return -1;
+	}
+
+	@Override
+	public void serialize(T value, DataOutputView target) throws IOException {
+		try {
+			final byte[] types = this.fieldTypes;
+			for (int i = 0; i < this.fields.length; i++) {
+				final Field f = this.fields[i];
+				switch (types[i]) {
+				case FIELD_BOOLEAN:
+					target.writeBoolean(f.getBoolean(value));
+					break;
+				case FIELD_BYTE:
+					target.writeByte(f.getByte(value));
+					break;
+				case FIELD_SHORT:
+					target.writeShort(f.getShort(value));
+					break;
+				case FIELD_CHAR:
+					target.writeChar(f.getChar(value));
+					break;
+				case FIELD_INT:
+					target.writeInt(f.getInt(value));
+					break;
+				case FIELD_LONG:
+					target.writeLong(f.getLong(value));
+					break;
+				case FIELD_FLOAT:
+					target.writeFloat(f.getFloat(value));
+					break;
+				case FIELD_DOUBLE:
+					target.writeDouble(f.getDouble(value));
+					break;
+				default:
+					final Object o = f.get(value);
+					if (this.nullable[i]) {
+						if (o == null) {
+							target.writeBoolean(false);
+							continue;
+						}
+						target.writeBoolean(true);
+					}
+					this.fieldSerializers[i].serialize(o, target);
+				}
+			}
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("Error accessing the fields of class " + this.clazz.getName(), e);
+		}
+	}
+
+	@Override
+	public T deserialize(T reuse, DataInputView source) throws IOException {
+		try {
+			final byte[] types = this.fieldTypes;
+			for (int i = 0; i < this.fields.length; i++) {
+				final Field f = this.fields[i];
+				switch (types[i]) {
+				case FIELD_BOOLEAN:
+					f.setBoolean(reuse, source.readBoolean());
+					break;
+				case FIELD_BYTE:
+					f.setByte(reuse, source.readByte());
+					break;
+				case FIELD_SHORT:
+					f.setShort(reuse, source.readShort());
+					break;
+				case FIELD_CHAR:
+					f.setChar(reuse, source.readChar());
+					break;
+				case FIELD_INT:
+					f.setInt(reuse, source.readInt());
+					break;
+				case FIELD_LONG:
+					f.setLong(reuse, source.readLong());
+					break;
+				case FIELD_FLOAT:
+					f.setFloat(reuse, source.readFloat());
+					break;
+				case FIELD_DOUBLE:
+					f.setDouble(reuse, source.readDouble());
+					break;
+				default:
+					if (this.nullable[i] && !source.readBoolean()) {
+						f.set(reuse, null);
+						continue;
+					}
+					
+					Object reuseValue = f.get(reuse);
+					if (reuseValue == null) {
+						reuseValue = this.fieldSerializers[i].createInstance();
+					}
+					f.set(reuse, this.fieldSerializers[i].deserialize(reuseValue, source));
+				}
+			}
+			return reuse;
+		}
+		catch (IllegalAccessException e) {
+			throw new RuntimeException("Error accessing the fields of class " + this.clazz.getName(), e);
+		}
+	}
+
+	@Override
+	public void copy(DataInputView source, DataOutputView target) throws IOException {
+		for (int i = 0; i < this.fields.length; i++) {
+			if (this.nullable[i]) {
+				boolean isNonNull = source.readBoolean();
+				target.writeBoolean(isNonNull);
+				if (!isNonNull) {
+					continue;
+				}
+			}
+			this.fieldSerializers[i].copy(source, target);
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	Field[] getFields() {
+		return this.fields;
+	}
+	
+	private void initFields() {
+		this.nullable = new boolean[this.fields.length];
+		this.fieldTypes = new byte[this.fields.length];
+		for (int i = 0; i < this.fields.length; i++) {
+			this.fields[i].setAccessible(true);
+			this.nullable[i] = !this.fields[i].getType().isPrimitive();
+			this.fieldTypes[i] = getFieldType(this.fields[i].getType(), this.fieldSerializers[i]);
+		}
+	}
+	
+	/**
+	 * Gets the type of a field with the given class and serializer. Primitive fields are only resolved if they
+	 * have the exact basic type serializer of their type, whose format the typed accessors write.
+	 */
+	private static byte getFieldType(Class<?> type, Serializer<?> serializer) {
+		final Class<?> clazz = serializer.getClass();
+		if (type == boolean.class && clazz == BooleanSerializer.class) {
+			return FIELD_BOOLEAN;
+		} else if (type == byte.class && clazz == ByteSerializer.class) {
+			return FIELD_BYTE;
+		} else if (type == short.class && clazz == ShortSerializer.class) {
+			return FIELD_SHORT;
+		} else if (type == char.class && clazz == CharSerializer.class) {
+			return FIELD_CHAR;
+		} else if (type == int.class && clazz == IntSerializer.class) {
+			return FIELD_INT;
+		} else if (type == long.class && clazz == LongSerializer.class) {
+			return FIELD_LONG;
+		} else if (type == float.class && clazz == FloatSerializer.class) {
+			return FIELD_FLOAT;
+		} else if (type == double.class && clazz == DoubleSerializer.class) {
+			return FIELD_DOUBLE;
+		} else {
+			return FIELD_OBJECT;
+		}
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		writeFields(out, this.fields);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.fields = readFields(in);
+		initFields();
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	//  Utilities to serialize the (non-serializable) field handles by declaring class and name
+	// --------------------------------------------------------------------------------------------
+	
+	static void writeFields(ObjectOutputStream out, Field[] fields) throws IOException {
+		out.writeInt(fields.length);
+		for (Field f : fields) {
+			out.writeObject(f.getDeclaringClass());
+			out.writeUTF(f.getName());
+		}
+	}
+	
+	static Field[] readFields(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		Field[] fields = new Field[in.readInt()];
+		for (int i = 0; i < fields.length; i++) {
+			Class<?> declaringClass = (Class<?>) in.readObject();
+			String name = in.readUTF();
+			try {
+				fields[i] = declaringClass.getDeclaredField(name);
+				fields[i].setAccessible(true);
+			}
+			catch (NoSuchFieldException e) {
+				throw new IOException("The field '" + name + "' was not found in class " + declaringClass.getName(), e);
+			}
+		}
+		return fields;
+	}
+}
@@ -85,6 +85,29 @@ public class ReferenceWrappedPairComparator<T1, T2> extends TypePairComparator<R
 			
 			}
 
+			if((unwrappedComp1 instanceof KeySelectorComparator) && (unwrappedComp2 instanceof KeySelectorComparator)) {
+				
+				KeySelectorComparator<T1, Object> selectorComp1 = (KeySelectorComparator<T1, Object>) unwrappedComp1;
+				KeySelectorComparator<T2, Object> selectorComp2 = (KeySelectorComparator<T2, Object>) unwrappedComp2;
+				
+				TypePairComparator<T1, T2> selectorPairComp = new KeySelectorPairComparator<T1, T2, Object>(
+						selectorComp1.getKeySelector(), selectorComp2.getKeySelector(), selectorComp1.getKeyComparator());
+				
+				return new ReferenceWrappedPairComparator<T1, T2>(selectorPairComp);
+			}
+			
+			if((unwrappedComp1 instanceof PojoComparator) && (unwrappedComp2 instanceof PojoComparator)) {
+				
+				PojoComparator<T1> pojoComp1 = (PojoComparator<T1>) unwrappedComp1;
+				PojoComparator<T2> pojoComp2 = (PojoComparator<T2>) unwrappedComp2;
+				
+				TypePairComparator<T1, T2> pojoPairComp = new PojoPairComparator<T1, T2>(
+						pojoComp1.getKeyFields(), pojoComp2.getKeyFields(),
+						pojoComp1.getComparators(), pojoComp2.getComparators());
+				
+				return new ReferenceWrappedPairComparator<T1, T2>(pojoPairComp);
+			}
+			
 			if((unwrappedComp1 instanceof TupleSingleFieldComparator) && (unwrappedComp2 instanceof TupleSingleFieldComparator)) {
 				
 				TupleSingleFieldComparator<?,? extends Object> tupleComp1 = ((TupleSingleFieldComparator<?,? extends Object>)unwrappedComp1);
@@ -128,6 +151,29 @@ public class ReferenceWrappedPairComparator<T1, T2> extends TypePairComparator<R
 				return new ReferenceWrappedPairComparator<T2, T1>(tuplePairComp);
 			
 			}
+			if((unwrappedComp1 instanceof KeySelectorComparator) && (unwrappedComp2 instanceof KeySelectorComparator)) {
+				
+				KeySelectorComparator<T1, Object> selectorComp1 = (KeySelectorComparator<T1, Object>) unwrappedComp1;
+				KeySelectorComparator<T2, Object> selectorComp2 = (KeySelectorComparator<T2, Object>) unwrappedComp2;
+				
+				TypePairComparator<T2, T1> selectorPairComp = new KeySelectorPairComparator<T2, T1, Object>(
+						selectorComp2.getKeySelector(), selectorComp1.getKeySelector(), selectorComp2.getKeyComparator());
+				
+				return new ReferenceWrappedPairComparator<T2, T1>(selectorPairComp);
+			}
+			
+			if((unwrappedComp1 instanceof PojoComparator) && (unwrappedComp2 instanceof PojoComparator)) {
+				
+				PojoComparator<T1> pojoComp1 = (PojoComparator<T1>) unwrappedComp1;
+				PojoComparator<T2> pojoComp2 = (PojoComparator<T2>) unwrappedComp2;
+				
+				TypePairComparator<T2, T1> pojoPairComp = new PojoPairComparator<T2, T1>(
+						pojoComp2.getKeyFields(), pojoComp1.getKeyFields(),
+						pojoComp2.getComparators(), pojoComp1.getComparators());
+				
+				return new ReferenceWrappedPairComparator<T2, T1>(pojoPairComp);
+			}
+			
 			if((unwrappedComp1 instanceof TupleSingleFieldComparator) && (unwrappedComp2 instanceof TupleSingleFieldComparator)) {
 				
 				TupleSingleFieldComparator<?,? extends Object> tupleComp1 = ((TupleSingleFieldComparator<?,? extends Object>)unwrappedComp1);
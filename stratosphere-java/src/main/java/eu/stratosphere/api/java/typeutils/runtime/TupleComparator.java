@@ -118,7 +118,7 @@ public final class TupleComparator<T extends Tuple> extends TypeComparator<T> im
 		try {
 			int code = 0;
 			for (; i < this.keyPositions.length; i++) {
-				code ^= this.comparators[i].hash(value.getField(this.keyPositions[i]));
+				code ^= this.comparators[i].hash(value.getFieldFast(this.keyPositions[i]));
 				code *= HASH_SALT[i & 0x1F]; // salt code with (i % HASH_SALT.length)-th salt component
 			}
 			return code;
@@ -136,7 +136,7 @@ public final class TupleComparator<T extends Tuple> extends TypeComparator<T> im
 		int i = 0;
 		try {
 			for (; i < this.keyPositions.length; i++) {
-				this.comparators[i].setReference(toCompare.getField(this.keyPositions[i]));
+				this.comparators[i].setReference(toCompare.getFieldFast(this.keyPositions[i]));
 			}
 		}
 		catch (NullPointerException npex) {
@@ -152,7 +152,7 @@ public final class TupleComparator<T extends Tuple> extends TypeComparator<T> im
 		int i = 0;
 		try {
 			for (; i < this.keyPositions.length; i++) {
-				if (!this.comparators[i].equalToReference(candidate.getField(this.keyPositions[i]))) {
+				if (!this.comparators[i].equalToReference(candidate.getFieldFast(this.keyPositions[i]))) {
 					return false;
 				}
 			}
@@ -233,7 +233,7 @@ public final class TupleComparator<T extends Tuple> extends TypeComparator<T> im
 			{
 				int len = this.normalizedKeyLengths[i]; 
 				len = numBytes >= len ? len : numBytes;
-				this.comparators[i].putNormalizedKey(value.getField(this.keyPositions[i]), target, offset, numBytes);
+				this.comparators[i].putNormalizedKey(value.getFieldFast(this.keyPositions[i]), target, offset, len);
 				numBytes -= len;
 				offset += len;
 			}
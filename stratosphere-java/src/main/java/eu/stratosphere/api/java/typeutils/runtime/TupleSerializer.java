@@ -17,20 +17,42 @@ package eu.stratosphere.api.java.typeutils.runtime;
 import java.io.IOException;
 
 import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.base.DoubleSerializer;
+import eu.stratosphere.api.common.typeutils.base.IntSerializer;
+import eu.stratosphere.api.common.typeutils.base.LongSerializer;
+import eu.stratosphere.api.common.typeutils.base.StringSerializer;
 import eu.stratosphere.api.java.tuple.Tuple;
 import eu.stratosphere.core.memory.DataInputView;
 import eu.stratosphere.core.memory.DataOutputView;
+import eu.stratosphere.types.StringValue;
 
 
+/**
+ * Serializer for tuples. The serializer resolves the fields of the basic types long, int, double and string
+ * when it is created and reads and writes them directly, without calling their field serializer. All other
+ * fields go through their field serializer.
+ */
 public final class TupleSerializer<T extends Tuple> extends Serializer<T> {
 
 	private static final long serialVersionUID = 1L;
 	
+	private static final byte FIELD_GENERIC = 0;
+	
+	private static final byte FIELD_LONG = 1;
+	
+	private static final byte FIELD_INT = 2;
+	
+	private static final byte FIELD_DOUBLE = 3;
+	
+	private static final byte FIELD_STRING = 4;
+	
 	
 	private final Class<T> tupleClass;
 	
 	private final Serializer<Object>[] fieldSerializers;
 	
+	private final byte[] fieldTypes;
+	
 	private final int arity;
 	
 	
@@ -39,6 +61,11 @@ public final class TupleSerializer<T extends Tuple> extends Serializer<T> {
 		this.tupleClass = tupleClass;
 		this.fieldSerializers = (Serializer<Object>[]) fieldSerializers;
 		this.arity = fieldSerializers.length;
+		
+		this.fieldTypes = new byte[this.arity];
+		for (int i = 0; i < this.arity; i++) {
+			this.fieldTypes[i] = getFieldType(fieldSerializers[i]);
+		}
 	}
 	
 	
@@ -77,16 +104,49 @@ public final class TupleSerializer<T extends Tuple> extends Serializer<T> {
 
 	@Override
 	public void serialize(T value, DataOutputView target) throws IOException {
+		final byte[] types = this.fieldTypes;
 		for (int i = 0; i < arity; i++) {
-			Object o = value.getField(i);
-			fieldSerializers[i].serialize(o, target);
+			final Object o = value.getFieldFast(i);
+			switch (types[i]) {
+			case FIELD_LONG:
+				target.writeLong(((Long) o).longValue());
+				break;
+			case FIELD_INT:
+				target.writeInt(((Integer) o).intValue());
+				break;
+			case FIELD_DOUBLE:
+				target.writeDouble(((Double) o).doubleValue());
+				break;
+			case FIELD_STRING:
+				StringValue.writeString((String) o, target);
+				break;
+			default:
+				fieldSerializers[i].serialize(o, target);
+			}
 		}
 	}
 
 	@Override
 	public T deserialize(T reuse, DataInputView source) throws IOException {
+		final byte[] types = this.fieldTypes;
 		for (int i = 0; i < arity; i++) {
-			Object field = fieldSerializers[i].deserialize(reuse.getField(i), source);
+			final Object field;
+			switch (types[i]) {
+			case FIELD_LONG:
+				field = Long.valueOf(source.readLong());
+				break;
+			case FIELD_INT:
+				field = Integer.valueOf(source.readInt());
+				break;
+			case FIELD_DOUBLE:
+				field = Double.valueOf(source.readDouble());
+				break;
+			case FIELD_STRING:
+				field = StringValue.readString(source);
+				break;
+			default:
+				field = fieldSerializers[i].deserialize(reuse.getFieldFast(i), source);
+			}
 			reuse.setField(field, i);
 		}
 		return reuse;
@@ -94,8 +154,45 @@ public final class TupleSerializer<T extends Tuple> extends Serializer<T> {
 
 	@Override
 	public void copy(DataInputView source, DataOutputView target) throws IOException {
+		final byte[] types = this.fieldTypes;
 		for (int i = 0; i < arity; i++) {
-			fieldSerializers[i].copy(source, target);
+			switch (types[i]) {
+			case FIELD_LONG:
+				target.writeLong(source.readLong());
+				break;
+			case FIELD_INT:
+				target.writeInt(source.readInt());
+				break;
+			case FIELD_DOUBLE:
+				target.writeDouble(source.readDouble());
+				break;
+			case FIELD_STRING:
+				StringValue.copyString(source, target);
+				break;
+			default:
+				fieldSerializers[i].copy(source, target);
+			}
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Gets the type of the field with the given serializer. Only the exact basic type serializers are resolved,
+	 * because subclasses may serialize differently.
+	 */
+	private static byte getFieldType(Serializer<?> serializer) {
+		final Class<?> clazz = serializer.getClass();
+		if (clazz == LongSerializer.class) {
+			return FIELD_LONG;
+		} else if (clazz == IntSerializer.class) {
+			return FIELD_INT;
+		} else if (clazz == DoubleSerializer.class) {
+			return FIELD_DOUBLE;
+		} else if (clazz == StringSerializer.class) {
+			return FIELD_STRING;
+		} else {
+			return FIELD_GENERIC;
 		}
 	}
 }
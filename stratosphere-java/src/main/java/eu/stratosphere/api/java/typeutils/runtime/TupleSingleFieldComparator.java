@@ -51,18 +51,18 @@ public final class TupleSingleFieldComparator<T extends Tuple, K> extends TypeCo
 	
 	@Override
 	public int hash(T value) {
-		return comparator.hash(value.<K>getField(keyPosition));
+		return comparator.hash(value.<K>getFieldFast(keyPosition));
 		
 	}
 
 	@Override
 	public void setReference(T toCompare) {
-		this.comparator.setReference(toCompare.<K>getField(keyPosition));
+		this.comparator.setReference(toCompare.<K>getFieldFast(keyPosition));
 	}
 
 	@Override
 	public boolean equalToReference(T candidate) {
-		return this.comparator.equalToReference(candidate.<K>getField(keyPosition));
+		return this.comparator.equalToReference(candidate.<K>getFieldFast(keyPosition));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -98,7 +98,7 @@ public final class TupleSingleFieldComparator<T extends Tuple, K> extends TypeCo
 
 	@Override
 	public void putNormalizedKey(T record, MemorySegment target, int offset, int numBytes) {
-		this.comparator.putNormalizedKey(record.<K>getField(keyPosition), target, offset, numBytes);
+		this.comparator.putNormalizedKey(record.<K>getFieldFast(keyPosition), target, offset, numBytes);
 	}
 
 	@Override
@@ -0,0 +1,201 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.operators.translation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.functions.GenericCoGrouper;
+import eu.stratosphere.api.common.functions.GenericGroupReduce;
+import eu.stratosphere.api.java.functions.CoGroupFunction;
+import eu.stratosphere.api.java.functions.GroupReduceFunction;
+import eu.stratosphere.api.java.functions.KeySelector;
+import eu.stratosphere.api.java.functions.ReduceFunction;
+import eu.stratosphere.api.java.operators.Keys;
+import eu.stratosphere.api.java.typeutils.BasicTypeInfo;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.Reference;
+
+/**
+ * Tests that the functions wrapping the user functions of key selector operators pass all values and results
+ * between the runtime's references and the user functions.
+ */
+public class ReferenceWrappingFunctionsTest {
+	
+	@Test
+	public void testGroupReduceWithKeySelector() throws Exception {
+		PlanGroupReduceOperator<String, Integer> op = new PlanGroupReduceOperator<String, Integer>(new LengthSum(),
+				new Keys.SelectorFunctionKeys<String, String>(new FirstChar(), BasicTypeInfo.STRING_TYPE_INFO),
+				"reduce", BasicTypeInfo.STRING_TYPE_INFO, BasicTypeInfo.INT_TYPE_INFO);
+		
+		GenericGroupReduce<Reference<String>, Reference<Integer>> function = op.getUserCodeWrapper().getUserCodeObject();
+		function.open(new Configuration());
+		
+		ListCollector<Integer> reduced = new ListCollector<Integer>();
+		function.reduce(references("a", "ab", "abc"), reduced);
+		function.reduce(references("b"), reduced);
+		assertEquals(Arrays.asList(6, 1), reduced.values);
+		
+		ListCollector<String> combined = new ListCollector<String>();
+		function.combine(references("a", "ab"), combined);
+		assertEquals(Arrays.asList("aab"), combined.values);
+	}
+	
+	@Test
+	public void testReduceWithKeySelector() throws Exception {
+		PlanReduceOperator<String> op = new PlanReduceOperator<String>(new Concat(),
+				new Keys.SelectorFunctionKeys<String, String>(new FirstChar(), BasicTypeInfo.STRING_TYPE_INFO),
+				"reduce", BasicTypeInfo.STRING_TYPE_INFO);
+		
+		GenericGroupReduce<Reference<String>, Reference<String>> function = op.getUserCodeWrapper().getUserCodeObject();
+		function.open(new Configuration());
+		
+		ListCollector<String> combined = new ListCollector<String>();
+		function.combine(references("a", "ab", "abc"), combined);
+		function.combine(references("b"), combined);
+		assertEquals(Arrays.asList("aababc", "b"), combined.values);
+	}
+	
+	@Test
+	public void testCoGroupWithKeySelector() throws Exception {
+		PlanCogroupOperator<String, String, Integer> op = new PlanCogroupOperator<String, String, Integer>(new CountBoth(),
+				new Keys.SelectorFunctionKeys<String, String>(new FirstChar(), BasicTypeInfo.STRING_TYPE_INFO),
+				new Keys.SelectorFunctionKeys<String, String>(new FirstChar(), BasicTypeInfo.STRING_TYPE_INFO),
+				"cogroup", BasicTypeInfo.STRING_TYPE_INFO, BasicTypeInfo.STRING_TYPE_INFO, BasicTypeInfo.INT_TYPE_INFO);
+		
+		GenericCoGrouper<Reference<String>, Reference<String>, Reference<Integer>> function =
+				op.getUserCodeWrapper().getUserCodeObject();
+		function.open(new Configuration());
+		
+		ListCollector<Integer> out = new ListCollector<Integer>();
+		function.coGroup(references("a", "ab"), references("a", "ab", "abc"), out);
+		function.coGroup(references("b"), references(), out);
+		assertEquals(Arrays.asList(23, 10), out.values);
+		
+		// the combiners must emit the values, the first value of a group included
+		ListCollector<String> combined1 = new ListCollector<String>();
+		function.combineFirst(references("a", "ab"), combined1);
+		assertEquals(Arrays.asList("a", "ab"), combined1.values);
+		
+		ListCollector<String> combined2 = new ListCollector<String>();
+		function.combineSecond(references("c"), combined2);
+		assertEquals(Arrays.asList("c"), combined2.values);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static Iterator<Reference<String>> references(String... values) {
+		List<Reference<String>> refs = new ArrayList<Reference<String>>();
+		for (String value : values) {
+			refs.add(new Reference<String>(value));
+		}
+		return refs.iterator();
+	}
+	
+	/**
+	 * Collects the referenced values. The wrappers reuse their references, so only the values are kept.
+	 */
+	private static final class ListCollector<T> implements Collector<Reference<T>> {
+		
+		private final List<T> values = new ArrayList<T>();
+
+		@Override
+		public void collect(Reference<T> record) {
+			this.values.add(record.ref);
+		}
+
+		@Override
+		public void close() {}
+	}
+	
+	private static final class FirstChar extends KeySelector<String, String> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String getKey(String value) {
+			return value.substring(0, 1);
+		}
+	}
+	
+	private static final class LengthSum extends GroupReduceFunction<String, Integer> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void reduce(Iterator<String> values, Collector<Integer> out) {
+			int sum = 0;
+			while (values.hasNext()) {
+				sum += values.next().length();
+			}
+			out.collect(sum);
+		}
+		
+		@Override
+		public void combine(Iterator<String> values, Collector<String> out) {
+			StringBuilder bld = new StringBuilder();
+			while (values.hasNext()) {
+				bld.append(values.next());
+			}
+			out.collect(bld.toString());
+		}
+	}
+	
+	private static final class Concat extends ReduceFunction<String> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public String reduce(String value1, String value2) {
+			return value1 + value2;
+		}
+	}
+	
+	private static final class CountBoth extends CoGroupFunction<String, String, Integer> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public void coGroup(Iterator<String> first, Iterator<String> second, Collector<Integer> out) {
+			int count = 0;
+			while (first.hasNext()) {
+				first.next();
+				count += 10;
+			}
+			while (second.hasNext()) {
+				second.next();
+				count++;
+			}
+			out.collect(count);
+		}
+		
+		@Override
+		public void combineFirst(Iterator<String> records, Collector<String> out) {
+			while (records.hasNext()) {
+				out.collect(records.next());
+			}
+		}
+		
+		@Override
+		public void combineSecond(Iterator<String> records, Collector<String> out) {
+			while (records.hasNext()) {
+				out.collect(records.next());
+			}
+		}
+	}
+}
@@ -0,0 +1,371 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.base.IntComparator;
+import eu.stratosphere.api.common.typeutils.base.LongComparator;
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
+import eu.stratosphere.core.memory.MemorySegment;
+
+
+public class PojoTypeInfoTest {
+
+	@Test
+	public void testTypeExtraction() {
+		TypeInformation<WordCount> type = TypeInformation.getForClass(WordCount.class);
+		assertTrue(type instanceof PojoTypeInfo);
+		
+		PojoTypeInfo<WordCount> pojoType = (PojoTypeInfo<WordCount>) type;
+		assertEquals(3, pojoType.getArity());
+		
+		// fields are ordered by name, the transient field is excluded
+		assertEquals("count", pojoType.getFieldNameAt(0));
+		assertEquals("weight", pojoType.getFieldNameAt(1));
+		assertEquals("word", pojoType.getFieldNameAt(2));
+		assertEquals(-1, pojoType.getFieldIndex("cached"));
+		
+		assertEquals(BasicTypeInfo.INT_TYPE_INFO, pojoType.getTypeAt(0));
+		assertEquals(BasicTypeInfo.DOUBLE_TYPE_INFO, pojoType.getTypeAt(1));
+		assertEquals(BasicTypeInfo.STRING_TYPE_INFO, pojoType.getTypeAt(2));
+		
+		assertTrue(TypeInformation.getForClass(NoPojo.class) instanceof GenericTypeInfo);
+	}
+	
+	@Test
+	public void testSerialization() throws Exception {
+		Serializer<WordCount> serializer = new PojoTypeInfo<WordCount>(WordCount.class).createSerializer();
+		
+		// the serializer must survive shipping it with the task configuration
+		serializer = copyObject(serializer);
+		
+		WordCount[] values = { new WordCount("hello", 42, 0.5), new WordCount(null, -1, 2.0) };
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputView out = new OutputView(bytes);
+		for (WordCount wc : values) {
+			serializer.serialize(wc, out);
+		}
+		
+		InputView in = new InputView(new ByteArrayInputStream(bytes.toByteArray()));
+		WordCount reuse = serializer.createInstance();
+		for (WordCount wc : values) {
+			reuse = serializer.deserialize(reuse, in);
+			assertEquals(wc, reuse);
+		}
+		
+		WordCount copy = serializer.copy(values[1], serializer.createInstance());
+		assertEquals(values[1], copy);
+		assertNull(copy.word);
+	}
+	
+	@Test
+	public void testComparator() throws Exception {
+		PojoTypeInfo<WordCount> type = new PojoTypeInfo<WordCount>(WordCount.class);
+		Serializer<WordCount> serializer = type.createSerializer();
+		
+		int[] keys = { type.getFieldIndex("word"), type.getFieldIndex("count") };
+		TypeComparator<WordCount> comparator = copyObject(type.createComparator(keys, new boolean[] { true, true }));
+		
+		assertTrue(comparator.supportsNormalizedKey());
+		
+		WordCount[] ordered = { new WordCount("a", 1, 0.0), new WordCount("a", 2, 0.0), new WordCount("b", -5, 0.0) };
+		
+		for (int i = 0; i < ordered.length; i++) {
+			for (int j = 0; j < ordered.length; j++) {
+				int expected = Integer.signum(i - j);
+				
+				ByteArrayOutputStream bytes1 = new ByteArrayOutputStream();
+				ByteArrayOutputStream bytes2 = new ByteArrayOutputStream();
+				serializer.serialize(ordered[i], new OutputView(bytes1));
+				serializer.serialize(ordered[j], new OutputView(bytes2));
+				
+				int cmp = comparator.compare(new InputView(new ByteArrayInputStream(bytes1.toByteArray())),
+						new InputView(new ByteArrayInputStream(bytes2.toByteArray())));
+				assertEquals(expected, Integer.signum(cmp));
+				
+				comparator.setReference(ordered[i]);
+				assertEquals(i == j, comparator.equalToReference(ordered[j]));
+				
+				// the normalized key must not contradict the order
+				int len = Math.min(comparator.getNormalizeKeyLen(), 16);
+				MemorySegment seg = new MemorySegment(new byte[2 * len]);
+				comparator.putNormalizedKey(ordered[i], seg, 0, len);
+				comparator.putNormalizedKey(ordered[j], seg, len, len);
+				
+				int normCmp = 0;
+				for (int k = 0; k < len && normCmp == 0; k++) {
+					normCmp = (seg.get(k) & 0xff) - (seg.get(len + k) & 0xff);
+				}
+				assertTrue(normCmp == 0 || Integer.signum(normCmp) == expected);
+			}
+		}
+	}
+	
+	@Test
+	public void testPrimitiveFields() throws Exception {
+		Serializer<Primitives> serializer = copyObject(new PojoTypeInfo<Primitives>(Primitives.class).createSerializer());
+		
+		Primitives[] values = {
+			new Primitives(true, (byte) -3, (short) 300, 'x', -7, Long.MIN_VALUE, 1.5f, -2.25, "a"),
+			new Primitives(false, Byte.MAX_VALUE, Short.MIN_VALUE, '\u20ac', Integer.MAX_VALUE, 42L, Float.NaN,
+				Double.MAX_VALUE, null)
+		};
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		OutputView out = new OutputView(bytes);
+		for (Primitives p : values) {
+			serializer.serialize(p, out);
+		}
+		
+		// the serialized copy must read exactly the written fields
+		InputView in = new InputView(new ByteArrayInputStream(bytes.toByteArray()));
+		ByteArrayOutputStream copied = new ByteArrayOutputStream();
+		OutputView copyOut = new OutputView(copied);
+		for (int i = 0; i < values.length; i++) {
+			serializer.copy(in, copyOut);
+		}
+		assertEquals(0, in.available());
+		assertArrayEquals(bytes.toByteArray(), copied.toByteArray());
+		
+		in = new InputView(new ByteArrayInputStream(bytes.toByteArray()));
+		Primitives reuse = serializer.createInstance();
+		for (Primitives p : values) {
+			reuse = serializer.deserialize(reuse, in);
+			assertEquals(p, reuse);
+		}
+		assertEquals(0, in.available());
+		
+		for (Primitives p : values) {
+			assertEquals(p, serializer.copy(p, serializer.createInstance()));
+		}
+	}
+	
+	@Test
+	public void testPrimitiveKeyFields() throws Exception {
+		PojoTypeInfo<Primitives> type = new PojoTypeInfo<Primitives>(Primitives.class);
+		Serializer<Primitives> serializer = type.createSerializer();
+		
+		int[] keys = { type.getFieldIndex("longField"), type.getFieldIndex("intField") };
+		TypeComparator<Primitives> comparator = copyObject(type.createComparator(keys, new boolean[] { false, true }));
+		TypeComparator<Primitives> reference = comparator.duplicate();
+		
+		// descending on the long field, ascending on the int field
+		Primitives[] ordered = { keys(Long.MAX_VALUE, 0), keys(5, Integer.MIN_VALUE), keys(5, -1), keys(5, 1),
+			keys(-5, 0), keys(Long.MIN_VALUE, 3) };
+		
+		for (int i = 0; i < ordered.length; i++) {
+			for (int j = 0; j < ordered.length; j++) {
+				int expected = Integer.signum(i - j);
+				
+				ByteArrayOutputStream bytes1 = new ByteArrayOutputStream();
+				ByteArrayOutputStream bytes2 = new ByteArrayOutputStream();
+				serializer.serialize(ordered[i], new OutputView(bytes1));
+				serializer.serialize(ordered[j], new OutputView(bytes2));
+				
+				int cmp = comparator.compare(new InputView(new ByteArrayInputStream(bytes1.toByteArray())),
+						new InputView(new ByteArrayInputStream(bytes2.toByteArray())));
+				assertEquals(expected, Integer.signum(cmp));
+				
+				comparator.setReference(ordered[i]);
+				reference.setReference(ordered[j]);
+				assertEquals(expected, Integer.signum(comparator.compareToReference(reference)));
+				assertEquals(i == j, comparator.equalToReference(ordered[j]));
+			}
+		}
+		
+		// the hash and normalized key are those of the basic type comparators
+		Primitives p = keys(-123456789012L, 42);
+		assertEquals((Long.valueOf(p.longField).hashCode() * 73 ^ Integer.valueOf(p.intField).hashCode()) * 79,
+			comparator.hash(p));
+		
+		TypeComparator<Primitives> ascending = type.createComparator(keys, new boolean[] { true, true });
+		assertFalse(ascending.isNormalizedKeyPrefixOnly(12));
+		MemorySegment seg = new MemorySegment(new byte[24]);
+		ascending.putNormalizedKey(p, seg, 0, 12);
+		new LongComparator(true).putNormalizedKey(p.longField, seg, 12, 8);
+		new IntComparator(true).putNormalizedKey(p.intField, seg, 20, 4);
+		for (int k = 0; k < 12; k++) {
+			assertEquals(seg.get(12 + k), seg.get(k));
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static Primitives keys(long longField, int intField) {
+		return new Primitives(false, (byte) 0, (short) 0, 'a', intField, longField, 0.0f, 0.0, null);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <X> X copyObject(X o) throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(o);
+		oos.close();
+		
+		return (X) new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+	}
+	
+	public static class WordCount {
+		
+		public String word;
+		
+		public int count;
+		
+		private double weight;
+		
+		public transient int cached;
+		
+		public WordCount() {}
+		
+		public WordCount(String word, int count, double weight) {
+			this.word = word;
+			this.count = count;
+			this.weight = weight;
+		}
+		
+		public double getWeight() {
+			return weight;
+		}
+		
+		public void setWeight(double weight) {
+			this.weight = weight;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof WordCount) {
+				WordCount other = (WordCount) obj;
+				return (word == null ? other.word == null : word.equals(other.word)) &&
+						count == other.count && weight == other.weight;
+			}
+			return false;
+		}
+		
+		@Override
+		public int hashCode() {
+			return count;
+		}
+	}
+	
+	public static class Primitives {
+		
+		public boolean boolField;
+		public byte byteField;
+		public short shortField;
+		public char charField;
+		public int intField;
+		public long longField;
+		public float floatField;
+		public double doubleField;
+		public String name;
+		
+		public Primitives() {}
+		
+		public Primitives(boolean boolField, byte byteField, short shortField, char charField, int intField,
+				long longField, float floatField, double doubleField, String name)
+		{
+			this.boolField = boolField;
+			this.byteField = byteField;
+			this.shortField = shortField;
+			this.charField = charField;
+			this.intField = intField;
+			this.longField = longField;
+			this.floatField = floatField;
+			this.doubleField = doubleField;
+			this.name = name;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Primitives) {
+				Primitives other = (Primitives) obj;
+				return boolField == other.boolField && byteField == other.byteField && shortField == other.shortField &&
+						charField == other.charField && intField == other.intField && longField == other.longField &&
+						Float.compare(floatField, other.floatField) == 0 &&
+						Double.compare(doubleField, other.doubleField) == 0 &&
+						(name == null ? other.name == null : name.equals(other.name));
+			}
+			return false;
+		}
+		
+		@Override
+		public int hashCode() {
+			return intField;
+		}
+	}
+	
+	public static class NoPojo {
+		
+		private int hidden;
+		
+		public int getHidden() {
+			return hidden;
+		}
+	}
+	
+	private static final class OutputView extends DataOutputStream implements DataOutputView {
+
+		public OutputView(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void skipBytesToWrite(int numBytes) throws IOException {
+			for (int i = 0; i < numBytes; i++) {
+				write(0);
+			}
+		}
+
+		@Override
+		public void write(DataInputView source, int numBytes) throws IOException {
+			for (int i = 0; i < numBytes; i++) {
+				write(source.readByte());
+			}
+		}
+	}
+	
+	private static final class InputView extends DataInputStream implements DataInputView {
+
+		public InputView(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public void skipBytesToRead(int numBytes) throws IOException {
+			skipBytes(numBytes);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.base.IntSerializer;
+import eu.stratosphere.api.common.typeutils.base.StringSerializer;
+
+
+public class GenericArraySerializerTest {
+	
+	@Test
+	public void testIntegerArrays() throws IOException {
+		Integer[][] arrays = { new Integer[0], new Integer[] { 1, null, -3 }, new Integer[] { null },
+				new Integer[] { Integer.MIN_VALUE, Integer.MAX_VALUE } };
+		assertRoundTrip(new GenericArraySerializer<Integer>(Integer.class, IntSerializer.INSTANCE), arrays);
+	}
+	
+	@Test
+	public void testStringArrays() throws IOException {
+		String[][] arrays = { new String[] { "a", "", null, "\u00e4\u4e2d" }, new String[0], new String[] { null, null } };
+		assertRoundTrip(new GenericArraySerializer<String>(String.class, StringSerializer.INSTANCE), arrays);
+	}
+	
+	/**
+	 * Serializes the arrays, and reads them back into one reused array, after copying them as instances, and
+	 * after copying them in serialized form. The arrays have different lengths, so the reused array is
+	 * replaced where needed.
+	 */
+	private <C> void assertRoundTrip(GenericArraySerializer<C> serializer, C[][] arrays) throws IOException {
+		TestOutputView out = new TestOutputView();
+		for (C[] array : arrays) {
+			serializer.serialize(array, out);
+		}
+		
+		TestInputView in = out.getInputView();
+		C[] reuse = serializer.createInstance();
+		assertEquals(0, reuse.length);
+		for (C[] array : arrays) {
+			reuse = serializer.deserialize(reuse, in);
+			assertArrayEquals(array, reuse);
+			assertArrayEquals(array, serializer.copy(array, serializer.createInstance()));
+		}
+		assertTrue(in.isFullyRead());
+		
+		in = out.getInputView();
+		TestOutputView copied = new TestOutputView();
+		for (int i = 0; i < arrays.length; i++) {
+			serializer.copy(in, copied);
+		}
+		assertTrue(in.isFullyRead());
+		
+		TestInputView copiedIn = copied.getInputView();
+		for (C[] array : arrays) {
+			assertArrayEquals(array, serializer.deserialize(serializer.createInstance(), copiedIn));
+		}
+		assertTrue(copiedIn.isFullyRead());
+	}
+}
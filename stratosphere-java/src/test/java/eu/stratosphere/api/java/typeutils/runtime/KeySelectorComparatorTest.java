@@ -0,0 +1,91 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.base.IntComparator;
+import eu.stratosphere.api.common.typeutils.base.StringSerializer;
+import eu.stratosphere.api.java.functions.KeySelector;
+import eu.stratosphere.core.memory.MemorySegment;
+
+
+public class KeySelectorComparatorTest {
+	
+	private static final class LengthSelector extends KeySelector<String, Integer> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Integer getKey(String value) {
+			return value.length();
+		}
+	}
+
+	@Test
+	public void testComparesExtractedKeys() {
+		KeySelectorComparator<String, Integer> comparator = new KeySelectorComparator<String, Integer>(
+				new LengthSelector(), new IntComparator(true), StringSerializer.INSTANCE);
+		
+		assertEquals(comparator.hash("abc"), comparator.hash("xyz"));
+		
+		comparator.setReference("abc");
+		assertTrue(comparator.equalToReference("xyz"));
+		assertFalse(comparator.equalToReference("ab"));
+		
+		TypeComparator<String> other = comparator.duplicate();
+		other.setReference("abcdef");
+		assertTrue(comparator.compareToReference(other) < 0);
+		assertTrue(other.compareToReference(comparator) > 0);
+		
+		other.setReference("xyz");
+		assertEquals(0, comparator.compareToReference(other));
+	}
+	
+	@Test
+	public void testNormalizedKeyFromExtractedKey() {
+		KeySelectorComparator<String, Integer> comparator = new KeySelectorComparator<String, Integer>(
+				new LengthSelector(), new IntComparator(true), StringSerializer.INSTANCE);
+		
+		assertTrue(comparator.supportsNormalizedKey());
+		assertEquals(4, comparator.getNormalizeKeyLen());
+		
+		MemorySegment seg = new MemorySegment(new byte[8]);
+		comparator.putNormalizedKey("zz", seg, 0, 4);
+		comparator.putNormalizedKey("aaa", seg, 4, 4);
+		
+		int cmp = 0;
+		for (int i = 0; i < 4 && cmp == 0; i++) {
+			cmp = (seg.get(i) & 0xff) - (seg.get(4 + i) & 0xff);
+		}
+		assertTrue(cmp < 0);
+	}
+	
+	@Test
+	public void testPairComparator() {
+		KeySelectorPairComparator<String, String, Integer> pairComparator = new KeySelectorPairComparator<String, String, Integer>(
+				new LengthSelector(), new LengthSelector(), new IntComparator(true));
+		
+		pairComparator.setReference("abc");
+		assertTrue(pairComparator.equalToReference("123"));
+		assertFalse(pairComparator.equalToReference("1234"));
+		assertEquals(0, pairComparator.compareToReference("xyz"));
+		assertTrue(pairComparator.compareToReference("x") != 0);
+	}
+}
@@ -12,34 +12,32 @@
  * specific language governing permissions and limitations under the License.
  *
  **********************************************************************************************************************/
-package eu.stratosphere.api.java.operators.translation;
+package eu.stratosphere.api.java.typeutils.runtime;
 
-import eu.stratosphere.api.java.functions.KeySelector;
-import eu.stratosphere.api.java.functions.MapFunction;
-import eu.stratosphere.api.java.tuple.Tuple2;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 
+import eu.stratosphere.core.memory.DataInputView;
 
-public final class KeyExtractingMapper<T, K> extends MapFunction<T, Tuple2<K, T>> {
-	
-	private static final long serialVersionUID = 1L;
-	
-	private final KeySelector<T, K> keySelector;
-	
-	private final Tuple2<K, T> tuple = new Tuple2<K, T>();
-	
-	
-	public KeyExtractingMapper(KeySelector<T, K> keySelector) {
-		this.keySelector = keySelector;
+/**
+ * An input view over a byte array, for serializer and comparator tests.
+ */
+public final class TestInputView extends DataInputStream implements DataInputView {
+
+	public TestInputView(byte[] data) {
+		super(new ByteArrayInputStream(data));
 	}
-	
-	
+
 	@Override
-	public Tuple2<K, T> map(T value) throws Exception {
-		
-		K key = keySelector.getKey(value);
-		tuple.T1(key);
-		tuple.T2(value);
-		
-		return tuple;
+	public void skipBytesToRead(int numBytes) throws IOException {
+		skipBytes(numBytes);
+	}
+	
+	/**
+	 * Checks whether all bytes have been read.
+	 */
+	public boolean isFullyRead() throws IOException {
+		return available() == 0;
 	}
 }
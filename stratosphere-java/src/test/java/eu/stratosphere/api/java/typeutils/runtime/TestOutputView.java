@@ -0,0 +1,53 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
+
+/**
+ * An output view over a growing byte array, for serializer and comparator tests.
+ */
+public final class TestOutputView extends DataOutputStream implements DataOutputView {
+
+	public TestOutputView() {
+		super(new ByteArrayOutputStream());
+	}
+	
+	/**
+	 * Gets an input view over the bytes written so far.
+	 */
+	public TestInputView getInputView() {
+		return new TestInputView(((ByteArrayOutputStream) this.out).toByteArray());
+	}
+
+	@Override
+	public void skipBytesToWrite(int numBytes) throws IOException {
+		for (int i = 0; i < numBytes; i++) {
+			write(0);
+		}
+	}
+
+	@Override
+	public void write(DataInputView source, int numBytes) throws IOException {
+		for (int i = 0; i < numBytes; i++) {
+			write(source.readByte());
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.base.IntComparator;
+import eu.stratosphere.api.common.typeutils.base.IntSerializer;
+import eu.stratosphere.api.common.typeutils.base.LongComparator;
+import eu.stratosphere.api.common.typeutils.base.LongSerializer;
+import eu.stratosphere.api.common.typeutils.base.StringSerializer;
+import eu.stratosphere.api.java.tuple.Tuple3;
+import eu.stratosphere.core.memory.MemorySegment;
+
+
+public class TupleComparatorTest {
+	
+	@SuppressWarnings("unchecked")
+	private static final Class<Tuple3<Integer, Long, String>> TUPLE_CLASS =
+			(Class<Tuple3<Integer, Long, String>>) (Class<?>) Tuple3.class;
+	
+	/**
+	 * Records with a key on (int, long). The int fields are mostly equal, such that the long fields decide.
+	 */
+	@SuppressWarnings("unchecked")
+	private static final Tuple3<Integer, Long, String>[] DATA = new Tuple3[] {
+		new Tuple3<Integer, Long, String>(Integer.MIN_VALUE, 0L, "a"),
+		new Tuple3<Integer, Long, String>(-7, Long.MAX_VALUE, "b"),
+		new Tuple3<Integer, Long, String>(5, Long.MIN_VALUE, "c"),
+		new Tuple3<Integer, Long, String>(5, -1L, "d"),
+		new Tuple3<Integer, Long, String>(5, 0L, "e"),
+		new Tuple3<Integer, Long, String>(5, 1L, "f"),
+		new Tuple3<Integer, Long, String>(7, 0L, "g"),
+		new Tuple3<Integer, Long, String>(Integer.MAX_VALUE, 3L, "h")
+	};
+	
+	@Test
+	public void testNormalizedKeyOfMultipleFields() throws IOException {
+		Serializer<Tuple3<Integer, Long, String>> serializer = new TupleSerializer<Tuple3<Integer, Long, String>>(
+				TUPLE_CLASS, new Serializer<?>[] { IntSerializer.INSTANCE, LongSerializer.INSTANCE, StringSerializer.INSTANCE });
+		TypeComparator<Tuple3<Integer, Long, String>> comparator = new TupleComparator<Tuple3<Integer, Long, String>>(
+				new int[] { 0, 1 }, new TypeComparator<?>[] { new IntComparator(true), new LongComparator(true) });
+		
+		final int len = comparator.getNormalizeKeyLen();
+		assertEquals(12, len);
+		assertFalse(comparator.isNormalizedKeyPrefixOnly(len));
+		
+		for (int i = 0; i < DATA.length; i++) {
+			for (int j = 0; j < DATA.length; j++) {
+				TestOutputView out1 = new TestOutputView();
+				TestOutputView out2 = new TestOutputView();
+				serializer.serialize(DATA[i], out1);
+				serializer.serialize(DATA[j], out2);
+				int expected = Integer.signum(comparator.compare(out1.getInputView(), out2.getInputView()));
+				assertEquals(Integer.signum(i - j), expected);
+				
+				// the key is fully normalized, so its bytes must order the records like compare()
+				MemorySegment seg = new MemorySegment(new byte[2 * len]);
+				comparator.putNormalizedKey(DATA[i], seg, 0, len);
+				comparator.putNormalizedKey(DATA[j], seg, len, len);
+				
+				int normCmp = 0;
+				for (int k = 0; k < len && normCmp == 0; k++) {
+					normCmp = (seg.get(k) & 0xff) - (seg.get(len + k) & 0xff);
+				}
+				assertEquals("Normalized key of " + i + " and " + j, expected, Integer.signum(normCmp));
+			}
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/***********************************************************************************************************************
+ *
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ **********************************************************************************************************************/
+package eu.stratosphere.api.java.typeutils.runtime;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.Serializer;
+import eu.stratosphere.api.common.typeutils.base.BooleanSerializer;
+import eu.stratosphere.api.common.typeutils.base.DoubleSerializer;
+import eu.stratosphere.api.common.typeutils.base.IntSerializer;
+import eu.stratosphere.api.common.typeutils.base.LongSerializer;
+import eu.stratosphere.api.common.typeutils.base.StringSerializer;
+import eu.stratosphere.api.java.tuple.Tuple6;
+
+
+public class TupleSerializerTest {
+	
+	@SuppressWarnings("unchecked")
+	private static final Class<Tuple6<Long, Integer, Double, String, String[], Boolean>> TUPLE_CLASS =
+			(Class<Tuple6<Long, Integer, Double, String, String[], Boolean>>) (Class<?>) Tuple6.class;
+	
+	/**
+	 * Long, int, double and string fields take the serializer's direct path, the array and boolean fields
+	 * go through their field serializers.
+	 */
+	private static final Serializer<?>[] FIELD_SERIALIZERS = {
+		LongSerializer.INSTANCE, IntSerializer.INSTANCE, DoubleSerializer.INSTANCE, StringSerializer.INSTANCE,
+		new GenericArraySerializer<String>(String.class, StringSerializer.INSTANCE), BooleanSerializer.INSTANCE };
+	
+	@SuppressWarnings("unchecked")
+	private static final Tuple6<Long, Integer, Double, String, String[], Boolean>[] DATA = new Tuple6[] {
+		new Tuple6<Long, Integer, Double, String, String[], Boolean>(0L, 0, 0.0, "", new String[0], false),
+		new Tuple6<Long, Integer, Double, String, String[], Boolean>(Long.MIN_VALUE, Integer.MAX_VALUE,
+				Double.NEGATIVE_INFINITY, "hello world", new String[] { "a", null, "c" }, true),
+		new Tuple6<Long, Integer, Double, String, String[], Boolean>(Long.MAX_VALUE, Integer.MIN_VALUE,
+				Double.NaN, "\u00e4\u4e2d\ud800\udc00", new String[] { null }, false),
+		new Tuple6<Long, Integer, Double, String, String[], Boolean>(-1L, 42, -0.0, "x", new String[] { "", "yz" }, true),
+		// a string whose length takes more than one byte
+		new Tuple6<Long, Integer, Double, String, String[], Boolean>(1L, 1, 1.0, new String(new char[300]).replace('\0', '\u00e4'),
+				new String[] { "x" }, true)
+	};
+	
+	@Test
+	public void testSerializeRoundTrip() throws IOException {
+		TupleSerializer<Tuple6<Long, Integer, Double, String, String[], Boolean>> serializer = createSerializer();
+		
+		TestOutputView out = new TestOutputView();
+		for (Tuple6<Long, Integer, Double, String, String[], Boolean> value : DATA) {
+			serializer.serialize(value, out);
+		}
+		
+		TestInputView in = out.getInputView();
+		Tuple6<Long, Integer, Double, String, String[], Boolean> reuse = serializer.createInstance();
+		for (Tuple6<Long, Integer, Double, String, String[], Boolean> value : DATA) {
+			reuse = serializer.deserialize(reuse, in);
+			assertTupleEquals(value, reuse);
+		}
+		assertTrue(in.isFullyRead());
+	}
+	
+	@Test
+	public void testCopySerialized() throws IOException {
+		TupleSerializer<Tuple6<Long, Integer, Double, String, String[], Boolean>> serializer = createSerializer();
+		
+		TestOutputView out = new TestOutputView();
+		for (Tuple6<Long, Integer, Double, String, String[], Boolean> value : DATA) {
+			serializer.serialize(value, out);
+		}
+		
+		// copying the serialized records must consume and write exactly the bytes of each field
+		TestInputView in = out.getInputView();
+		TestOutputView copied = new TestOutputView();
+		for (int i = 0; i < DATA.length; i++) {
+			serializer.copy(in, copied);
+		}
+		assertTrue(in.isFullyRead());
+		
+		TestInputView copiedIn = copied.getInputView();
+		for (Tuple6<Long, Integer, Double, String, String[], Boolean> value : DATA) {
+			assertTupleEquals(value, serializer.deserialize(serializer.createInstance(), copiedIn));
+		}
+		assertTrue(copiedIn.isFullyRead());
+	}
+	
+	@Test
+	public void testCopyInstance() {
+		TupleSerializer<Tuple6<Long, Integer, Double, String, String[], Boolean>> serializer = createSerializer();
+		
+		for (Tuple6<Long, Integer, Double, String, String[], Boolean> value : DATA) {
+			assertTupleEquals(value, serializer.copy(value, serializer.createInstance()));
+		}
+	}
+	
+	@Test
+	public void testNullInBasicField() throws IOException {
+		TupleSerializer<Tuple6<Long, Integer, Double, String, String[], Boolean>> serializer = createSerializer();
+		
+		// like the field serializers, the direct path does not support null fields
+		for (int pos = 0; pos < 4; pos++) {
+			Tuple6<Long, Integer, Double, String, String[], Boolean> value = serializer.copy(DATA[1], serializer.createInstance());
+			value.setField(null, pos);
+			try {
+				serializer.serialize(value, new TestOutputView());
+				fail("Null field " + pos + " was serialized.");
+			}
+			catch (NullPointerException npex) {
+				// expected
+			}
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static TupleSerializer<Tuple6<Long, Integer, Double, String, String[], Boolean>> createSerializer() {
+		return new TupleSerializer<Tuple6<Long, Integer, Double, String, String[], Boolean>>(TUPLE_CLASS, FIELD_SERIALIZERS);
+	}
+	
+	private static void assertTupleEquals(Tuple6<Long, Integer, Double, String, String[], Boolean> expected,
+			Tuple6<Long, Integer, Double, String, String[], Boolean> actual)
+	{
+		assertEquals(expected.T1(), actual.T1());
+		assertEquals(expected.T2(), actual.T2());
+		assertEquals(expected.T3(), actual.T3());
+		assertEquals(expected.T4(), actual.T4());
+		assertArrayEquals(expected.T5(), actual.T5());
+		assertEquals(expected.T6(), actual.T6());
+	}
+}
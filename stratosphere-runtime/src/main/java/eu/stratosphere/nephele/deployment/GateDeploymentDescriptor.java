@@ -49,6 +49,11 @@ public final class GateDeploymentDescriptor implements IOReadableWritable {
 	 */
 	private final List<ChannelDeploymentDescriptor> channels;
 
+	/**
+	 * Stores whether the buffers of the gate's channels shall be compressed when they are sent over the network.
+	 */
+	private boolean compressionEnabled;
+
 	/**
 	 * Constructs a new gate deployment descriptor
 	 * 
@@ -56,13 +61,29 @@ public final class GateDeploymentDescriptor implements IOReadableWritable {
 	 *        the ID of the gate
 	 * @param channelType
 	 *        the channel type of the gate
-	 * @param compressionLevel
-	 *        the compression level of the gate
 	 * @param channels
 	 *        the list of channel deployment descriptors attached to this gate
 	 */
 	public GateDeploymentDescriptor(final GateID gateID, final ChannelType channelType,
 			 List<ChannelDeploymentDescriptor> channels) {
+		this(gateID, channelType, channels, false);
+	}
+
+	/**
+	 * Constructs a new gate deployment descriptor
+	 * 
+	 * @param gateID
+	 *        the ID of the gate
+	 * @param channelType
+	 *        the channel type of the gate
+	 * @param channels
+	 *        the list of channel deployment descriptors attached to this gate
+	 * @param compressionEnabled
+	 *        <code>true</code> if the buffers of the gate's channels shall be compressed when they are sent over the
+	 *        network, <code>false</code> otherwise
+	 */
+	public GateDeploymentDescriptor(final GateID gateID, final ChannelType channelType,
+			 List<ChannelDeploymentDescriptor> channels, final boolean compressionEnabled) {
 
 		if (gateID == null) {
 			throw new IllegalArgumentException("Argument gateID must no be null");
@@ -79,6 +100,7 @@ public final class GateDeploymentDescriptor implements IOReadableWritable {
 		this.gateID = gateID;
 		this.channelType = channelType;
 		this.channels = channels;
+		this.compressionEnabled = compressionEnabled;
 	}
 
 	/**
@@ -97,6 +119,7 @@ public final class GateDeploymentDescriptor implements IOReadableWritable {
 
 		this.gateID.write(out);
 		EnumUtils.writeEnum(out, channelType);
+		out.writeBoolean(this.compressionEnabled);
 		out.writeInt(this.channels.size());
 		final Iterator<ChannelDeploymentDescriptor> it = this.channels.iterator();
 		while (it.hasNext()) {
@@ -110,6 +133,7 @@ public final class GateDeploymentDescriptor implements IOReadableWritable {
 
 		this.gateID.read(in);
 		this.channelType = EnumUtils.readEnum(in, ChannelType.class);
+		this.compressionEnabled = in.readBoolean();
 		final int nocdd = in.readInt();
 		for (int i = 0; i < nocdd; ++i) {
 			final ChannelDeploymentDescriptor cdd = new ChannelDeploymentDescriptor();
@@ -138,6 +162,16 @@ public final class GateDeploymentDescriptor implements IOReadableWritable {
 		return this.channelType;
 	}
 
+	/**
+	 * Checks whether the buffers of the gate's channels shall be compressed when they are sent over the network.
+	 * 
+	 * @return <code>true</code> if the buffers shall be compressed, <code>false</code> otherwise
+	 */
+	public boolean isCompressionEnabled() {
+
+		return this.compressionEnabled;
+	}
+
 	/**
 	 * Returns the number of channel deployment descriptors attached to this gate descriptor.
 	 * 
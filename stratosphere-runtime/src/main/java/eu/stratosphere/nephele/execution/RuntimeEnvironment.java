@@ -26,6 +26,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.core.io.IOReadableWritable;
 import eu.stratosphere.nephele.deployment.ChannelDeploymentDescriptor;
@@ -226,9 +227,13 @@ public class RuntimeEnvironment implements Environment, Runnable {
 		this.indexInSubtaskGroup = tdd.getIndexInSubtaskGroup();
 		this.currentNumberOfSubtasks = tdd.getCurrentNumberOfSubtasks();
 		this.memoryManager = memoryManager;
-		this.ioManager = ioManager;
 		this.inputSplitProvider = inputSplitProvider;
 		this.accumulatorProtocolProxy = accumulatorProtocolProxy;
+		
+		// the job may override the compression of spilled data
+		final String ioCompression = this.jobConfiguration.getString(ConfigConstants.JOB_IO_COMPRESSION_KEY, null);
+		this.ioManager = (ioManager != null && ioCompression != null) ?
+			ioManager.withCompression(IOManager.getCompressionCodec(ioCompression)) : ioManager;
 
 		this.invokable = this.invokableClass.newInstance();
 		this.invokable.setEnvironment(this);
@@ -248,6 +253,7 @@ public class RuntimeEnvironment implements Environment, Runnable {
 			final OutputGate og = this.outputGates.get(i);
 			final ChannelType channelType = gdd.getChannelType();
 			og.setChannelType(channelType);
+			og.setCompressionEnabled(gdd.isCompressionEnabled());
 
 			final int nocdd = gdd.getNumberOfChannelDescriptors();
 			for (int j = 0; j < nocdd; ++j) {
@@ -83,6 +83,11 @@ public final class ExecutionGate {
 		return this.groupEdge.getChannelType();
 	}
 
+	public boolean isCompressionEnabled() {
+
+		return this.groupEdge.isCompressionEnabled();
+	}
+
 	ExecutionGroupEdge getGroupEdge() {
 
 		return this.groupEdge;
@@ -70,6 +70,11 @@ public class ExecutionGroupEdge {
 	 */
 	private final boolean isBroadcast;
 
+	/**
+	 * Stores if the buffers shall be compressed when they are sent over the network.
+	 */
+	private final boolean compressionEnabled;
+
 	/**
 	 * Constructs a new group edge.
 	 * 
@@ -85,19 +90,18 @@ public class ExecutionGroupEdge {
 	 *        the channel type for the edge
 	 * @param userDefinedChannelType
 	 *        <code>true</code> if the channel type has been specified by the user, <code>false</code> otherwise
-	 * @param compressionLevel
-	 *        the compression level for the edge
-	 * @param userDefinedCompressionLevel
-	 *        <code>true</code> if the compression level has been specified by the user, <code>false</code> otherwise
 	 * @param distributionPattern
 	 *        the distribution pattern to create the wiring
 	 * @param isBroadcast
 	 *        indicates that the edge is part of a broadcast group
+	 * @param compressionEnabled
+	 *        <code>true</code> if the buffers shall be compressed when they are sent over the network,
+	 *        <code>false</code> otherwise
 	 */
 	public ExecutionGroupEdge(final ExecutionGroupVertex sourceVertex, final int indexOfOutputGate,
 			final ExecutionGroupVertex targetVertex, final int indexOfInputGate, final ChannelType channelType,
 			final boolean userDefinedChannelType, final DistributionPattern distributionPattern,
-			final boolean isBroadcast) {
+			final boolean isBroadcast, final boolean compressionEnabled) {
 		this.sourceVertex = sourceVertex;
 		this.indexOfOutputGate = indexOfOutputGate;
 		this.channelType = channelType;
@@ -106,6 +110,7 @@ public class ExecutionGroupEdge {
 		this.targetVertex = targetVertex;
 		this.distributionPattern = distributionPattern;
 		this.isBroadcast = isBroadcast;
+		this.compressionEnabled = compressionEnabled;
 	}
 
 	/**
@@ -215,4 +220,13 @@ public class ExecutionGroupEdge {
 	public boolean isBroadcast() {
 		return this.isBroadcast;
 	}
+
+	/**
+	 * Checks if the buffers shall be compressed when they are sent over the network.
+	 * 
+	 * @return <code>true</code> if the buffers shall be compressed, <code>false</code> otherwise
+	 */
+	public boolean isCompressionEnabled() {
+		return this.compressionEnabled;
+	}
 }
@@ -376,19 +376,19 @@ public final class ExecutionGroupVertex {
 	 *        the channel type to be used for this edge
 	 * @param userDefinedChannelType
 	 *        <code>true</code> if the channel type is user defined, <code>false</code> otherwise
-	 * @param compressionLevel
-	 *        the compression level to be used for this edge
-	 * @param userDefinedCompressionLevel
-	 *        <code>true</code> if the compression level is user defined, <code>false</code> otherwise
 	 * @param distributionPattern
 	 *        the distribution pattern to create the wiring between the group members
 	 * @param isBroadcast
 	 *        indicates that the edge is part of broadcast group
+	 * @param compressionEnabled
+	 *        <code>true</code> if the buffers shall be compressed when they are sent over the network,
+	 *        <code>false</code> otherwise
 	 * @return the created edge.
 	 */
 	ExecutionGroupEdge wireTo(final ExecutionGroupVertex groupVertex, final int indexOfInputGate,
 			final int indexOfOutputGate, final ChannelType channelType, final boolean userDefinedChannelType,
-			final DistributionPattern distributionPattern, final boolean isBroadcast) throws GraphConversionException {
+			final DistributionPattern distributionPattern, final boolean isBroadcast, final boolean compressionEnabled)
+			throws GraphConversionException {
 
 		try {
 			final ExecutionGroupEdge previousEdge = this.forwardLinks.get(indexOfOutputGate);
@@ -402,7 +402,7 @@ public final class ExecutionGroupVertex {
 
 		final ExecutionGroupEdge edge = new ExecutionGroupEdge(this, indexOfOutputGate, groupVertex, indexOfInputGate,
 			channelType, userDefinedChannelType, distributionPattern,
-			isBroadcast);
+			isBroadcast, compressionEnabled);
 
 		this.forwardLinks.add(edge);
 
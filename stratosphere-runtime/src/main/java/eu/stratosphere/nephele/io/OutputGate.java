@@ -76,6 +76,23 @@ public interface OutputGate<T extends IOReadableWritable> extends Gate<T> {
 	 */
 	boolean isBroadcast();
 
+	/**
+	 * Sets whether the buffers of the output channels connected to this gate shall be compressed when they are sent
+	 * over the network.
+	 * 
+	 * @param compressionEnabled
+	 *        <code>true</code> to compress the buffers sent over the network, <code>false</code> otherwise
+	 */
+	void setCompressionEnabled(boolean compressionEnabled);
+
+	/**
+	 * Checks whether the buffers of the output channels connected to this gate shall be compressed when they are sent
+	 * over the network.
+	 * 
+	 * @return <code>true</code> if the buffers sent over the network are compressed, <code>false</code> otherwise
+	 */
+	boolean isCompressionEnabled();
+
 	/**
 	 * Returns the number of output channels associated with this output gate.
 	 * 
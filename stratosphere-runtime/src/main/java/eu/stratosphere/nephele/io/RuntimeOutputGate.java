@@ -68,6 +68,12 @@ public class RuntimeOutputGate<T extends IOReadableWritable> extends AbstractGat
 	 */
 	private final boolean isBroadcast;
 
+	/**
+	 * Stores whether the buffers of the connected output channels shall be compressed when they are sent over the
+	 * network.
+	 */
+	private volatile boolean compressionEnabled = false;
+
 	/**
 	 * Constructs a new runtime output gate.
 	 * 
@@ -313,6 +319,20 @@ public class RuntimeOutputGate<T extends IOReadableWritable> extends AbstractGat
 	}
 
 
+	@Override
+	public void setCompressionEnabled(final boolean compressionEnabled) {
+
+		this.compressionEnabled = compressionEnabled;
+	}
+
+
+	@Override
+	public boolean isCompressionEnabled() {
+
+		return this.compressionEnabled;
+	}
+
+
 	@Override
 	public ChannelSelector<T> getChannelSelector() {
 
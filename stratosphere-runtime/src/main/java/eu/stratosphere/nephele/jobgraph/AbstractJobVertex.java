@@ -151,8 +151,6 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 	 *        the vertex this vertex should connect to
 	 * @param channelType
 	 *        the channel type the two vertices should be connected by at runtime
-	 * @param compressionLevel
-	 *        the compression level the corresponding channel should have at runtime
 	 * @throws JobGraphDefinitionException
 	 *         thrown if the given vertex cannot be connected to <code>vertex</code> in the requested manner
 	 */
@@ -167,8 +165,6 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 	 *        the vertex this vertex should connect to
 	 * @param channelType
 	 *        the channel type the two vertices should be connected by at runtime
-	 * @param compressionLevel
-	 *        the compression level the corresponding channel should have at runtime
 	 * @throws JobGraphDefinitionException
 	 *         thrown if the given vertex cannot be connected to <code>vertex</code> in the requested manner
 	 */
@@ -185,20 +181,47 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 	 *        the vertex this vertex should connect to
 	 * @param channelType
 	 *        the channel type the two vertices should be connected by at runtime
-	 * @param compressionLevel
-	 *        the compression level the corresponding channel should have at runtime
 	 * @param indexOfOutputGate
 	 *        index of the producing task's output gate to be used, <code>-1</code> will determine the next free index
 	 *        number
 	 * @param indexOfInputGate
 	 *        index of the consuming task's input gate to be used, <code>-1</code> will determine the next free index
 	 *        number
+	 * @param distributionPattern
+	 *        the distribution pattern between the subtasks of the two vertices
 	 * @throws JobGraphDefinitionException
 	 *         thrown if the given vertex cannot be connected to <code>vertex</code> in the requested manner
 	 */
 	public void connectTo(final AbstractJobVertex vertex, final ChannelType channelType, int indexOfOutputGate, int indexOfInputGate,
 			DistributionPattern distributionPattern)
 			throws JobGraphDefinitionException {
+		this.connectTo(vertex, channelType, indexOfOutputGate, indexOfInputGate, distributionPattern, false);
+	}
+
+	/**
+	 * Connects the job vertex to the specified job vertex.
+	 * 
+	 * @param vertex
+	 *        the vertex this vertex should connect to
+	 * @param channelType
+	 *        the channel type the two vertices should be connected by at runtime
+	 * @param indexOfOutputGate
+	 *        index of the producing task's output gate to be used, <code>-1</code> will determine the next free index
+	 *        number
+	 * @param indexOfInputGate
+	 *        index of the consuming task's input gate to be used, <code>-1</code> will determine the next free index
+	 *        number
+	 * @param distributionPattern
+	 *        the distribution pattern between the subtasks of the two vertices
+	 * @param compressionEnabled
+	 *        <code>true</code> if the buffers shall be compressed when they are sent over the network,
+	 *        <code>false</code> otherwise
+	 * @throws JobGraphDefinitionException
+	 *         thrown if the given vertex cannot be connected to <code>vertex</code> in the requested manner
+	 */
+	public void connectTo(final AbstractJobVertex vertex, final ChannelType channelType, int indexOfOutputGate, int indexOfInputGate,
+			DistributionPattern distributionPattern, boolean compressionEnabled)
+			throws JobGraphDefinitionException {
 
 		if (vertex == null) {
 			throw new JobGraphDefinitionException("Target vertex is null!");
@@ -229,9 +252,9 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 
 		// Add new edge
 		this.forwardEdges.set(indexOfOutputGate, new JobEdge(vertex, channelType, indexOfInputGate,
-			distributionPattern));
+			distributionPattern, compressionEnabled));
 		vertex.connectBacklink(this, channelType, indexOfOutputGate, indexOfInputGate,
-			distributionPattern);
+			distributionPattern, compressionEnabled);
 	}
 
 	/**
@@ -275,16 +298,19 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 	 *        the job vertex to connect to
 	 * @param channelType
 	 *        the channel type the two vertices should be connected by at runtime
-	 * @param compressionLevel
-	 *        the compression level the corresponding channel should have at runtime
 	 * @param indexOfOutputGate
 	 *        index of the producing task's output gate to be used
 	 * @param indexOfInputGate
 	 *        index of the consuming task's input gate to be used
+	 * @param distributionPattern
+	 *        the distribution pattern between the subtasks of the two vertices
+	 * @param compressionEnabled
+	 *        <code>true</code> if the buffers shall be compressed when they are sent over the network,
+	 *        <code>false</code> otherwise
 	 */
 	private void connectBacklink(final AbstractJobVertex vertex, final ChannelType channelType,
 			final int indexOfOutputGate, final int indexOfInputGate,
-			DistributionPattern distributionPattern) {
+			DistributionPattern distributionPattern, boolean compressionEnabled) {
 
 		// Make sure the array is big enough
 		for (int i = this.backwardEdges.size(); i <= indexOfInputGate; i++) {
@@ -292,7 +318,7 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 		}
 
 		this.backwardEdges.set(indexOfInputGate, new JobEdge(vertex, channelType, indexOfOutputGate,
-			distributionPattern));
+			distributionPattern, compressionEnabled));
 	}
 
 	/**
@@ -458,9 +484,10 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 				final ChannelType channelType = EnumUtils.readEnum(in, ChannelType.class);
 				final DistributionPattern distributionPattern = EnumUtils.readEnum(in, DistributionPattern.class);
 				final int indexOfInputGate = in.readInt();
+				final boolean compressionEnabled = in.readBoolean();
 
 				try {
-					this.connectTo(jv, channelType, i, indexOfInputGate, distributionPattern);
+					this.connectTo(jv, channelType, i, indexOfInputGate, distributionPattern, compressionEnabled);
 				} catch (JobGraphDefinitionException e) {
 					throw new IOException(StringUtils.stringifyException(e));
 				}
@@ -528,6 +555,7 @@ public abstract class AbstractJobVertex implements IOReadableWritable {
 				EnumUtils.writeEnum(out, edge.getChannelType());
 				EnumUtils.writeEnum(out, edge.getDistributionPattern());
 				out.writeInt(edge.getIndexOfInputGate());
+				out.writeBoolean(edge.isCompressionEnabled());
 			}
 		}
 
@@ -18,7 +18,7 @@ import eu.stratosphere.nephele.io.channels.ChannelType;
 
 /**
  * Objects of this class represent edges in the user's job graph.
- * The edges can be annotated by a specific channel and compression level.
+ * The edges can be annotated by a specific channel type and by whether the transferred buffers shall be compressed.
  * 
  */
 public class JobEdge {
@@ -43,6 +43,11 @@ public class JobEdge {
 	 */
 	private final DistributionPattern distributionPattern;
 
+	/**
+	 * Stores whether the buffers transferred along this edge shall be compressed when they are sent over the network.
+	 */
+	private final boolean compressionEnabled;
+
 	/**
 	 * Constructs a new job edge.
 	 * 
@@ -50,17 +55,38 @@ public class JobEdge {
 	 *        the vertex this edge should connect to
 	 * @param channelType
 	 *        the channel type this edge should be translated to at runtime
-	 * @param compressionLevel
-	 *        the compression level the corresponding channel should have at runtime
 	 * @param indexOfInputGate
 	 *        index of the consuming task's input gate that this edge connects to
+	 * @param distributionPattern
+	 *        the distribution pattern that should be used for this edge
 	 */
 	public JobEdge(final AbstractJobVertex connectedVertex, final ChannelType channelType,
 			final int indexOfInputGate, final DistributionPattern distributionPattern) {
+		this(connectedVertex, channelType, indexOfInputGate, distributionPattern, false);
+	}
+
+	/**
+	 * Constructs a new job edge.
+	 * 
+	 * @param connectedVertex
+	 *        the vertex this edge should connect to
+	 * @param channelType
+	 *        the channel type this edge should be translated to at runtime
+	 * @param indexOfInputGate
+	 *        index of the consuming task's input gate that this edge connects to
+	 * @param distributionPattern
+	 *        the distribution pattern that should be used for this edge
+	 * @param compressionEnabled
+	 *        <code>true</code> if the buffers shall be compressed when they are sent over the network,
+	 *        <code>false</code> otherwise
+	 */
+	public JobEdge(final AbstractJobVertex connectedVertex, final ChannelType channelType,
+			final int indexOfInputGate, final DistributionPattern distributionPattern, final boolean compressionEnabled) {
 		this.connectedVertex = connectedVertex;
 		this.channelType = channelType;
 		this.indexOfInputGate = indexOfInputGate;
 		this.distributionPattern = distributionPattern;
+		this.compressionEnabled = compressionEnabled;
 	}
 
 	/**
@@ -98,4 +124,13 @@ public class JobEdge {
 	public DistributionPattern getDistributionPattern(){
 		return this.distributionPattern;
 	}
+
+	/**
+	 * Checks whether the buffers transferred along this edge shall be compressed when they are sent over the network.
+	 * 
+	 * @return <code>true</code> if the buffers shall be compressed, <code>false</code> otherwise
+	 */
+	public boolean isCompressionEnabled() {
+		return this.compressionEnabled;
+	}
 }
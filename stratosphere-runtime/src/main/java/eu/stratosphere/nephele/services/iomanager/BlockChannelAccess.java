@@ -13,10 +13,12 @@
 
 package eu.stratosphere.nephele.services.iomanager;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import eu.stratosphere.core.memory.MemorySegment;
@@ -55,6 +57,11 @@ public abstract class BlockChannelAccess<R extends IORequest, C extends Collecti
 	 */
 	protected final C returnBuffers;
 	
+	/**
+	 * The codec with which the blocks are compressed, or null, if the blocks are not compressed.
+	 */
+	protected final BlockCompressionCodec codec;
+	
 	/**
 	 * Flag marking this channel as closed;
 	 */
@@ -85,6 +92,7 @@ public abstract class BlockChannelAccess<R extends IORequest, C extends Collecti
 		}
 		
 		this.returnBuffers = returnQueue;
+		this.codec = channelID.getCompressionCodec();
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -215,12 +223,20 @@ final class SegmentReadRequest implements ReadRequest
 			try {
 				final ByteBuffer wrapper = this.segment.wrap(0, this.segment.size());
 				this.channel.fileChannel.read(wrapper);
-			} catch (NullPointerException npex) {
-				// the memory has been cleared asynchronouosly through task failing or canceling
+			} catch (IllegalStateException isex) {
+				// the memory has been freed asynchronouosly through task failing or canceling
 				// ignore the request, since the result cannot be read
 			}
 		}
 	}
+	
+	/**
+	 * Gets the number of bytes that this request reads.
+	 */
+	int getNumBytes()
+	{
+		return this.segment.size();
+	}
 
 
 	@Override
@@ -253,11 +269,268 @@ final class SegmentWriteRequest implements WriteRequest
 	{
 		try {
 			this.channel.fileChannel.write(this.segment.wrap(0, this.segment.size()));
-		} catch (NullPointerException npex) {
-			// the memory has been cleared asynchronouosly through task failing or canceling
+		} catch (IllegalStateException isex) {
+			// the memory has been freed asynchronouosly through task failing or canceling
 			// ignore the request, since there is nothing to write.
 		}
 	}
+	
+	/**
+	 * Checks whether this request writes to the same channel as the given request.
+	 */
+	boolean isForSameChannel(SegmentWriteRequest other)
+	{
+		return this.channel == other.channel;
+	}
+	
+	/**
+	 * Writes the segments of the given requests, which must all write to the same channel, in one
+	 * gathering write.
+	 * 
+	 * @param requests The requests to write.
+	 * @return The number of bytes written.
+	 * @throws IOException Thrown, if the segments could not be written.
+	 */
+	static long write(List<SegmentWriteRequest> requests) throws IOException
+	{
+		if (requests.size() == 1) {
+			final SegmentWriteRequest request = requests.get(0);
+			request.write();
+			return request.segment.size();
+		}
+		
+		final ByteBuffer[] buffers = new ByteBuffer[requests.size()];
+		int num = 0;
+		long bytes = 0;
+		for (int i = 0; i < requests.size(); i++) {
+			final MemorySegment segment = requests.get(i).segment;
+			try {
+				buffers[num] = segment.wrap(0, segment.size());
+				bytes += segment.size();
+				num++;
+			} catch (IllegalStateException isex) {
+				// the memory has been freed asynchronouosly through task failing or canceling
+				// skip the segment, since there is nothing to write.
+			}
+		}
+		
+		final FileChannel c = requests.get(0).channel.fileChannel;
+		long remaining = bytes;
+		while (remaining > 0) {
+			remaining -= c.write(buffers, 0, num);
+		}
+		return bytes;
+	}
+
+
+	@Override
+	public void requestDone(IOException ioex)
+	{
+		this.channel.handleProcessedBuffer(this.segment, ioex);
+	}
+}
+
+//--------------------------------------------------------------------------------------------
+
+/**
+ * Thread local buffers for compressing and decompressing blocks in the I/O threads.
+ */
+final class CompressionBuffers
+{
+	/**
+	 * The length of the header in front of each compressed block: the uncompressed length and the
+	 * compressed length.
+	 */
+	static final int HEADER_LENGTH = 8;
+	
+	private static final ThreadLocal<CompressionBuffers> BUFFERS = new ThreadLocal<CompressionBuffers>() {
+		@Override
+		protected CompressionBuffers initialValue() {
+			return new CompressionBuffers();
+		}
+	};
+	
+	byte[] uncompressed = new byte[0];
+	
+	byte[] compressed = new byte[0];
+	
+	/**
+	 * Gets the calling thread's buffers, with room for a block of the given size in both buffers.
+	 */
+	static CompressionBuffers get(int blockSize, BlockCompressionCodec codec)
+	{
+		final CompressionBuffers buffers = BUFFERS.get();
+		if (buffers.uncompressed.length < blockSize) {
+			buffers.uncompressed = new byte[blockSize];
+		}
+		final int compressedSize = HEADER_LENGTH + Math.max(blockSize, codec.getMaxCompressedLength(blockSize));
+		if (buffers.compressed.length < compressedSize) {
+			buffers.compressed = new byte[compressedSize];
+		}
+		return buffers;
+	}
+	
+	static void putInt(byte[] b, int off, int value)
+	{
+		b[off] = (byte) (value >>> 24);
+		b[off + 1] = (byte) (value >>> 16);
+		b[off + 2] = (byte) (value >>> 8);
+		b[off + 3] = (byte) value;
+	}
+	
+	static int getInt(byte[] b, int off)
+	{
+		return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16) | ((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+	}
+}
+
+//--------------------------------------------------------------------------------------------
+
+/**
+ * Read request that reads a compressed block from a block reader and decompresses it into an entire memory segment.
+ */
+final class CompressedSegmentReadRequest implements ReadRequest
+{
+	private final BlockChannelAccess<ReadRequest, ?> channel;
+	
+	private final MemorySegment segment;
+	
+	private int numBytes;
+	
+	protected CompressedSegmentReadRequest(BlockChannelAccess<ReadRequest, ?> targetChannel, MemorySegment segment)
+	{
+		this.channel = targetChannel;
+		this.segment = segment;
+	}
+
+
+	@Override
+	public void read() throws IOException
+	{
+		final FileChannel c = this.channel.fileChannel;
+		if (c.size() - c.position() <= 0) {
+			return;
+		}
+		
+		final BlockCompressionCodec codec = this.channel.codec;
+		final int blockSize = this.segment.size();
+		final CompressionBuffers buffers = CompressionBuffers.get(blockSize, codec);
+		final byte[] compressed = buffers.compressed;
+		
+		readFully(c, ByteBuffer.wrap(compressed, 0, CompressionBuffers.HEADER_LENGTH));
+		final int uncompressedLength = CompressionBuffers.getInt(compressed, 0);
+		final int compressedLength = CompressionBuffers.getInt(compressed, 4);
+		if (uncompressedLength < 0 || uncompressedLength > blockSize || compressedLength < 0 ||
+				compressedLength > compressed.length - CompressionBuffers.HEADER_LENGTH)
+		{
+			throw new IOException("Corrupt compressed block header in channel '" + this.channel.getChannelID() + "'.");
+		}
+		readFully(c, ByteBuffer.wrap(compressed, CompressionBuffers.HEADER_LENGTH, compressedLength));
+		this.numBytes = CompressionBuffers.HEADER_LENGTH + compressedLength;
+		
+		try {
+			if (compressedLength == uncompressedLength) {
+				// the block was stored uncompressed
+				this.segment.put(0, compressed, CompressionBuffers.HEADER_LENGTH, uncompressedLength);
+			} else {
+				final int len = codec.decompress(compressed, CompressionBuffers.HEADER_LENGTH, compressedLength,
+					buffers.uncompressed, 0, uncompressedLength);
+				if (len != uncompressedLength) {
+					throw new IOException("Corrupt compressed block in channel '" + this.channel.getChannelID() + "'.");
+				}
+				this.segment.put(0, buffers.uncompressed, 0, uncompressedLength);
+			}
+		} catch (IllegalStateException isex) {
+			// the memory has been freed asynchronouosly through task failing or canceling
+			// ignore the request, since the result cannot be read
+		}
+	}
+	
+	/**
+	 * Gets the number of bytes that this request read from the file.
+	 */
+	int getNumBytes()
+	{
+		return this.numBytes;
+	}
+
+
+	@Override
+	public void requestDone(IOException ioex)
+	{
+		this.channel.handleProcessedBuffer(this.segment, ioex);
+	}
+	
+	private static void readFully(FileChannel c, ByteBuffer target) throws IOException
+	{
+		while (target.hasRemaining()) {
+			if (c.read(target) < 0) {
+				throw new EOFException("Unexpected end of compressed block.");
+			}
+		}
+	}
+}
+
+//--------------------------------------------------------------------------------------------
+
+/**
+ * Write request that compresses an entire memory segment and writes it to a block writer. The compressed
+ * block is preceded by its uncompressed and compressed lengths. Blocks that do not compress are stored as they are.
+ */
+final class CompressedSegmentWriteRequest implements WriteRequest
+{
+	private final BlockChannelAccess<WriteRequest, ?> channel;
+	
+	private final MemorySegment segment;
+	
+	private int numBytes;
+	
+	protected CompressedSegmentWriteRequest(BlockChannelAccess<WriteRequest, ?> targetChannel, MemorySegment segment)
+	{
+		this.channel = targetChannel;
+		this.segment = segment;
+	}
+
+
+	@Override
+	public void write() throws IOException
+	{
+		final BlockCompressionCodec codec = this.channel.codec;
+		final int blockSize = this.segment.size();
+		final CompressionBuffers buffers = CompressionBuffers.get(blockSize, codec);
+		final byte[] compressed = buffers.compressed;
+		
+		try {
+			this.segment.get(0, buffers.uncompressed, 0, blockSize);
+		} catch (IllegalStateException isex) {
+			// the memory has been freed asynchronouosly through task failing or canceling
+			// ignore the request, since there is nothing to write.
+			return;
+		}
+		
+		int compressedLength = codec.compress(buffers.uncompressed, 0, blockSize, compressed, CompressionBuffers.HEADER_LENGTH);
+		if (compressedLength >= blockSize) {
+			// the block does not compress, store it as it is
+			System.arraycopy(buffers.uncompressed, 0, compressed, CompressionBuffers.HEADER_LENGTH, blockSize);
+			compressedLength = blockSize;
+		}
+		CompressionBuffers.putInt(compressed, 0, blockSize);
+		CompressionBuffers.putInt(compressed, 4, compressedLength);
+		
+		this.numBytes = CompressionBuffers.HEADER_LENGTH + compressedLength;
+		final ByteBuffer buffer = ByteBuffer.wrap(compressed, 0, this.numBytes);
+		while (buffer.hasRemaining()) {
+			this.channel.fileChannel.write(buffer);
+		}
+	}
+	
+	/**
+	 * Gets the number of bytes that this request wrote to the file.
+	 */
+	int getNumBytes()
+	{
+		return this.numBytes;
+	}
 
 
 	@Override
@@ -78,7 +78,8 @@ public class BlockChannelReader extends BlockChannelAccess<ReadRequest, LinkedBl
 			this.requestsNotReturned.decrementAndGet();
 			throw new IOException("The reader has been closed.");
 		}
-		this.requestQueue.add(new SegmentReadRequest(this, segment));
+		this.requestQueue.add(this.codec == null ?
+			new SegmentReadRequest(this, segment) : new CompressedSegmentReadRequest(this, segment));
 	}
 	
 	/**
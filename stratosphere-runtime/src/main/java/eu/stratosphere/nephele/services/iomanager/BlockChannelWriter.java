@@ -74,7 +74,8 @@ public class BlockChannelWriter extends BlockChannelAccess<WriteRequest, LinkedB
 			this.requestsNotReturned.decrementAndGet();
 			throw new IOException("The writer has been closed.");
 		}
-		this.requestQueue.add(new SegmentWriteRequest(this, segment));
+		this.requestQueue.add(this.codec == null ?
+			new SegmentWriteRequest(this, segment) : new CompressedSegmentWriteRequest(this, segment));
 	}
 	
 	/**
@@ -0,0 +1,57 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+package eu.stratosphere.nephele.services.iomanager;
+
+import java.io.IOException;
+
+/**
+ * A codec that compresses and decompresses the contents of single blocks. Implementations must be thread-safe,
+ * because the blocks of different channels are compressed concurrently by the I/O manager's threads.
+ */
+public interface BlockCompressionCodec
+{
+	/**
+	 * Gets the maximal number of bytes that compressing a block of the given length may produce.
+	 * 
+	 * @param length The length of the uncompressed block.
+	 * @return The maximal length of the compressed block.
+	 */
+	int getMaxCompressedLength(int length);
+	
+	/**
+	 * Compresses the given bytes.
+	 * 
+	 * @param src The array holding the bytes to compress.
+	 * @param srcOffset The offset of the first byte to compress.
+	 * @param length The number of bytes to compress.
+	 * @param dst The array to write the compressed bytes to. Must have room for
+	 *            {@link #getMaxCompressedLength(int)} bytes after the offset.
+	 * @param dstOffset The offset at which to write the compressed bytes.
+	 * @return The number of compressed bytes.
+	 */
+	int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset);
+	
+	/**
+	 * Decompresses the given bytes.
+	 * 
+	 * @param src The array holding the compressed bytes.
+	 * @param srcOffset The offset of the first compressed byte.
+	 * @param length The number of compressed bytes.
+	 * @param dst The array to write the decompressed bytes to.
+	 * @param dstOffset The offset at which to write the decompressed bytes.
+	 * @param maxLength The maximal number of decompressed bytes.
+	 * @return The number of decompressed bytes.
+	 * @throws IOException Thrown, if the compressed data is corrupt.
+	 */
+	int decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int maxLength) throws IOException;
+}
@@ -61,7 +61,8 @@ public class BulkBlockChannelReader extends BlockChannelAccess<ReadRequest, Arra
 			this.requestsNotReturned.decrementAndGet();
 			throw new IOException("The reader has been closed.");
 		}
-		this.requestQueue.add(new SegmentReadRequest(this, segment));
+		this.requestQueue.add(this.codec == null ?
+			new SegmentReadRequest(this, segment) : new CompressedSegmentReadRequest(this, segment));
 	}
 	
 	public List<MemorySegment> getFullSegments()
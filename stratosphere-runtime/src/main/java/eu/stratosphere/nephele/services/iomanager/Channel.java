@@ -36,16 +36,20 @@ public final class Channel
 		private final String path;
 		
 		private final int threadNum;
+		
+		private final BlockCompressionCodec codec;
 
-		protected ID(final String path, final int threadNum) {
+		protected ID(final String path, final int threadNum, final BlockCompressionCodec codec) {
 			this.path = path;
 			this.threadNum = threadNum;
+			this.codec = codec;
 		}
 
-		protected ID(final String basePath, final int threadNum, final Random random)
+		protected ID(final String basePath, final int threadNum, final Random random, final BlockCompressionCodec codec)
 		{
 			this.path = basePath + File.separator + randomString(random) + ".channel";
 			this.threadNum = threadNum;
+			this.codec = codec;
 		}
 
 		/**
@@ -60,6 +64,15 @@ public final class Channel
 		int getThreadNum() {
 			return this.threadNum;
 		}
+		
+		/**
+		 * Gets the codec with which the blocks of the channel are compressed.
+		 * 
+		 * @return The codec, or null, if the blocks are not compressed.
+		 */
+		BlockCompressionCodec getCompressionCodec() {
+			return this.codec;
+		}
 
 		public String toString() {
 			return path;
@@ -73,20 +86,23 @@ public final class Channel
 		private final String[] paths;
 		
 		private final String namePrefix;
+		
+		private final BlockCompressionCodec codec;
 
 		private int counter;
 
-		protected Enumerator(final String[] basePaths, final Random random)
+		protected Enumerator(final String[] basePaths, final Random random, final BlockCompressionCodec codec)
 		{
 			this.paths = basePaths;
 			this.namePrefix = randomString(random);
+			this.codec = codec;
 			this.counter = 0;
 		}
 
 		public ID next()
 		{
 			final int threadNum = counter % paths.length;
-			return new ID(String.format(FORMAT, this.paths[threadNum], File.separator, namePrefix, (counter++)), threadNum);
+			return new ID(String.format(FORMAT, this.paths[threadNum], File.separator, namePrefix, (counter++)), threadNum, this.codec);
 		}
 	}
 
@@ -15,9 +15,12 @@ package eu.stratosphere.nephele.services.iomanager;
 
 import java.io.IOException;
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -26,7 +29,17 @@ import eu.stratosphere.core.memory.MemorySegment;
 
 /**
  * The facade for the provided I/O manager services.
- * 
+ * <p>
+ * The I/O manager runs a configurable number of reader and writer threads per temp directory. The requests of
+ * one channel are always served by the same thread, in the order in which they were issued, while different
+ * channels on the same directory may be served concurrently. Consecutive write requests of the same channel
+ * are combined into one gathering write. Per directory, the I/O manager keeps {@link PathStatistics} about the
+ * served requests.
+ * <p>
+ * Optionally, the blocks of the channels are compressed with a {@link BlockCompressionCodec}. The blocks are
+ * compressed and decompressed by the I/O threads, so readers and writers see uncompressed blocks only. The
+ * codec is fixed when the channel is created; {@link #withCompression(BlockCompressionCodec)} gives a view of
+ * the I/O manager that creates channels with a different codec.
  */
 public final class IOManager implements UncaughtExceptionHandler
 {
@@ -34,6 +47,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	 * Logging.
 	 */
 	private static final Log LOG = LogFactory.getLog(IOManager.class);
+	
+	/**
+	 * The shared LZ4 codec. The codec is thread-safe and keeps its buffers per thread.
+	 */
+	private static final BlockCompressionCodec LZ4_CODEC = new LZ4BlockCompressionCodec();
 
 	/**
 	 * The default temp paths for anonymous Channels.
@@ -46,20 +64,45 @@ public final class IOManager implements UncaughtExceptionHandler
 	private final Random random;
 
 	/**
-	 * The writer thread used for asynchronous block oriented channel writing.
+	 * The writer threads used for asynchronous block oriented channel writing, grouped by path.
 	 */
 	private final WriterThread[] writers;
 
 	/**
-	 * The reader threads used for asynchronous block oriented channel reading.
+	 * The reader threads used for asynchronous block oriented channel reading, grouped by path.
 	 */
 	private final ReaderThread[] readers;
 	
+	/**
+	 * The number of reader threads and writer threads per path.
+	 */
+	private final int threadsPerPath;
+	
+	/**
+	 * The counters used to assign channels round robin to the threads of a path.
+	 */
+	private final AtomicInteger[] nextThread;
+	
+	/**
+	 * The I/O statistics for each path.
+	 */
+	private final PathStatistics[] statistics;
+	
 	/**
 	 * The number of the next path to use.
 	 */
 	private volatile int nextPath;
 
+	/**
+	 * The codec used to compress the blocks of newly created channels, null for no compression.
+	 */
+	private final BlockCompressionCodec compressionCodec;
+	
+	/**
+	 * The I/O manager whose threads this I/O manager shares, null if this I/O manager owns its threads.
+	 */
+	private final IOManager parent;
+
 	/**
 	 * A boolean flag indicating whether the close() has already been invoked.
 	 */
@@ -87,22 +130,58 @@ public final class IOManager implements UncaughtExceptionHandler
 	}
 
 	/**
-	 * Constructs a new IOManager.
+	 * Constructs a new IOManager with one reader thread and one writer thread per path.
 	 * 
 	 * @param path
 	 *        the basic directory path for files underlying anonymous
 	 *        channels.
 	 */
-	public IOManager(String[] paths)
+	public IOManager(String[] paths) {
+		this(paths, 1);
+	}
+	
+	/**
+	 * Constructs a new IOManager.
+	 * 
+	 * @param paths The basic directory paths for files underlying anonymous channels.
+	 * @param threadsPerPath The number of reader threads and writer threads for each path.
+	 */
+	public IOManager(String[] paths, int threadsPerPath) {
+		this(paths, threadsPerPath, null);
+	}
+	
+	/**
+	 * Constructs a new IOManager.
+	 * 
+	 * @param paths The basic directory paths for files underlying anonymous channels.
+	 * @param threadsPerPath The number of reader threads and writer threads for each path.
+	 * @param compressionCodec The codec to compress the blocks of the channels with, or null, to
+	 *                         write the blocks uncompressed.
+	 */
+	public IOManager(String[] paths, int threadsPerPath, BlockCompressionCodec compressionCodec)
 	{
+		if (threadsPerPath < 1) {
+			throw new IllegalArgumentException("The number of I/O threads per path must be at least one.");
+		}
+		
 		this.paths = paths;
+		this.compressionCodec = compressionCodec;
+		this.parent = null;
+		this.threadsPerPath = threadsPerPath;
 		this.random = new Random();
 		this.nextPath = 0;
 		
-		// start a write worker thread for each directory
-		this.writers = new WriterThread[paths.length];
+		this.nextThread = new AtomicInteger[paths.length];
+		this.statistics = new PathStatistics[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			this.nextThread[i] = new AtomicInteger();
+			this.statistics[i] = new PathStatistics(paths[i]);
+		}
+		
+		// start the write worker threads for each directory
+		this.writers = new WriterThread[paths.length * threadsPerPath];
 		for (int i = 0; i < this.writers.length; i++) {
-			final WriterThread t = new WriterThread();
+			final WriterThread t = new WriterThread(this.statistics[i / threadsPerPath]);
 			this.writers[i] = t;
 			t.setName("IOManager writer thread #" + (i + 1));
 			t.setDaemon(true);
@@ -110,16 +189,86 @@ public final class IOManager implements UncaughtExceptionHandler
 			t.start();
 		}
 
-		// start a reader worker thread for each directory
-		this.readers = new ReaderThread[paths.length];
+		// start the reader worker threads for each directory
+		this.readers = new ReaderThread[paths.length * threadsPerPath];
 		for (int i = 0; i < this.readers.length; i++) {
-			final ReaderThread t = new ReaderThread();
+			final ReaderThread t = new ReaderThread(this.statistics[i / threadsPerPath]);
 			this.readers[i] = t;
 			t.setName("IOManager reader thread #" + (i + 1));
 			t.setDaemon(true);
 			t.setUncaughtExceptionHandler(this);
 			t.start();
 		}
+		
+		// register the request queues with the statistics, for the queue depth
+		for (int i = 0; i < paths.length; i++) {
+			final List<RequestQueue<?>> queues = new ArrayList<RequestQueue<?>>(2 * threadsPerPath);
+			for (int k = i * threadsPerPath; k < (i + 1) * threadsPerPath; k++) {
+				queues.add(this.writers[k].requestQueue);
+				queues.add(this.readers[k].requestQueue);
+			}
+			this.statistics[i].queues = queues;
+		}
+	}
+
+	/**
+	 * Constructs an IOManager that shares the threads of the given I/O manager, but creates its
+	 * channels with the given codec.
+	 */
+	private IOManager(IOManager parent, BlockCompressionCodec compressionCodec)
+	{
+		this.paths = parent.paths;
+		this.threadsPerPath = parent.threadsPerPath;
+		this.random = new Random();
+		this.nextThread = parent.nextThread;
+		this.statistics = parent.statistics;
+		this.writers = parent.writers;
+		this.readers = parent.readers;
+		this.compressionCodec = compressionCodec;
+		this.parent = parent;
+	}
+	
+	/**
+	 * Gets a view of this I/O manager that compresses the blocks of the channels it creates with the given
+	 * codec. The view shares the threads of this I/O manager. Shutting down the view shuts down this
+	 * I/O manager.
+	 * 
+	 * @param codec The codec to compress the blocks of the channels with, or null for no compression.
+	 * @return A view of this I/O manager with the given compression.
+	 */
+	public IOManager withCompression(BlockCompressionCodec codec)
+	{
+		if (codec == this.compressionCodec) {
+			return this;
+		}
+		return new IOManager(this.parent == null ? this : this.parent, codec);
+	}
+	
+	/**
+	 * Gets the codec with which the blocks of the channels created by this I/O manager are compressed.
+	 * 
+	 * @return The compression codec, or null, if the blocks are not compressed.
+	 */
+	public BlockCompressionCodec getCompressionCodec() {
+		return this.compressionCodec;
+	}
+	
+	/**
+	 * Gets the compression codec with the given name. The supported names are <i>none</i> and <i>lz4</i>.
+	 * 
+	 * @param name The name of the codec.
+	 * @return The compression codec, or null, for the name <i>none</i>.
+	 * @throws IllegalArgumentException Thrown, if the name refers to no known codec.
+	 */
+	public static BlockCompressionCodec getCompressionCodec(String name)
+	{
+		if (name == null || name.equalsIgnoreCase("none")) {
+			return null;
+		} else if (name.equalsIgnoreCase("lz4")) {
+			return LZ4_CODEC;
+		} else {
+			throw new IllegalArgumentException("Unknown compression codec: " + name);
+		}
 	}
 
 	/**
@@ -129,6 +278,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	 */
 	public synchronized final void shutdown()
 	{
+		if (this.parent != null) {
+			this.parent.shutdown();
+			return;
+		}
+		
 		if (!this.isClosed) {
 			this.isClosed = true;
 
@@ -164,6 +318,12 @@ public final class IOManager implements UncaughtExceptionHandler
 				}
 			}
 			catch (InterruptedException iex) {}
+			
+			if (LOG.isDebugEnabled()) {
+				for (PathStatistics stats : this.statistics) {
+					LOG.debug(stats);
+				}
+			}
 		}
 	}
 	
@@ -185,7 +345,7 @@ public final class IOManager implements UncaughtExceptionHandler
 			readersShutDown &= this.writers[i].getState() == Thread.State.TERMINATED;
 		}
 		
-		return this.isClosed && writersShutDown && readersShutDown;
+		return isClosed() && writersShutDown && readersShutDown;
 	}
 
 	/* (non-Javadoc)
@@ -198,6 +358,15 @@ public final class IOManager implements UncaughtExceptionHandler
 		shutdown();	
 	}
 
+	/**
+	 * Gets the I/O statistics of the temp directories, in the order in which the directories were given.
+	 * 
+	 * @return The I/O statistics of the temp directories.
+	 */
+	public PathStatistics[] getStatistics() {
+		return this.statistics;
+	}
+
 	// ------------------------------------------------------------------------
 	//                          Channel Instantiations
 	// ------------------------------------------------------------------------
@@ -211,7 +380,7 @@ public final class IOManager implements UncaughtExceptionHandler
 	public Channel.ID createChannel()
 	{
 		final int num = getNextPathNum();
-		return new Channel.ID(this.paths[num], num, this.random);
+		return new Channel.ID(this.paths[num], num, this.random, this.compressionCodec);
 	}
 
 	/**
@@ -222,7 +391,7 @@ public final class IOManager implements UncaughtExceptionHandler
 	 */
 	public Channel.Enumerator createChannelEnumerator()
 	{
-		return new Channel.Enumerator(this.paths, this.random);
+		return new Channel.Enumerator(this.paths, this.random, this.compressionCodec);
 	}
 
 	
@@ -244,11 +413,11 @@ public final class IOManager implements UncaughtExceptionHandler
 								LinkedBlockingQueue<MemorySegment> returnQueue)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelWriter(channelID, this.writers[channelID.getThreadNum()].requestQueue, returnQueue, 1);
+		return new BlockChannelWriter(channelID, getWriterQueue(channelID), returnQueue, 1);
 	}
 	
 	/**
@@ -274,11 +443,11 @@ public final class IOManager implements UncaughtExceptionHandler
 								LinkedBlockingQueue<MemorySegment> returnQueue, int numRequestsToCombine)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelWriter(channelID, this.writers[channelID.getThreadNum()].requestQueue, returnQueue, numRequestsToCombine);
+		return new BlockChannelWriter(channelID, getWriterQueue(channelID), returnQueue, numRequestsToCombine);
 	}
 	
 	/**
@@ -292,11 +461,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	public BlockChannelWriter createBlockChannelWriter(Channel.ID channelID)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelWriter(channelID, this.writers[channelID.getThreadNum()].requestQueue, new LinkedBlockingQueue<MemorySegment>(), 1);
+		return new BlockChannelWriter(channelID, getWriterQueue(channelID), new LinkedBlockingQueue<MemorySegment>(), 1);
 	}
 	
 	/**
@@ -319,11 +488,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	public BlockChannelWriter createBlockChannelWriter(Channel.ID channelID, int numRequestsToCombine)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelWriter(channelID, this.writers[channelID.getThreadNum()].requestQueue, new LinkedBlockingQueue<MemorySegment>(), numRequestsToCombine);
+		return new BlockChannelWriter(channelID, getWriterQueue(channelID), new LinkedBlockingQueue<MemorySegment>(), numRequestsToCombine);
 	}
 	
 	/**
@@ -340,11 +509,11 @@ public final class IOManager implements UncaughtExceptionHandler
 										LinkedBlockingQueue<MemorySegment> returnQueue)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelReader(channelID, this.readers[channelID.getThreadNum()].requestQueue, returnQueue, 1);
+		return new BlockChannelReader(channelID, getReaderQueue(channelID), returnQueue, 1);
 	}
 	
 	/**
@@ -370,11 +539,11 @@ public final class IOManager implements UncaughtExceptionHandler
 					LinkedBlockingQueue<MemorySegment> returnQueue, int numRequestsToCombine)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelReader(channelID, this.readers[channelID.getThreadNum()].requestQueue, returnQueue, numRequestsToCombine);
+		return new BlockChannelReader(channelID, getReaderQueue(channelID), returnQueue, numRequestsToCombine);
 	}
 	
 	/**
@@ -389,11 +558,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	public BlockChannelReader createBlockChannelReader(Channel.ID channelID)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelReader(channelID, this.readers[channelID.getThreadNum()].requestQueue, new LinkedBlockingQueue<MemorySegment>(), 1);
+		return new BlockChannelReader(channelID, getReaderQueue(channelID), new LinkedBlockingQueue<MemorySegment>(), 1);
 	}
 	
 	/**
@@ -417,11 +586,11 @@ public final class IOManager implements UncaughtExceptionHandler
 	public BlockChannelReader createBlockChannelReader(Channel.ID channelID, int numRequestsToCombine)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BlockChannelReader(channelID, this.readers[channelID.getThreadNum()].requestQueue, 
+		return new BlockChannelReader(channelID, getReaderQueue(channelID), 
 			new LinkedBlockingQueue<MemorySegment>(), numRequestsToCombine);
 	}
 	
@@ -444,17 +613,22 @@ public final class IOManager implements UncaughtExceptionHandler
 			List<MemorySegment> targetSegments,	int numBlocks)
 	throws IOException
 	{
-		if (this.isClosed) {
+		if (isClosed()) {
 			throw new IllegalStateException("I/O-Manger is closed.");
 		}
 		
-		return new BulkBlockChannelReader(channelID, this.readers[channelID.getThreadNum()].requestQueue, targetSegments, numBlocks);
+		return new BulkBlockChannelReader(channelID, getReaderQueue(channelID), targetSegments, numBlocks);
 	}
 	
 	// ========================================================================
 	//                             Utilities
 	// ========================================================================
 	
+	private final boolean isClosed()
+	{
+		return this.parent == null ? this.isClosed : this.parent.isClosed;
+	}
+	
 	private final int getNextPathNum()
 	{
 		final int next = this.nextPath;
@@ -463,6 +637,154 @@ public final class IOManager implements UncaughtExceptionHandler
 		return next;
 	}
 	
+	/**
+	 * Picks the thread of the channel's path that serves the new channel access. All requests of the
+	 * access go to that thread, which keeps them in order.
+	 */
+	private final int getThreadIndex(Channel.ID channelID)
+	{
+		final int pathNum = channelID.getThreadNum();
+		if (this.threadsPerPath == 1) {
+			return pathNum;
+		}
+		final int next = this.nextThread[pathNum].getAndIncrement() & Integer.MAX_VALUE;
+		return pathNum * this.threadsPerPath + next % this.threadsPerPath;
+	}
+	
+	private final RequestQueue<WriteRequest> getWriterQueue(Channel.ID channelID)
+	{
+		return this.writers[getThreadIndex(channelID)].requestQueue;
+	}
+	
+	private final RequestQueue<ReadRequest> getReaderQueue(Channel.ID channelID)
+	{
+		return this.readers[getThreadIndex(channelID)].requestQueue;
+	}
+	
+	// ========================================================================
+	//                             Statistics
+	// ========================================================================
+	
+	/**
+	 * I/O statistics of one temp directory, summed up over all its reader and writer threads.
+	 */
+	public static final class PathStatistics
+	{
+		private final String path;
+		
+		private final AtomicLong readRequests = new AtomicLong();
+		
+		private final AtomicLong bytesRead = new AtomicLong();
+		
+		private final AtomicLong readNanos = new AtomicLong();
+		
+		private final AtomicLong writeRequests = new AtomicLong();
+		
+		private final AtomicLong writeCalls = new AtomicLong();
+		
+		private final AtomicLong bytesWritten = new AtomicLong();
+		
+		private final AtomicLong writeNanos = new AtomicLong();
+		
+		private volatile List<RequestQueue<?>> queues;
+		
+		PathStatistics(String path) {
+			this.path = path;
+		}
+		
+		void addRead(long bytes, long nanos) {
+			this.readRequests.incrementAndGet();
+			this.bytesRead.addAndGet(bytes);
+			this.readNanos.addAndGet(nanos);
+		}
+		
+		void addWrite(int numRequests, long bytes, long nanos) {
+			this.writeRequests.addAndGet(numRequests);
+			this.writeCalls.incrementAndGet();
+			this.bytesWritten.addAndGet(bytes);
+			this.writeNanos.addAndGet(nanos);
+		}
+		
+		/**
+		 * Gets the temp directory that these statistics refer to.
+		 * 
+		 * @return The temp directory.
+		 */
+		public String getPath() {
+			return this.path;
+		}
+		
+		/**
+		 * Gets the number of requests that are currently queued for the threads of this directory.
+		 * 
+		 * @return The current queue depth.
+		 */
+		public int getQueueDepth() {
+			final List<RequestQueue<?>> queues = this.queues;
+			int depth = 0;
+			if (queues != null) {
+				for (RequestQueue<?> queue : queues) {
+					depth += queue.size();
+				}
+			}
+			return depth;
+		}
+		
+		public long getNumReadRequests() {
+			return this.readRequests.get();
+		}
+		
+		public long getNumBytesRead() {
+			return this.bytesRead.get();
+		}
+		
+		public long getNumWriteRequests() {
+			return this.writeRequests.get();
+		}
+		
+		/**
+		 * Gets the number of write calls issued to the file system. This is smaller than the number of
+		 * write requests, if consecutive requests were combined into gathering writes.
+		 * 
+		 * @return The number of write calls.
+		 */
+		public long getNumWriteCalls() {
+			return this.writeCalls.get();
+		}
+		
+		public long getNumBytesWritten() {
+			return this.bytesWritten.get();
+		}
+		
+		/**
+		 * Gets the read throughput, in bytes per second of time spent in reads, summed over all threads.
+		 * 
+		 * @return The read throughput.
+		 */
+		public double getReadThroughput() {
+			final long nanos = this.readNanos.get();
+			return nanos == 0 ? 0.0 : this.bytesRead.get() * 1000000000.0 / nanos;
+		}
+		
+		/**
+		 * Gets the write throughput, in bytes per second of time spent in writes, summed over all threads.
+		 * 
+		 * @return The write throughput.
+		 */
+		public double getWriteThroughput() {
+			final long nanos = this.writeNanos.get();
+			return nanos == 0 ? 0.0 : this.bytesWritten.get() * 1000000000.0 / nanos;
+		}
+		
+		@Override
+		public String toString() {
+			return "I/O statistics for '" + this.path + "': " + getNumReadRequests() + " reads (" + 
+				(getNumBytesRead() >>> 20) + " MiBytes, " + ((long) getReadThroughput() >>> 20) + " MiBytes/s), " +
+				getNumWriteRequests() + " writes in " + getNumWriteCalls() + " calls (" + (getNumBytesWritten() >>> 20) +
+				" MiBytes, " + ((long) getWriteThroughput() >>> 20) + " MiBytes/s), queue depth " + getQueueDepth();
+		}
+	}
+	
 	
 	// ========================================================================
 	//                          I/O Worker Threads
@@ -475,6 +797,8 @@ public final class IOManager implements UncaughtExceptionHandler
 	private static final class ReaderThread extends Thread
 	{
 		protected final RequestQueue<ReadRequest> requestQueue;
+		
+		private final PathStatistics statistics;
 
 		private volatile boolean alive;
 
@@ -482,9 +806,10 @@ public final class IOManager implements UncaughtExceptionHandler
 		// Constructors / Destructors
 		// ---------------------------------------------------------------------
 		
-		protected ReaderThread()
+		protected ReaderThread(PathStatistics statistics)
 		{
 			this.requestQueue = new RequestQueue<ReadRequest>();
+			this.statistics = statistics;
 			this.alive = true;
 		}
 		
@@ -540,10 +865,12 @@ public final class IOManager implements UncaughtExceptionHandler
 				
 				// remember any IO exception that occurs, so it can be reported to the writer
 				IOException ioex = null;
+				final long start = System.nanoTime();
 
 				try {
 					// read buffer from the specified channel
 					request.read();
+					this.statistics.addRead(getNumBytes(request), System.nanoTime() - start);
 				}
 				catch (IOException e) {
 					ioex = e;
@@ -559,6 +886,17 @@ public final class IOManager implements UncaughtExceptionHandler
 			} // end while alive
 		}
 		
+		private static int getNumBytes(ReadRequest request)
+		{
+			if (request instanceof SegmentReadRequest) {
+				return ((SegmentReadRequest) request).getNumBytes();
+			} else if (request instanceof CompressedSegmentReadRequest) {
+				return ((CompressedSegmentReadRequest) request).getNumBytes();
+			} else {
+				return 0;
+			}
+		}
+		
 	} // end reading thread
 	
 	/**
@@ -566,7 +904,16 @@ public final class IOManager implements UncaughtExceptionHandler
 	 */
 	private static final class WriterThread extends Thread
 	{
+		/**
+		 * The maximal number of consecutive write requests that are combined into one gathering write.
+		 */
+		private static final int MAX_GATHERED_REQUESTS = 16;
+		
 		protected final RequestQueue<WriteRequest> requestQueue;
+		
+		private final PathStatistics statistics;
+		
+		private final ArrayList<SegmentWriteRequest> gathered;
 
 		private volatile boolean alive;
 
@@ -574,9 +921,11 @@ public final class IOManager implements UncaughtExceptionHandler
 		// Constructors / Destructors
 		// ---------------------------------------------------------------------
 
-		protected WriterThread()
+		protected WriterThread(PathStatistics statistics)
 		{
 			this.requestQueue = new RequestQueue<WriteRequest>();
+			this.statistics = statistics;
+			this.gathered = new ArrayList<SegmentWriteRequest>(MAX_GATHERED_REQUESTS);
 			this.alive = true;
 		}
 
@@ -631,12 +980,20 @@ public final class IOManager implements UncaughtExceptionHandler
 					}
 				}
 				
+				if (request instanceof SegmentWriteRequest) {
+					writeGathered((SegmentWriteRequest) request);
+					continue;
+				}
+				
 				// remember any IO exception that occurs, so it can be reported to the writer
 				IOException ioex = null;
+				final long start = System.nanoTime();
 				
 				try {
 					// write buffer to the specified channel
 					request.write();
+					this.statistics.addWrite(1, request instanceof CompressedSegmentWriteRequest ?
+						((CompressedSegmentWriteRequest) request).getNumBytes() : 0, System.nanoTime() - start);
 				}
 				catch (IOException e) {
 					ioex = e;
@@ -652,5 +1009,54 @@ public final class IOManager implements UncaughtExceptionHandler
 			} // end while alive
 		}
 		
+		/**
+		 * Writes the given request together with the directly following requests for the same channel
+		 * in one gathering write. Because all requests of a channel are handled by this thread in order,
+		 * the combined requests are consecutive blocks of the channel.
+		 */
+		private void writeGathered(SegmentWriteRequest request)
+		{
+			final ArrayList<SegmentWriteRequest> gathered = this.gathered;
+			gathered.add(request);
+			
+			WriteRequest next;
+			while (gathered.size() < MAX_GATHERED_REQUESTS && (next = this.requestQueue.peek()) != null &&
+					next instanceof SegmentWriteRequest && ((SegmentWriteRequest) next).isForSameChannel(request))
+			{
+				// this thread is the only one taking requests from the queue, except for the shutdown
+				final WriteRequest polled = this.requestQueue.poll();
+				if (polled != next) {
+					if (polled != null) {
+						polled.requestDone(new IOException("Writer thread has been closed."));
+					}
+					break;
+				}
+				gathered.add((SegmentWriteRequest) polled);
+			}
+			
+			// remember any IO exception that occurs, so it can be reported to the writer
+			IOException ioex = null;
+			final long start = System.nanoTime();
+			
+			try {
+				final long bytes = SegmentWriteRequest.write(gathered);
+				this.statistics.addWrite(gathered.size(), bytes, System.nanoTime() - start);
+			}
+			catch (IOException e) {
+				ioex = e;
+			}
+			catch (Throwable t) {
+				ioex = new IOException("The buffers could not be written: " + t.getMessage(), t);
+				IOManager.LOG.error("I/O writing thread encountered an error" + 
+					(t.getMessage() == null ? "." : ": " + t.getMessage()), t);
+			}
+			
+			// invoke the processed buffer handler of the request issuing writer object
+			for (int i = 0; i < gathered.size(); i++) {
+				gathered.get(i).requestDone(ioex);
+			}
+			gathered.clear();
+		}
+		
 	}; // end writer thread
 }
@@ -0,0 +1,223 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+package eu.stratosphere.nephele.services.iomanager;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pure Java block compression codec that produces the LZ4 block format. The compressor does a single greedy
+ * pass with a hash table over four-byte sequences, which makes it fast enough to compress spilled data at disk
+ * speed. Serialized records with repeated field values and strings typically compress by a factor of two or more.
+ */
+public final class LZ4BlockCompressionCodec implements BlockCompressionCodec
+{
+	private static final int MIN_MATCH = 4;
+	
+	private static final int HASH_LOG = 13;
+	
+	private static final int MAX_DISTANCE = 65535;
+	
+	private static final int MATCH_FIND_LIMIT = 12;	// no match may start in the last bytes
+	
+	private static final int LAST_LITERALS = 5;		// the last bytes are always literals
+	
+	private static final int RUN_MASK = 15;
+	
+	
+	private final ThreadLocal<int[]> hashTables = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[1 << HASH_LOG];
+		}
+	};
+	
+	// --------------------------------------------------------------------------------------------
+	
+	@Override
+	public int getMaxCompressedLength(int length) {
+		return length + length / 255 + 16;
+	}
+
+	@Override
+	public int compress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset) {
+		final int srcEnd = srcOffset + length;
+		final int matchFindLimit = srcEnd - MATCH_FIND_LIMIT;
+		final int matchLimit = srcEnd - LAST_LITERALS;
+		
+		int sOff = srcOffset;
+		int dOff = dstOffset;
+		int anchor = srcOffset;
+		
+		if (length > MATCH_FIND_LIMIT) {
+			final int[] table = this.hashTables.get();
+			Arrays.fill(table, -1);
+			
+			while (sOff < matchFindLimit) {
+				final int sequence = readInt(src, sOff);
+				final int h = hash(sequence);
+				int ref = table[h];
+				table[h] = sOff;
+				
+				if (ref < 0 || sOff - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+					sOff++;
+					continue;
+				}
+				
+				// extend the match backwards into the pending literals
+				while (sOff > anchor && ref > srcOffset && src[sOff - 1] == src[ref - 1]) {
+					sOff--;
+					ref--;
+				}
+				
+				// extend the match forward
+				int matchLen = MIN_MATCH;
+				while (sOff + matchLen < matchLimit && src[sOff + matchLen] == src[ref + matchLen]) {
+					matchLen++;
+				}
+				
+				// encode the literals and the match
+				final int litLen = sOff - anchor;
+				final int tokenOff = dOff++;
+				int token;
+				if (litLen >= RUN_MASK) {
+					token = RUN_MASK << 4;
+					dOff = writeLength(litLen - RUN_MASK, dst, dOff);
+				} else {
+					token = litLen << 4;
+				}
+				System.arraycopy(src, anchor, dst, dOff, litLen);
+				dOff += litLen;
+				
+				final int offset = sOff - ref;
+				dst[dOff++] = (byte) offset;
+				dst[dOff++] = (byte) (offset >>> 8);
+				
+				final int remainingMatchLen = matchLen - MIN_MATCH;
+				if (remainingMatchLen >= RUN_MASK) {
+					token |= RUN_MASK;
+					dOff = writeLength(remainingMatchLen - RUN_MASK, dst, dOff);
+				} else {
+					token |= remainingMatchLen;
+				}
+				dst[tokenOff] = (byte) token;
+				
+				sOff += matchLen;
+				anchor = sOff;
+			}
+		}
+		
+		// encode the last literals
+		final int litLen = srcEnd - anchor;
+		if (litLen >= RUN_MASK) {
+			dst[dOff++] = (byte) (RUN_MASK << 4);
+			dOff = writeLength(litLen - RUN_MASK, dst, dOff);
+		} else {
+			dst[dOff++] = (byte) (litLen << 4);
+		}
+		System.arraycopy(src, anchor, dst, dOff, litLen);
+		dOff += litLen;
+		
+		return dOff - dstOffset;
+	}
+
+	@Override
+	public int decompress(byte[] src, int srcOffset, int length, byte[] dst, int dstOffset, int maxLength)
+			throws IOException
+	{
+		final int srcEnd = srcOffset + length;
+		final int dstEnd = dstOffset + maxLength;
+		
+		int sOff = srcOffset;
+		int dOff = dstOffset;
+		
+		try {
+			while (true) {
+				final int token = src[sOff++] & 0xff;
+				
+				// copy the literals
+				int litLen = token >>> 4;
+				if (litLen == RUN_MASK) {
+					int b;
+					do {
+						b = src[sOff++] & 0xff;
+						litLen += b;
+					} while (b == 255);
+				}
+				if (litLen > srcEnd - sOff || litLen > dstEnd - dOff) {
+					throw new IOException("Corrupt compressed block: literals exceed the block bounds.");
+				}
+				System.arraycopy(src, sOff, dst, dOff, litLen);
+				sOff += litLen;
+				dOff += litLen;
+				
+				if (sOff == srcEnd) {
+					// the last sequence has no match
+					return dOff - dstOffset;
+				}
+				
+				// copy the match
+				if (srcEnd - sOff < 2) {
+					throw new IOException("Corrupt compressed block: unexpected end of data.");
+				}
+				final int offset = (src[sOff] & 0xff) | ((src[sOff + 1] & 0xff) << 8);
+				sOff += 2;
+				int matchLen = token & RUN_MASK;
+				if (matchLen == RUN_MASK) {
+					int b;
+					do {
+						b = src[sOff++] & 0xff;
+						matchLen += b;
+					} while (b == 255);
+				}
+				matchLen += MIN_MATCH;
+				
+				final int ref = dOff - offset;
+				if (offset == 0 || ref < dstOffset || matchLen > dstEnd - dOff) {
+					throw new IOException("Corrupt compressed block: match exceeds the block bounds.");
+				}
+				if (offset >= matchLen) {
+					System.arraycopy(dst, ref, dst, dOff, matchLen);
+				} else {
+					// overlapping match, repeats the last bytes
+					for (int i = 0; i < matchLen; i++) {
+						dst[dOff + i] = dst[ref + i];
+					}
+				}
+				dOff += matchLen;
+			}
+		}
+		catch (ArrayIndexOutOfBoundsException aioobex) {
+			throw new IOException("Corrupt compressed block: unexpected end of data.");
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static int readInt(byte[] b, int off) {
+		return (b[off] & 0xff) | ((b[off + 1] & 0xff) << 8) | ((b[off + 2] & 0xff) << 16) | ((b[off + 3] & 0xff) << 24);
+	}
+	
+	private static int hash(int sequence) {
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+	
+	private static int writeLength(int length, byte[] dst, int dOff) {
+		while (length >= 255) {
+			dst[dOff++] = (byte) 255;
+			length -= 255;
+		}
+		dst[dOff++] = (byte) length;
+		return dOff;
+	}
+}
@@ -14,6 +14,7 @@
 package eu.stratosphere.nephele.services.memorymanager.spi;
 
 
+import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -22,6 +23,9 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -46,7 +50,22 @@ import eu.stratosphere.nephele.template.AbstractInvokable;
  * the manager works 2 dimensional byte array (i.e. with memory chunks). Please be aware that in order to keep the array
  * access methods in the {@link DefaultMemorySegment} fast and simple, the actual allocated memory segments must not
  * exceed 2GB and must be contained in a single memory chunk.
- * 
+ * <p>
+ * Optionally, the memory manager allocates its pages outside the heap, as direct byte buffers. Off-heap pages do not
+ * need to be scanned and moved by the garbage collector, which keeps garbage collection pauses short for large
+ * amounts of managed memory. Note that the JVM must be allowed to allocate that much direct memory
+ * (<i>-XX:MaxDirectMemorySize</i>).
+ * <p>
+ * By default, all pages are allocated when the memory manager is created. In the lazy allocation mode, pages are only
+ * materialized when they are first requested, and the memory manager merely guarantees that the configured amount of
+ * memory is never exceeded. With an idle release timeout, pages that have not been requested for that time are
+ * dropped again and left to the garbage collector, such that idle workers do not hold on to their memory.
+ * <p>
+ * The memory manager is shared by all tasks of a worker, so it avoids a global lock: The free pages and the
+ * book-keeping of the allocated segments are split into several stripes, each guarded by its own lock. An owner
+ * is always served by the same stripe, and pages released by an owner go back to its stripe. Only if a stripe runs
+ * dry, pages are taken from the other stripes. The number of available pages is tracked with an atomic counter,
+ * which guarantees that the memory budget is never exceeded.
  */
 public class DefaultMemoryManager implements MemoryManager
 {
@@ -60,6 +79,11 @@ public class DefaultMemoryManager implements MemoryManager
 	 */
 	public static final int MIN_PAGE_SIZE = 4 * 1024;
 	
+	/**
+	 * The maximal number of lock stripes.
+	 */
+	private static final int MAX_NUM_STRIPES = 64;
+	
 	/**
 	 * The Log.
 	 */
@@ -67,11 +91,13 @@ public class DefaultMemoryManager implements MemoryManager
 	
 	// --------------------------------------------------------------------------------------------
 	
-	private final Object lock = new Object();	 	// The lock used on the shared structures.
+	private final Stripe[] stripes;			// the stripes holding free pages and allocated segments
 	
-	private final ArrayDeque<byte[]> freeSegments;	// the free memory segments
+	private final int stripeMask;			// mask used to map owners to stripes
 	
-	private final HashMap<AbstractInvokable, Set<DefaultMemorySegment>> allocatedSegments;
+	private final AtomicInteger numAvailablePages;		// the number of pages that may still be handed out
+	
+	private final AtomicInteger numUnmaterializedPages;	// the number of pages that are available, but not allocated yet
 	
 	private final long roundingMask;		// mask used to round down sizes to multiples of the page size
 	
@@ -81,7 +107,15 @@ public class DefaultMemoryManager implements MemoryManager
 	
 	private final int totalNumPages;		// The initial total size, for verification.
 	
-	private boolean isShutDown;				// flag whether the close() has already been invoked.
+	private final boolean offHeap;			// flag whether the pages are allocated outside the heap
+	
+	private final long idleReleaseTimeout;	// time after which unused free pages are dropped, disabled if <= 0
+	
+	private final Timer idleReleaseTimer;	// the timer that checks for idle pages, null if idle release is disabled
+	
+	private volatile long lastAllocationTime;	// the time when pages were last handed out
+	
+	private volatile boolean isShutDown;	// flag whether the close() has already been invoked.
 
 	// ------------------------------------------------------------------------
 	// Constructors / Destructors
@@ -102,7 +136,36 @@ public class DefaultMemoryManager implements MemoryManager
 	 * @param memorySize The total size of the memory to be managed by this memory manager.
 	 * @param pageSize The size of the pages handed out by the memory manager.
 	 */
-	public DefaultMemoryManager(long memorySize, int pageSize)
+	public DefaultMemoryManager(long memorySize, int pageSize) {
+		this(memorySize, pageSize, false);
+	}
+	
+	/**
+	 * Creates a memory manager with the given capacity and given page size, allocating its memory either on the
+	 * heap or outside the heap.
+	 * 
+	 * @param memorySize The total size of the memory to be managed by this memory manager.
+	 * @param pageSize The size of the pages handed out by the memory manager.
+	 * @param offHeap True, if the memory is to be allocated outside the heap, false for heap memory.
+	 */
+	public DefaultMemoryManager(long memorySize, int pageSize, boolean offHeap) {
+		this(memorySize, pageSize, offHeap, false, -1);
+	}
+	
+	/**
+	 * Creates a memory manager with the given capacity and given page size, allocating its memory either on the
+	 * heap or outside the heap, and either eagerly when created, or lazily when the pages are first requested.
+	 * 
+	 * @param memorySize The total size of the memory to be managed by this memory manager.
+	 * @param pageSize The size of the pages handed out by the memory manager.
+	 * @param offHeap True, if the memory is to be allocated outside the heap, false for heap memory.
+	 * @param lazyAllocation True, if the pages are to be allocated when first requested, false to allocate
+	 *                       all pages in the constructor.
+	 * @param idleReleaseTimeout The time (in milliseconds) after which free pages are dropped, if no pages have
+	 *                           been requested in the meantime. Dropped pages are allocated again when requested.
+	 *                           A value of zero or less disables the release of idle pages. Requires lazy allocation.
+	 */
+	public DefaultMemoryManager(long memorySize, int pageSize, boolean offHeap, boolean lazyAllocation, long idleReleaseTimeout)
 	{
 		// sanity checks
 		if (memorySize <= 0) {
@@ -115,6 +178,9 @@ public class DefaultMemoryManager implements MemoryManager
 			// not a power of two
 			throw new IllegalArgumentException("The given page size is not a power of two.");
 		}
+		if (idleReleaseTimeout > 0 && !lazyAllocation) {
+			throw new IllegalArgumentException("Releasing idle memory requires lazy allocation.");
+		}
 		
 		// assign page size and bit utilities
 		this.pageSize = pageSize;
@@ -123,21 +189,44 @@ public class DefaultMemoryManager implements MemoryManager
 		while ((pageSize = pageSize >>> 1) != 0)
 			log++;
 		this.pageSizeBits = log;
+		this.offHeap = offHeap;
 		
 		this.totalNumPages = getNumPages(memorySize);
 		if (this.totalNumPages < 1) {
 			throw new IllegalArgumentException("The given amount of memory amounted to less than one page.");
 		}
 		
-		// initialize the free segments and allocated segments tracking structures
-		this.freeSegments = new ArrayDeque<byte[]>();
-		this.allocatedSegments = new HashMap<AbstractInvokable, Set<DefaultMemorySegment>>();
-
+		// initialize the stripes, one per core (rounded to the next power of two)
+		int numStripes = 1;
+		final int numCores = Runtime.getRuntime().availableProcessors();
+		while (numStripes < numCores && numStripes < MAX_NUM_STRIPES) {
+			numStripes <<= 1;
+		}
+		this.stripes = new Stripe[numStripes];
+		for (int i = 0; i < numStripes; i++) {
+			this.stripes[i] = new Stripe();
+		}
+		this.stripeMask = numStripes - 1;
+		
+		this.numAvailablePages = new AtomicInteger(this.totalNumPages);
+		
+		if (lazyAllocation) {
+			this.numUnmaterializedPages = new AtomicInteger(this.totalNumPages);
+		} else {
+			this.numUnmaterializedPages = new AtomicInteger(0);
+			
+			// allocate the pages and distribute them round robin over the stripes
+			for (int i = 0; i < this.totalNumPages; i++) {
+				this.stripes[i & this.stripeMask].freePages.add(materializePage());
+			}
+		}
 		
-		// add the full chunks
-		for (int i = 0; i < this.totalNumPages; i++) {
-			// allocate memory of the specified size
-			this.freeSegments.add(new byte[this.pageSize]);
+		this.idleReleaseTimeout = idleReleaseTimeout;
+		if (idleReleaseTimeout > 0) {
+			this.idleReleaseTimer = new Timer("Memory Manager Idle Release", true);
+			this.idleReleaseTimer.schedule(new IdleReleaseTask(), idleReleaseTimeout, idleReleaseTimeout);
+		} else {
+			this.idleReleaseTimer = null;
 		}
 	}
 
@@ -145,34 +234,55 @@ public class DefaultMemoryManager implements MemoryManager
 	@Override
 	public void shutdown()
 	{
-		// -------------------- BEGIN CRITICAL SECTION -------------------
-		synchronized (this.lock)
-		{
-			if (!this.isShutDown) {
-				if (LOG.isDebugEnabled())
-					LOG.debug("Shutting down MemoryManager instance " + toString());
-	
-				// mark as shutdown and release memory
-				this.isShutDown = true;
-				this.freeSegments.clear();
+		synchronized (this.stripes) {
+			if (this.isShutDown) {
+				return;
+			}
+			if (LOG.isDebugEnabled())
+				LOG.debug("Shutting down MemoryManager instance " + toString());
+			
+			// mark as shutdown, so that no more pages are handed out
+			this.isShutDown = true;
+			this.numAvailablePages.set(0);
+			this.numUnmaterializedPages.set(0);
+		}
+		
+		if (this.idleReleaseTimer != null) {
+			this.idleReleaseTimer.cancel();
+		}
+		
+		// release the memory and go over all allocated segments and release them
+		for (Stripe stripe : this.stripes) {
+			// -------------------- BEGIN CRITICAL SECTION -------------------
+			synchronized (stripe)
+			{
+				stripe.freePages.clear();
 				
-				// go over all allocated segments and release them
-				for (Set<DefaultMemorySegment> segments : this.allocatedSegments.values()) {
+				for (Set<DefaultMemorySegment> segments : stripe.allocatedSegments.values()) {
 					for (DefaultMemorySegment seg : segments) {
 						seg.destroy();
 					}
 				}
+				stripe.allocatedSegments.clear();
 			}
+			// -------------------- END CRITICAL SECTION -------------------
 		}
-		// -------------------- END CRITICAL SECTION -------------------
 	}
 	
 
 	public boolean verifyEmpty()
 	{
-		synchronized (this.lock) {
-			return this.freeSegments.size() == this.totalNumPages;
-		}
+		return this.numAvailablePages.get() == this.totalNumPages;
+	}
+	
+	/**
+	 * Gets the number of pages that are currently allocated, either handed out or kept in the pool
+	 * of free pages. Without lazy allocation, this is always the total number of pages.
+	 * 
+	 * @return The number of materialized pages.
+	 */
+	public int getNumberOfMaterializedPages() {
+		return this.totalNumPages - this.numUnmaterializedPages.get();
 	}
 
 	// ------------------------------------------------------------------------
@@ -200,33 +310,68 @@ public class DefaultMemoryManager implements MemoryManager
 		if (owner == null) {
 			throw new IllegalAccessError("The memory owner must not be null.");
 		}
+		if (this.isShutDown) {
+			throw new IllegalStateException("Memory manager has been shut down.");
+		}
 		
 		// reserve array space, if applicable
 		if (target instanceof ArrayList) {
 			((ArrayList<MemorySegment>) target).ensureCapacity(numPages);
 		}
 		
+		// reserve the pages. once reserved, the pages are guaranteed to be either in one of the
+		// free lists, or still unmaterialized
+		int numAvailable;
+		do {
+			numAvailable = this.numAvailablePages.get();
+			if (numPages > numAvailable) {
+				throw new MemoryAllocationException("Could not allocate " + numPages + " pages. Only " + 
+					numAvailable + " pages are remaining.");
+			}
+		}
+		while (!this.numAvailablePages.compareAndSet(numAvailable, numAvailable - numPages));
+		this.lastAllocationTime = System.currentTimeMillis();
+		
+		// collect the pages: first from the owner's stripe, then from the other stripes, then new ones
+		final int stripeIndex = getStripeIndex(owner);
+		final Stripe stripe = this.stripes[stripeIndex];
+		final ArrayList<Object> pages = new ArrayList<Object>(numPages);
+		
+		stripe.takeFreePages(pages, numPages);
+		for (int i = 1; i < this.stripes.length && pages.size() < numPages; i++) {
+			this.stripes[(stripeIndex + i) & this.stripeMask].takeFreePages(pages, numPages);
+		}
+		while (pages.size() < numPages) {
+			if (takeUnmaterializedPage()) {
+				pages.add(materializePage());
+			}
+			else if (this.isShutDown) {
+				throw new IllegalStateException("Memory manager has been shut down.");
+			}
+			else {
+				// the reserved pages are currently being returned by another thread
+				Thread.yield();
+				for (int i = 0; i < this.stripes.length && pages.size() < numPages; i++) {
+					this.stripes[i].takeFreePages(pages, numPages);
+				}
+			}
+		}
+		
 		// -------------------- BEGIN CRITICAL SECTION -------------------
-		synchronized (this.lock)
+		synchronized (stripe)
 		{
 			if (this.isShutDown) {
 				throw new IllegalStateException("Memory manager has been shut down.");
 			}
 			
-			if (numPages > this.freeSegments.size()) {
-				throw new MemoryAllocationException("Could not allocate " + numPages + " pages. Only " + 
-					this.freeSegments.size() + " pages are remaining.");
-			}
-			
-			Set<DefaultMemorySegment> segmentsForOwner = this.allocatedSegments.get(owner);
+			Set<DefaultMemorySegment> segmentsForOwner = stripe.allocatedSegments.get(owner);
 			if (segmentsForOwner == null) {
 				segmentsForOwner = new HashSet<DefaultMemorySegment>(4 * numPages / 3 + 1);
-				this.allocatedSegments.put(owner, segmentsForOwner);
+				stripe.allocatedSegments.put(owner, segmentsForOwner);
 			}
 			
-			for (int i = numPages; i > 0; i--) {
-				byte[] buffer = this.freeSegments.poll();
-				final DefaultMemorySegment segment = new DefaultMemorySegment(owner, buffer);
+			for (int i = 0; i < numPages; i++) {
+				final DefaultMemorySegment segment = createSegment(owner, pages.get(i));
 				target.add(segment);
 				segmentsForOwner.add(segment);
 			}
@@ -246,36 +391,21 @@ public class DefaultMemoryManager implements MemoryManager
 		}
 		
 		final DefaultMemorySegment defSeg = (DefaultMemorySegment) segment;
-		final AbstractInvokable owner = defSeg.owner;
+		final Stripe stripe = this.stripes[getStripeIndex(defSeg.owner)];
 		
 		// -------------------- BEGIN CRITICAL SECTION -------------------
-		synchronized (this.lock)
+		synchronized (stripe)
 		{
 			if (this.isShutDown) {
 				throw new IllegalStateException("Memory manager has been shut down.");
 			}
-
-			// remove the reference in the map for the owner
-			try {
-				Set<DefaultMemorySegment> segsForOwner = this.allocatedSegments.get(owner);
-				
-				if (segsForOwner != null) {
-					segsForOwner.remove(defSeg);
-					if (segsForOwner.isEmpty()) {
-						this.allocatedSegments.remove(owner);
-					}
-				}
-			}
-			catch (Throwable t) {
-				LOG.error("Error removing book-keeping reference to allocated memory segment.", t);
-			}
-			finally {
-				// release the memory in any case
-				byte[] buffer = defSeg.destroy();
-				this.freeSegments.add(buffer);
+			if (!stripe.release(defSeg)) {
+				return;
 			}
 		}
 		// -------------------- END CRITICAL SECTION -------------------
+		
+		this.numAvailablePages.incrementAndGet();
 	}
 
 
@@ -287,73 +417,53 @@ public class DefaultMemoryManager implements MemoryManager
 			return;
 		}
 		
-		// -------------------- BEGIN CRITICAL SECTION -------------------
-		synchronized (this.lock)
-		{
-			if (this.isShutDown) {
-				throw new IllegalStateException("Memory manager has been shut down.");
-			}
-
-			final Iterator<T> segmentsIterator = segments.iterator();
+		final Iterator<T> segmentsIterator = segments.iterator();
+		MemorySegment seg = segmentsIterator.hasNext() ? segmentsIterator.next() : null;
+		
+		// go over all segments, releasing runs of segments that belong to the same stripe in one critical section
+		while (seg != null) {
+			final Stripe stripe = this.stripes[getStripeIndex(((DefaultMemorySegment) seg).owner)];
+			int numReleased = 0;
 			
-			AbstractInvokable lastOwner = null;
-			Set<DefaultMemorySegment> segsForOwner = null;
-
-			// go over all segments
-			while (segmentsIterator.hasNext()) {
-				
-				final MemorySegment seg = segmentsIterator.next();
-				if (seg.isFreed()) {
-					continue;
+			// -------------------- BEGIN CRITICAL SECTION -------------------
+			synchronized (stripe)
+			{
+				if (this.isShutDown) {
+					throw new IllegalStateException("Memory manager has been shut down.");
 				}
 				
-				final DefaultMemorySegment defSeg = (DefaultMemorySegment) seg;
-				final AbstractInvokable owner = defSeg.owner;
-				
-				try {
-					// get the list of segments by this owner only if it is a different owner than for
-					// the previous one (or it is the first segment)
-					if (lastOwner != owner) {
-						lastOwner = owner;
-						segsForOwner = this.allocatedSegments.get(owner);
-					}
-					
-					// remove the segment from the list
-					if (segsForOwner != null) {
-						segsForOwner.remove(defSeg);
-						if (segsForOwner.isEmpty()) {
-							this.allocatedSegments.remove(owner);
-						}
+				do {
+					if (stripe.release((DefaultMemorySegment) seg)) {
+						numReleased++;
 					}
+					seg = segmentsIterator.hasNext() ? segmentsIterator.next() : null;
 				}
-				catch (Throwable t) {
-					LOG.error("Error removing book-keeping reference to allocated memory segment.", t);
-				}
-				finally {
-					// release the memory in any case
-					byte[] buffer = defSeg.destroy();
-					this.freeSegments.add(buffer);
-				}
+				while (seg != null && this.stripes[getStripeIndex(((DefaultMemorySegment) seg).owner)] == stripe);
 			}
+			// -------------------- END CRITICAL SECTION -------------------
 			
-			segments.clear();
+			this.numAvailablePages.addAndGet(numReleased);
 		}
-		// -------------------- END CRITICAL SECTION -------------------
+		
+		segments.clear();
 	}
 
 
 	@Override
 	public void releaseAll(AbstractInvokable owner)
 	{
+		final Stripe stripe = this.stripes[getStripeIndex(owner)];
+		int numReleased = 0;
+		
 		// -------------------- BEGIN CRITICAL SECTION -------------------
-		synchronized (this.lock)
+		synchronized (stripe)
 		{
 			if (this.isShutDown) {
 				throw new IllegalStateException("Memory manager has been shut down.");
 			}
 			
 			// get all segments
-			final Set<DefaultMemorySegment> segments = this.allocatedSegments.remove(owner);
+			final Set<DefaultMemorySegment> segments = stripe.allocatedSegments.remove(owner);
 			
 			// all segments may have been freed previously individually
 			if (segments == null || segments.isEmpty()) {
@@ -362,18 +472,28 @@ public class DefaultMemoryManager implements MemoryManager
 			
 			// free each segment
 			for (DefaultMemorySegment seg : segments) {
-				final byte[] buffer = seg.destroy();
-				this.freeSegments.add(buffer);
+				stripe.freePages.add(seg.destroy());
 			}
-			
+			numReleased = segments.size();
 			segments.clear();
 		}
 		// -------------------- END CRITICAL SECTION -------------------
+		
+		this.numAvailablePages.addAndGet(numReleased);
 	}
 	
 	// ------------------------------------------------------------------------
 	
 
+	/**
+	 * Checks whether this memory manager allocates its pages outside the heap.
+	 * 
+	 * @return True, if the pages are off-heap memory, false if they are heap byte arrays.
+	 */
+	public boolean isOffHeap() {
+		return this.offHeap;
+	}
+
 	@Override
 	public int getPageSize() {
 		return this.pageSize;
@@ -405,6 +525,120 @@ public class DefaultMemoryManager implements MemoryManager
 			throw new IllegalArgumentException("The given number of bytes correstponds to more than MAX_INT pages.");
 	}
 	
+	private int getStripeIndex(AbstractInvokable owner) {
+		int code = owner.hashCode();
+		code ^= (code >>> 20) ^ (code >>> 12);
+		code ^= (code >>> 7) ^ (code >>> 4);
+		return code & this.stripeMask;
+	}
+	
+	private boolean takeUnmaterializedPage() {
+		int num;
+		do {
+			num = this.numUnmaterializedPages.get();
+			if (num <= 0) {
+				return false;
+			}
+		}
+		while (!this.numUnmaterializedPages.compareAndSet(num, num - 1));
+		return true;
+	}
+	
+	private Object materializePage() {
+		return this.offHeap ? ByteBuffer.allocateDirect(this.pageSize) : new byte[this.pageSize];
+	}
+	
+	private static DefaultMemorySegment createSegment(AbstractInvokable owner, Object memory) {
+		return memory instanceof byte[] ?
+			new DefaultMemorySegment(owner, (byte[]) memory) :
+			new DefaultMemorySegment(owner, (ByteBuffer) memory);
+	}
+	
+	// ------------------------------------------------------------------------
+	
+	/**
+	 * A stripe of the memory manager, holding a share of the free pages and the segments allocated by the
+	 * owners that map to this stripe. All accesses to a stripe are synchronized on the stripe.
+	 */
+	private static final class Stripe {
+		
+		final ArrayDeque<Object> freePages = new ArrayDeque<Object>();	// the free pages (byte arrays or direct byte buffers)
+		
+		final HashMap<AbstractInvokable, Set<DefaultMemorySegment>> allocatedSegments =
+				new HashMap<AbstractInvokable, Set<DefaultMemorySegment>>();
+		
+		/**
+		 * Moves free pages from this stripe to the given list, until the list holds the given number of pages.
+		 */
+		synchronized void takeFreePages(List<Object> target, int numPages) {
+			Object page;
+			while (target.size() < numPages && (page = this.freePages.poll()) != null) {
+				target.add(page);
+			}
+		}
+		
+		/**
+		 * Removes the given segment from the book-keeping and returns its memory to the free pages. Must be
+		 * called while holding the lock on this stripe.
+		 * 
+		 * @return True, if the segment was released, false if it had already been released before.
+		 */
+		boolean release(DefaultMemorySegment segment) {
+			if (segment.isFreed()) {
+				return false;
+			}
+			
+			// remove the reference in the map for the owner
+			try {
+				final Set<DefaultMemorySegment> segsForOwner = this.allocatedSegments.get(segment.owner);
+				
+				if (segsForOwner != null) {
+					segsForOwner.remove(segment);
+					if (segsForOwner.isEmpty()) {
+						this.allocatedSegments.remove(segment.owner);
+					}
+				}
+			}
+			catch (Throwable t) {
+				LOG.error("Error removing book-keeping reference to allocated memory segment.", t);
+			}
+			finally {
+				// release the memory in any case
+				this.freePages.add(segment.destroy());
+			}
+			return true;
+		}
+	}
+	
+	// ------------------------------------------------------------------------
+	
+	/**
+	 * Drops the free pages, if no pages have been requested during the idle release timeout.
+	 */
+	private final class IdleReleaseTask extends TimerTask {
+		
+		@Override
+		public void run() {
+			if (isShutDown || System.currentTimeMillis() - lastAllocationTime < idleReleaseTimeout) {
+				return;
+			}
+			
+			int numReleased = 0;
+			for (Stripe stripe : stripes) {
+				synchronized (stripe) {
+					final int num = stripe.freePages.size();
+					stripe.freePages.clear();
+					numUnmaterializedPages.addAndGet(num);
+					numReleased += num;
+				}
+			}
+			
+			if (numReleased > 0 && LOG.isDebugEnabled()) {
+				LOG.debug("Released " + numReleased + " idle memory pages.");
+			}
+		}
+	}
+	
 	// ------------------------------------------------------------------------
 	
 	private static final class DefaultMemorySegment extends MemorySegment {
@@ -416,10 +650,17 @@ public class DefaultMemoryManager implements MemoryManager
 			this.owner = owner;
 		}
 		
-		byte[] destroy() {
-			final byte[] buffer = this.memory;
-			this.memory = null;
-			this.wrapper = null;
+		DefaultMemorySegment(AbstractInvokable owner, ByteBuffer memory) {
+			super(memory);
+			this.owner = owner;
+		}
+		
+		/**
+		 * Frees this segment and returns its memory, which is either a byte array or a direct byte buffer.
+		 */
+		Object destroy() {
+			final Object buffer = this.memory != null ? this.memory : this.offHeapBuffer;
+			free();
 			return buffer;
 		}
 	}
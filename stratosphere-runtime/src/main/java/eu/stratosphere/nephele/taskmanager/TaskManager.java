@@ -291,15 +291,28 @@ public class TaskManager implements TaskOperationProtocol {
 		this.hardwareDescription = hardware;
 
 		// Initialize the memory manager
-		LOG.info("Initializing memory manager with " + (hardware.getSizeOfFreeMemory() >>> 20) + " megabytes of memory");
+		final boolean offHeap = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_OFF_HEAP_KEY,
+			ConfigConstants.DEFAULT_MEMORY_MANAGER_OFF_HEAP);
+		final boolean lazyAllocation = GlobalConfiguration.getBoolean(ConfigConstants.TASK_MANAGER_MEMORY_LAZY_ALLOCATION_KEY,
+			ConfigConstants.DEFAULT_MEMORY_MANAGER_LAZY_ALLOCATION);
+		final long idleReleaseTimeout = lazyAllocation ?
+			GlobalConfiguration.getLong(ConfigConstants.TASK_MANAGER_MEMORY_IDLE_RELEASE_TIMEOUT_KEY,
+				ConfigConstants.DEFAULT_MEMORY_MANAGER_IDLE_RELEASE_TIMEOUT) : -1;
+		LOG.info("Initializing memory manager with " + (hardware.getSizeOfFreeMemory() >>> 20) + " megabytes of " +
+			(offHeap ? "off-heap " : "") + "memory" + (lazyAllocation ? " (allocated lazily)" : ""));
 		try {
-			this.memoryManager = new DefaultMemoryManager(hardware.getSizeOfFreeMemory());
+			this.memoryManager = new DefaultMemoryManager(hardware.getSizeOfFreeMemory(),
+				DefaultMemoryManager.DEFAULT_PAGE_SIZE, offHeap, lazyAllocation, idleReleaseTimeout);
 		} catch (RuntimeException rte) {
 			LOG.fatal("Unable to initialize memory manager with " + (hardware.getSizeOfFreeMemory() >>> 20)
 				+ " megabytes of memory", rte);
 			throw rte;
 		}
-		this.ioManager = new IOManager(tmpDirPaths);
+		final int ioThreadsPerPath = GlobalConfiguration.getInteger(ConfigConstants.TASK_MANAGER_IO_THREADS_PER_PATH_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_IO_THREADS_PER_PATH);
+		final String ioCompression = GlobalConfiguration.getString(ConfigConstants.TASK_MANAGER_IO_COMPRESSION_KEY,
+			ConfigConstants.DEFAULT_TASK_MANAGER_IO_COMPRESSION);
+		this.ioManager = new IOManager(tmpDirPaths, ioThreadsPerPath, IOManager.getCompressionCodec(ioCompression));
 		// Add shutdown hook for clean up tasks
 		Runtime.getRuntime().addShutdownHook(new TaskManagerCleanUp(this));
 	}
@@ -0,0 +1,96 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.taskmanager.bytebuffered;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A byte channel which forwards all reads and writes to an underlying channel and adds the number of transferred bytes
+ * to a counter. The underlying channel can be exchanged, so that one object can be used over several connection
+ * attempts.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ */
+final class ByteCountingChannel implements ByteChannel {
+
+	/**
+	 * The counter to add the number of transferred bytes to.
+	 */
+	private final AtomicLong byteCounter;
+
+	/**
+	 * The channel all reads and writes are forwarded to.
+	 */
+	private ByteChannel channel;
+
+	/**
+	 * Constructs a new byte counting channel.
+	 * 
+	 * @param byteCounter
+	 *        the counter to add the number of transferred bytes to
+	 */
+	ByteCountingChannel(final AtomicLong byteCounter) {
+		this.byteCounter = byteCounter;
+	}
+
+	/**
+	 * Sets the channel all reads and writes are forwarded to.
+	 * 
+	 * @param channel
+	 *        the channel all reads and writes are forwarded to
+	 */
+	void setChannel(final ByteChannel channel) {
+		this.channel = channel;
+	}
+
+
+	@Override
+	public int read(final ByteBuffer dst) throws IOException {
+
+		final int bytesRead = this.channel.read(dst);
+		if (bytesRead > 0) {
+			this.byteCounter.addAndGet(bytesRead);
+		}
+
+		return bytesRead;
+	}
+
+
+	@Override
+	public int write(final ByteBuffer src) throws IOException {
+
+		final int bytesWritten = this.channel.write(src);
+		if (bytesWritten > 0) {
+			this.byteCounter.addAndGet(bytesWritten);
+		}
+
+		return bytesWritten;
+	}
+
+
+	@Override
+	public boolean isOpen() {
+		return this.channel.isOpen();
+	}
+
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+}
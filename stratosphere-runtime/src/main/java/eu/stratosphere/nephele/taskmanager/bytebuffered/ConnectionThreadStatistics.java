@@ -0,0 +1,128 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.taskmanager.bytebuffered;
+
+/**
+ * A snapshot of the load of one of the threads which serve the incoming or outgoing network connections of a task
+ * manager. The snapshots are used to see whether the network threads are a bottleneck.
+ * <p>
+ * This class is immutable.
+ * 
+ */
+public final class ConnectionThreadStatistics {
+
+	/**
+	 * The name of the thread these statistics refer to.
+	 */
+	private final String threadName;
+
+	/**
+	 * The number of connections served by the thread.
+	 */
+	private final int numberOfConnections;
+
+	/**
+	 * The number of bytes the thread has transferred since it was started.
+	 */
+	private final long numberOfBytes;
+
+	/**
+	 * The time in milliseconds since the thread was started.
+	 */
+	private final long elapsedTime;
+
+	/**
+	 * The number of envelopes or connections waiting to be served by the thread.
+	 */
+	private final int queueDepth;
+
+	/**
+	 * Constructs a new statistics snapshot.
+	 * 
+	 * @param threadName
+	 *        the name of the thread these statistics refer to
+	 * @param numberOfConnections
+	 *        the number of connections served by the thread
+	 * @param numberOfBytes
+	 *        the number of bytes the thread has transferred since it was started
+	 * @param elapsedTime
+	 *        the time in milliseconds since the thread was started
+	 * @param queueDepth
+	 *        the number of envelopes or connections waiting to be served by the thread
+	 */
+	ConnectionThreadStatistics(final String threadName, final int numberOfConnections, final long numberOfBytes,
+			final long elapsedTime, final int queueDepth) {
+
+		this.threadName = threadName;
+		this.numberOfConnections = numberOfConnections;
+		this.numberOfBytes = numberOfBytes;
+		this.elapsedTime = elapsedTime;
+		this.queueDepth = queueDepth;
+	}
+
+	/**
+	 * Returns the name of the thread these statistics refer to.
+	 * 
+	 * @return the name of the thread these statistics refer to
+	 */
+	public String getThreadName() {
+		return this.threadName;
+	}
+
+	/**
+	 * Returns the number of connections served by the thread.
+	 * 
+	 * @return the number of connections served by the thread
+	 */
+	public int getNumberOfConnections() {
+		return this.numberOfConnections;
+	}
+
+	/**
+	 * Returns the number of bytes the thread has transferred since it was started.
+	 * 
+	 * @return the number of bytes the thread has transferred
+	 */
+	public long getNumberOfBytes() {
+		return this.numberOfBytes;
+	}
+
+	/**
+	 * Returns the average throughput of the thread since it was started.
+	 * 
+	 * @return the average throughput of the thread in bytes per second
+	 */
+	public double getBytesPerSecond() {
+		return this.elapsedTime <= 0 ? 0.0 : this.numberOfBytes * 1000.0 / this.elapsedTime;
+	}
+
+	/**
+	 * Returns the queue depth of the thread. For an outgoing connection thread, this is the number of envelopes
+	 * queued for its connections. For an incoming connection thread, this is the number of its connections which
+	 * wait for buffers to become available.
+	 * 
+	 * @return the queue depth of the thread
+	 */
+	public int getQueueDepth() {
+		return this.queueDepth;
+	}
+
+
+	@Override
+	public String toString() {
+
+		return this.threadName + ": " + this.numberOfConnections + " connections, " + this.numberOfBytes + " bytes, "
+			+ ((long) getBytesPerSecond()) + " bytes/s, queue depth " + this.queueDepth;
+	}
+}
@@ -22,8 +22,12 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -44,6 +48,36 @@ public class IncomingConnectionThread extends Thread {
 
 	private final ServerSocketChannel listeningSocket;
 
+	/**
+	 * Accepted connections which have been handed to this thread and still have to be registered with its selector.
+	 */
+	private final Queue<SocketChannel> pendingNewConnections = new ArrayDeque<SocketChannel>();
+
+	/**
+	 * The threads accepted connections are distributed to. Only used by the listening thread.
+	 */
+	private volatile List<IncomingConnectionThread> readerThreads = Collections.singletonList(this);
+
+	/**
+	 * The number of connections served by this thread.
+	 */
+	private final AtomicInteger numberOfConnections = new AtomicInteger();
+
+	/**
+	 * The number of connections of this thread which wait for buffers to become available.
+	 */
+	private final AtomicInteger numberOfConnectionsWaitingForBuffers = new AtomicInteger();
+
+	/**
+	 * The number of bytes read by this thread.
+	 */
+	private final AtomicLong byteCounter = new AtomicLong();
+
+	/**
+	 * The time at which this thread was created.
+	 */
+	private final long creationTime = System.currentTimeMillis();
+
 	private static final class IncomingConnectionBufferAvailListener implements BufferAvailabilityListener {
 
 		private final Queue<SelectionKey> pendingReadEventSubscribeRequests;
@@ -71,7 +105,12 @@ public class IncomingConnectionThread extends Thread {
 
 	public IncomingConnectionThread(ByteBufferedChannelManager byteBufferedChannelManager,
 			boolean isListeningThread, InetSocketAddress listeningAddress) throws IOException {
-		super("Incoming Connection Thread");
+		this("Incoming Connection Thread", byteBufferedChannelManager, isListeningThread, listeningAddress);
+	}
+
+	public IncomingConnectionThread(String name, ByteBufferedChannelManager byteBufferedChannelManager,
+			boolean isListeningThread, InetSocketAddress listeningAddress) throws IOException {
+		super(name);
 
 		this.selector = Selector.open();
 		this.byteBufferedChannelManager = byteBufferedChannelManager;
@@ -92,17 +131,24 @@ public class IncomingConnectionThread extends Thread {
 
 		while (!this.isInterrupted()) {
 
+			synchronized (this.pendingNewConnections) {
+				while (!this.pendingNewConnections.isEmpty()) {
+					registerConnection(this.pendingNewConnections.poll());
+				}
+			}
+
 			synchronized (this.pendingReadEventSubscribeRequests) {
 				while (!this.pendingReadEventSubscribeRequests.isEmpty()) {
 					final SelectionKey key = this.pendingReadEventSubscribeRequests.poll();
 					final IncomingConnection incomingConnection = (IncomingConnection) key.attachment();
 					final SocketChannel socketChannel = (SocketChannel) key.channel();
+					this.numberOfConnectionsWaitingForBuffers.decrementAndGet();
 
 					try {
 						final SelectionKey newKey = socketChannel.register(this.selector, SelectionKey.OP_READ);
 						newKey.attach(incomingConnection);
 					} catch (ClosedChannelException e) {
-						incomingConnection.reportTransmissionProblem(key, e);
+						reportTransmissionProblem(incomingConnection, key, e);
 					}
 				}
 			}
@@ -166,15 +212,39 @@ public class IncomingConnectionThread extends Thread {
 			return;
 		}
 
+		// Hand the connection to the less loaded of the two reader threads the remote address hashes to
+		final List<IncomingConnectionThread> threads = this.readerThreads;
+		final int hashCode = clientSocket.socket().getRemoteSocketAddress().hashCode();
+		final IncomingConnectionThread first = threads.get(NetworkConnectionManager.getFirstChoice(hashCode,
+			threads.size()));
+		final IncomingConnectionThread second = threads.get(NetworkConnectionManager.getSecondChoice(hashCode,
+			threads.size()));
+		final IncomingConnectionThread target = second.getNumberOfConnections() < first.getNumberOfConnections() ? second
+			: first;
+
+		if (target == this) {
+			this.numberOfConnections.incrementAndGet();
+			registerConnection(clientSocket);
+		} else {
+			target.assignConnection(clientSocket);
+		}
+	}
+
+	private void registerConnection(SocketChannel clientSocket) {
+
+		final ByteCountingChannel byteCountingChannel = new ByteCountingChannel(this.byteCounter);
+		byteCountingChannel.setChannel(clientSocket);
+
 		final IncomingConnection incomingConnection = new IncomingConnection(this.byteBufferedChannelManager,
-			clientSocket);
+			byteCountingChannel);
+
 		SelectionKey clientKey = null;
 		try {
 			clientSocket.configureBlocking(false);
 			clientKey = clientSocket.register(this.selector, SelectionKey.OP_READ);
 			clientKey.attach(incomingConnection);
 		} catch (IOException ioe) {
-			incomingConnection.reportTransmissionProblem(clientKey, ioe);
+			reportTransmissionProblem(incomingConnection, clientKey, ioe);
 		}
 	}
 
@@ -188,12 +258,15 @@ public class IncomingConnectionThread extends Thread {
 				final SocketChannel socketChannel = (SocketChannel) key.channel();
 				LOG.error("Connection from " + socketChannel.socket().getRemoteSocketAddress()
 					+ " was closed unexpectedly");
-				incomingConnection.reportTransmissionProblem(key, eof);
+				reportTransmissionProblem(incomingConnection, key, eof);
 			} else {
+				if (incomingConnection.getReadableByteChannel().isOpen()) {
+					this.numberOfConnections.decrementAndGet();
+				}
 				incomingConnection.closeConnection(key);
 			}
 		} catch (IOException ioe) {
-			incomingConnection.reportTransmissionProblem(key, ioe);
+			reportTransmissionProblem(incomingConnection, key, ioe);
 		} catch (InterruptedException e) {
 			// Nothing to do here
 		} catch (NoBufferAvailableException e) {
@@ -203,21 +276,84 @@ public class IncomingConnectionThread extends Thread {
 				final SelectionKey newKey = socketChannel.register(this.selector, 0);
 				newKey.attach(incomingConnection);
 			} catch (ClosedChannelException e1) {
-				incomingConnection.reportTransmissionProblem(key, e1);
+				reportTransmissionProblem(incomingConnection, key, e1);
 			}
 
+			this.numberOfConnectionsWaitingForBuffers.incrementAndGet();
 			final BufferAvailabilityListener bal = new IncomingConnectionBufferAvailListener(
 				this.pendingReadEventSubscribeRequests, key);
 			if (!e.getBufferProvider().registerBufferAvailabilityListener(bal)) {
 				// In the meantime, a buffer has become available again, subscribe to read event again
+				this.numberOfConnectionsWaitingForBuffers.decrementAndGet();
 
 				try {
 					final SelectionKey newKey = socketChannel.register(this.selector, SelectionKey.OP_READ);
 					newKey.attach(incomingConnection);
 				} catch (ClosedChannelException e1) {
-					incomingConnection.reportTransmissionProblem(key, e1);
+					reportTransmissionProblem(incomingConnection, key, e1);
 				}
 			}
 		}
 	}
+
+	private void reportTransmissionProblem(IncomingConnection incomingConnection, SelectionKey key, IOException ioe) {
+
+		// Only account for the connection once, even if several problems are reported for it
+		if (incomingConnection.getReadableByteChannel().isOpen()) {
+			this.numberOfConnections.decrementAndGet();
+		}
+
+		incomingConnection.reportTransmissionProblem(key, ioe);
+	}
+
+	/**
+	 * Sets the threads the connections accepted by this listening thread are distributed to. The list may include this
+	 * thread itself.
+	 * 
+	 * @param readerThreads
+	 *        the threads the accepted connections are distributed to
+	 */
+	void setReaderThreads(List<IncomingConnectionThread> readerThreads) {
+		this.readerThreads = readerThreads;
+	}
+
+	/**
+	 * Hands an accepted connection to this thread. The connection is registered with the thread's selector the next
+	 * time it wakes up.
+	 * 
+	 * @param clientSocket
+	 *        the accepted connection
+	 */
+	void assignConnection(SocketChannel clientSocket) {
+
+		// Count the connection right away, so that the listening thread sees it when balancing the next connection
+		this.numberOfConnections.incrementAndGet();
+
+		synchronized (this.pendingNewConnections) {
+			this.pendingNewConnections.add(clientSocket);
+		}
+
+		this.selector.wakeup();
+	}
+
+	/**
+	 * Returns the number of connections served by this thread.
+	 * 
+	 * @return the number of connections served by this thread
+	 */
+	int getNumberOfConnections() {
+		return this.numberOfConnections.get();
+	}
+
+	/**
+	 * Returns a snapshot of the load of this thread. The queue depth is the number of connections of this thread which
+	 * wait for buffers to become available.
+	 * 
+	 * @return a snapshot of the load of this thread
+	 */
+	public ConnectionThreadStatistics getStatistics() {
+
+		return new ConnectionThreadStatistics(getName(), this.numberOfConnections.get(), this.byteCounter.get(),
+			System.currentTimeMillis() - this.creationTime, this.numberOfConnectionsWaitingForBuffers.get());
+	}
 }
@@ -16,6 +16,8 @@ package eu.stratosphere.nephele.taskmanager.bytebuffered;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +25,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.configuration.GlobalConfiguration;
 import eu.stratosphere.nephele.taskmanager.transferenvelope.TransferEnvelope;
@@ -30,15 +35,26 @@ import eu.stratosphere.nephele.taskmanager.transferenvelope.TransferEnvelope;
 /**
  * The network connection manager manages incoming and outgoing network connection from and to other hosts.
  * <p>
+ * Incoming and outgoing connections are each served by a pool of selector threads, whose size defaults to the number
+ * of available cores. New connections are assigned to the threads by hashing: Each connection hashes to two candidate
+ * threads and is assigned to the one currently serving fewer connections. The load of each thread can be inspected
+ * through {@link #getStatistics()}.
+ * <p>
  * This class is thread-safe.
  * 
  */
 public final class NetworkConnectionManager {
 
 	/**
-	 * The default number of threads dealing with outgoing connections.
+	 * The log object used to report debug information and possible errors.
 	 */
-	private static final int DEFAULT_NUMBER_OF_OUTGOING_CONNECTION_THREADS = 1;
+	private static final Log LOG = LogFactory.getLog(NetworkConnectionManager.class);
+
+	/**
+	 * The maximum default number of threads dealing with incoming or outgoing connections. The default number of
+	 * threads is the number of available cores, limited by this value.
+	 */
+	private static final int MAX_DEFAULT_NUMBER_OF_CONNECTION_THREADS = 8;
 
 	/**
 	 * The default number of connection retries before giving up.
@@ -51,9 +67,9 @@ public final class NetworkConnectionManager {
 	private final List<OutgoingConnectionThread> outgoingConnectionThreads = new CopyOnWriteArrayList<OutgoingConnectionThread>();
 
 	/**
-	 * Thread dealing with incoming connections.
+	 * List of active threads dealing with incoming connections. The first thread also accepts new connections.
 	 */
-	private final IncomingConnectionThread incomingConnectionThread;
+	private final List<IncomingConnectionThread> incomingConnectionThreads = new CopyOnWriteArrayList<IncomingConnectionThread>();
 
 	/**
 	 * Map containing currently active outgoing connections.
@@ -78,31 +94,106 @@ public final class NetworkConnectionManager {
 		this.byteBufferedChannelManager = byteBufferedChannelManager;
 
 		// Start the connection threads
-		final int numberOfOutgoingConnectionThreads = configuration.getInteger(
-			"channel.network.numberOfOutgoingConnectionThreads", DEFAULT_NUMBER_OF_OUTGOING_CONNECTION_THREADS);
+		final int defaultNumberOfConnectionThreads = Math.max(1,
+			Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_NUMBER_OF_CONNECTION_THREADS));
+
+		final int numberOfOutgoingConnectionThreads = Math.max(1, configuration.getInteger(
+			"channel.network.numberOfOutgoingConnectionThreads", defaultNumberOfConnectionThreads));
 
 		for (int i = 0; i < numberOfOutgoingConnectionThreads; i++) {
-			final OutgoingConnectionThread outgoingConnectionThread = new OutgoingConnectionThread();
+			final OutgoingConnectionThread outgoingConnectionThread = new OutgoingConnectionThread(
+				"Outgoing Connection Thread " + i);
 			outgoingConnectionThread.start();
 			this.outgoingConnectionThreads.add(outgoingConnectionThread);
 		}
 
-		this.incomingConnectionThread = new IncomingConnectionThread(
-			this.byteBufferedChannelManager, true, new InetSocketAddress(bindAddress, dataPort));
-		this.incomingConnectionThread.start();
+		final int numberOfIncomingConnectionThreads = Math.max(1, configuration.getInteger(
+			"channel.network.numberOfIncomingConnectionThreads", defaultNumberOfConnectionThreads));
+
+		final List<IncomingConnectionThread> incomingThreads = new ArrayList<IncomingConnectionThread>(
+			numberOfIncomingConnectionThreads);
+		for (int i = 0; i < numberOfIncomingConnectionThreads; i++) {
+			incomingThreads.add(new IncomingConnectionThread("Incoming Connection Thread " + i,
+				this.byteBufferedChannelManager, i == 0, new InetSocketAddress(bindAddress, dataPort)));
+		}
+
+		incomingThreads.get(0).setReaderThreads(Collections.unmodifiableList(incomingThreads));
+		for (final IncomingConnectionThread incomingConnectionThread : incomingThreads) {
+			incomingConnectionThread.start();
+			this.incomingConnectionThreads.add(incomingConnectionThread);
+		}
 
 		this.numberOfConnectionRetries = configuration.getInteger("channel.network.numberOfConnectionRetries",
 			DEFAULT_NUMBER_OF_CONNECTION_RETRIES);
 	}
 
 	/**
-	 * Randomly selects one of the active threads dealing with outgoing connections.
+	 * Selects the thread to deal with the outgoing connection to the given remote receiver. Of the two threads the
+	 * receiver hashes to, the one currently serving fewer connections is selected.
 	 * 
+	 * @param remoteReceiver
+	 *        the remote receiver to select the thread for
 	 * @return one of the active threads dealing with outgoing connections
 	 */
-	private OutgoingConnectionThread getOutgoingConnectionThread() {
+	private OutgoingConnectionThread getOutgoingConnectionThread(final RemoteReceiver remoteReceiver) {
+
+		final int hashCode = remoteReceiver.hashCode();
+		final int numberOfThreads = this.outgoingConnectionThreads.size();
+
+		final OutgoingConnectionThread first = this.outgoingConnectionThreads.get(getFirstChoice(hashCode,
+			numberOfThreads));
+		final OutgoingConnectionThread second = this.outgoingConnectionThreads.get(getSecondChoice(hashCode,
+			numberOfThreads));
 
-		return this.outgoingConnectionThreads.get((int) (this.outgoingConnectionThreads.size() * Math.random()));
+		return second.getNumberOfConnections() < first.getNumberOfConnections() ? second : first;
+	}
+
+	/**
+	 * Returns the index of the first of the two threads a connection with the given hash code may be assigned to.
+	 * 
+	 * @param hashCode
+	 *        the hash code of the connection
+	 * @param numberOfThreads
+	 *        the number of threads to choose from
+	 * @return the index of the first candidate thread
+	 */
+	static int getFirstChoice(final int hashCode, final int numberOfThreads) {
+
+		return (mix(hashCode) & Integer.MAX_VALUE) % numberOfThreads;
+	}
+
+	/**
+	 * Returns the index of the second of the two threads a connection with the given hash code may be assigned to. If
+	 * there is more than one thread, the second candidate is always different from the first one.
+	 * 
+	 * @param hashCode
+	 *        the hash code of the connection
+	 * @param numberOfThreads
+	 *        the number of threads to choose from
+	 * @return the index of the second candidate thread
+	 */
+	static int getSecondChoice(final int hashCode, final int numberOfThreads) {
+
+		final int first = getFirstChoice(hashCode, numberOfThreads);
+		if (numberOfThreads == 1) {
+			return first;
+		}
+
+		final int offset = 1 + (mix(~hashCode) & Integer.MAX_VALUE) % (numberOfThreads - 1);
+		return (first + offset) % numberOfThreads;
+	}
+
+	/**
+	 * Spreads the bits of the given hash code, so that similar hash codes (such as the ones of addresses which only
+	 * differ in the last octet) are mapped to different threads.
+	 */
+	private static int mix(int h) {
+
+		h *= 0x9E3779B9;
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		return h;
 	}
 
 	/**
@@ -131,7 +222,8 @@ public final class NetworkConnectionManager {
 
 		if (outgoingConnection == null) {
 
-			outgoingConnection = new OutgoingConnection(remoteReceiver, getOutgoingConnectionThread(),
+			final OutgoingConnectionThread connectionThread = getOutgoingConnectionThread(remoteReceiver);
+			outgoingConnection = new OutgoingConnection(remoteReceiver, connectionThread,
 				this.numberOfConnectionRetries);
 
 			final OutgoingConnection oldEntry = this.outgoingConnections
@@ -140,16 +232,47 @@ public final class NetworkConnectionManager {
 			// We had a race, use the old value
 			if (oldEntry != null) {
 				outgoingConnection = oldEntry;
+			} else {
+				connectionThread.assignConnection(outgoingConnection);
 			}
 		}
 
 		return outgoingConnection;
 	}
 
+	/**
+	 * Returns a snapshot of the load of each thread dealing with incoming or outgoing connections.
+	 * 
+	 * @return a snapshot of the load of each connection thread, incoming threads first
+	 */
+	public List<ConnectionThreadStatistics> getStatistics() {
+
+		final List<ConnectionThreadStatistics> statistics = new ArrayList<ConnectionThreadStatistics>(
+			this.incomingConnectionThreads.size() + this.outgoingConnectionThreads.size());
+
+		for (final IncomingConnectionThread incomingConnectionThread : this.incomingConnectionThreads) {
+			statistics.add(incomingConnectionThread.getStatistics());
+		}
+		for (final OutgoingConnectionThread outgoingConnectionThread : this.outgoingConnectionThreads) {
+			statistics.add(outgoingConnectionThread.getStatistics());
+		}
+
+		return statistics;
+	}
+
 	public void shutDown() {
 
+		if (LOG.isDebugEnabled()) {
+			for (final ConnectionThreadStatistics statistics : getStatistics()) {
+				LOG.debug(statistics);
+			}
+		}
+
 		// Interrupt the threads we started
-		this.incomingConnectionThread.interrupt();
+		final Iterator<IncomingConnectionThread> iit = this.incomingConnectionThreads.iterator();
+		while (iit.hasNext()) {
+			iit.next().interrupt();
+		}
 
 		final Iterator<OutgoingConnectionThread> it = this.outgoingConnectionThreads.iterator();
 		while (it.hasNext()) {
@@ -159,6 +282,12 @@ public final class NetworkConnectionManager {
 
 	public void logBufferUtilization() {
 
+		System.out.println("\tConnection threads:");
+
+		for (final ConnectionThreadStatistics statistics : getStatistics()) {
+			System.out.println("\t\t" + statistics);
+		}
+
 		System.out.println("\tOutgoing connections:");
 
 		final Iterator<Map.Entry<RemoteReceiver, OutgoingConnection>> it = this.outgoingConnections.entrySet()
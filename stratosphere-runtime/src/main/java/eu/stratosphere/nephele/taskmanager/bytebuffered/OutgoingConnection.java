@@ -17,7 +17,6 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
-import java.nio.channels.WritableByteChannel;
 import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.Queue;
@@ -63,6 +62,12 @@ public class OutgoingConnection {
 	 */
 	private final DefaultSerializer serializer = new DefaultSerializer();
 
+	/**
+	 * The channel through which the serialized envelopes are written, so that the written bytes are accounted to the
+	 * connection thread.
+	 */
+	private final ByteCountingChannel byteCountingChannel;
+
 	/**
 	 * The {@link TransferEnvelope} that is currently processed.
 	 */
@@ -122,6 +127,7 @@ public class OutgoingConnection {
 		this.remoteReceiver = remoteReceiver;
 		this.connectionThread = connectionThread;
 		this.numberOfConnectionRetries = numberOfConnectionRetries;
+		this.byteCountingChannel = new ByteCountingChannel(connectionThread.getByteCounter());
 	}
 
 	/**
@@ -340,7 +346,7 @@ public class OutgoingConnection {
 	 */
 	public boolean write() throws IOException {
 
-		final WritableByteChannel writableByteChannel = (WritableByteChannel) this.selectionKey.channel();
+		this.byteCountingChannel.setChannel((SocketChannel) this.selectionKey.channel());
 
 		if (this.currentEnvelope == null) {
 			synchronized (this.queuedEnvelopes) {
@@ -353,7 +359,7 @@ public class OutgoingConnection {
 			}
 		}
 
-		if (!this.serializer.write(writableByteChannel)) {
+		if (!this.serializer.write(this.byteCountingChannel)) {
 
 			// Make sure we recycle the attached memory or file buffers correctly
 			if (this.currentEnvelope.getBuffer() != null) {
@@ -528,4 +534,16 @@ public class OutgoingConnection {
 
 		return retVal;
 	}
+
+	/**
+	 * Returns the number of currently queued envelopes, including the envelope which is currently written.
+	 * 
+	 * @return the number of currently queued envelopes
+	 */
+	public int getNumberOfQueuedEnvelopes() {
+
+		synchronized (this.queuedEnvelopes) {
+			return this.queuedEnvelopes.size();
+		}
+	}
 }
@@ -21,8 +21,11 @@ import java.nio.channels.SocketChannel;
 import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -46,8 +49,27 @@ public class OutgoingConnectionThread extends Thread {
 
 	private final Map<OutgoingConnection, Long> connectionsToClose = new HashMap<OutgoingConnection, Long>();
 
+	/**
+	 * The outgoing connections which have been assigned to this thread.
+	 */
+	private final List<OutgoingConnection> assignedConnections = new CopyOnWriteArrayList<OutgoingConnection>();
+
+	/**
+	 * The number of bytes written by this thread.
+	 */
+	private final AtomicLong byteCounter = new AtomicLong();
+
+	/**
+	 * The time at which this thread was created.
+	 */
+	private final long creationTime = System.currentTimeMillis();
+
 	public OutgoingConnectionThread() throws IOException {
-		super("Outgoing Connection Thread");
+		this("Outgoing Connection Thread");
+	}
+
+	public OutgoingConnectionThread(final String name) throws IOException {
+		super(name);
 
 		this.selector = Selector.open();
 	}
@@ -267,4 +289,50 @@ public class OutgoingConnectionThread extends Thread {
 		}
 
 	}
+
+	/**
+	 * Assigns an outgoing connection to this thread. The assigned connections are used to balance new connections
+	 * across the outgoing connection threads and to compute the thread's statistics.
+	 * 
+	 * @param outgoingConnection
+	 *        the outgoing connection to assign to this thread
+	 */
+	void assignConnection(final OutgoingConnection outgoingConnection) {
+		this.assignedConnections.add(outgoingConnection);
+	}
+
+	/**
+	 * Returns the number of outgoing connections assigned to this thread.
+	 * 
+	 * @return the number of outgoing connections assigned to this thread
+	 */
+	int getNumberOfConnections() {
+		return this.assignedConnections.size();
+	}
+
+	/**
+	 * Returns the counter of the bytes written by this thread.
+	 * 
+	 * @return the counter of the bytes written by this thread
+	 */
+	AtomicLong getByteCounter() {
+		return this.byteCounter;
+	}
+
+	/**
+	 * Returns a snapshot of the load of this thread. The queue depth is the number of envelopes queued for the
+	 * connections of this thread.
+	 * 
+	 * @return a snapshot of the load of this thread
+	 */
+	public ConnectionThreadStatistics getStatistics() {
+
+		int queueDepth = 0;
+		for (final OutgoingConnection outgoingConnection : this.assignedConnections) {
+			queueDepth += outgoingConnection.getNumberOfQueuedEnvelopes();
+		}
+
+		return new ConnectionThreadStatistics(getName(), this.assignedConnections.size(), this.byteCounter.get(),
+			System.currentTimeMillis() - this.creationTime, queueDepth);
+	}
 }
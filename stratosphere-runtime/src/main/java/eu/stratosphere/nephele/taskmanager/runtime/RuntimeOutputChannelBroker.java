@@ -139,6 +139,7 @@ final class RuntimeOutputChannelBroker extends AbstractOutputChannelForwarder im
 		final TransferEnvelope transferEnvelope = new TransferEnvelope(this.sequenceNumber++,
 			this.byteBufferedOutputChannel.getJobID(),
 			this.byteBufferedOutputChannel.getID());
+		transferEnvelope.setBufferCompressible(this.byteBufferedOutputChannel.getOutputGate().isCompressionEnabled());
 
 		return transferEnvelope;
 	}
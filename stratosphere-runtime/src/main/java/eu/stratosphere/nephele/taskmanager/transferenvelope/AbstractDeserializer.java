@@ -60,6 +60,8 @@ public abstract class AbstractDeserializer {
 
 	private int sizeOfBuffer = -1;
 
+	private int compressedSizeOfBuffer = -1;
+
 	private int deserializedSequenceNumber = -1;
 
 	private Buffer buffer = null;
@@ -117,6 +119,15 @@ public abstract class AbstractDeserializer {
 		return this.sizeOfBuffer;
 	}
 
+	/**
+	 * Returns the size of the buffer's data in the byte stream if the buffer has been compressed by the sender.
+	 * 
+	 * @return the size of the compressed buffer data or <code>-1</code> if the buffer data is not compressed
+	 */
+	protected int getCompressedSizeOfBuffer() {
+		return this.compressedSizeOfBuffer;
+	}
+
 	protected JobID getDeserializedJobID() {
 		return this.deserializedJobID;
 	}
@@ -154,6 +165,7 @@ public abstract class AbstractDeserializer {
 			this.sequenceNumberDeserializationStarted = false;
 			this.transferEnvelope = null;
 			this.sizeOfBuffer = -1;
+			this.compressedSizeOfBuffer = -1;
 			this.bufferExistanceDeserialized = false;
 			this.eventListExistanceDeserialized = false;
 			this.tempBuffer.clear();
@@ -266,9 +278,15 @@ public abstract class AbstractDeserializer {
 
 			if (!this.tempBuffer.hasRemaining()) {
 				this.bufferExistanceDeserialized = true;
+				final byte bufferMarker = this.tempBuffer.get(0);
 				this.tempBuffer.position(0);
-				this.tempBuffer.limit(SIZEOFINT);
-				if (this.tempBuffer.get(0) == 0) {
+				if (bufferMarker == AbstractSerializer.COMPRESSED_BUFFER) {
+					// the compressed size follows the size of the buffer
+					this.tempBuffer.limit(2 * SIZEOFINT);
+				} else {
+					this.tempBuffer.limit(SIZEOFINT);
+				}
+				if (bufferMarker == AbstractSerializer.NO_BUFFER) {
 					// No buffer will follow, we are done
 					this.transferEnvelope.setBuffer(null);
 					this.deserializationState = DeserializationState.FULLYDESERIALIZED;
@@ -295,6 +313,13 @@ public abstract class AbstractDeserializer {
 				if (this.sizeOfBuffer <= 0) {
 					throw new IOException("Invalid buffer size: " + this.sizeOfBuffer);
 				}
+
+				if (this.tempBuffer.limit() > SIZEOFINT) {
+					this.compressedSizeOfBuffer = byteBufferToInteger(this.tempBuffer, SIZEOFINT);
+					if (this.compressedSizeOfBuffer <= 0) {
+						throw new IOException("Invalid compressed buffer size: " + this.compressedSizeOfBuffer);
+					}
+				}
 			} else {
 				return true;
 			}
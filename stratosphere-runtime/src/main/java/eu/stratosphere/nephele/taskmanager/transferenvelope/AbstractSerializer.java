@@ -21,7 +21,10 @@ import eu.stratosphere.core.io.IOReadableWritable;
 import eu.stratosphere.nephele.event.task.EventList;
 import eu.stratosphere.nephele.io.AbstractID;
 import eu.stratosphere.nephele.io.channels.Buffer;
+import eu.stratosphere.nephele.io.channels.MemoryBuffer;
 import eu.stratosphere.nephele.io.channels.SerializationBuffer;
+import eu.stratosphere.nephele.services.iomanager.BlockCompressionCodec;
+import eu.stratosphere.nephele.services.iomanager.LZ4BlockCompressionCodec;
 
 public abstract class AbstractSerializer {
 
@@ -36,6 +39,26 @@ public abstract class AbstractSerializer {
 
 	private final static int SIZEOFINT = 4;
 
+	/**
+	 * Marker that no buffer follows in the byte stream.
+	 */
+	static final byte NO_BUFFER = 0;
+
+	/**
+	 * Marker that the buffer size and the buffer's data follow in the byte stream.
+	 */
+	static final byte UNCOMPRESSED_BUFFER = 1;
+
+	/**
+	 * Marker that the buffer size, the compressed size and the compressed buffer data follow in the byte stream.
+	 */
+	static final byte COMPRESSED_BUFFER = 2;
+
+	/**
+	 * The codec used to compress the buffers of envelopes which request compression.
+	 */
+	static final BlockCompressionCodec CODEC = new LZ4BlockCompressionCodec();
+
 	private TransferEnvelope transferEnvelope = null;
 
 	private SerializationState serializationState;
@@ -50,6 +73,15 @@ public abstract class AbstractSerializer {
 
 	private boolean eventListExistanceSerialized = false;
 
+	/**
+	 * The compressed data of the current envelope's buffer, or <code>null</code> if the buffer is sent uncompressed.
+	 */
+	private ByteBuffer compressedBufferData = null;
+
+	private byte[] uncompressedArray = new byte[0];
+
+	private byte[] compressedArray = new byte[0];
+
 	public final void setTransferEnvelope(TransferEnvelope transferEnvelope) {
 
 		this.transferEnvelope = transferEnvelope;
@@ -195,6 +227,7 @@ public abstract class AbstractSerializer {
 		this.serializationStarted = false;
 		this.bufferExistanceSerialized = false;
 		this.eventListExistanceSerialized = false;
+		this.compressedBufferData = null;
 	}
 
 	private boolean writeBuffer(WritableByteChannel writableByteChannel, Buffer buffer) throws IOException {
@@ -207,10 +240,14 @@ public abstract class AbstractSerializer {
 					this.tempBuffer.position(0);
 
 					if (buffer == null) {
-						this.tempBuffer.put(0, (byte) 0);
+						this.tempBuffer.put(0, NO_BUFFER);
 						this.tempBuffer.limit(1);
+					} else if (compressBuffer(buffer)) {
+						this.tempBuffer.put(0, COMPRESSED_BUFFER);
+						integerToByteBuffer(buffer.remaining(), 1, this.tempBuffer);
+						integerToByteBuffer(this.compressedBufferData.remaining(), 1 + SIZEOFINT, this.tempBuffer);
 					} else {
-						this.tempBuffer.put(0, (byte) 1);
+						this.tempBuffer.put(0, UNCOMPRESSED_BUFFER);
 						// System.out.println("OUTGOING: Buffer size is " + buffer.size());
 						integerToByteBuffer(buffer.size(), 1, this.tempBuffer);
 					}
@@ -231,6 +268,17 @@ public abstract class AbstractSerializer {
 					}
 				}
 
+			} else if (this.compressedBufferData != null) {
+
+				writableByteChannel.write(this.compressedBufferData);
+				if (!this.compressedBufferData.hasRemaining()) {
+					this.compressedBufferData = null;
+					this.serializationState = SerializationState.FULLYSERIALIZED;
+					return false;
+				}
+
+				return true;
+
 			} else {
 
 				if (!writeBufferData(writableByteChannel, buffer)) {
@@ -243,6 +291,40 @@ public abstract class AbstractSerializer {
 		}
 	}
 
+	/**
+	 * Compresses the given buffer if the current transfer envelope requests compression. The compressed data is only
+	 * used if it is smaller than the original data.
+	 * 
+	 * @param buffer
+	 *        the buffer to compress
+	 * @return <code>true</code> if the buffer has been compressed, <code>false</code> if it must be sent uncompressed
+	 */
+	private boolean compressBuffer(final Buffer buffer) {
+
+		if (!this.transferEnvelope.isBufferCompressible() || !buffer.isBackedByMemory()) {
+			return false;
+		}
+
+		final MemoryBuffer memoryBuffer = (MemoryBuffer) buffer;
+		final int size = memoryBuffer.remaining();
+		if (this.uncompressedArray.length < size) {
+			this.uncompressedArray = new byte[size];
+		}
+		final int maxCompressedSize = CODEC.getMaxCompressedLength(size);
+		if (this.compressedArray.length < maxCompressedSize) {
+			this.compressedArray = new byte[maxCompressedSize];
+		}
+
+		memoryBuffer.getMemorySegment().get(memoryBuffer.position(), this.uncompressedArray, 0, size);
+		final int compressedSize = CODEC.compress(this.uncompressedArray, 0, size, this.compressedArray, 0);
+		if (compressedSize >= size) {
+			return false;
+		}
+
+		this.compressedBufferData = ByteBuffer.wrap(this.compressedArray, 0, compressedSize);
+		return true;
+	}
+
 	/**
 	 * Writes the buffer's actual data.
 	 * 
@@ -14,6 +14,7 @@
 package eu.stratosphere.nephele.taskmanager.transferenvelope;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 
 import eu.stratosphere.nephele.io.channels.Buffer;
@@ -32,6 +33,15 @@ public final class DefaultDeserializer extends AbstractDeserializer {
 
 	private ChannelID lastDeserializedSourceID = null;
 
+	/**
+	 * The compressed data of the current buffer, or <code>null</code> if no compressed data is being read.
+	 */
+	private ByteBuffer compressedBufferData = null;
+
+	private byte[] compressedArray = new byte[0];
+
+	private byte[] uncompressedArray = new byte[0];
+
 	public DefaultDeserializer(final BufferProviderBroker bufferProviderBroker) {
 		this.bufferProviderBroker = bufferProviderBroker;
 	}
@@ -65,6 +75,11 @@ public final class DefaultDeserializer extends AbstractDeserializer {
 			}
 
 			setBuffer(buf);
+			this.compressedBufferData = null;
+
+		} else if (getCompressedSizeOfBuffer() >= 0) {
+
+			return readCompressedBufferData(readableByteChannel, getBuffer());
 
 		} else {
 
@@ -87,6 +102,57 @@ public final class DefaultDeserializer extends AbstractDeserializer {
 		return true;
 	}
 
+	/**
+	 * Reads the compressed data of the current buffer from the stream and decompresses it into the buffer once it
+	 * has been read completely.
+	 * 
+	 * @param readableByteChannel
+	 *        the stream to read the compressed buffer data from
+	 * @param buffer
+	 *        the buffer to decompress the data into
+	 * @return <code>true</code> if more buffer data need to be read from the stream, <code>false</code> otherwise
+	 * @throws IOException
+	 *         thrown if an I/O error occurs while reading the data or if the data is corrupt
+	 */
+	private boolean readCompressedBufferData(final ReadableByteChannel readableByteChannel, final Buffer buffer)
+			throws IOException {
+
+		final int compressedSize = getCompressedSizeOfBuffer();
+
+		if (this.compressedBufferData == null) {
+			if (this.compressedArray.length < compressedSize) {
+				this.compressedArray = new byte[compressedSize];
+			}
+			this.compressedBufferData = ByteBuffer.wrap(this.compressedArray, 0, compressedSize);
+		}
+
+		if (readableByteChannel.read(this.compressedBufferData) == -1) {
+			throw new IOException("Deserialization error: Expected at least " + this.compressedBufferData.remaining()
+				+ " more bytes to follow");
+		}
+
+		if (this.compressedBufferData.hasRemaining()) {
+			return true;
+		}
+		this.compressedBufferData = null;
+
+		final int size = getSizeOfBuffer();
+		if (this.uncompressedArray.length < size) {
+			this.uncompressedArray = new byte[size];
+		}
+
+		final int decompressedSize = AbstractSerializer.CODEC.decompress(this.compressedArray, 0, compressedSize,
+			this.uncompressedArray, 0, size);
+		if (decompressedSize != size) {
+			throw new IOException("Deserialization error: Decompressed buffer has " + decompressedSize
+				+ " bytes, expected " + size);
+		}
+
+		buffer.write(ByteBuffer.wrap(this.uncompressedArray, 0, size));
+		buffer.flip();
+		return false;
+	}
+
 	public BufferProvider getBufferProvider() {
 
 		return this.bufferProvider;
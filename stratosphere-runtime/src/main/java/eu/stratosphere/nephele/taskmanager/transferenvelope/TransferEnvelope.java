@@ -33,6 +33,11 @@ public final class TransferEnvelope {
 
 	private Buffer buffer = null;
 
+	/**
+	 * Stores whether the buffer shall be compressed when the envelope is sent over the network.
+	 */
+	private boolean bufferCompressible = false;
+
 	public TransferEnvelope(int sequenceNumber, JobID jobID, ChannelID source) {
 		this(sequenceNumber, jobID, source, null);
 	}
@@ -79,10 +84,31 @@ public final class TransferEnvelope {
 		return this.buffer;
 	}
 
+	/**
+	 * Sets whether the envelope's buffer shall be compressed when the envelope is sent over the network. The flag has
+	 * no effect on envelopes which are delivered to a receiver on the same task manager.
+	 * 
+	 * @param bufferCompressible
+	 *        <code>true</code> to compress the buffer for network transfers, <code>false</code> otherwise
+	 */
+	public void setBufferCompressible(boolean bufferCompressible) {
+		this.bufferCompressible = bufferCompressible;
+	}
+
+	/**
+	 * Checks whether the envelope's buffer shall be compressed when the envelope is sent over the network.
+	 * 
+	 * @return <code>true</code> if the buffer shall be compressed for network transfers, <code>false</code> otherwise
+	 */
+	public boolean isBufferCompressible() {
+		return this.bufferCompressible;
+	}
+
 	public TransferEnvelope duplicate() throws IOException, InterruptedException {
 
 		final TransferEnvelope duplicatedTransferEnvelope = new TransferEnvelope(this.sequenceNumber, this.jobID,
 			this.source, this.eventList); // No need to duplicate event list
+		duplicatedTransferEnvelope.bufferCompressible = this.bufferCompressible;
 
 		if (this.buffer != null) {
 			duplicatedTransferEnvelope.buffer = this.buffer.duplicate();
@@ -97,6 +123,7 @@ public final class TransferEnvelope {
 
 		final TransferEnvelope duplicatedTransferEnvelope = new TransferEnvelope(this.sequenceNumber, this.jobID,
 			this.source, this.eventList); // No need to duplicate event list
+		duplicatedTransferEnvelope.bufferCompressible = this.bufferCompressible;
 
 		duplicatedTransferEnvelope.buffer = null;
 
@@ -0,0 +1,140 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.functions.GenericJoiner;
+import eu.stratosphere.api.common.typeutils.TypePairComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.MemoryAllocationException;
+import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.pact.runtime.resettable.BlockResettableMutableObjectIterator;
+import eu.stratosphere.pact.runtime.resettable.SpillingResettableMutableObjectIterator;
+import eu.stratosphere.pact.runtime.task.util.JoinTaskIterator;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * A join that compares every record of the first input with every record of the second input, in the manner of a
+ * block-nested-loops join: The first input is read block-wise into memory, and the second input is read once
+ * for every block, spilling it on the first pass. The join is used for the heavy hitter keys of a hash join,
+ * where few keys have so many records that the join is dominated by the cross product of their records anyway.
+ * <p>
+ * Each call to {@link #callWithNextKey(GenericJoiner, Collector)} joins one record of the second input with the
+ * current block of the first input.
+ */
+final class BlockNestedLoopsMatchIterator<V1, V2, O> implements JoinTaskIterator<V1, V2, O> {
+
+	private static final Log LOG = LogFactory.getLog(BlockNestedLoopsMatchIterator.class);
+
+	private final BlockResettableMutableObjectIterator<V1> blockSide;
+
+	private final SpillingResettableMutableObjectIterator<V2> spillingSide;
+
+	private final TypeSerializer<V2> serializer2;
+
+	private final TypePairComparator<V2, V1> pairComparator;
+
+	private final V1 blockRecord;
+
+	private final V2 spillingRecord;
+
+	private final V2 spillingRecordCopy;
+
+	private volatile boolean running = true;
+
+	// --------------------------------------------------------------------------------------------
+
+	BlockNestedLoopsMatchIterator(MutableObjectIterator<V1> input1, MutableObjectIterator<V2> input2,
+			TypeSerializer<V1> serializer1, TypeSerializer<V2> serializer2, TypePairComparator<V2, V1> pairComparator,
+			MemoryManager memManager, IOManager ioManager, int numMemoryPages, AbstractInvokable ownerTask)
+	throws MemoryAllocationException
+	{
+		final int numSpillingPages = Math.max(numMemoryPages / 4, 1);
+
+		this.spillingSide = new SpillingResettableMutableObjectIterator<V2>(input2, serializer2, memManager, ioManager,
+			numSpillingPages, ownerTask);
+		this.blockSide = new BlockResettableMutableObjectIterator<V1>(memManager, input1, serializer1,
+			numMemoryPages - numSpillingPages, ownerTask);
+
+		this.serializer2 = serializer2;
+		this.pairComparator = pairComparator;
+
+		this.blockRecord = serializer1.createInstance();
+		this.spillingRecord = serializer2.createInstance();
+		this.spillingRecordCopy = serializer2.createInstance();
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void open() throws IOException {
+		this.spillingSide.open();
+	}
+
+	@Override
+	public void close() {
+		this.blockSide.close();
+		try {
+			this.spillingSide.close();
+		}
+		catch (IOException ioex) {
+			LOG.error("Error closing the spilling side of the block-nested-loops join: " + ioex.getMessage(), ioex);
+		}
+	}
+
+	@Override
+	public void abort() {
+		this.running = false;
+	}
+
+	@Override
+	public boolean callWithNextKey(GenericJoiner<V1, V2, O> matchFunction, Collector<O> collector) throws Exception {
+		final BlockResettableMutableObjectIterator<V1> blockSide = this.blockSide;
+		final SpillingResettableMutableObjectIterator<V2> spillingSide = this.spillingSide;
+		final TypePairComparator<V2, V1> comparator = this.pairComparator;
+
+		final V1 blockRecord = this.blockRecord;
+		final V2 spillingRecord = this.spillingRecord;
+		final V2 spillingRecordCopy = this.spillingRecordCopy;
+
+		while (this.running) {
+			if (spillingSide.next(spillingRecord)) {
+				// join the record with all records of the block that have the same key
+				comparator.setReference(spillingRecord);
+				while (blockSide.next(blockRecord)) {
+					if (comparator.equalToReference(blockRecord)) {
+						this.serializer2.copyTo(spillingRecord, spillingRecordCopy);
+						matchFunction.join(blockRecord, spillingRecordCopy, collector);
+					}
+				}
+				blockSide.reset();
+				return true;
+			}
+
+			// all records of the second input are joined with this block, continue with the next block
+			if (!blockSide.nextBlock()) {
+				return false;
+			}
+			spillingSide.reset();
+		}
+		return false;
+	}
+}
@@ -52,6 +52,8 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 	
 	private final MutableObjectIterator<V2> secondInput;
 	
+	private final DeferredPartitionJoiner<V1, V2, O> deferredPartitionJoiner;
+	
 	private volatile boolean running = true;
 	
 	// --------------------------------------------------------------------------------------------
@@ -74,10 +76,57 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 		
 		this.hashJoin = getHashJoin(serializer1, comparator1, serializer2, comparator2, pairComparator,
 			memManager, ioManager, ownerTask, totalMemory);
+		this.hashJoin.setDeferSpilledPartitions(true);
+		this.deferredPartitionJoiner = new DeferredPartitionJoiner<V1, V2, O>(serializer1, comparator1,
+			serializer2, comparator2, new ReversedPairComparator<V1, V2>(pairComparator), pairComparator,
+			memManager, ioManager, ownerTask, totalMemory, true);
 	}
 	
 	// --------------------------------------------------------------------------------------------
 	
+	/**
+	 * Sets the estimates for the build side (the first input), from which the hash table derives its number of
+	 * partitions, buckets and write-behind buffers. The estimates must be set before the iterator is opened.
+	 * 
+	 * @param numRecords The estimated number of build-side records, or a non-positive value, if unknown.
+	 * @param avgRecordWidth The estimated average record width in bytes, or a non-positive value, if unknown.
+	 */
+	public void setBuildSideEstimates(long numRecords, float avgRecordWidth) {
+		this.hashJoin.setBuildSideEstimates(numRecords, avgRecordWidth);
+	}
+	
+	/**
+	 * Sets whether the hash table keeps bloom filters for its spilled partitions. The joins of deferred
+	 * partitions take the flag over from the hash table. The flag must be set before the iterator is opened.
+	 */
+	public void setUseBloomFilters(boolean useBloomFilters) {
+		this.hashJoin.setUseBloomFilters(useBloomFilters);
+	}
+	
+	/**
+	 * Sets whether the hash table re-sizes its initial bucket table after the first build-side records. The flag
+	 * must be set before the iterator is opened.
+	 */
+	public void setAdaptiveTableSize(boolean adaptiveTableSize) {
+		this.hashJoin.setAdaptiveTableSize(adaptiveTableSize);
+	}
+	
+	/**
+	 * Sets whether the hash table joins keys with very many build-side records separately. The joins of deferred
+	 * partitions take the flag over from the hash table. The flag must be set before the iterator is opened.
+	 */
+	public void setSkewHandling(boolean skewHandling) {
+		this.hashJoin.setSkewHandling(skewHandling);
+	}
+	
+	/**
+	 * Sets the recursion depth at which the hash table starts. Used when the iterator joins a partition
+	 * that another hash join deferred.
+	 */
+	void setInitialRecursionDepth(int depth) {
+		this.hashJoin.setInitialRecursionDepth(depth);
+	}
+	
 	@Override
 	public void open() throws IOException, MemoryAllocationException, InterruptedException {
 		this.hashJoin.open(this.firstInput, this.secondInput);
@@ -86,7 +135,8 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 
 	@Override
 	public void close() {
-		// close the join
+		// close the join and the join of its deferred partitions
+		this.deferredPartitionJoiner.close();
 		this.hashJoin.close();
 		
 		// free the memory
@@ -98,7 +148,11 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 	public final boolean callWithNextKey(GenericJoiner<V1, V2, O> matchFunction, Collector<O> collector)
 	throws Exception
 	{
-		if (this.hashJoin.nextRecord())
+		if (this.deferredPartitionJoiner.isActive()) {
+			// the hash table is done, the remaining keys are from the partitions it deferred
+			return this.deferredPartitionJoiner.callWithNextKey(matchFunction, collector);
+		}
+		else if (this.hashJoin.nextRecord())
 		{
 			// we have a next record, get the iterators to the probe and build side values
 			final MutableHashTable.HashBucketIterator<V1, V2> buildSideIterator = this.hashJoin.getBuildSideIterator();
@@ -137,7 +191,8 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 			return true;
 		}
 		else {
-			return false;
+			return this.deferredPartitionJoiner.takeDeferredPartitions(this.hashJoin) &&
+					this.deferredPartitionJoiner.callWithNextKey(matchFunction, collector);
 		}
 	}
 
@@ -145,6 +200,7 @@ public class BuildFirstHashMatchIterator<V1, V2, O> implements JoinTaskIterator<
 	public void abort() {
 		this.running = false;
 		this.hashJoin.abort();
+		this.deferredPartitionJoiner.abort();
 	}
 	
 	// --------------------------------------------------------------------------------------------
@@ -0,0 +1,987 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypePairComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.AbstractPagedInputView;
+import eu.stratosphere.nephele.services.memorymanager.AbstractPagedOutputView;
+import eu.stratosphere.pact.runtime.util.MathUtils;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * An in-memory hash table that supports updating records in place, also if the updated records have a
+ * different serialized length than the original ones. It is used to hold the solution set of workset
+ * iterations, where records are probed and replaced in every superstep.
+ * <p>
+ * The table consists of a bucket array and a number of partitions. The bucket array holds for each bucket
+ * the pointer to the first entry of the bucket's chain. The entries themselves are stored in the partitions,
+ * which append them to their memory segments. A bucket and all entries in its chain always belong to the
+ * same partition. Every entry consists of a header and the serialized record:
+ *
+ * <pre>
+ * +---------------------------------------------------------------------------------------------------+
+ * | next-entry-pointer (8 bytes) | forward-pointer (8 bytes) | hash code (4 bytes) | length (4 bytes) |
+ * | serialized record (length bytes, may span several memory segments) ...                            |
+ * +---------------------------------------------------------------------------------------------------+
+ * </pre>
+ *
+ * The header of an entry never crosses the boundary of a memory segment. If a record cannot be updated in
+ * place (because its type has no fixed length), the new version is appended to the partition and linked into
+ * the chain instead of the old version, which is marked as deleted. When the table runs out of memory, the
+ * partitions with the most deleted entries are compacted in place: the live entries are slid towards the
+ * beginning of the partition and the memory segments that become empty are returned to the table's pool.
+ * Compaction requires no additional memory. The forward-pointer field is used only while compacting.
+ * <p>
+ * The table holds all records in memory. If a record does not fit, even after compaction, the inserting
+ * or updating method returns false and leaves the table unchanged.
+ *
+ * @param <BT> The type of the records stored in the hash table.
+ * @param <PT> The type of the records that are used to probe the hash table.
+ */
+public class CompactingHashTable<BT, PT> {
+
+	private static final Log LOG = LogFactory.getLog(CompactingHashTable.class);
+
+	// ------------------------------------------------------------------------
+	//                         Internal Constants
+	// ------------------------------------------------------------------------
+
+	/**
+	 * The minimum number of memory segments the hash table needs to be supplied with in order to work.
+	 */
+	private static final int MIN_NUM_MEMORY_SEGMENTS = 4;
+
+	/**
+	 * The maximum number of partitions, which defines the compaction granularity.
+	 */
+	private static final int MAX_NUM_PARTITIONS = 32;
+
+	/**
+	 * The default record width that is used to estimate the number of records, when the records have
+	 * no fixed length.
+	 */
+	private static final int DEFAULT_RECORD_LEN = 24;
+
+	/**
+	 * The length of a pointer in the bucket array.
+	 */
+	private static final int POINTER_LEN = 8;
+
+	/**
+	 * The number of bits to shift a bucket number to get its offset in a bucket segment.
+	 */
+	private static final int POINTER_LEN_BITS = 3;
+
+	// ------------------------------ Entry Header Fields ------------------------------
+
+	private static final int HEADER_NEXT_OFFSET = 0;
+
+	private static final int HEADER_FORWARD_OFFSET = 8;
+
+	private static final int HEADER_HASH_OFFSET = 16;
+
+	private static final int HEADER_LENGTH_OFFSET = 20;
+
+	private static final int ENTRY_HEADER_LEN = 24;
+
+	/**
+	 * The flag in the length field that marks an entry as deleted.
+	 */
+	private static final int DELETED_FLAG = 0x80000000;
+
+	/**
+	 * Constant for a pointer, indicating that there is no (further) entry.
+	 */
+	private static final long NO_ENTRY = -1L;
+
+	// ------------------------------------------------------------------------
+	//                              Members
+	// ------------------------------------------------------------------------
+
+	private final TypeSerializer<BT> buildSideSerializer;
+
+	private final TypeComparator<BT> buildSideComparator;
+
+	private final TypeComparator<PT> probeSideComparator;
+
+	private final TypePairComparator<PT, BT> pairComparator;
+
+	/**
+	 * The free memory segments currently available to the hash table.
+	 */
+	private final List<MemorySegment> availableMemory;
+
+	private final int segmentSize;
+
+	private final int segmentSizeBits;
+
+	private final int segmentSizeMask;
+
+	private final int bucketsPerSegmentBits;
+
+	private final int bucketsPerSegmentMask;
+
+	/**
+	 * Flag indicating that the records have a fixed length and can always be overwritten in place.
+	 */
+	private final boolean fixedLengthRecords;
+
+	private final int avgRecordLen;
+
+	private MemorySegment[] buckets;
+
+	private int numBuckets;
+
+	private RecordArea[] partitions;
+
+	private BT reuse;
+
+	private long numRecords;
+
+	private int numCompactions;
+
+	/**
+	 * Counter that is incremented whenever the structure of the chains changes. It is used to check
+	 * whether the position of the last match is still valid.
+	 */
+	private long structureVersion;
+
+	// ------------------------------ Last Match ------------------------------
+
+	private long lastMatchVersion = -1;
+
+	private int lastMatchBucket;
+
+	private long lastMatchPredecessor;
+
+	private long lastMatchEntry;
+
+	private int lastMatchHash;
+	
+	// the predecessor of the entry found by the last chain walk
+	private long foundPredecessor;
+
+	/**
+	 * Flag indicating that the closing logic has been invoked.
+	 */
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	// ------------------------------------------------------------------------
+	//                         Construction and Teardown
+	// ------------------------------------------------------------------------
+
+	public CompactingHashTable(TypeSerializer<BT> buildSideSerializer, TypeComparator<BT> buildSideComparator,
+			TypeComparator<PT> probeSideComparator, TypePairComparator<PT, BT> pairComparator,
+			List<MemorySegment> memorySegments)
+	{
+		this(buildSideSerializer, buildSideComparator, probeSideComparator, pairComparator, memorySegments, -1);
+	}
+
+	public CompactingHashTable(TypeSerializer<BT> buildSideSerializer, TypeComparator<BT> buildSideComparator,
+			TypeComparator<PT> probeSideComparator, TypePairComparator<PT, BT> pairComparator,
+			List<MemorySegment> memorySegments, int avgRecordLen)
+	{
+		// some sanity checks first
+		if (buildSideSerializer == null || buildSideComparator == null || memorySegments == null) {
+			throw new NullPointerException();
+		}
+		if (memorySegments.size() < MIN_NUM_MEMORY_SEGMENTS) {
+			throw new IllegalArgumentException("Too few memory segments provided. The hash table needs at least " +
+				MIN_NUM_MEMORY_SEGMENTS + " memory segments.");
+		}
+
+		this.buildSideSerializer = buildSideSerializer;
+		this.buildSideComparator = buildSideComparator;
+		this.probeSideComparator = probeSideComparator;
+		this.pairComparator = pairComparator;
+		this.availableMemory = memorySegments;
+
+		this.fixedLengthRecords = buildSideSerializer.getLength() > 0;
+		this.avgRecordLen = avgRecordLen > 0 ? avgRecordLen :
+				this.fixedLengthRecords ? buildSideSerializer.getLength() : DEFAULT_RECORD_LEN;
+
+		// check the size of the first buffer and record it. all further buffers must have the same size.
+		// the size must also be a power of 2
+		this.segmentSize = memorySegments.get(0).size();
+		if ( (this.segmentSize & this.segmentSize - 1) != 0) {
+			throw new IllegalArgumentException("Hash Table requires buffers whose size is a power of 2.");
+		}
+		if (this.segmentSize < 4 * ENTRY_HEADER_LEN) {
+			throw new IllegalArgumentException("Hash Table requires buffers of at least " + (4 * ENTRY_HEADER_LEN) + " bytes.");
+		}
+		this.segmentSizeBits = MathUtils.log2strict(this.segmentSize);
+		this.segmentSizeMask = this.segmentSize - 1;
+
+		final int bucketsPerSegment = this.segmentSize >> POINTER_LEN_BITS;
+		this.bucketsPerSegmentBits = MathUtils.log2strict(bucketsPerSegment);
+		this.bucketsPerSegmentMask = bucketsPerSegment - 1;
+
+		// because we allow to open and close multiple times, the state is initially closed
+		this.closed.set(true);
+	}
+
+	// ------------------------------------------------------------------------
+	//                              Life-Cycle
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Opens the hash table and sets up the (initially empty) bucket array and partitions.
+	 */
+	@SuppressWarnings("unchecked")
+	public void open() {
+		// sanity checks
+		if (!this.closed.compareAndSet(true, false)) {
+			throw new IllegalStateException("Hash Table cannot be opened, because it is currently not closed.");
+		}
+
+		final int numSegments = this.availableMemory.size();
+
+		// size the bucket array such that there is roughly one bucket per expected record
+		final long bytesPerRecord = ENTRY_HEADER_LEN + this.avgRecordLen + POINTER_LEN;
+		final long expectedRecords = ((long) numSegments) * this.segmentSize / bytesPerRecord;
+		final long bucketBytes = expectedRecords * POINTER_LEN;
+		int numBucketSegments = (int) Math.max(1, Math.min(numSegments / 2, bucketBytes / this.segmentSize));
+		numBucketSegments = Integer.highestOneBit(numBucketSegments);
+
+		this.numBuckets = numBucketSegments << this.bucketsPerSegmentBits;
+		this.buckets = new MemorySegment[numBucketSegments];
+		for (int i = 0; i < numBucketSegments; i++) {
+			final MemorySegment seg = this.availableMemory.remove(this.availableMemory.size() - 1);
+			for (int k = 0; k < this.segmentSize; k += POINTER_LEN) {
+				seg.putLong(k, NO_ENTRY);
+			}
+			this.buckets[i] = seg;
+		}
+
+		// the partitions only define the granularity of the compaction
+		final int numDataSegments = numSegments - numBucketSegments;
+		final int numPartitions = Integer.highestOneBit(Math.max(1, Math.min(MAX_NUM_PARTITIONS, numDataSegments / 8)));
+		this.partitions = (RecordArea[]) new CompactingHashTable.RecordArea[numPartitions];
+		for (int i = 0; i < numPartitions; i++) {
+			this.partitions[i] = new RecordArea(i);
+		}
+
+		this.reuse = this.buildSideSerializer.createInstance();
+		this.numRecords = 0;
+		this.numCompactions = 0;
+		this.lastMatchVersion = -1;
+	}
+
+	/**
+	 * Closes the hash table and returns all memory segments to the list of available memory, which can
+	 * be obtained via {@link #getFreedMemory()}.
+	 */
+	public void close() {
+		// make sure that we close only once
+		if (!this.closed.compareAndSet(false, true)) {
+			return;
+		}
+
+		if (this.buckets != null) {
+			for (MemorySegment seg : this.buckets) {
+				this.availableMemory.add(seg);
+			}
+			this.buckets = null;
+		}
+		if (this.partitions != null) {
+			for (RecordArea p : this.partitions) {
+				p.releaseAllMemory();
+			}
+			this.partitions = null;
+		}
+		this.numBuckets = 0;
+		this.lastMatchVersion = -1;
+	}
+
+	public List<MemorySegment> getFreedMemory() {
+		if (!this.closed.get()) {
+			throw new IllegalStateException("Cannot return memory while hash table is open.");
+		}
+
+		return this.availableMemory;
+	}
+
+	// ------------------------------------------------------------------------
+	//                          Building and Updating
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Inserts all records from the given input into the table. Records with a key that is already
+	 * contained in the table replace the previous record.
+	 *
+	 * @param input The input to read the records from.
+	 * @throws IOException Thrown, if the input could not be read.
+	 */
+	public void buildTable(MutableObjectIterator<BT> input) throws IOException {
+		final BT record = this.buildSideSerializer.createInstance();
+		while (input.next(record)) {
+			if (!insertOrReplaceRecord(record)) {
+				throw new RuntimeException("The hash table ran out of memory: All " + this.numRecords +
+					" records occupy the memory and no space can be reclaimed by compaction.");
+			}
+		}
+	}
+
+	/**
+	 * Inserts the given record into the table. If the table contains already a record with the same
+	 * key, that record is replaced.
+	 *
+	 * @param record The record to insert.
+	 * @return True, if the record was inserted, false if the table has no memory left for the record.
+	 * @throws IOException Thrown, if the record could not be serialized.
+	 */
+	public boolean insertOrReplaceRecord(BT record) throws IOException {
+		final int hash = MutableHashTable.hash(this.buildSideComparator.hash(record), 0);
+		final int bucket = hash & (this.numBuckets - 1);
+		final RecordArea p = this.partitions[bucket & (this.partitions.length - 1)];
+
+		// find an existing entry for the key
+		this.buildSideComparator.setReference(record);
+		final long entry = findEntry(bucket, hash, p, this.reuse, false);
+		if (entry != NO_ENTRY) {
+			return replaceEntry(record, hash, bucket, p, this.foundPredecessor, entry) != NO_ENTRY;
+		}
+
+		// no entry found, insert the record as the head of the bucket's chain
+		final long newEntry = p.append(record, hash);
+		if (newEntry == NO_ENTRY) {
+			return false;
+		}
+		p.setNext(newEntry, getBucketPointer(bucket));
+		setBucketPointer(bucket, newEntry);
+		this.numRecords++;
+		this.structureVersion++;
+		return true;
+	}
+
+	/**
+	 * Replaces the record that was returned by the last successful call to {@link #getMatchFor(Object, Object)}
+	 * or {@link #getMatchForBuildSideRecord(Object, Object)} with the given record. The given record must have
+	 * the same key as the replaced record.
+	 *
+	 * @param record The record that replaces the last match.
+	 * @return True, if the record was updated, false if the table has no memory left for the record.
+	 * @throws IOException Thrown, if the record could not be serialized.
+	 */
+	public boolean updateMatch(BT record) throws IOException {
+		if (this.lastMatchVersion != this.structureVersion) {
+			// the chains changed since the last match was found, so we need to locate the record again
+			return insertOrReplaceRecord(record);
+		}
+
+		final int bucket = this.lastMatchBucket;
+		final RecordArea p = this.partitions[bucket & (this.partitions.length - 1)];
+		final long newEntry = replaceEntry(record, this.lastMatchHash, bucket, p, this.lastMatchPredecessor, this.lastMatchEntry);
+		if (newEntry == NO_ENTRY) {
+			return false;
+		}
+		this.lastMatchEntry = newEntry;
+		this.lastMatchVersion = this.structureVersion;
+		return true;
+	}
+
+	/**
+	 * Removes the record with the same key as the given record from the table.
+	 *
+	 * @param record The record whose key identifies the record to remove.
+	 * @return True, if a record was removed, false, if the table contains no record with the key.
+	 * @throws IOException Thrown, if a stored record could not be deserialized.
+	 */
+	public boolean removeRecord(BT record) throws IOException {
+		final int hash = MutableHashTable.hash(this.buildSideComparator.hash(record), 0);
+		final int bucket = hash & (this.numBuckets - 1);
+		final RecordArea p = this.partitions[bucket & (this.partitions.length - 1)];
+
+		this.buildSideComparator.setReference(record);
+		final long entry = findEntry(bucket, hash, p, this.reuse, false);
+		if (entry == NO_ENTRY) {
+			return false;
+		}
+		
+		if (this.foundPredecessor == NO_ENTRY) {
+			setBucketPointer(bucket, p.getNext(entry));
+		} else {
+			p.setNext(this.foundPredecessor, p.getNext(entry));
+		}
+		p.markDeleted(entry);
+		this.numRecords--;
+		this.structureVersion++;
+		return true;
+	}
+
+	private long replaceEntry(BT record, int hash, int bucket, RecordArea p, long predecessor, long entry) throws IOException {
+		if (this.fixedLengthRecords) {
+			p.overwrite(entry, record);
+			return entry;
+		}
+
+		final int compactionsBefore = this.numCompactions;
+		final long newEntry = p.append(record, hash);
+		if (newEntry == NO_ENTRY) {
+			return NO_ENTRY;
+		}
+
+		if (compactionsBefore != this.numCompactions) {
+			// the entries were moved while making room for the new entry. locate the old entry again.
+			this.buildSideComparator.setReference(record);
+			entry = findEntry(bucket, hash, p, this.reuse, false);
+			if (entry == NO_ENTRY) {
+				throw new RuntimeException("Bug in compacting hash table: Entry was lost during compaction.");
+			}
+			predecessor = this.foundPredecessor;
+		}
+
+		// link the new entry instead of the old one
+		p.setNext(newEntry, p.getNext(entry));
+		if (predecessor == NO_ENTRY) {
+			setBucketPointer(bucket, newEntry);
+		} else {
+			p.setNext(predecessor, newEntry);
+		}
+		p.markDeleted(entry);
+		this.structureVersion++;
+		return newEntry;
+	}
+
+	// ------------------------------------------------------------------------
+	//                                Probing
+	// ------------------------------------------------------------------------
+
+	/**
+	 * Looks up the record that matches the given probe side record.
+	 *
+	 * @param probeSideRecord The record to find the match for.
+	 * @param target The object to deserialize the match into.
+	 * @return True, if a match was found, false otherwise.
+	 * @throws IOException Thrown, if the stored record could not be deserialized.
+	 */
+	public boolean getMatchFor(PT probeSideRecord, BT target) throws IOException {
+		final int hash = MutableHashTable.hash(this.probeSideComparator.hash(probeSideRecord), 0);
+		final int bucket = hash & (this.numBuckets - 1);
+		final RecordArea p = this.partitions[bucket & (this.partitions.length - 1)];
+
+		this.pairComparator.setReference(probeSideRecord);
+		return rememberMatch(bucket, hash, findEntry(bucket, hash, p, target, true));
+	}
+
+	/**
+	 * Looks up the record that has the same key as the given record of the table's own type. This is used
+	 * when the table aggregates records, which are looked up and replaced by records of the same type.
+	 *
+	 * @param record The record to find the match for.
+	 * @param target The object to deserialize the match into.
+	 * @return True, if a match was found, false otherwise.
+	 * @throws IOException Thrown, if the stored record could not be deserialized.
+	 */
+	public boolean getMatchForBuildSideRecord(BT record, BT target) throws IOException {
+		final int hash = MutableHashTable.hash(this.buildSideComparator.hash(record), 0);
+		final int bucket = hash & (this.numBuckets - 1);
+		final RecordArea p = this.partitions[bucket & (this.partitions.length - 1)];
+
+		this.buildSideComparator.setReference(record);
+		return rememberMatch(bucket, hash, findEntry(bucket, hash, p, target, false));
+	}
+	
+	/**
+	 * Walks the chain of the given bucket to the entry with the given hash whose record equals the reference
+	 * of the build side comparator, or of the pair comparator when looking up a probe side record. The record
+	 * of every entry with the hash is deserialized into the given target. The predecessor of the found entry
+	 * in the chain is left in {@link #foundPredecessor}.
+	 *
+	 * @return The found entry, or <code>NO_ENTRY</code>, if the chain holds no entry for the reference.
+	 */
+	private long findEntry(int bucket, int hash, RecordArea p, BT target, boolean probeSide) throws IOException {
+		long predecessor = NO_ENTRY;
+		long entry = getBucketPointer(bucket);
+		while (entry != NO_ENTRY) {
+			if (p.getHash(entry) == hash) {
+				p.read(entry, target);
+				final boolean equal = probeSide ? this.pairComparator.equalToReference(target) :
+					this.buildSideComparator.equalToReference(target);
+				if (equal) {
+					break;
+				}
+			}
+			predecessor = entry;
+			entry = p.getNext(entry);
+		}
+		this.foundPredecessor = predecessor;
+		return entry;
+	}
+	
+	/**
+	 * Remembers the given entry as the last match for {@link #updateMatch(Object)}.
+	 *
+	 * @return True, if an entry was found, false if the entry is <code>NO_ENTRY</code>.
+	 */
+	private boolean rememberMatch(int bucket, int hash, long entry) {
+		if (entry == NO_ENTRY) {
+			this.lastMatchVersion = -1;
+			return false;
+		}
+		this.lastMatchBucket = bucket;
+		this.lastMatchPredecessor = this.foundPredecessor;
+		this.lastMatchEntry = entry;
+		this.lastMatchHash = hash;
+		this.lastMatchVersion = this.structureVersion;
+		return true;
+	}
+
+	/**
+	 * Gets an iterator over all records currently stored in the table.
+	 *
+	 * @return An iterator over all records in the table.
+	 */
+	public MutableObjectIterator<BT> getEntryIterator() {
+		return new EntryIterator();
+	}
+
+	public TypeComparator<PT> getProbeSideComparator() {
+		return this.probeSideComparator;
+	}
+
+	public TypeComparator<BT> getBuildSideComparator() {
+		return this.buildSideComparator;
+	}
+
+	/**
+	 * Gets the number of records currently stored in the table.
+	 *
+	 * @return The number of records in the table.
+	 */
+	public long getNumRecords() {
+		return this.numRecords;
+	}
+
+	/**
+	 * Gets the number of partition compactions that were performed since the table was opened.
+	 *
+	 * @return The number of compactions.
+	 */
+	public int getNumCompactions() {
+		return this.numCompactions;
+	}
+
+	// ------------------------------------------------------------------------
+	//                          Memory Management
+	// ------------------------------------------------------------------------
+
+	private final long getBucketPointer(int bucket) {
+		final MemorySegment seg = this.buckets[bucket >>> this.bucketsPerSegmentBits];
+		return seg.getLong((bucket & this.bucketsPerSegmentMask) << POINTER_LEN_BITS);
+	}
+
+	private final void setBucketPointer(int bucket, long pointer) {
+		final MemorySegment seg = this.buckets[bucket >>> this.bucketsPerSegmentBits];
+		seg.putLong((bucket & this.bucketsPerSegmentMask) << POINTER_LEN_BITS, pointer);
+	}
+
+	/**
+	 * Compacts partitions, starting with the one with the most deleted bytes, until at least one
+	 * memory segment is returned to the pool.
+	 *
+	 * @return True, if memory was freed, false if no memory could be reclaimed.
+	 */
+	private boolean compactForMemory() {
+		final int freeBefore = this.availableMemory.size();
+
+		while (true) {
+			RecordArea candidate = null;
+			for (RecordArea p : this.partitions) {
+				if (p.deletedBytes > 0 && (candidate == null || p.deletedBytes > candidate.deletedBytes)) {
+					candidate = p;
+				}
+			}
+			if (candidate == null) {
+				return false;
+			}
+
+			candidate.compact();
+			this.numCompactions++;
+			this.structureVersion++;
+
+			if (this.availableMemory.size() > freeBefore) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Aligns the given position such that an entry header starting at it does not cross a memory segment boundary.
+	 */
+	private final long align(long position) {
+		final int posInSegment = (int) (position & this.segmentSizeMask);
+		return this.segmentSize - posInSegment < ENTRY_HEADER_LEN ? position - posInSegment + this.segmentSize : position;
+	}
+
+	// ======================================================================================================
+
+	/**
+	 * A partition of the hash table, which stores the entries of its buckets in an append-only fashion.
+	 */
+	private final class RecordArea {
+
+		private final ArrayList<MemorySegment> segments = new ArrayList<MemorySegment>();
+
+		private final int partitionNumber;
+
+		private final WriteView writeView;
+
+		private final ReadView readView;
+
+		private long appendPosition;
+
+		private long deletedBytes;
+
+
+		RecordArea(int partitionNumber) {
+			this.partitionNumber = partitionNumber;
+			this.writeView = new WriteView(this.segments);
+			this.readView = new ReadView(this.segments);
+		}
+
+		// -------------------------------- Entry Access --------------------------------
+
+		final long getNext(long entry) {
+			return segmentFor(entry).getLong(offsetFor(entry) + HEADER_NEXT_OFFSET);
+		}
+
+		final void setNext(long entry, long next) {
+			segmentFor(entry).putLong(offsetFor(entry) + HEADER_NEXT_OFFSET, next);
+		}
+
+		final long getForward(long entry) {
+			return segmentFor(entry).getLong(offsetFor(entry) + HEADER_FORWARD_OFFSET);
+		}
+
+		final void setForward(long entry, long forward) {
+			segmentFor(entry).putLong(offsetFor(entry) + HEADER_FORWARD_OFFSET, forward);
+		}
+
+		final int getHash(long entry) {
+			return segmentFor(entry).getInt(offsetFor(entry) + HEADER_HASH_OFFSET);
+		}
+
+		final int getLengthField(long entry) {
+			return segmentFor(entry).getInt(offsetFor(entry) + HEADER_LENGTH_OFFSET);
+		}
+
+		final void markDeleted(long entry) {
+			final MemorySegment seg = segmentFor(entry);
+			final int offset = offsetFor(entry) + HEADER_LENGTH_OFFSET;
+			final int length = seg.getInt(offset);
+			seg.putInt(offset, length | DELETED_FLAG);
+			this.deletedBytes += ENTRY_HEADER_LEN + length;
+		}
+
+		final void read(long entry, BT target) throws IOException {
+			this.readView.setReadPosition(entry + ENTRY_HEADER_LEN);
+			CompactingHashTable.this.buildSideSerializer.deserialize(target, this.readView);
+		}
+
+		final void overwrite(long entry, BT record) throws IOException {
+			this.writeView.setWritePosition(entry + ENTRY_HEADER_LEN);
+			CompactingHashTable.this.buildSideSerializer.serialize(record, this.writeView);
+		}
+
+		/**
+		 * Appends a new entry for the given record. If the table has no free memory, partitions are compacted
+		 * to make room.
+		 *
+		 * @return The pointer to the new entry, or {@link #NO_ENTRY}, if no memory could be reclaimed for the entry.
+		 */
+		final long append(BT record, int hash) throws IOException {
+			while (true) {
+				final long entry = align(this.appendPosition);
+				try {
+					final int segmentNum = (int) (entry >>> CompactingHashTable.this.segmentSizeBits);
+					if (segmentNum == this.segments.size()) {
+						this.segments.add(nextFreeSegment());
+					}
+
+					this.writeView.setWritePosition(entry + ENTRY_HEADER_LEN);
+					CompactingHashTable.this.buildSideSerializer.serialize(record, this.writeView);
+					final long end = this.writeView.getWritePosition();
+
+					final MemorySegment seg = segmentFor(entry);
+					final int offset = offsetFor(entry);
+					seg.putLong(offset + HEADER_NEXT_OFFSET, NO_ENTRY);
+					seg.putLong(offset + HEADER_FORWARD_OFFSET, NO_ENTRY);
+					seg.putInt(offset + HEADER_HASH_OFFSET, hash);
+					seg.putInt(offset + HEADER_LENGTH_OFFSET, (int) (end - entry - ENTRY_HEADER_LEN));
+
+					this.appendPosition = end;
+					return entry;
+				}
+				catch (EOFException eofex) {
+					if (!compactForMemory()) {
+						return NO_ENTRY;
+					}
+				}
+			}
+		}
+
+		// -------------------------------- Compaction --------------------------------
+
+		/**
+		 * Slides all live entries towards the beginning of the partition, updates the pointers to them and
+		 * returns the memory segments that are no longer used to the table's pool.
+		 */
+		final void compact() {
+			// phase 1: compute the new position of every live entry
+			long readPos = 0;
+			long writePos = 0;
+			while ((readPos = align(readPos)) < this.appendPosition) {
+				final int lengthField = getLengthField(readPos);
+				final int length = lengthField & ~DELETED_FLAG;
+				if (lengthField == length) {
+					writePos = align(writePos);
+					setForward(readPos, writePos);
+					writePos += ENTRY_HEADER_LEN + length;
+				}
+				readPos += ENTRY_HEADER_LEN + length;
+			}
+			final long newAppendPosition = writePos;
+
+			// phase 2: redirect the bucket pointers and chain pointers to the new positions
+			final int numPartitions = CompactingHashTable.this.partitions.length;
+			for (int bucket = this.partitionNumber; bucket < CompactingHashTable.this.numBuckets; bucket += numPartitions) {
+				long entry = getBucketPointer(bucket);
+				if (entry == NO_ENTRY) {
+					continue;
+				}
+				setBucketPointer(bucket, getForward(entry));
+				while (entry != NO_ENTRY) {
+					final long next = getNext(entry);
+					if (next != NO_ENTRY) {
+						setNext(entry, getForward(next));
+					}
+					entry = next;
+				}
+			}
+
+			// phase 3: move the entries. since no entry moves towards the end, no unprocessed entry is overwritten
+			readPos = 0;
+			writePos = 0;
+			while ((readPos = align(readPos)) < this.appendPosition) {
+				final int lengthField = getLengthField(readPos);
+				final int length = lengthField & ~DELETED_FLAG;
+				final int entrySize = ENTRY_HEADER_LEN + length;
+				if (lengthField == length) {
+					writePos = align(writePos);
+					if (writePos != readPos) {
+						moveBytes(readPos, writePos, entrySize);
+					}
+					writePos += entrySize;
+				}
+				readPos += entrySize;
+			}
+
+			this.appendPosition = newAppendPosition;
+			this.deletedBytes = 0;
+
+			// release the segments that are not used any more
+			final int segmentsNeeded = (int) ((newAppendPosition + CompactingHashTable.this.segmentSize - 1) >>>
+																	CompactingHashTable.this.segmentSizeBits);
+			final int released = this.segments.size() - segmentsNeeded;
+			while (this.segments.size() > segmentsNeeded) {
+				CompactingHashTable.this.availableMemory.add(this.segments.remove(this.segments.size() - 1));
+			}
+
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Compacted partition " + this.partitionNumber + " of solution set hash table, releasing " +
+						released + " memory segments.");
+			}
+		}
+
+		private final void moveBytes(long from, long to, int numBytes) {
+			final int segmentSize = CompactingHashTable.this.segmentSize;
+			while (numBytes > 0) {
+				final int fromOffset = offsetFor(from);
+				final int toOffset = offsetFor(to);
+				final int chunk = Math.min(numBytes, Math.min(segmentSize - fromOffset, segmentSize - toOffset));
+				segmentFor(from).copyTo(fromOffset, segmentFor(to), toOffset, chunk);
+				from += chunk;
+				to += chunk;
+				numBytes -= chunk;
+			}
+		}
+
+		final void releaseAllMemory() {
+			CompactingHashTable.this.availableMemory.addAll(this.segments);
+			this.segments.clear();
+			this.appendPosition = 0;
+			this.deletedBytes = 0;
+		}
+
+		// -------------------------------- Utilities --------------------------------
+
+		private final MemorySegment segmentFor(long pointer) {
+			return this.segments.get((int) (pointer >>> CompactingHashTable.this.segmentSizeBits));
+		}
+
+		private final int offsetFor(long pointer) {
+			return (int) (pointer & CompactingHashTable.this.segmentSizeMask);
+		}
+	}
+
+	private final MemorySegment nextFreeSegment() throws EOFException {
+		if (this.availableMemory.isEmpty()) {
+			throw new EOFException();
+		}
+		return this.availableMemory.remove(this.availableMemory.size() - 1);
+	}
+
+	// ======================================================================================================
+
+	/**
+	 * An output view over the segments of a partition that takes additional segments from the table's pool.
+	 */
+	private final class WriteView extends AbstractPagedOutputView {
+
+		private final ArrayList<MemorySegment> segments;
+
+		private int currentSegmentIndex;
+
+		WriteView(ArrayList<MemorySegment> segments) {
+			super(CompactingHashTable.this.segmentSize, 0);
+			this.segments = segments;
+		}
+
+		@Override
+		protected MemorySegment nextSegment(MemorySegment current, int positionInCurrent) throws EOFException {
+			if (++this.currentSegmentIndex == this.segments.size()) {
+				try {
+					this.segments.add(nextFreeSegment());
+				} catch (EOFException eofex) {
+					this.currentSegmentIndex--;
+					throw eofex;
+				}
+			}
+			return this.segments.get(this.currentSegmentIndex);
+		}
+
+		void setWritePosition(long position) {
+			final int segmentNum = (int) (position >>> CompactingHashTable.this.segmentSizeBits);
+			final int offset = (int) (position & CompactingHashTable.this.segmentSizeMask);
+
+			if (offset == 0 && segmentNum > 0) {
+				// position at the end of the previous segment, the next write fetches the segment, if necessary
+				this.currentSegmentIndex = segmentNum - 1;
+				seekOutput(this.segments.get(segmentNum - 1), this.segmentSize);
+			} else {
+				this.currentSegmentIndex = segmentNum;
+				seekOutput(this.segments.get(segmentNum), offset);
+			}
+		}
+
+		long getWritePosition() {
+			return (((long) this.currentSegmentIndex) << CompactingHashTable.this.segmentSizeBits) + getCurrentPositionInSegment();
+		}
+	}
+
+	/**
+	 * An input view over the segments of a partition.
+	 */
+	private final class ReadView extends AbstractPagedInputView {
+
+		private final ArrayList<MemorySegment> segments;
+
+		private int currentSegmentIndex;
+
+		ReadView(ArrayList<MemorySegment> segments) {
+			super(0);
+			this.segments = segments;
+		}
+
+		void setReadPosition(long position) {
+			final int segmentNum = (int) (position >>> CompactingHashTable.this.segmentSizeBits);
+			final int offset = (int) (position & CompactingHashTable.this.segmentSizeMask);
+			final int segmentSize = CompactingHashTable.this.segmentSize;
+
+			if (segmentNum < this.segments.size()) {
+				this.currentSegmentIndex = segmentNum;
+				seekInput(this.segments.get(segmentNum), offset, segmentSize);
+			} else {
+				// position at the end of the last segment
+				this.currentSegmentIndex = segmentNum - 1;
+				seekInput(this.segments.get(segmentNum - 1), segmentSize, segmentSize);
+			}
+		}
+
+		@Override
+		protected MemorySegment nextSegment(MemorySegment current) throws EOFException {
+			if (++this.currentSegmentIndex < this.segments.size()) {
+				return this.segments.get(this.currentSegmentIndex);
+			} else {
+				this.currentSegmentIndex--;
+				throw new EOFException();
+			}
+		}
+
+		@Override
+		protected int getLimitForSegment(MemorySegment segment) {
+			return CompactingHashTable.this.segmentSize;
+		}
+	}
+
+	// ======================================================================================================
+
+	/**
+	 * Iterates over all live entries of all partitions.
+	 */
+	private final class EntryIterator implements MutableObjectIterator<BT> {
+
+		private int partitionNum;
+
+		private long position;
+
+		@Override
+		public boolean next(BT target) throws IOException {
+			final RecordArea[] partitions = CompactingHashTable.this.partitions;
+
+			while (this.partitionNum < partitions.length) {
+				final RecordArea p = partitions[this.partitionNum];
+
+				while ((this.position = align(this.position)) < p.appendPosition) {
+					final long entry = this.position;
+					final int lengthField = p.getLengthField(entry);
+					final int length = lengthField & ~DELETED_FLAG;
+					this.position += ENTRY_HEADER_LEN + length;
+
+					if (lengthField == length) {
+						p.read(entry, target);
+						return true;
+					}
+				}
+
+				this.partitionNum++;
+				this.position = 0;
+			}
+			return false;
+		}
+	}
+}
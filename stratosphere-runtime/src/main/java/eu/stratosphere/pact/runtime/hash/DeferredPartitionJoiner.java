@@ -0,0 +1,368 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.functions.GenericJoiner;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypePairComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.configuration.ConfigConstants;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.iomanager.BlockChannelReader;
+import eu.stratosphere.nephele.services.iomanager.ChannelReaderInputView;
+import eu.stratosphere.nephele.services.iomanager.HeaderlessChannelReaderInputView;
+import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.MemoryAllocationException;
+import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.pact.runtime.io.ChannelReaderInputViewIterator;
+import eu.stratosphere.pact.runtime.sort.MergeMatchIterator;
+import eu.stratosphere.pact.runtime.sort.UnilateralSortMerger;
+import eu.stratosphere.pact.runtime.task.util.JoinTaskIterator;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Joins the partitions that a {@link MutableHashTable} deferred, after the table has joined all other partitions
+ * and released its memory. A partition whose build side turned out larger than its probe side is joined by a
+ * hash join that builds its table from the probe side. A partition that cannot be joined by hashing within the
+ * maximal recursion depth, typically because of too many duplicate keys, is joined by sorting both sides and
+ * merging them. The partition with the records of the heavy hitter keys is joined by a block-nested-loops join.
+ * <p>
+ * The partitions are joined one after the other, each with the complete memory of the hash join, less the buffers
+ * to read the partition's files.
+ *
+ * @param <V1> The type of the first input.
+ * @param <V2> The type of the second input.
+ * @param <O> The type of the join result.
+ */
+final class DeferredPartitionJoiner<V1, V2, O> {
+
+	private static final Log LOG = LogFactory.getLog(DeferredPartitionJoiner.class);
+
+	/**
+	 * The minimal number of pages for each of the two sorters of the sort-merge join.
+	 */
+	private static final int MIN_NUM_SORT_PAGES = 34;
+
+	private final TypeSerializer<V1> serializer1;
+
+	private final TypeComparator<V1> comparator1;
+
+	private final TypeSerializer<V2> serializer2;
+
+	private final TypeComparator<V2> comparator2;
+
+	private final TypePairComparator<V1, V2> pairComparator12;
+
+	private final TypePairComparator<V2, V1> pairComparator21;
+
+	private final MemoryManager memManager;
+
+	private final IOManager ioManager;
+
+	private final AbstractInvokable ownerTask;
+
+	private final long totalMemory;
+
+	private final boolean buildSideIsFirst;
+	
+	private boolean useBloomFilters = ConfigConstants.DEFAULT_HASHJOIN_BLOOM_FILTERS;
+	
+	private boolean adaptiveTableSize = ConfigConstants.DEFAULT_HASHJOIN_ADAPTIVE_TABLE_SIZE;
+	
+	private boolean skewHandling = ConfigConstants.DEFAULT_HASHJOIN_SKEW_HANDLING;
+
+	private final List<HashPartition<?, ?>> partitions = new ArrayList<HashPartition<?, ?>>();
+
+	private HashPartition<?, ?> currentPartition;
+
+	private List<MemorySegment> readMemory;
+
+	private ChannelReaderInputView buildSideView;
+
+	private ChannelReaderInputView probeSideView;
+
+	private UnilateralSortMerger<V1> sorter1;
+
+	private UnilateralSortMerger<V2> sorter2;
+
+	private JoinTaskIterator<V1, V2, O> currentJoin;
+
+	private boolean active;
+
+	private volatile boolean running = true;
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a joiner for the deferred partitions of a hash join.
+	 *
+	 * @param pairComparator12 The pair comparator with records of the first input as the reference.
+	 * @param pairComparator21 The pair comparator with records of the second input as the reference.
+	 * @param totalMemory The memory of the hash join that deferred the partitions.
+	 * @param buildSideIsFirst True, if the hash join deferring the partitions builds from the first input.
+	 */
+	DeferredPartitionJoiner(TypeSerializer<V1> serializer1, TypeComparator<V1> comparator1,
+			TypeSerializer<V2> serializer2, TypeComparator<V2> comparator2,
+			TypePairComparator<V1, V2> pairComparator12, TypePairComparator<V2, V1> pairComparator21,
+			MemoryManager memManager, IOManager ioManager, AbstractInvokable ownerTask, long totalMemory,
+			boolean buildSideIsFirst)
+	{
+		this.serializer1 = serializer1;
+		this.comparator1 = comparator1;
+		this.serializer2 = serializer2;
+		this.comparator2 = comparator2;
+		this.pairComparator12 = pairComparator12;
+		this.pairComparator21 = pairComparator21;
+		this.memManager = memManager;
+		this.ioManager = ioManager;
+		this.ownerTask = ownerTask;
+		this.totalMemory = totalMemory;
+		this.buildSideIsFirst = buildSideIsFirst;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Takes the deferred partitions from the given hash table, which must have returned all its records. If
+	 * the table deferred partitions, the table is closed and its memory is released, such that the partitions
+	 * can be joined with it.
+	 *
+	 * @param table The hash table to take the deferred partitions from.
+	 * @return True, if the table deferred partitions, false otherwise.
+	 */
+	boolean takeDeferredPartitions(MutableHashTable<?, ?> table) {
+		final List<? extends HashPartition<?, ?>> deferred = table.takeDeferredPartitions();
+		if (deferred.isEmpty()) {
+			return false;
+		}
+		this.partitions.addAll(deferred);
+		this.active = true;
+		
+		// the joins of the deferred partitions use the options of the table that deferred them
+		this.useBloomFilters = table.useBloomFilters;
+		this.adaptiveTableSize = table.adaptiveTableSize;
+		this.skewHandling = table.skewHandling;
+
+		table.close();
+		this.memManager.release(table.getFreedMemory());
+		return true;
+	}
+
+	/**
+	 * Checks whether this joiner took over deferred partitions from a hash table. From then on, the joiner
+	 * produces the remaining keys of the join, and the hash table is closed.
+	 *
+	 * @return True, if this joiner took over deferred partitions, false otherwise.
+	 */
+	boolean isActive() {
+		return this.active;
+	}
+
+	/**
+	 * Calls the match function for the next key of the deferred partitions.
+	 *
+	 * @return True, if a key was processed, false if all deferred partitions are joined.
+	 * @see JoinTaskIterator#callWithNextKey(GenericJoiner, Collector)
+	 */
+	boolean callWithNextKey(GenericJoiner<V1, V2, O> matchFunction, Collector<O> collector) throws Exception {
+		while (this.running) {
+			if (this.currentJoin != null) {
+				if (this.currentJoin.callWithNextKey(matchFunction, collector)) {
+					return true;
+				}
+				closeCurrent();
+			}
+
+			if (this.partitions.isEmpty()) {
+				return false;
+			}
+			openNext(this.partitions.remove(0));
+		}
+		return false;
+	}
+
+	void abort() {
+		this.running = false;
+		final JoinTaskIterator<V1, V2, O> join = this.currentJoin;
+		if (join != null) {
+			join.abort();
+		}
+	}
+
+	/**
+	 * Closes the join of the current partition and deletes the files of all partitions that are not yet joined.
+	 */
+	void close() {
+		if (this.currentPartition != null) {
+			closeCurrent();
+		}
+
+		final List<MemorySegment> noMemory = new ArrayList<MemorySegment>();
+		for (HashPartition<?, ?> p : this.partitions) {
+			p.clearAllMemory(noMemory);
+		}
+		this.partitions.clear();
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	private void openNext(HashPartition<?, ?> p) throws IOException, MemoryAllocationException, InterruptedException {
+		this.currentPartition = p;
+
+		// read both sides of the partition with two buffers each
+		this.readMemory = this.memManager.allocatePages(this.ownerTask, MutableHashTable.NUM_DEFERRED_PARTITION_READ_BUFFERS);
+		final int half = this.readMemory.size() / 2;
+
+		final BlockChannelReader buildSideReader = this.ioManager.createBlockChannelReader(p.getBuildSideChannel().getChannelID());
+		this.buildSideView = new HeaderlessChannelReaderInputView(buildSideReader,
+			new ArrayList<MemorySegment>(this.readMemory.subList(0, half)), p.getBuildSideBlockCount(), p.getLastSegmentLimit(), false);
+		final BlockChannelReader probeSideReader = this.ioManager.createBlockChannelReader(p.getProbeSideChannel().getChannelID());
+		this.probeSideView = new ChannelReaderInputView(probeSideReader,
+			new ArrayList<MemorySegment>(this.readMemory.subList(half, this.readMemory.size())), p.getProbeSideBlockCount(), false);
+
+		final MutableObjectIterator<V1> input1;
+		final MutableObjectIterator<V2> input2;
+		if (this.buildSideIsFirst) {
+			input1 = new ChannelReaderInputViewIterator<V1>(this.buildSideView, null, this.serializer1);
+			input2 = new ChannelReaderInputViewIterator<V2>(this.probeSideView, null, this.serializer2);
+		} else {
+			input1 = new ChannelReaderInputViewIterator<V1>(this.probeSideView, null, this.serializer1);
+			input2 = new ChannelReaderInputViewIterator<V2>(this.buildSideView, null, this.serializer2);
+		}
+
+		final int pageSize = this.memManager.getPageSize();
+		final int numPages = this.memManager.computeNumberOfPages(this.totalMemory) - this.readMemory.size();
+		final int nextRecursionLevel = p.getRecursionLevel() + 1;
+
+		if (MutableHashTable.isHeavyHitterPartition(p)) {
+			// the partition holds the few keys with very many records, join them by comparing all records
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Joining the heavy hitter partition with " + p.getBuildSideRecordCount() + " build-side and "
+					+ p.getProbeSideRecordCount() + " probe-side records by block-nested-loops.");
+			}
+			this.currentJoin = new BlockNestedLoopsMatchIterator<V1, V2, O>(input1, input2, this.serializer1,
+				this.serializer2, this.pairComparator21, this.memManager, this.ioManager, numPages, this.ownerTask);
+		}
+		else if (nextRecursionLevel > MutableHashTable.MAX_RECURSION_DEPTH) {
+			// hashing does not reduce the partition any further, so sort both sides and merge them
+			final int numSortPages = numPages / 3;
+			if (numSortPages < MIN_NUM_SORT_PAGES) {
+				throw new RuntimeException("Hash join exceeded maximum number of recursions, without reducing "
+					+ "partitions enough to be memory resident, and has too little memory to sort them instead. "
+					+ "Probably cause: Too many duplicate keys.");
+			}
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Joining partition " + p.getPartitionNumber() + " at recursion level " + p.getRecursionLevel()
+					+ " by sorting and merging.");
+			}
+
+			this.sorter1 = new UnilateralSortMerger<V1>(this.memManager, this.ioManager, input1, this.ownerTask,
+				this.serializer1, this.comparator1, ((long) numSortPages) * pageSize,
+				ConfigConstants.DEFAULT_SPILLING_MAX_FAN, ConfigConstants.DEFAULT_SORT_SPILLING_THRESHOLD);
+			this.sorter2 = new UnilateralSortMerger<V2>(this.memManager, this.ioManager, input2, this.ownerTask,
+				this.serializer2, this.comparator2, ((long) numSortPages) * pageSize,
+				ConfigConstants.DEFAULT_SPILLING_MAX_FAN, ConfigConstants.DEFAULT_SORT_SPILLING_THRESHOLD);
+
+			this.currentJoin = new MergeMatchIterator<V1, V2, O>(this.sorter1.getIterator(), this.sorter2.getIterator(),
+				this.serializer1, this.comparator1, this.serializer2, this.comparator2, this.pairComparator12,
+				this.memManager, this.ioManager, numPages - 2 * numSortPages, this.ownerTask);
+		}
+		else {
+			// the probe side is the smaller side, so build the table from it
+			final long numProbeRecords = p.getProbeSideRecordCount();
+			final float avgProbeRecordWidth = ((float) p.getProbeSideBlockCount()) * pageSize / numProbeRecords;
+			final long memory = ((long) numPages) * pageSize;
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Joining partition " + p.getPartitionNumber() + " at recursion level " + p.getRecursionLevel()
+					+ " with swapped build and probe side.");
+			}
+
+			if (this.buildSideIsFirst) {
+				final BuildSecondHashMatchIterator<V1, V2, O> join = new BuildSecondHashMatchIterator<V1, V2, O>(
+					input1, input2, this.serializer1, this.comparator1, this.serializer2, this.comparator2,
+					this.pairComparator12, this.memManager, this.ioManager, this.ownerTask, memory);
+				join.setInitialRecursionDepth(nextRecursionLevel);
+				join.setBuildSideEstimates(numProbeRecords, avgProbeRecordWidth);
+				join.setUseBloomFilters(this.useBloomFilters);
+				join.setAdaptiveTableSize(this.adaptiveTableSize);
+				join.setSkewHandling(this.skewHandling);
+				this.currentJoin = join;
+			} else {
+				final BuildFirstHashMatchIterator<V1, V2, O> join = new BuildFirstHashMatchIterator<V1, V2, O>(
+					input1, input2, this.serializer1, this.comparator1, this.serializer2, this.comparator2,
+					this.pairComparator21, this.memManager, this.ioManager, this.ownerTask, memory);
+				join.setInitialRecursionDepth(nextRecursionLevel);
+				join.setBuildSideEstimates(numProbeRecords, avgProbeRecordWidth);
+				join.setUseBloomFilters(this.useBloomFilters);
+				join.setAdaptiveTableSize(this.adaptiveTableSize);
+				join.setSkewHandling(this.skewHandling);
+				this.currentJoin = join;
+			}
+		}
+
+		this.currentJoin.open();
+	}
+
+	private void closeCurrent() {
+		if (this.currentJoin != null) {
+			this.currentJoin.close();
+			this.currentJoin = null;
+		}
+		if (this.sorter1 != null) {
+			this.sorter1.close();
+			this.sorter1 = null;
+		}
+		if (this.sorter2 != null) {
+			this.sorter2.close();
+			this.sorter2 = null;
+		}
+
+		closeView(this.buildSideView);
+		closeView(this.probeSideView);
+		this.buildSideView = null;
+		this.probeSideView = null;
+
+		if (this.readMemory != null) {
+			this.memManager.release(this.readMemory);
+			this.readMemory = null;
+		}
+
+		this.currentPartition.clearAllMemory(new ArrayList<MemorySegment>());
+		this.currentPartition = null;
+	}
+
+	private static void closeView(ChannelReaderInputView view) {
+		if (view == null) {
+			return;
+		}
+		try {
+			view.close();
+		}
+		catch (IllegalStateException isex) {
+			// the view was closed when it was read completely
+		}
+		catch (IOException ioex) {
+			LOG.error("Error closing the reader of a deferred hash join partition: " + ioex.getMessage(), ioex);
+		}
+	}
+}
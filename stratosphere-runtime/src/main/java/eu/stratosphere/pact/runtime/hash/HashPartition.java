@@ -210,6 +210,16 @@ public class HashPartition<BT, PT> extends AbstractPagedInputView implements See
 		return this.buildSideRecordCounter;
 	}
 	
+	/**
+	 * Gets the number of bytes that the build side records occupy in the buffers of this partition, while
+	 * the partition is being built in memory.
+	 * 
+	 * @return The number of bytes written to the build side buffers, or -1, if the partition is not being built in memory.
+	 */
+	long getInMemoryBuildSideBytes() {
+		return (isInMemory() && this.buildSideWriteBuffer != null) ? this.buildSideWriteBuffer.getCurrentPointer() : -1;
+	}
+	
 	public long getProbeSideRecordCount() {
 		return this.probeSideRecordCounter;
 	}
@@ -305,6 +315,31 @@ public class HashPartition<BT, PT> extends AbstractPagedInputView implements See
 		return this.buildSideWriteBuffer.spill(this.buildSideChannel);
 	}
 	
+	/**
+	 * Spills this partition before any record was inserted, such that all records that are added to it are
+	 * written to disk. Other than {@link #spillPartition(List, IOManager, Channel.ID, LinkedBlockingQueue)}, this
+	 * does not free any memory; the partition keeps its single buffer for writing.
+	 * 
+	 * @param ioAccess The I/O manager to be used to create a writer to disk.
+	 * @param targetChannel The id of the target channel for this partition.
+	 * @param bufferReturnQueue The queue to which the writer returns the written buffers.
+	 * @throws IOException Thrown, if the writer could not be created.
+	 */
+	void spillEmptyPartition(IOManager ioAccess, Channel.ID targetChannel, LinkedBlockingQueue<MemorySegment> bufferReturnQueue)
+	throws IOException
+	{
+		if (!isInMemory() || this.buildSideRecordCounter > 0) {
+			throw new RuntimeException("Bug in Hybrid Hash Join: " +
+					"Request to spill a partition as empty that has records or has already been spilled.");
+		}
+		this.overflowSegments = null;
+		this.numOverflowSegments = 0;
+		this.nextOverflowBucket = 0;
+		
+		this.buildSideChannel = ioAccess.createBlockChannelWriter(targetChannel, bufferReturnQueue);
+		this.buildSideWriteBuffer.spill(this.buildSideChannel);
+	}
+	
 	/**
 	 * @param spilledPartitions
 	 * @param ioAccess
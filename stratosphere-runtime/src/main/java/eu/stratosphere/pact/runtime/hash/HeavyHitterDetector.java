@@ -0,0 +1,115 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+/**
+ * Detects the hash codes that occur very often in the build side of a hash join. The occurrences of the hash codes
+ * are counted in a count-min sketch with conservative updates, which never under-estimates a count. Once the
+ * estimated count of a hash code reaches the threshold, the hash code is a heavy hitter from then on.
+ * <p>
+ * The number of heavy hitters is limited, such that over-estimated counts of many moderately frequent hash codes
+ * cannot make a large part of the input a heavy hitter.
+ */
+final class HeavyHitterDetector {
+
+	/**
+	 * The maximal number of hash codes that are heavy hitters.
+	 */
+	static final int MAX_NUM_HEAVY_HITTERS = 16;
+
+	private static final int SKETCH_DEPTH = 4;
+
+	private static final int SKETCH_WIDTH_BITS = 12;
+
+	private static final int[] SKETCH_MULTIPLIERS = { 0x9e3779b1, 0x85ebca6b, 0xc2b2ae35, 0x27d4eb2f };
+
+	private final int[][] sketch;
+
+	private final int[] heavyHitters;
+
+	private final long threshold;
+
+	private int numHeavyHitters;
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a detector for heavy hitters.
+	 *
+	 * @param threshold The number of occurrences with which a hash code becomes a heavy hitter.
+	 */
+	HeavyHitterDetector(long threshold) {
+		this.sketch = new int[SKETCH_DEPTH][1 << SKETCH_WIDTH_BITS];
+		this.heavyHitters = new int[MAX_NUM_HEAVY_HITTERS];
+		this.threshold = Math.max(threshold, 1);
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Counts an occurrence of the given hash code.
+	 *
+	 * @param hashCode The hash code.
+	 * @return True, if the hash code is a heavy hitter, false otherwise.
+	 */
+	boolean add(int hashCode) {
+		if (isHeavyHitter(hashCode)) {
+			return true;
+		}
+
+		// conservative update: only the smallest counters are incremented, since the estimate is their minimum
+		final int[][] sketch = this.sketch;
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < SKETCH_DEPTH; i++) {
+			min = Math.min(min, sketch[i][index(hashCode, i)]);
+		}
+		final int estimate = min + 1;
+		for (int i = 0; i < SKETCH_DEPTH; i++) {
+			final int pos = index(hashCode, i);
+			if (sketch[i][pos] < estimate) {
+				sketch[i][pos] = estimate;
+			}
+		}
+
+		if (estimate >= this.threshold && this.numHeavyHitters < MAX_NUM_HEAVY_HITTERS) {
+			this.heavyHitters[this.numHeavyHitters++] = hashCode;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the given hash code is a heavy hitter.
+	 *
+	 * @param hashCode The hash code.
+	 * @return True, if the hash code is a heavy hitter, false otherwise.
+	 */
+	boolean isHeavyHitter(int hashCode) {
+		final int[] heavyHitters = this.heavyHitters;
+		for (int i = 0; i < this.numHeavyHitters; i++) {
+			if (heavyHitters[i] == hashCode) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	int getNumHeavyHitters() {
+		return this.numHeavyHitters;
+	}
+
+	private static int index(int hashCode, int row) {
+		return (hashCode * SKETCH_MULTIPLIERS[row]) >>> (32 - SKETCH_WIDTH_BITS);
+	}
+}
@@ -27,6 +27,7 @@ import org.apache.commons.logging.LogFactory;
 import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypePairComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.core.memory.MemorySegmentSource;
 import eu.stratosphere.core.memory.SeekableDataOutputView;
@@ -81,6 +82,13 @@ import eu.stratosphere.util.MutableObjectIterator;
  * |
  * </pre>
  * 
+ * When a partition is spilled, its buckets are no longer needed to find records. The space behind the
+ * header of each of the partition's buckets is then overwritten with a bloom filter over the hash codes of
+ * the build-side records in the bucket and its overflow buckets, and the bucket's status is set accordingly.
+ * Build-side records that are later added to the spilled partition are added to the filter. Probe-side
+ * records that hash to such a bucket and do not pass its filter have no join partner and are dropped,
+ * rather than spilled with the partition's probe side.
+ * 
  * @param <BT> The type of records from the build side that are stored in the hash table.
  * @param <PT> The type of records from the probe side that are stored in the hash table.
  */
@@ -95,19 +103,48 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	/**
 	 * The maximum number of recursive partitionings that the join does before giving up.
 	 */
-	private static final int MAX_RECURSION_DEPTH = 3;
+	static final int MAX_RECURSION_DEPTH = 3;
 	
 	/**
 	 * The minimum number of memory segments the hash join needs to be supplied with in order to work.
 	 */
 	private static final int MIN_NUM_MEMORY_SEGMENTS = 33;
 	
+	/**
+	 * The number of memory segments used to read the build side and the probe side of a deferred partition.
+	 */
+	static final int NUM_DEFERRED_PARTITION_READ_BUFFERS = 4;
+	
 	/**
 	 * The maximum number of partitions, which defines the spilling granularity. Each recursion, the
 	 * data is divided maximally into that many partitions, which are processed in one chuck.
 	 */
 	private static final int MAX_NUM_PARTITIONS = Byte.MAX_VALUE;
 	
+	/**
+	 * The number of build-side records after which the bucket table is re-sized to the width of the records
+	 * seen so far, if adaptive table sizing is enabled.
+	 */
+	private static final int NUM_RECORDS_BEFORE_TABLE_RESIZE = 10000;
+	
+	/**
+	 * A key becomes a heavy hitter once its build-side records would fill this fraction of the table's memory.
+	 * Smaller keys are always resolved by recursive partitioning.
+	 */
+	private static final int HEAVY_HITTER_MEMORY_FRACTION_DIVISOR = 4;
+	
+	/**
+	 * The partition number of the partition that holds the records of the heavy hitter keys.
+	 */
+	private static final int HEAVY_HITTER_PARTITION_NUMBER = -1;
+	
+	/**
+	 * The maximal number of probe-side records that are read, hashed and looked up in the bucket table at once.
+	 * Looking up the buckets of several records in one go lets their cache misses overlap, instead of stalling
+	 * on the bucket of every single record.
+	 */
+	static final int MAX_PROBE_BATCH_SIZE = 16;
+	
 	/**
 	 * The default record width that is used when no width is given. The record width is
 	 * used to determine the ratio of the number of memory segments intended for partition
@@ -183,13 +220,29 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	 */
 	private static final long BUCKET_FORWARD_POINTER_NOT_SET = ~0x0L;
 	
-//	private static final byte BUCKET_STATUS_SPILLED = 1;
-	
 	/**
 	 * Constant for the bucket status, indicating that the bucket is in memory.
 	 */
 	private static final byte BUCKET_STATUS_IN_MEMORY = 0;
 	
+	/**
+	 * Constant for the bucket status, indicating that the bucket belongs to a spilled partition and
+	 * holds a bloom filter instead of hash codes and pointers.
+	 */
+	private static final byte BUCKET_STATUS_BLOOM_FILTER = 1;
+	
+	// ------------------------------ Bloom Filters ------------------------------
+	
+	/**
+	 * The number of bits of the bloom filter that a bucket of a spilled partition holds.
+	 */
+	private static final int NUM_BLOOM_FILTER_BITS = (HASH_BUCKET_SIZE - BUCKET_HEADER_LENGTH) * 8;
+	
+	/**
+	 * The number of bits that are set in a bloom filter per hash code.
+	 */
+	private static final int NUM_BLOOM_FILTER_HASHES = 3;
+	
 	// ------------------------------------------------------------------------
 	//                              Members
 	// ------------------------------------------------------------------------
@@ -248,7 +301,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	/**
 	 * The number of write-behind buffers used.
 	 */
-	private final int numWriteBehindBuffers;
+	private int numWriteBehindBuffers;
 	
 	/**
 	 * The number of hash table buckets in a single memory segment - 1.
@@ -266,7 +319,12 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	/**
 	 * An estimate for the average record length.
 	 */
-	private final int avgRecordLen;
+	private int avgRecordLen;
+	
+	/**
+	 * An estimate for the number of build-side records, or -1, if no estimate is available.
+	 */
+	private long estimatedNumBuildRecords = -1;
 	
 	// ------------------------------------------------------------------------
 	
@@ -280,6 +338,11 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	 */
 	private final ArrayList<HashPartition<BT, PT>> partitionsPending;
 	
+	/**
+	 * The spilled partitions that are not joined by this table, but handed to the caller after the table is done.
+	 */
+	private final ArrayList<HashPartition<BT, PT>> partitionsDeferred;
+	
 	/**
 	 * Iterator over the elements in the hash table.
 	 */
@@ -341,6 +404,86 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	
 	protected boolean furtherPartitioning = false;
 	
+	/**
+	 * If true, spilled partitions that are better joined with swapped roles, or that cannot be joined by
+	 * hashing within the maximal recursion depth, are deferred instead of being joined by this table.
+	 */
+	private boolean deferSpilledPartitions = false;
+	
+	/**
+	 * The recursion depth with which the initial table is built.
+	 */
+	private int initialRecursionDepth = 0;
+	
+	/**
+	 * Flag indicating whether the buckets of spilled partitions are turned into bloom filters.
+	 */
+	protected boolean useBloomFilters = ConfigConstants.DEFAULT_HASHJOIN_BLOOM_FILTERS;
+	
+	/**
+	 * The number of probe-side records that were dropped, because they did not pass the bloom filter of
+	 * their spilled partition's bucket.
+	 */
+	protected long numProbeRecordsFiltered;
+	
+	/**
+	 * The number of probe-side records that were spilled, because they belonged to a spilled partition.
+	 */
+	protected long numProbeRecordsSpilled;
+	
+	/**
+	 * Flag indicating whether the bucket table of the initial table is re-sized after the first build-side records.
+	 */
+	protected boolean adaptiveTableSize = ConfigConstants.DEFAULT_HASHJOIN_ADAPTIVE_TABLE_SIZE;
+	
+	/**
+	 * Flag indicating whether keys with very many build-side records are detected and joined separately. Takes
+	 * only effect when spilled partitions are deferred, because the caller joins the heavy hitter partition.
+	 */
+	protected boolean skewHandling = ConfigConstants.DEFAULT_HASHJOIN_SKEW_HANDLING;
+	
+	/**
+	 * The detector for the heavy hitter keys of the initial build side, if skew handling is active.
+	 */
+	private HeavyHitterDetector heavyHitters;
+	
+	/**
+	 * The spilled partition that holds the build-side records of the heavy hitter keys, and the probe-side
+	 * records with the heavy hitters' hash codes.
+	 */
+	private HashPartition<BT, PT> heavyHitterPartition;
+	
+	/**
+	 * Reused array to collect the hash codes of a bucket and its overflow buckets when building a bloom filter.
+	 */
+	private int[] bloomFilterHashes = new int[64];
+	
+	/**
+	 * The number of probe-side records that are looked up in the bucket table at once. By default, every record
+	 * is looked up by itself.
+	 */
+	private int probeBatchSize = 1;
+	
+	/**
+	 * The hash codes of the records in the current probe batch.
+	 */
+	private final int[] probeBatchHashes = new int[MAX_PROBE_BATCH_SIZE];
+	
+	/**
+	 * The bucket segments of the records in the current probe batch.
+	 */
+	private final MemorySegment[] probeBatchBuckets = new MemorySegment[MAX_PROBE_BATCH_SIZE];
+	
+	/**
+	 * The offsets of the buckets in their segments, for the records in the current probe batch.
+	 */
+	private final int[] probeBatchBucketOffsets = new int[MAX_PROBE_BATCH_SIZE];
+	
+	/**
+	 * The partitions of the buckets of the records in the current probe batch.
+	 */
+	private final int[] probeBatchPartitions = new int[MAX_PROBE_BATCH_SIZE];
+	
 	private boolean running = true;
 
 	// ------------------------------------------------------------------------
@@ -401,6 +544,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		
 		this.partitionsBeingBuilt = new ArrayList<HashPartition<BT, PT>>();
 		this.partitionsPending = new ArrayList<HashPartition<BT, PT>>();
+		this.partitionsDeferred = new ArrayList<HashPartition<BT, PT>>();
 		
 		// because we allow to open and close multiple times, the state is initially closed
 		this.closed.set(true);
@@ -411,6 +555,110 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	//                              Life-Cycle
 	// ------------------------------------------------------------------------
 	
+	/**
+	 * Sets whether spilled partitions are deferred rather than joined by this table. When set, a spilled partition
+	 * whose build side does not fit into memory, but whose probe side is smaller, is deferred, such that the
+	 * caller can join it building the hash table from the probe side. A partition that would exceed the maximal
+	 * recursion depth is deferred as well, such that the caller can join it by sorting both sides. The deferred
+	 * partitions are obtained through {@link #takeDeferredPartitions()} once {@link #nextRecord()} returned false.
+	 * If skew handling is enabled, the partition with the records of the heavy hitter keys is deferred as well.
+	 * 
+	 * @param deferSpilledPartitions True, if spilled partitions are to be deferred, false otherwise.
+	 */
+	public void setDeferSpilledPartitions(boolean deferSpilledPartitions) {
+		// the deferred partitions are joined with the table's memory, and must leave room for reading them 
+		this.deferSpilledPartitions = deferSpilledPartitions && 
+				this.totalNumBuffers >= MIN_NUM_MEMORY_SEGMENTS + NUM_DEFERRED_PARTITION_READ_BUFFERS;
+	}
+	
+	/**
+	 * Sets whether the buckets of spilled partitions are turned into bloom filters, with which probe-side records
+	 * without join partner are dropped instead of spilled. The flag can only be set while the hash table is closed.
+	 * 
+	 * @param useBloomFilters True, if spilled partitions keep bloom filters, false otherwise.
+	 */
+	public void setUseBloomFilters(boolean useBloomFilters) {
+		if (!this.closed.get()) {
+			throw new IllegalStateException("Bloom filters cannot be switched while the hash table is open.");
+		}
+		this.useBloomFilters = useBloomFilters;
+	}
+	
+	/**
+	 * Sets whether the bucket table of the initial table is re-sized after the first build-side records, once their
+	 * number indicates that the estimates were off. The flag can only be set while the hash table is closed.
+	 * 
+	 * @param adaptiveTableSize True, if the bucket table may be re-sized, false otherwise.
+	 */
+	public void setAdaptiveTableSize(boolean adaptiveTableSize) {
+		if (!this.closed.get()) {
+			throw new IllegalStateException("The adaptive table size cannot be switched while the hash table is open.");
+		}
+		this.adaptiveTableSize = adaptiveTableSize;
+	}
+	
+	/**
+	 * Sets whether keys with very many build-side records are detected and joined separately. Takes only effect
+	 * when spilled partitions are deferred. The flag can only be set while the hash table is closed.
+	 * 
+	 * @param skewHandling True, if heavy hitter keys are joined separately, false otherwise.
+	 */
+	public void setSkewHandling(boolean skewHandling) {
+		if (!this.closed.get()) {
+			throw new IllegalStateException("Skew handling cannot be switched while the hash table is open.");
+		}
+		this.skewHandling = skewHandling;
+	}
+	
+	/**
+	 * Sets the number of probe-side records that are looked up in the bucket table at once. A batch size of one
+	 * looks up every record by itself.
+	 * 
+	 * @param batchSize The number of probe-side records per batch, at most {@link #MAX_PROBE_BATCH_SIZE}.
+	 */
+	void setProbeBatchSize(int batchSize) {
+		if (batchSize < 1 || batchSize > MAX_PROBE_BATCH_SIZE) {
+			throw new IllegalArgumentException("The probe batch size must be between 1 and " + MAX_PROBE_BATCH_SIZE + ".");
+		}
+		if (!this.closed.get()) {
+			throw new IllegalStateException("The probe batch size cannot be set while the hash table is open.");
+		}
+		this.probeBatchSize = batchSize;
+	}
+	
+	/**
+	 * Sets the recursion depth of the initial table. A table that joins a partition from another table starts
+	 * at the partition's next recursion level, such that it uses different bits of the hash codes.
+	 * 
+	 * @param depth The recursion depth of the initial table.
+	 */
+	void setInitialRecursionDepth(int depth) {
+		if (!this.closed.get()) {
+			throw new IllegalStateException("The recursion depth cannot be set while the hash table is open.");
+		}
+		this.initialRecursionDepth = depth;
+	}
+	
+	/**
+	 * Sets the estimates for the build side, from which the number of partitions, buckets and write-behind
+	 * buffers is derived. Estimates that are not positive are ignored. The estimates can only be set
+	 * while the hash table is closed.
+	 * 
+	 * @param numRecords The estimated number of build-side records.
+	 * @param avgRecordWidth The estimated average width of a build-side record, in bytes.
+	 */
+	public void setBuildSideEstimates(long numRecords, float avgRecordWidth) {
+		if (!this.closed.get()) {
+			throw new IllegalStateException("Estimates cannot be set while the hash table is open.");
+		}
+		if (avgRecordWidth > 0) {
+			this.avgRecordLen = Math.max(1, (int) Math.ceil(avgRecordWidth));
+		}
+		this.estimatedNumBuildRecords = numRecords > 0 ? numRecords : -1;
+		this.numWriteBehindBuffers = getNumWriteBehindBuffers(this.totalNumBuffers, this.segmentSize,
+			getEstimatedBuildSideBytes());
+	}
+	
 	/**
 	 * Opens the hash join. This method reads the build-side input and constructs the initial
 	 * hash table, gradually spilling partitions that do not fit into memory. 
@@ -431,42 +679,68 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			this.writeBehindBuffers.add(this.availableMemory.remove(this.availableMemory.size() - 1));
 		}
 		// open builds the initial table by consuming the build-side input
-		this.currentRecursionDepth = 0;
+		this.currentRecursionDepth = this.initialRecursionDepth;
 		buildInitialTable(buildSide);
 		
 		// the first prober is the probe-side input
-		this.probeIterator = new ProbeIterator<PT>(probeSide, this.probeSideSerializer.createInstance());
+		this.probeIterator = createProbeIterator(probeSide);
 		
 		// the bucket iterator can remain constant over the time
 		this.bucketIterator = new HashBucketIterator<BT, PT>(this.buildSideSerializer, this.recordComparator);
 	}
 	
+	/**
+	 * Creates the iterator over the given probe-side input, which reads the records in batches.
+	 * 
+	 * @param probeSide The probe-side input.
+	 * @return The iterator over the probe-side input.
+	 */
+	protected ProbeIterator<PT> createProbeIterator(MutableObjectIterator<PT> probeSide) {
+		return new ProbeIterator<PT>(probeSide, this.probeSideSerializer, this.probeBatchSize);
+	}
+	
 	protected boolean processProbeIter() throws IOException{
 		final ProbeIterator<PT> probeIter = this.probeIterator;
-		final TypeComparator<PT> probeAccessors = this.probeSideComparator;
 		
-		PT next;
-		while ((next = probeIter.next()) != null) {
-			final int hash = hash(probeAccessors.hash(next), this.currentRecursionDepth);
-			final int posHashCode = hash % this.numBuckets;
+		while (true) {
+			int i = probeIter.nextIndex();
+			if (i < 0) {
+				// the batch is done, look up the next one
+				if (!lookUpProbeBatch(probeIter)) {
+					break;
+				}
+				i = probeIter.nextIndex();
+			}
 			
-			// get the bucket for the given hash code
-			final int bucketArrayPos = posHashCode >> this.bucketsPerSegmentBits;
-			final int bucketInSegmentOffset = (posHashCode & this.bucketsPerSegmentMask) << NUM_INTRA_BUCKET_BITS;
-			final MemorySegment bucket = this.buckets[bucketArrayPos];
+			final PT next = probeIter.getCurrent();
+			final int hash = this.probeBatchHashes[i];
+			
+			// the probe records of heavy hitters are joined with the heavy hitter partition in addition, because
+			// the build-side records seen before the key was detected as heavy hitter are in the regular partitions
+			if (this.heavyHitters != null && this.heavyHitters.isHeavyHitter(hash)) {
+				this.heavyHitterPartition.insertIntoProbeBuffer(next);
+			}
 			
-			// get the basic characteristics of the bucket
-			final int partitionNumber = bucket.get(bucketInSegmentOffset + HEADER_PARTITION_OFFSET);
-			final HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(partitionNumber);
+			// get the bucket and its partition, as looked up for the batch
+			final int bucketInSegmentOffset = this.probeBatchBucketOffsets[i];
+			final MemorySegment bucket = this.probeBatchBuckets[i];
+			final HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(this.probeBatchPartitions[i]);
 			
 			// for an in-memory partition, process set the return iterators, else spill the probe records
+			// that may have a join partner
 			if (p.isInMemory()) {
 				this.recordComparator.setReference(next);
 				this.bucketIterator.set(bucket, p.overflowSegments, p, hash, bucketInSegmentOffset);
 				return true;
 			}
-			else {
+			else if (bucket.get(bucketInSegmentOffset + HEADER_STATUS_OFFSET) != BUCKET_STATUS_BLOOM_FILTER ||
+					testBloomFilter(bucket, bucketInSegmentOffset, hash))
+			{
 				p.insertIntoProbeBuffer(next);
+				this.numProbeRecordsSpilled++;
+			}
+			else {
+				this.numProbeRecordsFiltered++;
 			}
 		}
 		
@@ -475,6 +749,45 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		return false;
 	}
 	
+	/**
+	 * Reads the next batch of probe-side records and looks them up in the bucket table. The lookup runs in
+	 * stages over the whole batch: first all hash codes are computed, then all buckets are located and their
+	 * partition numbers read. The bucket accesses of the batch do not depend on each other, such that the
+	 * processor overlaps their cache misses.
+	 * 
+	 * @param probeIter The iterator over the probe-side records.
+	 * @return True, if the batch has records, false if the probe side is exhausted.
+	 * @throws IOException Thrown, if the probe-side records could not be read.
+	 */
+	private boolean lookUpProbeBatch(ProbeIterator<PT> probeIter) throws IOException {
+		final int num = probeIter.readBatch();
+		if (num == 0) {
+			return false;
+		}
+		
+		final TypeComparator<PT> probeAccessors = this.probeSideComparator;
+		final int[] hashes = this.probeBatchHashes;
+		final int recursionDepth = this.currentRecursionDepth;
+		for (int i = 0; i < num; i++) {
+			hashes[i] = hash(probeAccessors.hash(probeIter.get(i)), recursionDepth);
+		}
+		
+		final MemorySegment[] buckets = this.buckets;
+		final MemorySegment[] batchBuckets = this.probeBatchBuckets;
+		final int[] batchBucketOffsets = this.probeBatchBucketOffsets;
+		final int[] batchPartitions = this.probeBatchPartitions;
+		for (int i = 0; i < num; i++) {
+			final int posHashCode = hashes[i] % this.numBuckets;
+			final MemorySegment bucket = buckets[posHashCode >> this.bucketsPerSegmentBits];
+			final int bucketInSegmentOffset = (posHashCode & this.bucketsPerSegmentMask) << NUM_INTRA_BUCKET_BITS;
+			
+			batchBuckets[i] = bucket;
+			batchBucketOffsets[i] = bucketInSegmentOffset;
+			batchPartitions[i] = bucket.get(bucketInSegmentOffset + HEADER_PARTITION_OFFSET);
+		}
+		return true;
+	}
+	
 	protected boolean prepareNextPartition() throws IOException {
 		// finalize and cleanup the partitions of the current table
 		int buffersAvailable = 0;
@@ -483,6 +796,12 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			p.setFurtherPatitioning(this.furtherPartitioning);
 			buffersAvailable += p.finalizeProbePhase(this.availableMemory, this.partitionsPending);
 		}
+		if (this.heavyHitterPartition != null) {
+			// the heavy hitters only occur in the initial probe side, the partition is joined by the caller
+			buffersAvailable += this.heavyHitterPartition.finalizeProbePhase(this.availableMemory, this.partitionsDeferred);
+			this.heavyHitterPartition = null;
+			this.heavyHitters = null;
+		}
 		
 		this.partitionsBeingBuilt.clear();
 		this.writeBehindBuffersAvailable += buffersAvailable;
@@ -495,9 +814,15 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		}
 
 		// check if there are pending partitions
-		if (!this.partitionsPending.isEmpty())
+		while (!this.partitionsPending.isEmpty())
 		{
 			final HashPartition<BT, PT> p = this.partitionsPending.get(0);
+			
+			if (this.deferSpilledPartitions && isDeferred(p)) {
+				this.partitionsPending.remove(0);
+				this.partitionsDeferred.add(p);
+				continue;
+			}
 
 			// build the next table
 			buildTableFromSpilledPartition(p);
@@ -521,10 +846,36 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			// recursively get the next
 			return nextRecord();
 		}
-		else {
-			// no more data
-			return false;
+		
+		// no more data
+		return false;
+	}
+	
+	/**
+	 * Checks whether the given spilled partition is deferred to the caller. That is the case if the next
+	 * recursion level exceeds the maximal recursion depth, or if the build side does not fit into memory
+	 * and the probe side is smaller.
+	 */
+	private boolean isDeferred(HashPartition<BT, PT> p) {
+		if (p.getRecursionLevel() + 1 > MAX_RECURSION_DEPTH) {
+			return true;
 		}
+		final int totalBuffersAvailable = this.availableMemory.size() + this.writeBehindBuffersAvailable;
+		return getNumBuffersForInMemoryTable(p) >= totalBuffersAvailable &&
+				p.getProbeSideBlockCount() < p.getBuildSideBlockCount();
+	}
+	
+	/**
+	 * Gets the partitions that were deferred, because they are better joined with swapped roles, or because
+	 * they cannot be joined by hashing. The caller takes over the partitions and is responsible to delete
+	 * their files, the table forgets them.
+	 * 
+	 * @return The deferred partitions.
+	 */
+	public List<HashPartition<BT, PT>> takeDeferredPartitions() {
+		final List<HashPartition<BT, PT>> deferred = new ArrayList<HashPartition<BT, PT>>(this.partitionsDeferred);
+		this.partitionsDeferred.clear();
+		return deferred;
 	}
 	/**
 	 * @return
@@ -625,11 +976,21 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		this.bucketIterator = null;
 		this.probeIterator = null;
 		
+		if (LOG.isDebugEnabled() && (this.numProbeRecordsSpilled > 0 || this.numProbeRecordsFiltered > 0)) {
+			LOG.debug("Hash join spilled " + this.numProbeRecordsSpilled + " probe-side records. Bloom filters dropped " +
+				this.numProbeRecordsFiltered + " probe-side records without join partner.");
+		}
+		
 		// release the table structure
 		releaseTable();
 		
 		// clear the memory in the partitions
 		clearPartitions();
+		if (this.heavyHitterPartition != null) {
+			this.heavyHitterPartition.clearAllMemory(this.availableMemory);
+			this.heavyHitterPartition = null;
+			this.heavyHitters = null;
+		}
 		
 		// clear the current probe side channel, if there is one
 		if (this.currentSpilledProbeSide != null) {
@@ -646,6 +1007,11 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			final HashPartition<BT, PT> p = this.partitionsPending.get(i);
 			p.clearAllMemory(this.availableMemory);
 		}
+		for (int i = 0; i < this.partitionsDeferred.size(); i++) {
+			final HashPartition<BT, PT> p = this.partitionsDeferred.get(i);
+			p.clearAllMemory(this.availableMemory);
+		}
+		this.partitionsDeferred.clear();
 		
 		// return the write-behind buffers
 		for (int i = 0; i < this.numWriteBehindBuffers + this.writeBehindBuffersAvailable; i++) {
@@ -662,6 +1028,25 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		this.running = false;
 	}
 	
+	/**
+	 * Gets the number of probe-side records that were dropped instead of spilled, because the bloom filter of
+	 * their spilled partition showed that they have no join partner.
+	 * 
+	 * @return The number of probe-side records dropped by the bloom filters.
+	 */
+	public long getNumProbeRecordsFiltered() {
+		return this.numProbeRecordsFiltered;
+	}
+	
+	/**
+	 * Gets the number of probe-side records that were spilled together with their partition.
+	 * 
+	 * @return The number of spilled probe-side records.
+	 */
+	public long getNumProbeRecordsSpilled() {
+		return this.numProbeRecordsSpilled;
+	}
+	
 	public List<MemorySegment> getFreedMemory() {
 		if (!this.closed.get()) {
 			throw new IllegalStateException("Cannot return memory while join is open.");
@@ -682,24 +1067,47 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 	throws IOException
 	{
 		// create the partitions
-		final int partitionFanOut = getPartitioningFanOutNoEstimates(this.availableMemory.size());
+		final int numBuffers = this.availableMemory.size();
+		final int partitionFanOut = getPartitioningFanOut(numBuffers, this.segmentSize, getEstimatedBuildSideBytes());
 		if (partitionFanOut > MAX_NUM_PARTITIONS) {
 			throw new RuntimeException("Hash join partitions estimate exeeds maximum number of partitions."); 
 		}
-		createPartitions(partitionFanOut, 0);
+		createPartitions(partitionFanOut, this.currentRecursionDepth);
 		
-		// set up the table structure. the write behind buffers are taken away, as are one buffer per partition
-		final int numBuckets = getInitialTableSize(this.availableMemory.size(), this.segmentSize, 
-			partitionFanOut, this.avgRecordLen);
+		// set up the table structure. the write behind buffers are taken away, as are one buffer per partition.
+		// the number of buckets is a multiple of the number of partitions, such that the partition of a hash code
+		// does not change when the table is re-sized
+		final int numBuckets = roundToMultiple(getInitialTableSize(numBuffers, this.segmentSize, 
+			partitionFanOut, this.avgRecordLen, this.estimatedNumBuildRecords), partitionFanOut);
 		initTable(numBuckets, (byte) partitionFanOut);
 		
 		final TypeComparator<BT> buildTypeComparator = this.buildSideComparator;
 		final BT record = this.buildSideSerializer.createInstance();
 		
+		// records of keys that would fill a good part of the memory by themselves are not partitioned, but go to
+		// the heavy hitter partition, which the caller joins with a block-nested-loops join
+		final HeavyHitterDetector heavyHitters;
+		if (this.skewHandling && this.deferSpilledPartitions) {
+			final long memoryBytes = ((long) this.totalNumBuffers) * this.segmentSize;
+			heavyHitters = new HeavyHitterDetector(
+				memoryBytes / (this.avgRecordLen + RECORD_OVERHEAD_BYTES) / HEAVY_HITTER_MEMORY_FRACTION_DIVISOR);
+		} else {
+			heavyHitters = null;
+		}
+		
 		// go over the complete input and insert every element into the hash table
+		long numRecords = 0;
 		while (this.running && input.next(record)) {
-			final int hashCode = hash(buildTypeComparator.hash(record), 0);
-			insertIntoTable(record, hashCode);
+			final int hashCode = hash(buildTypeComparator.hash(record), this.currentRecursionDepth);
+			if (heavyHitters != null && heavyHitters.add(hashCode)) {
+				insertIntoHeavyHitterPartition(record);
+			} else {
+				insertIntoTable(record, hashCode);
+			}
+			
+			if (++numRecords == NUM_RECORDS_BEFORE_TABLE_RESIZE && this.adaptiveTableSize) {
+				resizeTable(numBuffers, partitionFanOut, numRecords);
+			}
 		}
 		
 		if (!this.running)
@@ -710,6 +1118,152 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(i);
 			p.finalizeBuildPhase(this.ioManager, this.currentEnumerator, this.writeBehindBuffers);
 		}
+		if (this.heavyHitterPartition != null) {
+			this.heavyHitterPartition.finalizeBuildPhase(this.ioManager, this.currentEnumerator, this.writeBehindBuffers);
+			this.heavyHitters = heavyHitters;
+			
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Hash join found " + heavyHitters.getNumHeavyHitters() + " heavy hitter keys, with " + 
+					this.heavyHitterPartition.getBuildSideRecordCount() + " build-side records in the heavy hitter partition.");
+			}
+		}
+	}
+	
+	/**
+	 * Inserts a build-side record of a heavy hitter key into the heavy hitter partition. The partition is created
+	 * with the first record, and is spilled from the start, such that it holds only a single buffer.
+	 * 
+	 * @param record The build-side record.
+	 * @throws IOException Thrown, if the partition could not be spilled or written.
+	 */
+	private void insertIntoHeavyHitterPartition(BT record) throws IOException {
+		if (this.heavyHitterPartition == null) {
+			MemorySegment buffer = getNextBuffer();
+			if (buffer == null) {
+				spillPartition();
+				buffer = getNextBuffer();
+				if (buffer == null) {
+					throw new RuntimeException("Bug in HybridHashJoin: No memory became available after spilling a partition.");
+				}
+			}
+			this.heavyHitterPartition = new HashPartition<BT, PT>(this.buildSideSerializer, this.probeSideSerializer,
+				HEAVY_HITTER_PARTITION_NUMBER, this.currentRecursionDepth, buffer, this, this.segmentSize);
+			this.heavyHitterPartition.spillEmptyPartition(this.ioManager, this.currentEnumerator.next(), this.writeBehindBuffers);
+		}
+		this.heavyHitterPartition.insertIntoBuildBuffer(record);
+	}
+	
+	/**
+	 * Checks whether the given partition is the partition with the records of the heavy hitter keys. The heavy
+	 * hitter partition is always deferred, and must be joined with a join that does not partition by hash codes.
+	 * 
+	 * @param p The partition to check.
+	 * @return True, if the partition holds the records of the heavy hitter keys, false otherwise.
+	 */
+	static boolean isHeavyHitterPartition(HashPartition<?, ?> p) {
+		return p.getPartitionNumber() == HEAVY_HITTER_PARTITION_NUMBER;
+	}
+	
+	/**
+	 * Re-sizes the bucket table of the initial table to the width of the build-side records seen so far.
+	 * The table is only re-sized while all partitions are in memory, and only if the number of buckets
+	 * differs by at least a factor of two from the current number.
+	 * 
+	 * @param numBuffers The number of buffers that the initial table was created with.
+	 * @param numPartitions The number of partitions of the initial table.
+	 * @param numRecords The number of records inserted so far.
+	 * @throws IOException Thrown, if spilling a partition while re-inserting the entries causes an error.
+	 */
+	final void resizeTable(int numBuffers, int numPartitions, long numRecords) throws IOException {
+		long bytes = 0;
+		for (int i = 0; i < this.partitionsBeingBuilt.size(); i++) {
+			final long partitionBytes = this.partitionsBeingBuilt.get(i).getInMemoryBuildSideBytes();
+			if (partitionBytes < 0) {
+				return;
+			}
+			bytes += partitionBytes;
+		}
+		
+		final int recordLen = (int) Math.max(1, bytes / numRecords);
+		int newNumBuckets = roundToMultiple(getInitialTableSize(numBuffers, this.segmentSize, numPartitions,
+			recordLen, this.estimatedNumBuildRecords), numPartitions);
+		
+		// the new table must leave memory for the partitions
+		int numOverflowSegments = 0;
+		for (int i = 0; i < this.partitionsBeingBuilt.size(); i++) {
+			numOverflowSegments += this.partitionsBeingBuilt.get(i).numOverflowSegments;
+		}
+		final int freeSegments = this.availableMemory.size() + this.writeBehindBuffersAvailable + 
+				this.buckets.length + numOverflowSegments;
+		final long maxNumBuckets = ((long) (freeSegments - numPartitions)) << this.bucketsPerSegmentBits;
+		if (newNumBuckets > maxNumBuckets) {
+			newNumBuckets = (int) (maxNumBuckets - maxNumBuckets % numPartitions);
+		}
+		if (newNumBuckets <= 0 || (newNumBuckets < 2 * this.numBuckets && 2 * newNumBuckets > this.numBuckets)) {
+			return;
+		}
+		
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Re-sizing hash table from " + this.numBuckets + " to " + newNumBuckets + 
+				" buckets for an average record width of " + recordLen + " bytes.");
+		}
+		
+		// collect the entries of all buckets and their overflow buckets
+		final int[] hashCodes = new int[(int) numRecords];
+		final long[] pointers = new long[(int) numRecords];
+		int numEntries = 0;
+		for (int bucketNum = 0; bucketNum < this.numBuckets; bucketNum++) {
+			MemorySegment seg = this.buckets[bucketNum >> this.bucketsPerSegmentBits];
+			int offset = (bucketNum & this.bucketsPerSegmentMask) << NUM_INTRA_BUCKET_BITS;
+			final HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(seg.get(offset + HEADER_PARTITION_OFFSET));
+			while (true) {
+				final int count = seg.getShort(offset + HEADER_COUNT_OFFSET);
+				for (int i = 0; i < count; i++, numEntries++) {
+					hashCodes[numEntries] = seg.getInt(offset + BUCKET_HEADER_LENGTH + (i * HASH_CODE_LEN));
+					pointers[numEntries] = seg.getLong(offset + BUCKET_POINTER_START_OFFSET + (i * POINTER_LEN));
+				}
+				
+				final long forwardPointer = seg.getLong(offset + HEADER_FORWARD_OFFSET);
+				if (forwardPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
+					break;
+				}
+				seg = p.overflowSegments[(int) (forwardPointer >>> 32)];
+				offset = (int) (forwardPointer & 0xffffffff);
+			}
+		}
+		
+		// release the buckets and the overflow buckets
+		for (int i = 0; i < this.buckets.length; i++) {
+			this.availableMemory.add(this.buckets[i]);
+		}
+		this.buckets = null;
+		for (int i = 0; i < this.partitionsBeingBuilt.size(); i++) {
+			final HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(i);
+			for (int k = 0; k < p.numOverflowSegments; k++) {
+				this.availableMemory.add(p.overflowSegments[k]);
+			}
+			p.overflowSegments = new MemorySegment[2];
+			p.numOverflowSegments = 0;
+			p.nextOverflowBucket = 0;
+		}
+		
+		// create the new table and re-insert the entries. since both sizes are multiples of the number of
+		// partitions, every entry stays in its partition
+		initTable(newNumBuckets, (byte) numPartitions);
+		for (int i = 0; i < numEntries; i++) {
+			final int hashCode = hashCodes[i];
+			final int posHashCode = hashCode % this.numBuckets;
+			final MemorySegment bucket = this.buckets[posHashCode >> this.bucketsPerSegmentBits];
+			final int bucketInSegmentPos = (posHashCode & this.bucketsPerSegmentMask) << NUM_INTRA_BUCKET_BITS;
+			final HashPartition<BT, PT> p = this.partitionsBeingBuilt.get(bucket.get(bucketInSegmentPos + HEADER_PARTITION_OFFSET));
+			
+			if (p.isInMemory()) {
+				insertBucketEntry(p, bucket, bucketInSegmentPos, hashCode, pointers[i]);
+			}
+			else if (bucket.get(bucketInSegmentPos + HEADER_STATUS_OFFSET) == BUCKET_STATUS_BLOOM_FILTER) {
+				addToBloomFilter(bucket, bucketInSegmentPos, hashCode);
+			}
+		}
 	}
 	
 	/**
@@ -737,10 +1291,7 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		}
 		
 		long numBuckets = (p.getBuildSideRecordCount() * RECORD_TABLE_BYTES) / (HASH_BUCKET_SIZE - BUCKET_HEADER_LENGTH) + 1;
-		
-		// we need to consider the worst case where everything hashes to one bucket which needs to overflow by the same
-		// number of total buckets again.
-		final long totalBuffersNeeded = (numBuckets * 2) / (this.bucketsPerSegmentMask + 1) + p.getBuildSideBlockCount() + 1;
+		final long totalBuffersNeeded = getNumBuffersForInMemoryTable(p);
 		
 		if (totalBuffersNeeded < totalBuffersAvailable) {
 			// we are guaranteed to stay in memory
@@ -826,6 +1377,18 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		}
 	}
 	
+	/**
+	 * Gets the number of buffers that are needed to hold the build side of the given spilled partition in memory,
+	 * together with its table.
+	 */
+	private long getNumBuffersForInMemoryTable(HashPartition<BT, PT> p) {
+		final long numBuckets = (p.getBuildSideRecordCount() * RECORD_TABLE_BYTES) / (HASH_BUCKET_SIZE - BUCKET_HEADER_LENGTH) + 1;
+		
+		// we need to consider the worst case where everything hashes to one bucket which needs to overflow by the same
+		// number of total buckets again.
+		return (numBuckets * 2) / (this.bucketsPerSegmentMask + 1) + p.getBuildSideBlockCount() + 1;
+	}
+	
 	/**
 	 * @param record
 	 * @param hashCode
@@ -855,6 +1418,10 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 			// record was inserted into an in-memory partition. a pointer must be inserted into the buckets
 			insertBucketEntry(p, bucket, bucketInSegmentPos, hashCode, pointer);
 		}
+		else if (bucket.get(bucketInSegmentPos + HEADER_STATUS_OFFSET) == BUCKET_STATUS_BLOOM_FILTER) {
+			// the record was spilled. the probe side must not drop its join partners
+			addToBloomFilter(bucket, bucketInSegmentPos, hashCode);
+		}
 	}
 	
 	/**
@@ -925,7 +1492,10 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 					// no memory available to create overflow bucket. we need to spill a partition
 					final int spilledPart = spillPartition();
 					if (spilledPart == p.getPartitionNumber()) {
-						// this bucket is no longer in-memory
+						// this bucket is no longer in-memory. the record went to disk with the partition
+						if (bucket.get(bucketInSegmentPos + HEADER_STATUS_OFFSET) == BUCKET_STATUS_BLOOM_FILTER) {
+							addToBloomFilter(bucket, bucketInSegmentPos, hashCode);
+						}
 						return;
 					}
 					overflowSeg = getNextBuffer();
@@ -1094,6 +1664,11 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		}
 		final HashPartition<BT, PT> p = partitions.get(largestPartNum);
 		
+		// the buckets are turned into filters before the partition returns its overflow buckets
+		if (this.useBloomFilters) {
+			buildBloomFilters(p, largestPartNum, partitions.size());
+		}
+		
 		// spill the partition
 		int numBuffersFreed = p.spillPartition(this.availableMemory, this.ioManager, 
 										this.currentEnumerator.next(), this.writeBehindBuffers);
@@ -1107,6 +1682,101 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		return largestPartNum;
 	}
 	
+	/**
+	 * Replaces the contents of all buckets of the given partition with bloom filters over the hash codes
+	 * of the entries in the buckets and their overflow buckets.
+	 * 
+	 * @param p The partition that is about to be spilled.
+	 * @param partitionNumber The number of the partition in the table.
+	 * @param numPartitions The number of partitions among which the buckets are distributed.
+	 */
+	final void buildBloomFilters(HashPartition<BT, PT> p, int partitionNumber, int numPartitions) {
+		for (int bucketNum = partitionNumber; bucketNum < this.numBuckets; bucketNum += numPartitions) {
+			final MemorySegment bucket = this.buckets[bucketNum >> this.bucketsPerSegmentBits];
+			final int bucketInSegmentPos = (bucketNum & this.bucketsPerSegmentMask) << NUM_INTRA_BUCKET_BITS;
+			
+			// collect the hash codes of the bucket and its chain of overflow buckets
+			int numHashes = 0;
+			MemorySegment seg = bucket;
+			int offset = bucketInSegmentPos;
+			while (true) {
+				final int count = seg.getShort(offset + HEADER_COUNT_OFFSET);
+				if (numHashes + count > this.bloomFilterHashes.length) {
+					final int[] larger = new int[Math.max(this.bloomFilterHashes.length * 2, numHashes + count)];
+					System.arraycopy(this.bloomFilterHashes, 0, larger, 0, numHashes);
+					this.bloomFilterHashes = larger;
+				}
+				for (int i = 0; i < count; i++) {
+					this.bloomFilterHashes[numHashes++] = seg.getInt(offset + BUCKET_HEADER_LENGTH + (i * HASH_CODE_LEN));
+				}
+				
+				final long forwardPointer = seg.getLong(offset + HEADER_FORWARD_OFFSET);
+				if (forwardPointer == BUCKET_FORWARD_POINTER_NOT_SET) {
+					break;
+				}
+				seg = p.overflowSegments[(int) (forwardPointer >>> 32)];
+				offset = (int) (forwardPointer & 0xffffffff);
+			}
+			
+			// overwrite the entries with the filter
+			for (int i = BUCKET_HEADER_LENGTH; i < HASH_BUCKET_SIZE; i += 8) {
+				bucket.putLong(bucketInSegmentPos + i, 0L);
+			}
+			for (int i = 0; i < numHashes; i++) {
+				addToBloomFilter(bucket, bucketInSegmentPos, this.bloomFilterHashes[i]);
+			}
+			bucket.putShort(bucketInSegmentPos + HEADER_COUNT_OFFSET, (short) 0);
+			bucket.putLong(bucketInSegmentPos + HEADER_FORWARD_OFFSET, BUCKET_FORWARD_POINTER_NOT_SET);
+			bucket.put(bucketInSegmentPos + HEADER_STATUS_OFFSET, BUCKET_STATUS_BLOOM_FILTER);
+		}
+	}
+	
+	/**
+	 * Sets the bits for the given hash code in the bloom filter held by the given bucket.
+	 */
+	private static final void addToBloomFilter(MemorySegment bucket, int bucketInSegmentPos, int hashCode) {
+		final int h1 = mixBloomFilterHash(hashCode);
+		final int h2 = mixBloomFilterHash(h1);
+		final int filterStart = bucketInSegmentPos + BUCKET_HEADER_LENGTH;
+		for (int i = 0; i < NUM_BLOOM_FILTER_HASHES; i++) {
+			final int bit = ((h1 + i * h2) & 0x7fffffff) % NUM_BLOOM_FILTER_BITS;
+			final int pos = filterStart + (bit >>> 3);
+			bucket.put(pos, (byte) (bucket.get(pos) | (1 << (bit & 0x7))));
+		}
+	}
+	
+	/**
+	 * Checks whether the bits for the given hash code are set in the bloom filter held by the given bucket.
+	 * 
+	 * @return False, if no build-side record with the given hash code was inserted into the bucket, true
+	 *         if such a record may have been inserted.
+	 */
+	private static final boolean testBloomFilter(MemorySegment bucket, int bucketInSegmentPos, int hashCode) {
+		final int h1 = mixBloomFilterHash(hashCode);
+		final int h2 = mixBloomFilterHash(h1);
+		final int filterStart = bucketInSegmentPos + BUCKET_HEADER_LENGTH;
+		for (int i = 0; i < NUM_BLOOM_FILTER_HASHES; i++) {
+			final int bit = ((h1 + i * h2) & 0x7fffffff) % NUM_BLOOM_FILTER_BITS;
+			if ((bucket.get(filterStart + (bit >>> 3)) & (1 << (bit & 0x7))) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Mixes the bits of a hash code. The codes in one bucket share their remainder modulo the number of buckets,
+	 * so the high bits are folded into the low ones before deriving the filter's bit positions.
+	 */
+	private static final int mixBloomFilterHash(int code) {
+		code ^= code >>> 16;
+		code *= 0x85ebca6b;
+		code ^= code >>> 13;
+		code *= 0xc2b2ae35;
+		code ^= code >>> 16;
+		return code;
+	}
+	
 	/**
 	 * This method makes sure that at least a certain number of memory segments is in the list of free segments.
 	 * Free memory can be in the list of free segments, or in the return-queue where segments used to write behind are
@@ -1213,6 +1883,24 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		return numIOBufs > 6 ? 6 : numIOBufs;
 	}
 	
+	/**
+	 * Determines the number of buffers to be used for asynchronous write behind, given an estimate for the
+	 * number of bytes of the build side. If the build side is expected to fit into memory with a large
+	 * margin, a single write-behind buffer is kept for the unlikely case of spilling.
+	 * 
+	 * @param numBuffers The number of available buffers.
+	 * @param bufferSize The size of the buffers, in bytes.
+	 * @param estimatedBuildSideBytes The estimated size of the build side, or a non-positive value, if unknown.
+	 * @return The number of write-behind buffers.
+	 */
+	public static final int getNumWriteBehindBuffers(int numBuffers, int bufferSize, long estimatedBuildSideBytes) {
+		final int noEstimates = getNumWriteBehindBuffers(numBuffers);
+		if (estimatedBuildSideBytes > 0 && 2 * estimatedBuildSideBytes < ((long) numBuffers) * bufferSize) {
+			return Math.min(noEstimates, 1);
+		}
+		return noEstimates;
+	}
+	
 	/**
 	 * Gets the number of partitions to be used for an initial hash-table, when no estimates are
 	 * available.
@@ -1227,6 +1915,37 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		return Math.max(10, Math.min(numBuffers / 10, MAX_NUM_PARTITIONS));
 	}
 	
+	/**
+	 * Gets the number of partitions to be used for an initial hash-table, given an estimate for the number
+	 * of bytes of the build side.
+	 * <p>
+	 * If the build side is expected to fit into memory with a large margin, the minimal number of 10
+	 * partitions is used, which leaves the most memory to the records. Otherwise, the build side is split into
+	 * as many partitions as needed for a spilled partition to fit into half the memory when it is processed,
+	 * but into no more than a quarter of the number of buffers. The number of partitions is never below the
+	 * one that is used without estimates.
+	 * 
+	 * @param numBuffers The number of buffers available.
+	 * @param bufferSize The size of the buffers, in bytes.
+	 * @param estimatedBuildSideBytes The estimated size of the build side, or a non-positive value, if unknown.
+	 * @return The number of partitions to use.
+	 */
+	public static final int getPartitioningFanOut(int numBuffers, int bufferSize, long estimatedBuildSideBytes) {
+		final int noEstimates = getPartitioningFanOutNoEstimates(numBuffers);
+		if (estimatedBuildSideBytes <= 0) {
+			return noEstimates;
+		}
+		
+		final long memory = ((long) numBuffers) * bufferSize;
+		if (2 * estimatedBuildSideBytes < memory) {
+			return 10;
+		}
+		
+		final long needed = (2 * estimatedBuildSideBytes + memory - 1) / memory;
+		final int max = Math.max(noEstimates, Math.min(numBuffers / 4, MAX_NUM_PARTITIONS));
+		return (int) Math.max(noEstimates, Math.min(needed, max));
+	}
+	
 	public static final int getInitialTableSize(int numBuffers, int bufferSize, int numPartitions, int recordLenBytes) {
 		// ----------------------------------------------------------------------------------------
 		// the following observations hold:
@@ -1253,6 +1972,55 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 		return numBuckets > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) numBuckets;
 	}
 	
+	/**
+	 * Gets the number of buckets for an initial hash-table, given an estimate for the number of build-side
+	 * records. If the records are expected to fit into memory, the table is sized for a utilization of
+	 * about 75% of its buckets, as far as the memory that the records leave permits. Otherwise, the table is
+	 * sized as without the estimate.
+	 * 
+	 * @param numBuffers The number of buffers available.
+	 * @param bufferSize The size of the buffers, in bytes.
+	 * @param numPartitions The number of partitions, each of which holds one buffer.
+	 * @param recordLenBytes The (estimated) average length of a record, in bytes.
+	 * @param estimatedNumRecords The estimated number of records, or a non-positive value, if unknown.
+	 * @return The number of buckets to use.
+	 */
+	public static final int getInitialTableSize(int numBuffers, int bufferSize, int numPartitions, int recordLenBytes,
+			long estimatedNumRecords)
+	{
+		final int noEstimates = getInitialTableSize(numBuffers, bufferSize, numPartitions, recordLenBytes);
+		if (estimatedNumRecords <= 0) {
+			return noEstimates;
+		}
+		
+		final long freeBytes = ((long) bufferSize) * (numBuffers - numPartitions) - 
+				estimatedNumRecords * (recordLenBytes + SERIALIZED_LENGTH_FIELD_BYTES);
+		if (freeBytes <= 0) {
+			return noEstimates;
+		}
+		
+		final long desired = (estimatedNumRecords * 4) / (3 * NUM_ENTRIES_PER_BUCKET) + 1;
+		final long affordable = Math.max(freeBytes / HASH_BUCKET_SIZE, noEstimates);
+		final long numBuckets = Math.min(desired, affordable);
+		return numBuckets > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) numBuckets;
+	}
+	
+	/**
+	 * Rounds the given number of buckets up to the next multiple of the number of partitions, such that
+	 * every partition holds the same number of buckets.
+	 */
+	private static final int roundToMultiple(int numBuckets, int numPartitions) {
+		final long rounded = ((long) numBuckets + numPartitions - 1) / numPartitions * numPartitions;
+		return rounded > Integer.MAX_VALUE ? numBuckets - numBuckets % numPartitions : (int) rounded;
+	}
+	
+	/**
+	 * Gets the estimated number of bytes of the build side, or -1, if no estimate is available.
+	 */
+	private final long getEstimatedBuildSideBytes() {
+		return this.estimatedNumBuildRecords > 0 ? this.estimatedNumBuildRecords * this.avgRecordLen : -1;
+	}
+	
 	/**
 	 * Assigns a partition to a bucket.
 	 * 
@@ -1504,30 +2272,86 @@ public class MutableHashTable<BT, PT> implements MemorySegmentSource {
 
 	// ======================================================================================================
 	
+	/**
+	 * The iterator over the probe-side records, which reads the records in batches. Every record of a batch is
+	 * copied into its own instance, such that the records stay valid until the next batch is read, even if the
+	 * source reuses the objects it sets into the records.
+	 */
 	public static final class ProbeIterator<PT> {
 		
 		private MutableObjectIterator<PT> source;
 		
-		private final PT instance;
+		private final PT[] batch;
+		
+		private int batchSize;
+		
+		private int batchPos;
+		
+		private boolean exhausted;
 		
 		private PT current;
 		
 		
-		ProbeIterator(MutableObjectIterator<PT> source, PT instance) {
-			this.instance = instance;
+		@SuppressWarnings("unchecked")
+		ProbeIterator(MutableObjectIterator<PT> source, TypeSerializer<PT> serializer, int maxBatchSize) {
+			this.batch = (PT[]) new Object[maxBatchSize];
+			for (int i = 0; i < maxBatchSize; i++) {
+				this.batch[i] = serializer.createInstance();
+			}
+			this.current = this.batch[0];
 			set(source);
 		}
 		
 		void set(MutableObjectIterator<PT> source) {
 			this.source = source;
-			if (this.current == null) {
-				this.current = this.instance;
+			this.batchSize = 0;
+			this.batchPos = 0;
+			this.exhausted = false;
+		}
+		
+		/**
+		 * Reads the next batch of records from the source.
+		 * 
+		 * @return The number of records in the batch, zero if the source is exhausted.
+		 * @throws IOException Thrown, if the records could not be read.
+		 */
+		int readBatch() throws IOException {
+			final PT[] batch = this.batch;
+			int num = 0;
+			// every slot is an instance of its own, so the source reads into the slots directly
+			while (num < batch.length && !this.exhausted) {
+				if (this.source.next(batch[num])) {
+					num++;
+				} else {
+					// some sources must not be read again once they are exhausted
+					this.exhausted = true;
+				}
+			}
+			this.batchSize = num;
+			this.batchPos = 0;
+			return num;
+		}
+		
+		/**
+		 * Advances to the next record of the current batch and makes it the current record.
+		 * 
+		 * @return The position of the record in the batch, or -1, if the batch is exhausted.
+		 */
+		int nextIndex() {
+			if (this.batchPos < this.batchSize) {
+				this.current = this.batch[this.batchPos];
+				return this.batchPos++;
+			} else {
+				return -1;
 			}
 		}
 		
+		PT get(int index) {
+			return this.batch[index];
+		}
+		
 		public PT next() throws IOException {
-			if (this.source.next(this.instance)) {
-				this.current = this.instance;
+			if (nextIndex() >= 0 || (readBatch() > 0 && nextIndex() >= 0)) {
 				return this.current;
 			} else {
 				return null;
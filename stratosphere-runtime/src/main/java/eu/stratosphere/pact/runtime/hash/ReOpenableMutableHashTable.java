@@ -59,6 +59,11 @@ public class ReOpenableMutableHashTable<BT, PT> extends MutableHashTable<BT, PT>
 		spilledInMemoryPartitions = ioManager.createChannelEnumerator();
 	}
 	
+	@Override
+	public void setDeferSpilledPartitions(boolean deferSpilledPartitions) {
+		// the spilled partitions are joined again with every probe side, so this table never defers them
+	}
+	
 	@Override
 	public void open(MutableObjectIterator<BT> buildSide,
 			MutableObjectIterator<PT> probeSide) throws IOException {
@@ -73,7 +78,7 @@ public class ReOpenableMutableHashTable<BT, PT> extends MutableHashTable<BT, PT>
 			throw new IllegalStateException("Cannot open probe input because hash join has already been closed");
 		}
 		partitionsBeingBuilt.clear();
-		probeIterator = new ProbeIterator<PT>(probeInput, probeSideSerializer.createInstance());
+		probeIterator = createProbeIterator(probeInput);
 		// We restore the same "partitionsBeingBuild" state as after the initial open call.
 		partitionsBeingBuilt.addAll(initialPartitions);
 		
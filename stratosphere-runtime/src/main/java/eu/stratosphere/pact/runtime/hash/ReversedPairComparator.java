@@ -0,0 +1,52 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+import eu.stratosphere.api.common.typeutils.TypePairComparator;
+
+/**
+ * A pair comparator that swaps the roles of the reference and the candidate of another pair comparator. It is
+ * used when a join swaps its build side and its probe side, and only the comparator for the original roles exists.
+ *
+ * @param <T1> The type of the reference.
+ * @param <T2> The type of the candidates.
+ */
+final class ReversedPairComparator<T1, T2> extends TypePairComparator<T1, T2> {
+
+	private final TypePairComparator<T2, T1> comparator;
+
+	private T1 reference;
+
+
+	ReversedPairComparator(TypePairComparator<T2, T1> comparator) {
+		this.comparator = comparator;
+	}
+
+	@Override
+	public void setReference(T1 reference) {
+		this.reference = reference;
+	}
+
+	@Override
+	public boolean equalToReference(T2 candidate) {
+		this.comparator.setReference(candidate);
+		return this.comparator.equalToReference(this.reference);
+	}
+
+	@Override
+	public int compareToReference(T2 candidate) {
+		this.comparator.setReference(candidate);
+		return -this.comparator.compareToReference(this.reference);
+	}
+}
@@ -15,7 +15,7 @@
 
 package eu.stratosphere.pact.runtime.iterative.io;
 
-import eu.stratosphere.pact.runtime.hash.MutableHashTable;
+import eu.stratosphere.pact.runtime.hash.CompactingHashTable;
 import eu.stratosphere.util.Collector;
 
 import java.io.IOException;
@@ -23,9 +23,9 @@ import java.io.IOException;
 /**
  * A {@link Collector} to update the solution set of a workset iteration.
  * <p/>
- * The records are written to a {@link MutableHashTable} hash table to allow in-memory point updates.
+ * The records are written to a {@link CompactingHashTable} hash table to allow in-memory point updates.
  * <p/>
- * Assumption for fast updates: the build side iterator of the hash table is already positioned for the update. This
+ * Assumption for fast updates: the record to update is the last match that was looked up in the hash table. This
  * is for example the case when a solution set update happens directly after a solution set join. If this assumption
  * doesn't hold, use {@link SolutionSetUpdateOutputCollector}, which probes the hash table before updating.
  *
@@ -34,13 +34,13 @@ import java.io.IOException;
 public class SolutionSetFastUpdateOutputCollector<T> implements Collector<T> {
 
     private final Collector<T> delegate;
-    private final MutableHashTable<T, ?> solutionSet;
+    private final CompactingHashTable<T, ?> solutionSet;
 
-    public SolutionSetFastUpdateOutputCollector(MutableHashTable<T, ?> solutionSet) {
+    public SolutionSetFastUpdateOutputCollector(CompactingHashTable<T, ?> solutionSet) {
         this(solutionSet, null);
     }
 
-    public SolutionSetFastUpdateOutputCollector(MutableHashTable<T, ?> solutionSet, Collector<T> delegate) {
+    public SolutionSetFastUpdateOutputCollector(CompactingHashTable<T, ?> solutionSet, Collector<T> delegate) {
         this.solutionSet = solutionSet;
         this.delegate = delegate;
     }
@@ -48,8 +48,9 @@ public class SolutionSetFastUpdateOutputCollector<T> implements Collector<T> {
     @Override
     public void collect(T record) {
         try {
-            MutableHashTable.HashBucketIterator<T, ?> bucket = solutionSet.getBuildSideIterator();
-            bucket.writeBack(record);
+            if (!solutionSet.updateMatch(record)) {
+                throw new RuntimeException("The solution set hash table ran out of memory.");
+            }
 
             if (delegate != null) {
                 delegate.collect(record);
@@ -15,8 +15,7 @@
 
 package eu.stratosphere.pact.runtime.iterative.io;
 
-import eu.stratosphere.api.common.typeutils.TypeSerializer;
-import eu.stratosphere.pact.runtime.hash.MutableHashTable;
+import eu.stratosphere.pact.runtime.hash.CompactingHashTable;
 import eu.stratosphere.util.Collector;
 
 import java.io.IOException;
@@ -24,10 +23,11 @@ import java.io.IOException;
 /**
  * A {@link Collector} to update the solution set of a workset iteration.
  * <p/>
- * The records are written to a {@link MutableHashTable} hash table to allow in-memory point updates.
+ * The records are written to a {@link CompactingHashTable} hash table to allow in-memory point updates.
  * <p/>
- * Records will only be collected, if there is a match after probing the hash table. If the build side iterator is
- * already positioned for the update, use {@link SolutionSetFastUpdateOutputCollector} to the save re-probing.
+ * Records replace the record with the same key in the hash table, or are inserted, if the hash table contains no
+ * such record. If the record to update is the last match that was looked up in the hash table, use
+ * {@link SolutionSetFastUpdateOutputCollector} to save the re-probing.
  * 
  * @see SolutionSetFastUpdateOutputCollector
  */
@@ -35,32 +35,26 @@ public class SolutionSetUpdateOutputCollector<T> implements Collector<T> {
 
 	private final Collector<T> delegate;
 
-	private final MutableHashTable<T, T> solutionSet;
+	private final CompactingHashTable<T, ?> solutionSet;
 
-	private final T buildSideRecord;
-
-	public SolutionSetUpdateOutputCollector(MutableHashTable<T, T> solutionSet, TypeSerializer<T> serializer) {
-		this(solutionSet, serializer, null);
+	public SolutionSetUpdateOutputCollector(CompactingHashTable<T, ?> solutionSet) {
+		this(solutionSet, null);
 	}
 
-	public SolutionSetUpdateOutputCollector(MutableHashTable<T, T> solutionSet, TypeSerializer<T> serializer,
-			Collector<T> delegate) {
+	public SolutionSetUpdateOutputCollector(CompactingHashTable<T, ?> solutionSet, Collector<T> delegate) {
 		this.solutionSet = solutionSet;
 		this.delegate = delegate;
-		buildSideRecord = serializer.createInstance();
 	}
 
 	@Override
 	public void collect(T record) {
 		try {
-			MutableHashTable.HashBucketIterator<T, T> bucket = solutionSet.getMatchesFor(record);
-
-			if (bucket.next(buildSideRecord)) {
-				bucket.writeBack(record);
+			if (!solutionSet.insertOrReplaceRecord(record)) {
+				throw new RuntimeException("The solution set hash table ran out of memory.");
+			}
 
-				if (delegate != null) {
-					delegate.collect(record);
-				}
+			if (delegate != null) {
+				delegate.collect(record);
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
@@ -13,8 +13,11 @@
 
 package eu.stratosphere.pact.runtime.shipping;
 
+import java.util.List;
+
 import eu.stratosphere.api.common.distributions.DataDistribution;
 import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.nephele.io.ChannelSelector;
 import eu.stratosphere.pact.runtime.plugable.SerializationDelegate;
 
@@ -23,6 +26,8 @@ public class OutputEmitter<T> implements ChannelSelector<SerializationDelegate<T
 	
 	private static final byte[] DEFAULT_SALT = new byte[] { 17, 31, 47, 51, 83, 1 };
 	
+	private static final int MAX_NORMALIZED_KEY_LEN = 16;
+	
 	private final ShipStrategyType strategy;		// the shipping strategy used by this output emitter
 	
 	private int[] channels;						// the reused array defining target channels
@@ -31,9 +36,17 @@ public class OutputEmitter<T> implements ChannelSelector<SerializationDelegate<T
 	
 	private final TypeComparator<T> comparator;	// the comparator for hashing / sorting
 	
-//	private Key[][] partitionBoundaries;		// the partition boundaries for range partitioning
-//	
-//	private final DataDistribution distribution; // the data distribution to create the partition boundaries for range partitioning
+	private final List<T> partitionBoundaries;	// the boundary records for range partitioning
+	
+	private TypeComparator<T>[] boundaryComparators;	// comparators holding the boundaries as their references
+	
+	private MemorySegment boundaryKeys;			// the normalized keys of the boundaries, one after the other
+	
+	private MemorySegment recordKey;			// the normalized key of the current record
+	
+	private int numKeyBytes;					// the number of bytes of the normalized keys, zero if not used
+	
+	private boolean normalizedKeyFullyDetermines;	// flag whether the normalized keys suffice to compare
 	
 	private final byte[] salt;					// the salt used to randomize the hash values
 
@@ -102,6 +115,27 @@ public class OutputEmitter<T> implements ChannelSelector<SerializationDelegate<T
 	 * @param distr The distribution pattern used in the case of a range partitioning.
 	 */
 	public OutputEmitter(ShipStrategyType strategy, TypeComparator<T> comparator, byte[] salt, DataDistribution distr) {
+		this(strategy, comparator, salt, distr, null);
+	}
+	
+	/**
+	 * Creates a new channel selector that range partitions the data along the given boundary records. The
+	 * boundaries are typically obtained by sampling the data, for example with a {@link RangeBoundarySampler}.
+	 * Assuming <i>n</i> boundaries {@code B_1 ... B_n}, the records are partitioned into the ranges
+	 * {@code (-inf, B_1] (B_1, B_2] ... (B_n, inf)}. The number of ranges must either match the number of
+	 * channels, or be an even multiple of it.
+	 * 
+	 * @param strategy The distribution strategy to be used, must be {@link ShipStrategyType#PARTITION_RANGE}.
+	 * @param comparator The comparator used to compare the records against the boundaries.
+	 * @param partitionBoundaries The boundary records, sorted with respect to the comparator.
+	 */
+	public OutputEmitter(ShipStrategyType strategy, TypeComparator<T> comparator, List<T> partitionBoundaries) {
+		this(strategy, comparator, DEFAULT_SALT, null, partitionBoundaries);
+	}
+	
+	private OutputEmitter(ShipStrategyType strategy, TypeComparator<T> comparator, byte[] salt,
+			DataDistribution distr, List<T> partitionBoundaries)
+	{
 		if (strategy == null || salt == null) { 
 			throw new NullPointerException();
 		}
@@ -109,7 +143,7 @@ public class OutputEmitter<T> implements ChannelSelector<SerializationDelegate<T
 		this.strategy = strategy;
 		this.comparator = comparator;
 		this.salt = salt;
-//		this.distribution = distr;
+		this.partitionBoundaries = partitionBoundaries;
 		
 		switch (strategy) {
 		case FORWARD:
@@ -123,8 +157,19 @@ public class OutputEmitter<T> implements ChannelSelector<SerializationDelegate<T
 			throw new IllegalArgumentException("Invalid shipping strategy for OutputEmitter: " + strategy.name());
 		}
 		
-		if ((strategy == ShipStrategyType.PARTITION_RANGE) && distr == null)
-			throw new NullPointerException("Data distribution must not be null when the ship strategy is range partitioning.");
+		if (strategy == ShipStrategyType.PARTITION_RANGE) {
+			if (partitionBoundaries == null) {
+				if (distr == null) {
+					throw new NullPointerException("Partition boundaries must not be null when the ship strategy is range partitioning.");
+				} else {
+					throw new IllegalArgumentException("Key based data distributions can only be used to range partition " +
+							"records of type Record. Other data types must be range partitioned along sampled boundary records.");
+				}
+			}
+			if (comparator == null) {
+				throw new NullPointerException("The comparator must not be null when the ship strategy is range partitioning.");
+			}
+		}
 	}
 
 	// ------------------------------------------------------------------------
@@ -189,45 +234,92 @@ public class OutputEmitter<T> implements ChannelSelector<SerializationDelegate<T
 	}
 	
 	private final int[] rangePartition(T record, int numberOfChannels) {
-		throw new UnsupportedOperationException();
-//		if (channels == null || channels.length != 1) {
-//			channels = new int[1];
-//		}
-//		
-//		if (this.partitionBoundaries == null) {
-//			this.partitionBoundaries = new Key[numberOfChannels - 1][];
-//			for (int i = 0; i < numberOfChannels - 1; i++) {
-//				this.partitionBoundaries[i] = this.distribution.getBucketBoundary(i, numberOfChannels);
-//			}
-//		}
-//		
-//		if (numberOfChannels == this.partitionBoundaries.length + 1) {
-//			final TypeComparator<T>[] boundaries = this.partitionBoundaries;
-//			this.comparator.setReference(record);
-//			
-//			// bin search the bucket
-//			int low = 0;
-//			int high = this.partitionBoundaries.length - 1;
-//			
-//			while (low <= high) {
-//				final int mid = (low + high) >>> 1;
-//				final int result = this.comparator.compareToReference(boundaries[mid]);
-//				
-//				if (result < 0) {
-//					low = mid + 1;
-//				} else if (result > 0) {
-//					high = mid - 1;
-//				} else {
-//					this.channels[0] = mid;
-//					return this.channels;
-//				}
-//			}
-//			this.channels[0] = low;	// key not found, but the low index is the target
-//									// bucket, since the boundaries are the upper bound
-//			return this.channels;
-//		} else {
-//			throw new IllegalStateException(
-//			"The number of channels to partition among is inconsistent with the partitioners state.");
-//		}
+		if (this.channels == null || this.channels.length != 1) {
+			this.channels = new int[1];
+		}
+		
+		if (this.boundaryComparators == null) {
+			initRangeBoundaries(numberOfChannels);
+		}
+		
+		final TypeComparator<T>[] boundaries = this.boundaryComparators;
+		if (numberOfChannels != boundaries.length + 1) {
+			throw new IllegalStateException(
+				"The number of channels to partition among is inconsistent with the partitioners state.");
+		}
+		
+		if (this.numKeyBytes > 0) {
+			this.comparator.putNormalizedKey(record, this.recordKey, 0, this.numKeyBytes);
+		}
+		boolean referenceSet = false;
+		
+		// bin search the bucket
+		int low = 0;
+		int high = boundaries.length - 1;
+		
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			
+			int result = 0;
+			if (this.numKeyBytes > 0) {
+				result = MemorySegment.compare(this.boundaryKeys, this.recordKey, mid * this.numKeyBytes, 0, this.numKeyBytes);
+				result = this.comparator.invertNormalizedKey() ? -result : result;
+			}
+			if (result == 0 && !this.normalizedKeyFullyDetermines) {
+				if (!referenceSet) {
+					this.comparator.setReference(record);
+					referenceSet = true;
+				}
+				result = this.comparator.compareToReference(boundaries[mid]);
+			}
+			
+			if (result < 0) {
+				low = mid + 1;
+			} else if (result > 0) {
+				high = mid - 1;
+			} else {
+				this.channels[0] = mid;
+				return this.channels;
+			}
+		}
+		this.channels[0] = low;	// key not found, but the low index is the target
+								// bucket, since the boundaries are the upper bound
+		return this.channels;
+	}
+	
+	private final void initRangeBoundaries(int numberOfChannels) {
+		final int numRanges = this.partitionBoundaries.size() + 1;
+		if (numRanges % numberOfChannels != 0) {
+			throw new IllegalStateException("The number of ranges defined by the partition boundaries (" + numRanges + 
+				") is no multiple of the number of channels (" + numberOfChannels + ").");
+		}
+		
+		// pick every n-th boundary, if there are more ranges than channels
+		final int n = numRanges / numberOfChannels;
+		
+		@SuppressWarnings("unchecked")
+		final TypeComparator<T>[] boundaries = new TypeComparator[numberOfChannels - 1];
+		for (int i = 0; i < boundaries.length; i++) {
+			boundaries[i] = this.comparator.duplicate();
+			boundaries[i].setReference(this.partitionBoundaries.get(i * n + (n - 1)));
+		}
+		
+		// if possible, keep the boundaries' normalized keys, such that most comparisons are plain byte comparisons 
+		if (this.comparator.supportsNormalizedKey() && this.comparator.getNormalizeKeyLen() > 0 && boundaries.length > 0) {
+			this.numKeyBytes = Math.min(this.comparator.getNormalizeKeyLen(), MAX_NORMALIZED_KEY_LEN);
+			this.normalizedKeyFullyDetermines = !this.comparator.isNormalizedKeyPrefixOnly(this.numKeyBytes);
+			this.boundaryKeys = new MemorySegment(new byte[boundaries.length * this.numKeyBytes]);
+			this.recordKey = new MemorySegment(new byte[this.numKeyBytes]);
+			
+			for (int i = 0; i < boundaries.length; i++) {
+				this.comparator.putNormalizedKey(this.partitionBoundaries.get(i * n + (n - 1)),
+					this.boundaryKeys, i * this.numKeyBytes, this.numKeyBytes);
+			}
+		} else {
+			this.numKeyBytes = 0;
+			this.normalizedKeyFullyDetermines = false;
+		}
+		
+		this.boundaryComparators = boundaries;
 	}
 }
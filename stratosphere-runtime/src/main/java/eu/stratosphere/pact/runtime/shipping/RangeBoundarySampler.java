@@ -0,0 +1,184 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.shipping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Draws a uniform random sample (reservoir sample) from a stream of records and derives from it the boundaries
+ * for range partitioning the records into a given number of partitions. The boundaries are returned as records
+ * of the sampled type and can be handed to the {@link OutputEmitter} for a
+ * {@link ShipStrategyType#PARTITION_RANGE} shipping strategy.
+ * <p>
+ * Samples from several parallel instances can be combined via {@link #addSamples(RangeBoundarySampler)}, such
+ * that all senders of a range partitioned data set use the same boundaries.
+ *
+ * @param <T> The type of the sampled records.
+ */
+public class RangeBoundarySampler<T> {
+
+	private final TypeSerializer<T> serializer;
+
+	private final TypeComparator<T> comparator1;
+
+	private final TypeComparator<T> comparator2;
+
+	private final ArrayList<T> samples;
+
+	private final Random random;
+
+	private final int maxNumSamples;
+
+	private long numRecordsSeen;
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a new sampler that keeps at most the given number of samples.
+	 *
+	 * @param serializer The serializer used to copy the sampled records.
+	 * @param comparator The comparator used to sort the samples.
+	 * @param maxNumSamples The maximal number of samples to keep.
+	 * @param seed The seed for the random number generator that selects the samples.
+	 */
+	public RangeBoundarySampler(TypeSerializer<T> serializer, TypeComparator<T> comparator, int maxNumSamples, long seed) {
+		if (serializer == null || comparator == null) {
+			throw new NullPointerException();
+		}
+		if (maxNumSamples < 1) {
+			throw new IllegalArgumentException("The sampler must keep at least one sample.");
+		}
+
+		this.serializer = serializer;
+		this.comparator1 = comparator.duplicate();
+		this.comparator2 = comparator.duplicate();
+		this.maxNumSamples = maxNumSamples;
+		this.samples = new ArrayList<T>(Math.min(maxNumSamples, 1024));
+		this.random = new Random(seed);
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Offers a record to the sample. The record is copied if it is picked, so the caller may reuse it.
+	 *
+	 * @param record The record to offer.
+	 */
+	public void add(T record) {
+		this.numRecordsSeen++;
+
+		if (this.samples.size() < this.maxNumSamples) {
+			this.samples.add(this.serializer.createCopy(record));
+		} else {
+			final long pos = (long) (this.random.nextDouble() * this.numRecordsSeen);
+			if (pos < this.maxNumSamples) {
+				this.serializer.copyTo(record, this.samples.get((int) pos));
+			}
+		}
+	}
+
+	/**
+	 * Offers all records from the given iterator to the sample.
+	 *
+	 * @param input The iterator with the records to offer.
+	 * @throws IOException Thrown, if the iterator failed to deliver the records.
+	 */
+	public void addAll(MutableObjectIterator<T> input) throws IOException {
+		final T record = this.serializer.createInstance();
+		while (input.next(record)) {
+			add(record);
+		}
+	}
+
+	/**
+	 * Merges the samples drawn by another sampler into this sampler. Each of the other sampler's samples is weighted
+	 * by the number of records the other sampler has seen, such that the result is again (approximately) a
+	 * uniform sample of the union of both inputs.
+	 *
+	 * @param other The sampler whose samples to merge.
+	 */
+	public void addSamples(RangeBoundarySampler<T> other) {
+		final List<T> otherSamples = other.samples;
+		if (otherSamples.isEmpty()) {
+			return;
+		}
+
+		final long recordsPerSample = Math.max(other.numRecordsSeen / otherSamples.size(), 1);
+		for (T sample : otherSamples) {
+			add(sample);
+			this.numRecordsSeen += recordsPerSample - 1;
+		}
+	}
+
+	/**
+	 * Gets the number of records that were offered to this sampler.
+	 *
+	 * @return The number of records offered to this sampler.
+	 */
+	public long getNumRecordsSeen() {
+		return this.numRecordsSeen;
+	}
+
+	/**
+	 * Gets the number of samples currently kept by this sampler.
+	 *
+	 * @return The number of samples.
+	 */
+	public int getNumSamples() {
+		return this.samples.size();
+	}
+
+	/**
+	 * Computes the boundaries that split the sampled records into the given number of ranges of (approximately)
+	 * equal size. The result contains {@code numPartitions - 1} records in ascending order, where the i'th record
+	 * is the inclusive upper bound of the i'th range.
+	 *
+	 * @param numPartitions The number of ranges to split the data into.
+	 * @return The boundaries of the ranges.
+	 */
+	public List<T> getBoundaries(int numPartitions) {
+		if (numPartitions < 1) {
+			throw new IllegalArgumentException("The number of partitions must be at least one.");
+		}
+		if (this.samples.isEmpty() && numPartitions > 1) {
+			throw new IllegalStateException("Cannot compute partition boundaries without samples.");
+		}
+
+		Collections.sort(this.samples, new Comparator<T>() {
+			@Override
+			public int compare(T o1, T o2) {
+				RangeBoundarySampler.this.comparator1.setReference(o1);
+				RangeBoundarySampler.this.comparator2.setReference(o2);
+				return RangeBoundarySampler.this.comparator2.compareToReference(RangeBoundarySampler.this.comparator1);
+			}
+		});
+
+		final int numSamples = this.samples.size();
+		final List<T> boundaries = new ArrayList<T>(numPartitions - 1);
+		for (int i = 1; i < numPartitions; i++) {
+			final int pos = (int) (((long) i) * numSamples / numPartitions);
+			boundaries.add(this.serializer.createCopy(this.samples.get(Math.min(pos, numSamples - 1))));
+		}
+		return boundaries;
+	}
+}
@@ -66,7 +66,7 @@ public class AsynchronousPartialSorter<E> extends UnilateralSortMerger<E>
 		super(memoryManager, null, input, parentTask, serializer, comparator, totalMemory,
 			totalMemory < 2 * MIN_NUM_SORT_MEM_SEGMENTS * memoryManager.getPageSize() ? 1 : 
 				Math.max((int) Math.ceil(((double) totalMemory) / MAX_MEM_PER_PARTIAL_SORT), 2),
-			2, 0.0f, true);
+			2, 0.0f, 1, 1, true);
 	}
 	
 
@@ -87,13 +87,14 @@ public class AsynchronousPartialSorter<E> extends UnilateralSortMerger<E>
 	 * This method does not actually create a spilling thread, but grabs the circular queues and creates the
 	 * iterator that reads from the sort buffers in turn.
 	 * 
-	 * @see eu.stratosphere.pact.runtime.sort.UnilateralSortMerger#getSpillingThread(eu.stratosphere.pact.runtime.sort.ExceptionHandler, eu.stratosphere.pact.runtime.sort.UnilateralSortMerger.CircularQueues, eu.stratosphere.nephele.template.AbstractInvokable, eu.stratosphere.nephele.services.memorymanager.MemoryManager, eu.stratosphere.nephele.services.iomanager.IOManager, eu.stratosphere.pact.runtime.plugable.TypeSerializers, eu.stratosphere.pact.runtime.plugable.TypeComparator, java.util.List, java.util.List, int)
+	 * @see eu.stratosphere.pact.runtime.sort.UnilateralSortMerger#getSpillingThread(eu.stratosphere.pact.runtime.sort.ExceptionHandler, eu.stratosphere.pact.runtime.sort.UnilateralSortMerger.CircularQueues, eu.stratosphere.nephele.template.AbstractInvokable, eu.stratosphere.nephele.services.memorymanager.MemoryManager, eu.stratosphere.nephele.services.iomanager.IOManager, eu.stratosphere.pact.runtime.plugable.TypeSerializers, eu.stratosphere.pact.runtime.plugable.TypeComparator, java.util.List, java.util.List, int, int)
 	 */
 	@Override
 	protected ThreadBase<E> getSpillingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 			AbstractInvokable parentTask, MemoryManager memoryManager, IOManager ioManager, 
 			TypeSerializer<E> serializer, TypeComparator<E> comparator,
-			List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxFileHandles)
+			List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxFileHandles,
+			int numMergeReadBuffers)
 	{
 		this.bufferIterator = new BufferQueueIterator(queues);
 		setResultIterator(this.bufferIterator);
@@ -27,6 +27,7 @@ import org.apache.commons.logging.LogFactory;
 import eu.stratosphere.api.common.functions.GenericGroupReduce;
 import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.configuration.Configuration;
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelAccess;
@@ -142,9 +143,46 @@ public class CombiningUnilateralSortMerger<E> extends UnilateralSortMerger<E> {
 			long totalMemory, int numSortBuffers, int maxNumFileHandles, 
 			float startSpillingFraction)
 	throws IOException, MemoryAllocationException
+	{
+		this(combineStub, memoryManager, ioManager, input, parentTask, serializer, comparator,
+			totalMemory, numSortBuffers, maxNumFileHandles, startSpillingFraction, 1,
+			ConfigConstants.DEFAULT_TASK_MANAGER_SORT_MERGE_READ_BUFFERS);
+	}
+	
+	/**
+	 * Creates a new sorter that reads the data from a given reader and provides an iterator returning that
+	 * data in a sorted manner. The memory is divided among sort buffers, write buffers and read buffers
+	 * automatically.
+	 * 
+	 * @param combineStub The stub used to combine values with the same key.
+	 * @param memoryManager The memory manager from which to allocate the memory.
+	 * @param ioManager The I/O manager, which is used to write temporary files to disk.
+	 * @param input The input that is sorted by this sorter.
+	 * @param parentTask The parent task, which owns all resources used by this sorter.
+	 * @param serializer The type serializer.
+	 * @param comparator The type comparator establishing the order relation.
+	 * @param totalMemory The total amount of memory dedicated to sorting, merging and I/O.
+	 * @param numSortBuffers The number of distinct buffers to use creation of the initial runs.
+	 * @param maxNumFileHandles The maximum number of files to be merged at once.
+	 * @param startSpillingFraction The faction of the buffers that have to be filled before the spilling thread
+	 *                              actually begins spilling data to disk.
+	 * @param numSortThreads The number of threads with which each buffer is sorted.
+	 * @param numMergeReadBuffers The minimal number of read buffers of each run that is merged.
+	 * 
+	 * @throws IOException Thrown, if an error occurs initializing the resources for external sorting.
+	 * @throws MemoryAllocationException Thrown, if not enough memory can be obtained from the memory manager to
+	 *                                   perform the sort.
+	 */
+	public CombiningUnilateralSortMerger(GenericGroupReduce<E, ?> combineStub, MemoryManager memoryManager, IOManager ioManager,
+			MutableObjectIterator<E> input, AbstractInvokable parentTask, 
+			TypeSerializer<E> serializer, TypeComparator<E> comparator,
+			long totalMemory, int numSortBuffers, int maxNumFileHandles, 
+			float startSpillingFraction, int numSortThreads, int numMergeReadBuffers)
+	throws IOException, MemoryAllocationException
 	{
 		super(memoryManager, ioManager, input, parentTask, serializer, comparator,
-			totalMemory, numSortBuffers, maxNumFileHandles, startSpillingFraction, false);
+			totalMemory, numSortBuffers, maxNumFileHandles, startSpillingFraction, numSortThreads,
+			numMergeReadBuffers, false);
 		
 		this.combineStub = combineStub;
 	}
@@ -161,10 +199,12 @@ public class CombiningUnilateralSortMerger<E> extends UnilateralSortMerger<E> {
 	protected ThreadBase<E> getSpillingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 		AbstractInvokable parentTask, MemoryManager memoryManager, IOManager ioManager, 
 		TypeSerializer<E> serializer, TypeComparator<E> comparator,
-		List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxFileHandles)
+		List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxFileHandles,
+		int numMergeReadBuffers)
 	{
 		return new CombiningSpillingThread(exceptionHandler, queues, parentTask,
-			memoryManager, ioManager, serializer, comparator, sortReadMemory, writeMemory, maxFileHandles);
+			memoryManager, ioManager, serializer, comparator, sortReadMemory, writeMemory, maxFileHandles,
+			numMergeReadBuffers);
 	}
 
 	// ------------------------------------------------------------------------
@@ -178,10 +218,11 @@ public class CombiningUnilateralSortMerger<E> extends UnilateralSortMerger<E> {
 		public CombiningSpillingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 				AbstractInvokable parentTask, MemoryManager memManager, IOManager ioManager, 
 				TypeSerializer<E> serializer, TypeComparator<E> comparator, 
-				List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxNumFileHandles)
+				List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxNumFileHandles,
+				int numMergeReadBuffers)
 		{
 			super(exceptionHandler, queues, parentTask, memManager, ioManager, serializer, comparator, 
-				sortReadMemory, writeMemory, maxNumFileHandles);
+				sortReadMemory, writeMemory, maxNumFileHandles, numMergeReadBuffers);
 			
 			this.comparator2 = comparator.duplicate();
 		}
@@ -390,7 +431,7 @@ public class CombiningUnilateralSortMerger<E> extends UnilateralSortMerger<E> {
 			// ------------------- Merging Phase ------------------------
 
 			// merge channels until sufficient file handles are available
-			while (isRunning() && channelIDs.size() > this.maxNumFileHandles) {
+			while (isRunning() && channelIDs.size() > this.mergeFanIn) {
 				channelIDs = mergeChannelList(channelIDs, this.sortReadMemory, this.writeMemory);
 			}
 			
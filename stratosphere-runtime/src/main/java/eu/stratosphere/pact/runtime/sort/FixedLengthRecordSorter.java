@@ -29,7 +29,7 @@ import eu.stratosphere.util.MutableObjectIterator;
 /**
  * 
  */
-public final class FixedLengthRecordSorter<T> implements InMemorySorter<T> {
+public final class FixedLengthRecordSorter<T> implements InMemorySorter<T>, NormalizedKeySortable {
 	
 	private static final int MIN_REQUIRED_BUFFERS = 3;
 
@@ -286,6 +286,10 @@ public final class FixedLengthRecordSorter<T> implements InMemorySorter<T> {
 
 	@Override
 	public void swap(int i, int j) {
+		swap(i, j, this.swapBuffer);
+	}
+	
+	private final void swap(int i, int j, byte[] swapBuffer) {
 		final int bufferNumI = i / this.recordsPerSegment;
 		final int segmentOffsetI = (i % this.recordsPerSegment) * this.recordSize;
 		
@@ -295,13 +299,71 @@ public final class FixedLengthRecordSorter<T> implements InMemorySorter<T> {
 		final MemorySegment segI = this.sortBuffer.get(bufferNumI);
 		final MemorySegment segJ = this.sortBuffer.get(bufferNumJ);
 		
-		MemorySegment.swapBytes(segI, segJ, this.swapBuffer, segmentOffsetI, segmentOffsetJ, this.recordSize);
+		MemorySegment.swapBytes(segI, segJ, swapBuffer, segmentOffsetI, segmentOffsetJ, this.recordSize);
 	}
 
 	@Override
 	public int size() {
 		return this.numRecords;
 	}
+	
+	@Override
+	public List<MemorySegment> getEntrySegments() {
+		return this.sortBuffer;
+	}
+	
+	@Override
+	public int getEntrySize() {
+		return this.recordSize;
+	}
+	
+	@Override
+	public int getEntriesPerSegment() {
+		return this.recordsPerSegment;
+	}
+	
+	@Override
+	public int getNormalizedKeyOffset() {
+		return 0;
+	}
+	
+	@Override
+	public int getNormalizedKeyLength() {
+		return this.numKeyBytes;
+	}
+	
+	@Override
+	public boolean isNormalizedKeyInverted() {
+		return !this.useNormKeyUninverted;
+	}
+	
+	@Override
+	public boolean isNormalizedKeyFullyDetermining() {
+		// this sorter requires comparators that serialize the full key in normalized form
+		return true;
+	}
+	
+	@Override
+	public IndexedSortable createConcurrentSortingView() {
+		final byte[] swapBuffer = new byte[this.recordSize];
+		
+		return new IndexedSortable() {
+			@Override
+			public int compare(int i, int j) {
+				return FixedLengthRecordSorter.this.compare(i, j);
+			}
+			
+			@Override
+			public void swap(int i, int j) {
+				FixedLengthRecordSorter.this.swap(i, j, swapBuffer);
+			}
+			
+			@Override
+			public int size() {
+				return FixedLengthRecordSorter.this.numRecords;
+			}
+		};
+	}
 
 	// -------------------------------------------------------------------------
 	
@@ -77,6 +77,15 @@ public interface InMemorySorter<T> extends IndexedSortable {
 	 */
 	boolean write(T record) throws IOException;
 	
+	/**
+	 * Creates a view on the records in this buffer, through which they can be compared and swapped. The views of
+	 * this buffer may be used concurrently from different threads, as long as each view accesses a disjoint range
+	 * of logical positions and no records are written in the meantime.
+	 * 
+	 * @return A view to sort a range of this buffer's records concurrently with other views.
+	 */
+	IndexedSortable createConcurrentSortingView();
+	
 	/**
 	 * Gets an iterator over all records in this buffer in their logical order.
 	 * 
@@ -14,55 +14,93 @@
 package eu.stratosphere.pact.runtime.sort;
 
 import java.io.IOException;
-import java.util.Comparator;
 import java.util.List;
 
 import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.util.MutableObjectIterator;
 
 /**
  * An iterator that returns a sorted merge of the sequences of elements from a
  * set of iterators, assuming those sequences are ordered themselves.
- * The iterators to be merged are kept internally as a heap, making each access
- * to the next smallest element logarithmic in complexity, with respect to the
- * number of streams to be merged.
- * The order among the elements is established using the methods from the
- * {@link TypeSerializer} class, specifically {@link TypeSerializer#setReference(Object)}
- * and {@link TypeSerializer#compareToReference(TypeSerializer)}.
- * 
- * @see TypeSerializer
- * @see TypeSerializer#setReference(Object)
- * @see TypeSerializer#compareToReference(TypeSerializer)
+ * The iterators to be merged are kept internally in a tournament tree of losers,
+ * such that each access to the next smallest element replays only the matches on the
+ * path from the winner's leaf to the root, i.e. it takes at most ceil(log2(k)) comparisons
+ * for k streams to be merged.
+ * <p>
+ * If the comparator supports normalized keys, the iterator caches an eight byte prefix of the
+ * normalized key of every stream's head as a <tt>long</tt> and compares heads on the prefix first. The comparator's
+ * {@link TypeComparator#setReference(Object)} and {@link TypeComparator#compareToReference(TypeComparator)}
+ * methods are only used to break ties between prefixes that do not fully determine the order.
  * 
+ * @see TypeComparator
+ * @see TypeComparator#putNormalizedKey(Object, MemorySegment, int, int)
+ * @see TypeComparator#compareToReference(TypeComparator)
  */
 public class MergeIterator<E> implements MutableObjectIterator<E>
 {
-	private final PartialOrderPriorityQueue<HeadStream<E>> heap;	// heap over the head elements of the stream
+	/**
+	 * The maximal number of normalized key bytes that are cached per stream, such that a prefix fits into a long.
+	 */
+	private static final int MAX_NORMALIZED_KEY_LEN = 8;
+	
+	private final HeadStream<E>[] streams;		// the merged streams, indexed by their leaf position
+	
+	private final int[] tree;					// tree[0] is the winner, tree[1..k-1] are the losers of the matches
+	
+	private final long[] prefixes;				// the normalized key prefixes of the heads, comparable as signed longs
+	
+	private final boolean[] exhausted;			// flags marking the streams that have no more elements
+	
+	private final MemorySegment keyBuffer;		// the buffer into which the normalized keys are written
+	
+	private final int numKeyBytes;				// the length of a cached normalized key prefix, 0 if none are used
+	
+	private final boolean invertKeys;			// flag whether the normalized keys sort in descending order
+	
+	private final boolean keysFullyDetermine;	// flag whether the normalized keys alone establish the order
 	
 	private final TypeSerializer<E> serializer;
 	
 	/**
-	 * @param iterators
-	 * @param accessors The accessors used to establish an order among the elements.
-	 *                  The accessors will not be used directly, but a duplicate will be used.
-	 * @throws IOException
+	 * @param iterators The sorted iterators to be merged.
+	 * @param serializer The serializer used to create and copy the head elements.
+	 * @param comparator The comparator used to establish an order among the elements.
+	 *                   The comparator will not be used directly, but duplicates will be used.
+	 * @throws IOException Thrown, if the first element of one of the iterators could not be read.
 	 */
+	@SuppressWarnings("unchecked")
 	public MergeIterator(List<MutableObjectIterator<E>> iterators,
 			TypeSerializer<E> serializer, TypeComparator<E> comparator)
 	throws IOException
 	{
-		this.heap = new PartialOrderPriorityQueue<HeadStream<E>>(new HeadStreamComparator<E>(), iterators.size());
 		this.serializer = serializer;
 		
-		for (MutableObjectIterator<E> iterator : iterators) {
-			this.heap.add(new HeadStream<E>(iterator, serializer, comparator.duplicate()));
+		if (comparator.supportsNormalizedKey()) {
+			this.numKeyBytes = Math.max(0, Math.min(comparator.getNormalizeKeyLen(), MAX_NORMALIZED_KEY_LEN));
+		} else {
+			this.numKeyBytes = 0;
+		}
+		this.invertKeys = this.numKeyBytes > 0 && comparator.invertNormalizedKey();
+		this.keysFullyDetermine = this.numKeyBytes > 0 && !comparator.isNormalizedKeyPrefixOnly(this.numKeyBytes);
+		
+		final int num = iterators.size();
+		this.keyBuffer = new MemorySegment(new byte[MAX_NORMALIZED_KEY_LEN]);
+		this.prefixes = new long[num];
+		this.exhausted = new boolean[num];
+		this.streams = new HeadStream[num];
+		for (int i = 0; i < num; i++) {
+			this.streams[i] = new HeadStream<E>(iterators.get(i), serializer, comparator.duplicate());
 		}
+		
+		this.tree = new int[Math.max(1, num)];
+		this.tree[0] = num == 0 ? -1 : initTree(1);
 	}
 
 	/**
 	 * Gets the next smallest element, with respect to the definition of order implied by
-	 * the {@link TypeSerializer} provided to this iterator.
+	 * the {@link TypeComparator} provided to this iterator.
 	 * 
 	 * @param target The object into which the result is put. The contents of the target object
 	 *               is only valid after this method, if the method returned true. Otherwise
@@ -74,21 +112,102 @@ public class MergeIterator<E> implements MutableObjectIterator<E>
 	@Override
 	public boolean next(E target) throws IOException
 	{
-		if (this.heap.size() > 0) {
-			// get the smallest element
-			final HeadStream<E> top = this.heap.peek();
-			this.serializer.copyTo(top.getHead(), target);
-			
-			// read an element
-			if (!top.nextHead()) {
-				this.heap.poll();
-			} else {
-				this.heap.adjustTop();
+		final int winner = this.tree[0];
+		if (winner < 0) {
+			return false;
+		}
+		
+		if (this.exhausted[winner]) {
+			return false;
+		}
+		
+		// return the smallest element and replay the matches of its stream's new head
+		this.serializer.copyTo(this.streams[winner].head, target);
+		nextHead(winner);
+		
+		final int[] tree = this.tree;
+		int current = winner;
+		for (int node = (winner + this.streams.length) >>> 1; node > 0; node >>>= 1) {
+			final int other = tree[node];
+			if (less(other, current)) {
+				tree[node] = current;
+				current = other;
 			}
-			return true;
 		}
-		else {
+		tree[0] = current;
+		return true;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Plays the matches in the subtree below the given node, records the losers and returns the winner.
+	 * The streams are the leaves of the tree, stream <i>i</i> being at the virtual node <i>k + i</i>.
+	 */
+	private int initTree(int node) throws IOException
+	{
+		final int num = this.streams.length;
+		if (node >= num) {
+			final int stream = node - num;
+			nextHead(stream);
+			return stream;
+		}
+		
+		final int left = initTree(node << 1);
+		final int right = initTree((node << 1) + 1);
+		if (less(right, left)) {
+			this.tree[node] = left;
+			return right;
+		} else {
+			this.tree[node] = right;
+			return left;
+		}
+	}
+	
+	/**
+	 * Checks whether the head of the first stream is smaller than the head of the second stream.
+	 * Exhausted streams are larger than any other stream.
+	 */
+	private boolean less(int first, int second)
+	{
+		if (this.exhausted[first]) {
 			return false;
+		} else if (this.exhausted[second]) {
+			return true;
+		}
+		
+		if (this.numKeyBytes > 0) {
+			final long p1 = this.prefixes[first];
+			final long p2 = this.prefixes[second];
+			if (p1 != p2) {
+				return p1 < p2;
+			}
+			if (this.keysFullyDetermine) {
+				return false;
+			}
+		}
+		return this.streams[second].comparator.compareToReference(this.streams[first].comparator) < 0;
+	}
+	
+	/**
+	 * Advances the given stream to its next element and caches the element's key.
+	 */
+	private void nextHead(int index) throws IOException
+	{
+		final HeadStream<E> stream = this.streams[index];
+		if (stream.iterator.next(stream.head)) {
+			if (this.numKeyBytes > 0) {
+				// the bytes behind a shorter key stay zero. flipping the sign bit makes the
+				// unsigned byte-wise order of the key the signed order of the long
+				stream.comparator.putNormalizedKey(stream.head, this.keyBuffer, 0, this.numKeyBytes);
+				final long prefix = this.keyBuffer.getLongBigEndian(0);
+				this.prefixes[index] = (this.invertKeys ? ~prefix : prefix) ^ Long.MIN_VALUE;
+			}
+			if (!this.keysFullyDetermine) {
+				stream.comparator.setReference(stream.head);
+			}
+		} else {
+			this.exhausted[index] = true;
 		}
 	}
 
@@ -105,40 +224,10 @@ public class MergeIterator<E> implements MutableObjectIterator<E>
 		private final E head;
 
 		public HeadStream(MutableObjectIterator<E> iterator, TypeSerializer<E> serializer, TypeComparator<E> comparator)
-		throws IOException
 		{
 			this.iterator = iterator;
 			this.comparator = comparator;
 			this.head = serializer.createInstance();
-			
-			if (!nextHead())
-				throw new IllegalStateException();
-		}
-
-		public E getHead() {
-			return this.head;
-		}
-
-		public boolean nextHead() throws IOException
-		{
-			if (this.iterator.next(this.head)) {
-				this.comparator.setReference(this.head);
-				return true;
-			}
-			else {
-				return false;
-			}
-		}
-	}
-
-	// --------------------------------------------------------------------------------------------
-	
-	private static final class HeadStreamComparator<E> implements Comparator<HeadStream<E>>
-	{		
-		@Override
-		public int compare(HeadStream<E> o1, HeadStream<E> o2)
-		{
-			return o2.comparator.compareToReference(o1.comparator);
 		}
 	}
 }
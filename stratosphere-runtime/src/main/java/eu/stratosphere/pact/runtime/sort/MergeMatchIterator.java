@@ -13,7 +13,9 @@
 
 package eu.stratosphere.pact.runtime.sort;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -24,13 +26,17 @@ import eu.stratosphere.api.common.functions.GenericJoiner;
 import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypePairComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.DataInputView;
+import eu.stratosphere.core.memory.DataOutputView;
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.AbstractPagedOutputView;
+import eu.stratosphere.nephele.services.memorymanager.ListMemorySegmentSource;
 import eu.stratosphere.nephele.services.memorymanager.MemoryAllocationException;
 import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
 import eu.stratosphere.nephele.template.AbstractInvokable;
-import eu.stratosphere.pact.runtime.resettable.BlockResettableIterator;
-import eu.stratosphere.pact.runtime.resettable.SpillingResettableIterator;
+import eu.stratosphere.pact.runtime.io.RandomAccessInputView;
+import eu.stratosphere.pact.runtime.io.SpillingBuffer;
 import eu.stratosphere.pact.runtime.task.util.JoinTaskIterator;
 import eu.stratosphere.pact.runtime.util.KeyGroupedIterator;
 import eu.stratosphere.util.Collector;
@@ -62,13 +68,21 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 	
 	private final T1 copy1;
 	
-	private final T1 spillHeadCopy;
+	private final T1 read1;
+	
+	private final T1 pending1;
 	
 	private final T2 copy2;
 	
-	private final T2 blockHeadCopy;
+	private final T2 read2;
+	
+	private final T2 pending2;
+	
+	private final KeyGroupBuffer<T1> groupBuffer1;					// for N:M cross products with same key
 	
-	private final BlockResettableIterator<T2> blockIt;				// for N:M cross products with same key
+	private final KeyGroupBuffer<T2> groupBuffer2;					// for N:M cross products with same key
+	
+	private final ArrayList<MemorySegment> memoryForGroups;
 	
 	private final List<MemorySegment> memoryForSpillingIterator;
 	
@@ -76,6 +90,16 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 
 	private final IOManager ioManager;
 	
+	private long numGroupsCrossed;
+	
+	private long numGroupsSpilled;
+	
+	private long largestGroupSize;
+	
+	private long numCrossedGroupRecords;
+	
+	private long numRecordsReread;
+	
 	// --------------------------------------------------------------------------------------------
 	
 	public MergeMatchIterator(MutableObjectIterator<T1> input1, MutableObjectIterator<T2> input2,
@@ -93,9 +117,11 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 		this.serializer2 = serializer2;
 		
 		this.copy1 = serializer1.createInstance();
-		this.spillHeadCopy = serializer1.createInstance();
+		this.read1 = serializer1.createInstance();
+		this.pending1 = serializer1.createInstance();
 		this.copy2 = serializer2.createInstance();
-		this.blockHeadCopy = serializer2.createInstance();
+		this.read2 = serializer2.createInstance();
+		this.pending2 = serializer2.createInstance();
 		
 		this.memoryManager = memoryManager;
 		this.ioManager = ioManager;
@@ -103,10 +129,15 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 		this.iterator1 = new KeyGroupedIterator<T1>(input1, this.serializer1, comparator1.duplicate());
 		this.iterator2 = new KeyGroupedIterator<T2>(input2, this.serializer2, comparator2.duplicate());
 		
+		// the pages for the groups are shared by both inputs, the pages for the spiller are only used when
+		// neither group of a key fits into memory
 		final int numPagesForSpiller = numMemoryPages > 20 ? 2 : 1;
-		this.blockIt = new BlockResettableIterator<T2>(this.memoryManager, this.serializer2,
-			(numMemoryPages - numPagesForSpiller), parentTask);
+		this.memoryForGroups = new ArrayList<MemorySegment>(numMemoryPages - numPagesForSpiller);
+		memoryManager.allocatePages(parentTask, this.memoryForGroups, numMemoryPages - numPagesForSpiller);
 		this.memoryForSpillingIterator = memoryManager.allocatePages(parentTask, numPagesForSpiller);
+		
+		this.groupBuffer1 = new KeyGroupBuffer<T1>(serializer1, this.memoryForGroups, memoryManager.getPageSize());
+		this.groupBuffer2 = new KeyGroupBuffer<T2>(serializer2, this.memoryForGroups, memoryManager.getPageSize());
 	}
 
 
@@ -116,15 +147,15 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 
 	@Override
 	public void close() {
-		if (this.blockIt != null) {
-			try {
-				this.blockIt.close();
-			}
-			catch (Throwable t) {
-				LOG.error("Error closing block memory iterator: " + t.getMessage(), t);
-			}
+		if (LOG.isDebugEnabled() && this.numGroupsCrossed > 0) {
+			LOG.debug("Merge join crossed " + this.numGroupsCrossed + " key groups with " + this.numCrossedGroupRecords +
+				" records, the largest group had " + this.largestGroupSize + " records. " + this.numGroupsSpilled +
+				" groups were spilled, " + this.numRecordsReread + " spilled records were read again.");
 		}
 		
+		this.groupBuffer1.releaseMemory();
+		this.groupBuffer2.releaseMemory();
+		this.memoryManager.release(this.memoryForGroups);
 		this.memoryManager.release(this.memoryForSpillingIterator);
 	}
 	
@@ -200,7 +231,6 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 		if (v1HasNext) {
 			if (v2HasNext) {
 				// both sides contain more than one value
-				// TODO: Decide which side to spill and which to block!
 				crossMwithNValues(firstV1, values1, firstV2, values2, matchFunction, collector);
 			} else {
 				crossSecond1withNValues(firstV2, firstV1, values1, matchFunction, collector);
@@ -283,141 +313,416 @@ public class MergeMatchIterator<T1, T2, O> implements JoinTaskIterator<T1, T2, O
 	}
 	
 	/**
-	 * @param firstV1
-	 * @param spillVals
-	 * @param firstV2
-	 * @param blockVals
+	 * Crosses the values of two key groups that both contain more than one value. Effectively realizes a
+	 * <i>M:N</i> match (join).
+	 * <p>
+	 * The values of both groups are read alternately into memory, until one group is complete or the memory
+	 * is full. A group that is complete first is the smaller one. It stays in memory and the other group is
+	 * streamed against it, such that no data is written to disk. Only if neither group fits into memory,
+	 * the group that took less memory so far is spilled. The other group is then read in blocks that fill the
+	 * memory, and the spilled group is re-read sequentially once per block.
+	 * 
+	 * @param firstV1 The first value from the first group.
+	 * @param values1 Iterator over the remaining values of the first group.
+	 * @param firstV2 The first value from the second group.
+	 * @param values2 Iterator over the remaining values of the second group.
+	 * 
+	 * @throws Exception Forwards all exceptions thrown by the stub and the I/O system.
 	 */
-	private void crossMwithNValues(final T1 firstV1, Iterator<T1> spillVals,
-			final T2 firstV2, final Iterator<T2> blockVals,
+	private void crossMwithNValues(final T1 firstV1, final Iterator<T1> values1,
+			final T2 firstV2, final Iterator<T2> values2,
 			final GenericJoiner<T1, T2, O> matchFunction, final Collector<O> collector)
 	throws Exception
 	{
-		// ==================================================
-		// We have one first (head) element from both inputs (firstV1 and firstV2)
-		// We have an iterator for both inputs.
-		// we make the V1 side the spilling side and the V2 side the blocking side.
-		// In order to get the full cross product without unnecessary spilling, we do the
-		// following:
-		// 1) cross the heads
-		// 2) cross the head of the spilling side against the first block of the blocking side
-		// 3) cross the iterator of the spilling side with the head of the block side
-		// 4) cross the iterator of the spilling side with the first block
-		// ---------------------------------------------------
-		// If the blocking side has more than one block, we really need to make the spilling side fully
-		// resettable. For each further block on the block side, we do:
-		// 5) cross the head of the spilling side with the next block
-		// 6) cross the spilling iterator with the next block.
-		
-		// match the first values first
-		this.serializer1.copyTo(firstV1, this.copy1);
-		this.serializer2.copyTo(firstV2, this.blockHeadCopy);
-		
-		// --------------- 1) Cross the heads -------------------
-		matchFunction.join(this.copy1, firstV2, collector);
-		
-		// for the remaining values, we do a block-nested-loops join
-		SpillingResettableIterator<T1> spillIt = null;
+		final KeyGroupBuffer<T1> buffer1 = this.groupBuffer1;
+		final KeyGroupBuffer<T2> buffer2 = this.groupBuffer2;
+		
+		this.numGroupsCrossed++;
 		
 		try {
-			// create block iterator on the second input
-			this.blockIt.reopen(blockVals);
-			
-			// ------------- 2) cross the head of the spilling side with the first block ------------------
-			while (this.blockIt.hasNext()) {
-				final T2 nextBlockRec = this.blockIt.next();
-				this.serializer1.copyTo(firstV1, this.copy1);
-				matchFunction.join(this.copy1, nextBlockRec, collector);
+			// read both groups alternately into memory, until one is complete or the memory is full. once one
+			// buffer gets no more memory, the other one keeps filling the space left in its current page
+			T1 next1 = firstV1;
+			T2 next2 = firstV2;
+			boolean full1 = false;
+			boolean full2 = false;
+			while (next1 != null && next2 != null && !(full1 && full2)) {
+				if (!full1) {
+					if (buffer1.add(next1)) {
+						next1 = values1.hasNext() ? values1.next() : null;
+					} else {
+						full1 = true;
+					}
+				}
+
+				if (!full2 && next1 != null) {
+					if (buffer2.add(next2)) {
+						next2 = values2.hasNext() ? values2.next() : null;
+					} else {
+						full2 = true;
+					}
+				}
 			}
-			this.blockIt.reset();
 			
-			// spilling is required if the blocked input has data beyond the current block.
-			// in that case, create the spilling iterator
-			final Iterator<T1> leftSideIter;
-			final boolean spillingRequired = this.blockIt.hasFurtherInput();
-			if (spillingRequired)
-			{
-				// more data than would fit into one block. we need to wrap the other side in a spilling iterator
-				// create spilling iterator on first input
-				spillIt = new SpillingResettableIterator<T1>(spillVals, this.serializer1,
-						this.memoryManager, this.ioManager, this.memoryForSpillingIterator);
-				leftSideIter = spillIt;
-				spillIt.open();
-				
-				this.serializer1.copyTo(firstV1, this.spillHeadCopy);
+			if (next1 == null) {
+				// the first group is complete in memory, stream the second group against it
+				crossBufferWithValues(buffer1, this.read1, buffer2, next2, values2, this.serializer2,
+					this.read2, this.copy2, true, matchFunction, collector);
+			}
+			else if (next2 == null) {
+				// the second group is complete in memory, stream the first group against it
+				crossBufferWithValues(buffer2, this.read2, buffer1, next1, values1, this.serializer1,
+					this.read1, this.copy1, false, matchFunction, collector);
 			}
 			else {
-				leftSideIter = spillVals;
+				// neither group fits into memory. keep the pending values, because the iterators reuse their objects
+				this.serializer1.copyTo(next1, this.pending1);
+				this.serializer2.copyTo(next2, this.pending2);
+				
+				this.numGroupsSpilled++;
+				if (buffer1.getNumBytes() <= buffer2.getNumBytes()) {
+					crossSpilledWithBlocks(buffer1, this.pending1, values1, this.serializer1, this.read1, this.copy1,
+						buffer2, this.pending2, values2, this.read2, true, matchFunction, collector);
+				} else {
+					crossSpilledWithBlocks(buffer2, this.pending2, values2, this.serializer2, this.read2, this.copy2,
+						buffer1, this.pending1, values1, this.read1, false, matchFunction, collector);
+				}
+			}
+		}
+		finally {
+			buffer1.releaseMemory();
+			buffer2.releaseMemory();
+		}
+	}
+	
+	/**
+	 * Crosses a group that is completely buffered in memory with the values of the other group. The other
+	 * group's values are its buffered prefix, followed by its pending value and the remaining values.
+	 * 
+	 * @param buffer The buffer holding the complete group.
+	 * @param bufferRead The instance to read the complete group's values into.
+	 * @param prefix The buffer holding the first values of the other group.
+	 * @param next The pending value of the other group, or null, if the other group has no further values.
+	 * @param rest Iterator over the remaining values of the other group.
+	 * @param serializer The serializer for the other group's values.
+	 * @param read The instance to read the other group's buffered values into.
+	 * @param copy The instance to copy the other group's values into for each call to the stub.
+	 * @param bufferIsFirst True, if the complete group comes from the first input, false otherwise.
+	 * 
+	 * @throws Exception Forwards all exceptions thrown by the stub and the I/O system.
+	 */
+	private <B, S> void crossBufferWithValues(KeyGroupBuffer<B> buffer, B bufferRead,
+			KeyGroupBuffer<S> prefix, S next, Iterator<S> rest, TypeSerializer<S> serializer, S read, S copy,
+			boolean bufferIsFirst, GenericJoiner<T1, T2, O> matchFunction, Collector<O> collector)
+	throws Exception
+	{
+		long numStreamed = 0;
+		
+		prefix.rewind();
+		while (prefix.next(read)) {
+			crossBufferWithValue(buffer, bufferRead, read, serializer, copy, bufferIsFirst, matchFunction, collector);
+			numStreamed++;
+		}
+		
+		if (next != null) {
+			crossBufferWithValue(buffer, bufferRead, next, serializer, copy, bufferIsFirst, matchFunction, collector);
+			numStreamed++;
+			
+			while (rest.hasNext()) {
+				crossBufferWithValue(buffer, bufferRead, rest.next(), serializer, copy, bufferIsFirst, matchFunction, collector);
+				numStreamed++;
 			}
+		}
+		
+		recordGroupSize(buffer.getNumRecords());
+		recordGroupSize(numStreamed);
+	}
+	
+	private <B, S> void crossBufferWithValue(KeyGroupBuffer<B> buffer, B bufferRead, S value,
+			TypeSerializer<S> serializer, S copy, boolean bufferIsFirst,
+			GenericJoiner<T1, T2, O> matchFunction, Collector<O> collector)
+	throws Exception
+	{
+		buffer.rewind();
+		while (buffer.next(bufferRead)) {
+			serializer.copyTo(value, copy);
+			join(bufferRead, copy, bufferIsFirst, matchFunction, collector);
+		}
+	}
+	
+	/**
+	 * Crosses two groups that do not fit into memory together. The first of the two groups is spilled, the
+	 * second one is read in blocks that fill the memory. Each block is crossed with one sequential pass over
+	 * the spilled group.
+	 * 
+	 * @param spillBuffer The buffer holding the first values of the group to spill.
+	 * @param spillNext The pending value of the group to spill.
+	 * @param spillRest Iterator over the remaining values of the group to spill.
+	 * @param spillSerializer The serializer for the values of the group to spill.
+	 * @param spillRead The instance to read the spilled values into.
+	 * @param spillCopy The instance to copy the spilled values into for each call to the stub.
+	 * @param blockBuffer The buffer holding the first values of the group that is read in blocks.
+	 * @param blockNext The pending value of the group that is read in blocks.
+	 * @param blockRest Iterator over the remaining values of the group that is read in blocks.
+	 * @param blockRead The instance to read the blocked values into.
+	 * @param spilledIsFirst True, if the spilled group comes from the first input, false otherwise.
+	 * 
+	 * @throws Exception Forwards all exceptions thrown by the stub and the I/O system.
+	 */
+	private <S, B> void crossSpilledWithBlocks(KeyGroupBuffer<S> spillBuffer, S spillNext, Iterator<S> spillRest,
+			TypeSerializer<S> spillSerializer, S spillRead, S spillCopy,
+			KeyGroupBuffer<B> blockBuffer, B blockNext, Iterator<B> blockRest, B blockRead,
+			boolean spilledIsFirst, GenericJoiner<T1, T2, O> matchFunction, Collector<O> collector)
+	throws Exception
+	{
+		final SpillingBuffer spilled = new SpillingBuffer(this.ioManager,
+			new ListMemorySegmentSource(this.memoryForSpillingIterator), this.memoryManager.getPageSize());
+		
+		try {
+			// spill the group, starting with its buffered values. their memory then goes to the blocks
+			long numSpilled = spillBuffer.getNumRecords();
+			spillBuffer.copyAll(spilled);
+			spillBuffer.releaseMemory();
 			
-			// cross the values in the v1 iterator against the current block
+			spillSerializer.serialize(spillNext, spilled);
+			numSpilled++;
+			while (spillRest.hasNext()) {
+				spillSerializer.serialize(spillRest.next(), spilled);
+				numSpilled++;
+			}
 			
-			while (leftSideIter.hasNext()) {
-				final T1 nextSpillVal = leftSideIter.next();
-				this.serializer1.copyTo(nextSpillVal, this.copy1);
-				
-				
-				// -------- 3) cross the iterator of the spilling side with the head of the block side --------
-				this.serializer2.copyTo(this.blockHeadCopy, this.copy2);
-				matchFunction.join(this.copy1, this.copy2, collector);
+			long numBlocked = blockBuffer.getNumRecords();
+			B next = blockNext;
+			boolean firstBlock = true;
+			
+			while (true) {
+				// fill the block. the pending value stays valid, as the iterator is not touched until the next block
+				while (next != null && blockBuffer.add(next)) {
+					numBlocked++;
+					next = blockRest.hasNext() ? blockRest.next() : null;
+				}
+				if (next != null && blockBuffer.getNumRecords() == 0) {
+					throw new IOException("MergeMatchIterator could not serialize record into fresh memory block: " +
+						"Record is too large.");
+				}
 				
-				// -------- 4) cross the iterator of the spilling side with the first block --------
-				while (this.blockIt.hasNext()) {
-					T2 nextBlockRec = this.blockIt.next();
+				// cross the block with one sequential pass over the spilled group
+				final DataInputView spilledView = spilled.flip();
+				if (!firstBlock) {
+					this.numRecordsReread += numSpilled;
+				}
+				for (long i = 0; i < numSpilled; i++) {
+					spillSerializer.deserialize(spillRead, spilledView);
 					
-					// get instances of key and block value
-					this.serializer1.copyTo(nextSpillVal, this.copy1);
-					matchFunction.join(this.copy1, nextBlockRec, collector);
+					blockBuffer.rewind();
+					while (blockBuffer.next(blockRead)) {
+						spillSerializer.copyTo(spillRead, spillCopy);
+						join(spillCopy, blockRead, spilledIsFirst, matchFunction, collector);
+					}
 				}
-				// reset block iterator
-				this.blockIt.reset();
+				
+				if (next == null) {
+					break;
+				}
+				blockBuffer.releaseMemory();
+				firstBlock = false;
 			}
 			
-			// if everything from the block-side fit into a single block, we are done.
-			// note that in this special case, we did not create a spilling iterator at all
-			if (!spillingRequired) {
-				return;
+			recordGroupSize(numSpilled);
+			recordGroupSize(numBlocked);
+		}
+		finally {
+			this.memoryForSpillingIterator.addAll(spilled.close());
+		}
+	}
+	
+	/**
+	 * Calls the stub with the two given values, in the order of the inputs they come from.
+	 */
+	@SuppressWarnings("unchecked")
+	private void join(Object value, Object otherValue, boolean valueIsFirst,
+			GenericJoiner<T1, T2, O> matchFunction, Collector<O> collector)
+	throws Exception
+	{
+		if (valueIsFirst) {
+			matchFunction.join((T1) value, (T2) otherValue, collector);
+		} else {
+			matchFunction.join((T1) otherValue, (T2) value, collector);
+		}
+	}
+	
+	private void recordGroupSize(long numRecords) {
+		this.numCrossedGroupRecords += numRecords;
+		if (numRecords > this.largestGroupSize) {
+			this.largestGroupSize = numRecords;
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Gets the number of keys for which both inputs had more than one value.
+	 * 
+	 * @return The number of keys whose groups were crossed <i>M:N</i>.
+	 */
+	public long getNumGroupsCrossed() {
+		return this.numGroupsCrossed;
+	}
+	
+	/**
+	 * Gets the number of keys for which both inputs had more than one value and neither group fit into memory.
+	 * 
+	 * @return The number of keys for which one group was spilled.
+	 */
+	public long getNumGroupsSpilled() {
+		return this.numGroupsSpilled;
+	}
+	
+	/**
+	 * Gets the number of values of the largest group that was crossed <i>M:N</i>.
+	 * 
+	 * @return The number of values in the largest crossed group.
+	 */
+	public long getLargestGroupSize() {
+		return this.largestGroupSize;
+	}
+	
+	/**
+	 * Gets the total number of values of both inputs in the groups that were crossed <i>M:N</i>.
+	 * 
+	 * @return The number of values in crossed groups.
+	 */
+	public long getNumCrossedGroupRecords() {
+		return this.numCrossedGroupRecords;
+	}
+	
+	/**
+	 * Gets the number of values that were read again from spilled groups, after their first pass.
+	 * 
+	 * @return The number of re-read values.
+	 */
+	public long getNumRecordsReread() {
+		return this.numRecordsReread;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * A buffer for the values of one key group. It serializes the values into memory pages that it takes from
+	 * a pool shared with the buffer of the other input, and returns the pages to the pool when it is released.
+	 */
+	private static final class KeyGroupBuffer<T> extends AbstractPagedOutputView {
+		
+		private final TypeSerializer<T> serializer;
+		
+		private final ArrayList<MemorySegment> freeMemory;
+		
+		private final ArrayList<MemorySegment> segments;
+		
+		private RandomAccessInputView readView;
+		
+		private int numRecords;
+		
+		private int numRecordsRead;
+		
+		
+		KeyGroupBuffer(TypeSerializer<T> serializer, ArrayList<MemorySegment> freeMemory, int segmentSize) {
+			super(segmentSize, 0);
+			this.serializer = serializer;
+			this.freeMemory = freeMemory;
+			this.segments = new ArrayList<MemorySegment>();
+		}
+		
+		/**
+		 * Adds a value to the buffer.
+		 * 
+		 * @param record The value to add.
+		 * @return True, if the value was added, false, if the pool has no more memory for it.
+		 * @throws IOException Thrown, if the value could not be serialized.
+		 */
+		boolean add(T record) throws IOException {
+			if (getCurrentSegment() == null) {
+				if (this.freeMemory.isEmpty()) {
+					return false;
+				}
+				seekOutput(takeSegment(), 0);
 			}
 			
-			// here we are, because we have more blocks on the block side
-			// loop as long as there are blocks from the blocked input
-			while (this.blockIt.nextBlock())
-			{
-				// rewind the spilling iterator
-				spillIt.reset();
-				
-				// ------------- 5) cross the head of the spilling side with the next block ------------
-				while (this.blockIt.hasNext()) {
-					this.serializer1.copyTo(this.spillHeadCopy, this.copy1);
-					final T2 nextBlockVal = blockIt.next();
-					matchFunction.join(this.copy1, nextBlockVal, collector);
+			final int numSegments = this.segments.size();
+			final MemorySegment segment = getCurrentSegment();
+			final int position = getCurrentPositionInSegment();
+			try {
+				this.serializer.serialize(record, this);
+				this.numRecords++;
+				return true;
+			}
+			catch (EOFException eofex) {
+				// roll back the partially written value, such that the buffer can continue with more memory
+				while (this.segments.size() > numSegments) {
+					this.freeMemory.add(this.segments.remove(this.segments.size() - 1));
 				}
-				this.blockIt.reset();
-				
-				// -------- 6) cross the spilling iterator with the next block. ------------------
-				while (spillIt.hasNext())
-				{
-					// get value from resettable iterator
-					final T1 nextSpillVal = spillIt.next();
-					// cross value with block values
-					while (this.blockIt.hasNext()) {
-						// get instances of key and block value
-						final T2 nextBlockVal = this.blockIt.next();
-						this.serializer1.copyTo(nextSpillVal, this.copy1);
-						matchFunction.join(this.copy1, nextBlockVal, collector);	
-					}
-					
-					// reset block iterator
-					this.blockIt.reset();
+				seekOutput(segment, position);
+				return false;
+			}
+		}
+		
+		void rewind() {
+			if (this.numRecords > 0) {
+				if (this.readView == null) {
+					this.readView = new RandomAccessInputView(this.segments, this.segmentSize);
 				}
-				// reset v1 iterator
-				spillIt.reset();
+				this.readView.setReadPosition(0);
 			}
+			this.numRecordsRead = 0;
 		}
-		finally {
-			if (spillIt != null) {
-				this.memoryForSpillingIterator.addAll(spillIt.close());
+		
+		boolean next(T target) throws IOException {
+			if (this.numRecordsRead < this.numRecords) {
+				this.serializer.deserialize(target, this.readView);
+				this.numRecordsRead++;
+				return true;
+			} else {
+				return false;
+			}
+		}
+		
+		void copyAll(DataOutputView target) throws IOException {
+			rewind();
+			for (int i = 0; i < this.numRecords; i++) {
+				this.serializer.copy(this.readView, target);
 			}
 		}
+		
+		int getNumRecords() {
+			return this.numRecords;
+		}
+		
+		long getNumBytes() {
+			return this.segments.isEmpty() ? 0 :
+				((long) (this.segments.size() - 1)) * this.segmentSize + getCurrentPositionInSegment();
+		}
+		
+		void releaseMemory() {
+			for (int i = this.segments.size() - 1; i >= 0; i--) {
+				this.freeMemory.add(this.segments.remove(i));
+			}
+			clear();
+			this.numRecords = 0;
+			this.numRecordsRead = 0;
+		}
+		
+		@Override
+		protected MemorySegment nextSegment(MemorySegment current, int positionInCurrent) throws EOFException {
+			if (this.freeMemory.isEmpty()) {
+				throw new EOFException();
+			}
+			return takeSegment();
+		}
+		
+		private MemorySegment takeSegment() {
+			final MemorySegment segment = this.freeMemory.remove(this.freeMemory.size() - 1);
+			this.segments.add(segment);
+			return segment;
+		}
 	}
 }
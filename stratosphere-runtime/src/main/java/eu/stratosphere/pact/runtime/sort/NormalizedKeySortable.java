@@ -0,0 +1,78 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.util.List;
+
+import eu.stratosphere.core.memory.MemorySegment;
+
+/**
+ * A sortable whose entries have a fixed length and are stored in memory segments, each entry holding the normalized
+ * key of its record at a fixed offset. Such a sortable can be sorted directly on the bytes of the normalized keys,
+ * see {@link RadixSort}.
+ */
+public interface NormalizedKeySortable extends IndexedSortable {
+	
+	/**
+	 * Gets the memory segments holding the entries. The entry at logical position <code>i</code> is stored in
+	 * segment <code>i / getEntriesPerSegment()</code> at offset
+	 * <code>(i % getEntriesPerSegment()) * getEntrySize()</code>.
+	 * 
+	 * @return The memory segments holding the entries.
+	 */
+	List<MemorySegment> getEntrySegments();
+	
+	/**
+	 * Gets the size of an entry, in bytes.
+	 * 
+	 * @return The size of an entry.
+	 */
+	int getEntrySize();
+	
+	/**
+	 * Gets the number of entries stored in each memory segment.
+	 * 
+	 * @return The number of entries per memory segment.
+	 */
+	int getEntriesPerSegment();
+	
+	/**
+	 * Gets the offset of the normalized key within an entry.
+	 * 
+	 * @return The offset of the normalized key.
+	 */
+	int getNormalizedKeyOffset();
+	
+	/**
+	 * Gets the length of the normalized keys, in bytes.
+	 * 
+	 * @return The length of the normalized keys.
+	 */
+	int getNormalizedKeyLength();
+	
+	/**
+	 * Checks whether the order of the entries is the inverse of the byte order of their normalized keys.
+	 * 
+	 * @return True, if the entries sort in descending byte order of their normalized keys, false otherwise.
+	 */
+	boolean isNormalizedKeyInverted();
+	
+	/**
+	 * Checks whether the normalized keys fully determine the order of the entries. If not, entries with equal
+	 * normalized keys must be compared on their records.
+	 * 
+	 * @return True, if the normalized keys fully determine the order, false if they are only a prefix.
+	 */
+	boolean isNormalizedKeyFullyDetermining();
+}
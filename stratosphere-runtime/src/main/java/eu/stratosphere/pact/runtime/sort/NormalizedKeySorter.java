@@ -30,7 +30,7 @@ import eu.stratosphere.util.MutableObjectIterator;
 /**
  * 
  */
-public final class NormalizedKeySorter<T> implements InMemorySorter<T>
+public final class NormalizedKeySorter<T> implements InMemorySorter<T>, NormalizedKeySortable
 {
 	private static final int OFFSET_LEN = 8;
 	
@@ -301,11 +301,17 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 	}
 	
 	private final int compareRecords(long pointer1, long pointer2) {
-		this.recordBuffer.setReadPosition(pointer1);
-		this.recordBufferForComparison.setReadPosition(pointer2);
+		return compareRecords(pointer1, pointer2, this.comparator, this.recordBuffer, this.recordBufferForComparison);
+	}
+	
+	private static final int compareRecords(long pointer1, long pointer2, TypeComparator<?> comparator,
+			RandomAccessInputView buffer1, RandomAccessInputView buffer2)
+	{
+		buffer1.setReadPosition(pointer1);
+		buffer2.setReadPosition(pointer2);
 		
 		try {
-			return this.comparator.compare(this.recordBuffer, this.recordBufferForComparison);
+			return comparator.compare(buffer1, buffer2);
 		} catch (IOException ioex) {
 			throw new RuntimeException("Error comparing two records.", ioex);
 		}
@@ -328,6 +334,12 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 	 */
 	@Override
 	public int compare(int i, int j) {
+		return compare(i, j, this.comparator, this.recordBuffer, this.recordBufferForComparison);
+	}
+	
+	private final int compare(int i, int j, TypeComparator<?> comparator, RandomAccessInputView buffer1,
+			RandomAccessInputView buffer2)
+	{
 		final int bufferNumI = i / this.indexEntriesPerSegment;
 		final int segmentOffsetI = (i % this.indexEntriesPerSegment) * this.indexEntrySize;
 		
@@ -346,11 +358,15 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 		final long pointerI = segI.getLong(segmentOffsetI);
 		final long pointerJ = segJ.getLong(segmentOffsetJ);
 		
-		return compareRecords(pointerI, pointerJ);
+		return compareRecords(pointerI, pointerJ, comparator, buffer1, buffer2);
 	}
 
 	@Override
 	public void swap(int i, int j) {
+		swap(i, j, this.swapBuffer);
+	}
+	
+	private final void swap(int i, int j, byte[] swapBuffer) {
 		final int bufferNumI = i / this.indexEntriesPerSegment;
 		final int segmentOffsetI = (i % this.indexEntriesPerSegment) * this.indexEntrySize;
 		
@@ -360,13 +376,73 @@ public final class NormalizedKeySorter<T> implements InMemorySorter<T>
 		final MemorySegment segI = this.sortIndex.get(bufferNumI);
 		final MemorySegment segJ = this.sortIndex.get(bufferNumJ);
 		
-		MemorySegment.swapBytes(segI, segJ, this.swapBuffer, segmentOffsetI, segmentOffsetJ, this.indexEntrySize);
+		MemorySegment.swapBytes(segI, segJ, swapBuffer, segmentOffsetI, segmentOffsetJ, this.indexEntrySize);
 	}
 
 	@Override
 	public int size() {
 		return this.numRecords;
 	}
+	
+	@Override
+	public List<MemorySegment> getEntrySegments() {
+		return this.sortIndex;
+	}
+	
+	@Override
+	public int getEntrySize() {
+		return this.indexEntrySize;
+	}
+	
+	@Override
+	public int getEntriesPerSegment() {
+		return this.indexEntriesPerSegment;
+	}
+	
+	@Override
+	public int getNormalizedKeyOffset() {
+		return OFFSET_LEN;
+	}
+	
+	@Override
+	public int getNormalizedKeyLength() {
+		return this.numKeyBytes;
+	}
+	
+	@Override
+	public boolean isNormalizedKeyInverted() {
+		return !this.useNormKeyUninverted;
+	}
+	
+	@Override
+	public boolean isNormalizedKeyFullyDetermining() {
+		return this.normalizedKeyFullyDetermines;
+	}
+	
+	@Override
+	public IndexedSortable createConcurrentSortingView() {
+		final TypeComparator<T> comparator = this.comparator.duplicate();
+		final RandomAccessInputView buffer1 = new RandomAccessInputView(this.recordBufferSegments, this.segmentSize);
+		final RandomAccessInputView buffer2 = new RandomAccessInputView(this.recordBufferSegments, this.segmentSize);
+		final byte[] swapBuffer = new byte[this.indexEntrySize];
+		
+		return new IndexedSortable() {
+			@Override
+			public int compare(int i, int j) {
+				return NormalizedKeySorter.this.compare(i, j, comparator, buffer1, buffer2);
+			}
+			
+			@Override
+			public void swap(int i, int j) {
+				NormalizedKeySorter.this.swap(i, j, swapBuffer);
+			}
+			
+			@Override
+			public int size() {
+				return NormalizedKeySorter.this.numRecords;
+			}
+		};
+	}
 
 	// -------------------------------------------------------------------------
 	
@@ -0,0 +1,259 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A quick sort that sorts the buffers of an {@link InMemorySorter} with several threads. The top levels of the
+ * recursion partition the buffer and hand the resulting ranges to a pool of threads, which sort them through
+ * independent views of the buffer (see {@link InMemorySorter#createConcurrentSortingView()}). Several buffers may
+ * be sorted at the same time, in which case their ranges share the threads of the pool.
+ * <p>
+ * Each thread finishes its range with a {@link RadixSort}. If the normalized keys fully determine the order, the
+ * ranges are radix sorted directly in the buffer, otherwise the radix sort falls back to a quick sort on the view.
+ * Ranges that are too small to be worth distributing, and sortables that are no in-memory sorters, are sorted by
+ * the radix sort sequentially.
+ */
+public final class ParallelQuickSort implements IndexedSorter {
+	
+	/**
+	 * Ranges with fewer items than this are sorted by a single thread.
+	 */
+	private static final int MIN_PARALLEL_RANGE = 16 * 1024;
+	
+	private final RadixSort sequentialSort = new RadixSort();
+	
+	private final ThreadPoolExecutor executor;
+	
+	private final int parallelism;
+	
+	private final int forkDepth;
+	
+	// ------------------------------------------------------------------------
+	
+	/**
+	 * Creates a new parallel quick sort that uses the given number of threads.
+	 * 
+	 * @param parallelism The number of threads to sort with.
+	 * @param threadName The name of the sorting threads.
+	 */
+	public ParallelQuickSort(int parallelism, final String threadName) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("The parallelism must be at least one.");
+		}
+		this.parallelism = parallelism;
+		
+		// create a few more ranges than threads, because the partitions are not of equal size
+		this.forkDepth = 34 - Integer.numberOfLeadingZeros(parallelism - 1);
+		
+		this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					final Thread t = new Thread(r, threadName);
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+	
+	/**
+	 * Gets the number of threads this sort uses.
+	 * 
+	 * @return The number of threads this sort uses.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+	
+	// ------------------------------------------------------------------------
+	
+	@Override
+	public void sort(IndexedSortable s) {
+		sort(s, 0, s.size());
+	}
+	
+	@Override
+	public void sort(IndexedSortable s, int l, int r) {
+		if (!(s instanceof InMemorySorter<?>) || this.parallelism == 1 || r - l < 2 * MIN_PARALLEL_RANGE) {
+			this.sequentialSort.sort(s, l, r);
+			return;
+		}
+		
+		try {
+			startSort((InMemorySorter<?>) s, l, r).waitForCompletion();
+		} catch (InterruptedException iex) {
+			throw new RuntimeException("Interrupted while waiting for the sort to complete.", iex);
+		} catch (IOException ioex) {
+			throw new RuntimeException(ioex.getMessage(), ioex.getCause());
+		}
+	}
+	
+	/**
+	 * Starts sorting all records of the given buffer in the background. The buffer must not be modified until the
+	 * returned sort has completed.
+	 * 
+	 * @param buffer The buffer to sort.
+	 * @return A handle to wait for the sort to complete.
+	 */
+	public PendingSort startSort(InMemorySorter<?> buffer) {
+		return startSort(buffer, 0, buffer.size());
+	}
+	
+	private PendingSort startSort(InMemorySorter<?> buffer, int l, int r) {
+		final PendingSort sort = new PendingSort();
+		sort.fork(new SortTask(buffer, sort, l, r, this.forkDepth));
+		return sort;
+	}
+	
+	/**
+	 * Shuts down the threads of this sort and waits until the sorts that have been started before are complete,
+	 * so that no buffer is touched after this method returns.
+	 */
+	public void shutdown() {
+		this.executor.shutdown();
+		
+		boolean interrupted = false;
+		while (true) {
+			try {
+				if (this.executor.awaitTermination(1, TimeUnit.SECONDS)) {
+					break;
+				}
+			} catch (InterruptedException iex) {
+				interrupted = true;
+			}
+		}
+		
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	// ------------------------------------------------------------------------
+	
+	/**
+	 * A sort that has been started in the background. The sort is complete when all of its ranges are sorted.
+	 */
+	public final class PendingSort {
+		
+		private int pendingTasks;
+		
+		private Throwable error;
+		
+		private synchronized void fork(SortTask task) {
+			this.pendingTasks++;
+			try {
+				ParallelQuickSort.this.executor.execute(task);
+			} catch (RuntimeException rex) {
+				this.pendingTasks--;
+				throw rex;
+			}
+		}
+		
+		private synchronized void taskDone(Throwable t) {
+			if (t != null && this.error == null) {
+				this.error = t;
+			}
+			if (--this.pendingTasks == 0) {
+				notifyAll();
+			}
+		}
+		
+		/**
+		 * Checks whether all ranges of this sort are sorted.
+		 * 
+		 * @return True, if the sort is complete, false otherwise.
+		 */
+		public synchronized boolean isDone() {
+			return this.pendingTasks == 0;
+		}
+		
+		/**
+		 * Waits until all ranges of this sort are sorted.
+		 * 
+		 * @throws IOException Thrown, if sorting one of the ranges failed.
+		 * @throws InterruptedException Thrown, if the waiting thread was interrupted.
+		 */
+		public synchronized void waitForCompletion() throws IOException, InterruptedException {
+			while (this.pendingTasks > 0) {
+				wait();
+			}
+			if (this.error != null) {
+				throw new IOException("Sorting a buffer failed: " + this.error.getMessage(), this.error);
+			}
+		}
+	}
+	
+	/**
+	 * Sorts a range of a buffer. While the range is large and the fork depth is not exhausted, the task partitions
+	 * the range, hands the upper part to another task, and continues with the lower part.
+	 */
+	private final class SortTask implements Runnable {
+		
+		private final InMemorySorter<?> buffer;
+		
+		private final PendingSort sort;
+		
+		private final int l;
+		
+		private final int r;
+		
+		private final int forkDepth;
+		
+		SortTask(InMemorySorter<?> buffer, PendingSort sort, int l, int r, int forkDepth) {
+			this.buffer = buffer;
+			this.sort = sort;
+			this.l = l;
+			this.r = r;
+			this.forkDepth = forkDepth;
+		}
+		
+		@Override
+		public void run() {
+			Throwable error = null;
+			try {
+				final IndexedSortable view = this.buffer.createConcurrentSortingView();
+				final int[] bounds = new int[2];
+				
+				int r = this.r;
+				int depth = this.forkDepth;
+				while (depth > 0 && r - this.l >= 2 * MIN_PARALLEL_RANGE) {
+					QuickSort.partition(view, this.l, r, bounds);
+					depth--;
+					this.sort.fork(new SortTask(this.buffer, this.sort, bounds[1], r, depth));
+					r = bounds[0];
+				}
+				
+				// the radix sort works on the buffer's memory and not through its comparator, so it can sort
+				// the range in the buffer itself. other buffers are sorted through this thread's view
+				final IndexedSortable sortable = RadixSort.sortsOnNormalizedKeys(this.buffer) ? this.buffer : view;
+				ParallelQuickSort.this.sequentialSort.sort(sortable, this.l, r);
+			}
+			catch (Throwable t) {
+				error = t;
+			}
+			finally {
+				this.sort.taskDone(error);
+			}
+		}
+	}
+}
@@ -42,14 +42,14 @@ public final class QuickSort implements IndexedSorter {
 	 * then switch to {@link HeapSort}.
 	 */
 	public void sort(final IndexedSortable s, int p, int r) {
-		sortInternal(s, p, r, getMaxDepth(r - p));
+		sortInternal(s, p, r, getMaxDepth(r - p), new int[2]);
 	}
 
 	public void sort(IndexedSortable s) {
 		sort(s, 0, s.size());
 	}
 
-	private static void sortInternal(final IndexedSortable s, int p, int r, int depth) {
+	private static void sortInternal(final IndexedSortable s, int p, int r, int depth, final int[] bounds) {
 		while (true) {
 			if (r - p < 13) {
 				for (int i = p; i < r; ++i) {
@@ -65,57 +65,69 @@ public final class QuickSort implements IndexedSorter {
 				return;
 			}
 
-			// select, move pivot into first position
-			fix(s, (p + r) >>> 1, p);
-			fix(s, (p + r) >>> 1, r - 1);
-			fix(s, p, r - 1);
-
-			// Divide
-			int i = p;
-			int j = r;
-			int ll = p;
-			int rr = r;
-			int cr;
-			while (true) {
-				while (++i < j) {
-					if ((cr = s.compare(i, p)) > 0)
-						break;
-					if (0 == cr && ++ll != i) {
-						s.swap(ll, i);
-					}
-				}
-				while (--j > i) {
-					if ((cr = s.compare(p, j)) > 0)
-						break;
-					if (0 == cr && --rr != j) {
-						s.swap(rr, j);
-					}
-				}
-				if (i < j)
-					s.swap(i, j);
-				else
-					break;
-			}
-			j = i;
-			// swap pivot- and all eq values- into position
-			while (ll >= p) {
-				s.swap(ll--, --i);
-			}
-			while (rr < r) {
-				s.swap(rr++, j++);
-			}
+			partition(s, p, r, bounds);
+			final int i = bounds[0];
+			final int j = bounds[1];
 
 			// Conquer
 			// Recurse on smaller interval first to keep stack shallow
 			assert i != j;
 			if (i - p < r - j) {
-				sortInternal(s, p, i, depth);
+				sortInternal(s, p, i, depth, bounds);
 				p = j;
 			} else {
-				sortInternal(s, j, r, depth);
+				sortInternal(s, j, r, depth, bounds);
 				r = i;
 			}
 		}
 	}
 
+	/**
+	 * Partitions the given range (at least three items) around a median-of-three pivot. Afterwards, the items in
+	 * <code>[p, bounds[0])</code> are smaller than the pivot, the items in <code>[bounds[1], r)</code> are larger,
+	 * and the items in between are equal to it.
+	 */
+	static void partition(final IndexedSortable s, final int p, final int r, final int[] bounds) {
+		// select, move pivot into first position
+		fix(s, (p + r) >>> 1, p);
+		fix(s, (p + r) >>> 1, r - 1);
+		fix(s, p, r - 1);
+
+		// Divide
+		int i = p;
+		int j = r;
+		int ll = p;
+		int rr = r;
+		int cr;
+		while (true) {
+			while (++i < j) {
+				if ((cr = s.compare(i, p)) > 0)
+					break;
+				if (0 == cr && ++ll != i) {
+					s.swap(ll, i);
+				}
+			}
+			while (--j > i) {
+				if ((cr = s.compare(p, j)) > 0)
+					break;
+				if (0 == cr && --rr != j) {
+					s.swap(rr, j);
+				}
+			}
+			if (i < j)
+				s.swap(i, j);
+			else
+				break;
+		}
+		j = i;
+		// swap pivot- and all eq values- into position
+		while (ll >= p) {
+			s.swap(ll--, --i);
+		}
+		while (rr < r) {
+			s.swap(rr++, j++);
+		}
+		bounds[0] = i;
+		bounds[1] = j;
+	}
 }
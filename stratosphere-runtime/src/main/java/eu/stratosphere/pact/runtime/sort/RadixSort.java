@@ -0,0 +1,201 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.util.Arrays;
+import java.util.List;
+
+import eu.stratosphere.core.memory.MemorySegment;
+
+/**
+ * An in-place most-significant-digit radix sort (American flag sort) over the normalized keys of a
+ * {@link NormalizedKeySortable}. The sort reads the key bytes and swaps the entries directly in the memory segments,
+ * without going through {@link IndexedSortable#compare(int, int)}.
+ * <p>
+ * The radix sort is only correct if the normalized keys fully determine the order of the entries. For other
+ * sortables, and for sortables whose normalized keys are only a prefix of the keys, it falls back to a
+ * {@link QuickSort}.
+ */
+public final class RadixSort implements IndexedSorter {
+	
+	/**
+	 * Ranges with fewer entries than this are sorted by insertion sort.
+	 */
+	private static final int INSERTION_SORT_THRESHOLD = 32;
+	
+	private static final int NUM_BUCKETS = 256;
+	
+	private final QuickSort fallback = new QuickSort();
+	
+	
+	@Override
+	public void sort(IndexedSortable s) {
+		sort(s, 0, s.size());
+	}
+	
+	@Override
+	public void sort(IndexedSortable s, int l, int r) {
+		if (sortsOnNormalizedKeys(s)) {
+			new Pass((NormalizedKeySortable) s).sort(l, r, 0);
+		} else {
+			this.fallback.sort(s, l, r);
+		}
+	}
+	
+	/**
+	 * Checks whether the given sortable is sorted on the bytes of its normalized keys, rather than by the
+	 * fallback quick sort. Such a sort keeps all its state per call and does not use the sortable's
+	 * {@link IndexedSortable#compare(int, int)} and {@link IndexedSortable#swap(int, int)} methods, so
+	 * disjoint ranges of the sortable may be sorted by several threads at the same time.
+	 * 
+	 * @param s The sortable to check.
+	 * @return True, if the sortable is sorted on its normalized keys, false otherwise.
+	 */
+	public static boolean sortsOnNormalizedKeys(IndexedSortable s) {
+		if (s instanceof NormalizedKeySortable) {
+			final NormalizedKeySortable nks = (NormalizedKeySortable) s;
+			return nks.isNormalizedKeyFullyDetermining() && nks.getNormalizedKeyLength() > 0;
+		}
+		return false;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * The state of sorting one sortable.
+	 */
+	private static final class Pass {
+		
+		private final MemorySegment[] segments;
+		
+		private final int entrySize;
+		
+		private final int entriesPerSegment;
+		
+		private final int keyOffset;
+		
+		private final int keyLength;
+		
+		private final int flip;
+		
+		private final byte[] swapBuffer;
+		
+		/**
+		 * The bucket boundaries per key byte. Bucket <code>b</code> of byte <code>d</code> spans the range
+		 * <code>[bounds[d][b], bounds[d][b + 1])</code>.
+		 */
+		private final int[][] bounds;
+		
+		/**
+		 * The next position to fill in each bucket, while the entries are distributed.
+		 */
+		private final int[] next = new int[NUM_BUCKETS];
+		
+		Pass(NormalizedKeySortable s) {
+			final List<MemorySegment> segs = s.getEntrySegments();
+			this.segments = segs.toArray(new MemorySegment[segs.size()]);
+			this.entrySize = s.getEntrySize();
+			this.entriesPerSegment = s.getEntriesPerSegment();
+			this.keyOffset = s.getNormalizedKeyOffset();
+			this.keyLength = s.getNormalizedKeyLength();
+			this.flip = s.isNormalizedKeyInverted() ? 0xff : 0;
+			this.swapBuffer = new byte[this.entrySize];
+			this.bounds = new int[this.keyLength][];
+		}
+		
+		/**
+		 * Sorts the range <code>[l, r)</code>, whose entries agree on the first <code>d</code> key bytes.
+		 */
+		void sort(final int l, final int r, final int d) {
+			if (r - l < INSERTION_SORT_THRESHOLD) {
+				insertionSort(l, r, d);
+				return;
+			}
+			
+			int[] bounds = this.bounds[d];
+			if (bounds == null) {
+				bounds = this.bounds[d] = new int[NUM_BUCKETS + 1];
+			}
+			
+			// count the entries per bucket and derive the bucket boundaries
+			final int[] next = this.next;
+			Arrays.fill(next, 0);
+			for (int i = l; i < r; i++) {
+				next[keyByte(i, d)]++;
+			}
+			
+			int pos = l;
+			for (int b = 0; b < NUM_BUCKETS; b++) {
+				bounds[b] = pos;
+				pos += next[b];
+				next[b] = bounds[b];
+			}
+			bounds[NUM_BUCKETS] = r;
+			
+			// move each entry into its bucket, following the cycles of the permutation
+			for (int b = 0; b < NUM_BUCKETS; b++) {
+				final int end = bounds[b + 1];
+				while (next[b] < end) {
+					int target = keyByte(next[b], d);
+					while (target != b) {
+						swap(next[b], next[target]++);
+						target = keyByte(next[b], d);
+					}
+					next[b]++;
+				}
+			}
+			
+			// sort the buckets on the next key byte
+			if (d + 1 < this.keyLength) {
+				for (int b = 0; b < NUM_BUCKETS; b++) {
+					if (bounds[b + 1] - bounds[b] > 1) {
+						sort(bounds[b], bounds[b + 1], d + 1);
+					}
+				}
+			}
+		}
+		
+		private void insertionSort(final int l, final int r, final int d) {
+			for (int i = l + 1; i < r; i++) {
+				for (int j = i; j > l && compare(j - 1, j, d) > 0; j--) {
+					swap(j, j - 1);
+				}
+			}
+		}
+		
+		/**
+		 * Compares two entries on their key bytes, starting at byte <code>d</code>.
+		 */
+		private int compare(final int i, final int j, final int d) {
+			final MemorySegment segI = this.segments[i / this.entriesPerSegment];
+			final MemorySegment segJ = this.segments[j / this.entriesPerSegment];
+			final int offset = this.keyOffset + d;
+			final int val = MemorySegment.compare(segI, segJ,
+				(i % this.entriesPerSegment) * this.entrySize + offset,
+				(j % this.entriesPerSegment) * this.entrySize + offset, this.keyLength - d);
+			return this.flip == 0 ? val : -val;
+		}
+		
+		private int keyByte(final int i, final int d) {
+			final MemorySegment seg = this.segments[i / this.entriesPerSegment];
+			return (seg.get((i % this.entriesPerSegment) * this.entrySize + this.keyOffset + d) & 0xff) ^ this.flip;
+		}
+		
+		private void swap(final int i, final int j) {
+			MemorySegment.swapBytes(this.segments[i / this.entriesPerSegment], this.segments[j / this.entriesPerSegment],
+				this.swapBuffer, (i % this.entriesPerSegment) * this.entrySize,
+				(j % this.entriesPerSegment) * this.entrySize, this.entrySize);
+		}
+	}
+}
@@ -17,9 +17,12 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
@@ -30,6 +33,7 @@ import org.apache.commons.logging.LogFactory;
 
 import eu.stratosphere.api.common.typeutils.TypeComparator;
 import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.configuration.ConfigConstants;
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelAccess;
 import eu.stratosphere.nephele.services.iomanager.BlockChannelReader;
@@ -83,6 +87,12 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	 * The minimum number of segments that are required for the sort to operate.
 	 */
 	protected static final int MIN_NUM_SORT_MEM_SEGMENTS = 32;
+	
+	/**
+	 * The maximal number of threads to sort the buffers with.
+	 */
+	private static final int MAX_NUM_SORT_THREADS = 64;
+	
 
 	// ------------------------------------------------------------------------
 	//                                  Threads
@@ -103,6 +113,11 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	 */
 	private final ThreadBase<E> spillThread;
 	
+	/**
+	 * The parallel sort used by the sorting thread, or null, if the buffers are sorted by the sorting thread alone.
+	 */
+	private final ParallelQuickSort parallelSort;
+	
 	// ------------------------------------------------------------------------
 	//                                   Memory
 	// ------------------------------------------------------------------------
@@ -221,7 +236,45 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	throws IOException, MemoryAllocationException
 	{
 		this(memoryManager, ioManager, input, parentTask, serializer, comparator,
-			totalMemory, numSortBuffers, maxNumFileHandles, startSpillingFraction, false);
+			totalMemory, numSortBuffers, maxNumFileHandles, startSpillingFraction, 1,
+			ConfigConstants.DEFAULT_TASK_MANAGER_SORT_MERGE_READ_BUFFERS);
+	}
+	
+	/**
+	 * Creates a new sorter that reads the data from a given reader and provides an iterator returning that
+	 * data in a sorted manner. The memory is divided among sort buffers, write buffers and read buffers
+	 * automatically.
+	 * 
+	 * @param memoryManager The memory manager from which to allocate the memory.
+	 * @param ioManager The I/O manager, which is used to write temporary files to disk.
+	 * @param input The input that is sorted by this sorter.
+	 * @param parentTask The parent task, which owns all resources used by this sorter.
+	 * @param serializer The type serializer.
+	 * @param comparator The type comparator establishing the order relation.
+	 * @param totalMemory The total amount of memory dedicated to sorting, merging and I/O.
+	 * @param numSortBuffers The number of distinct buffers to use creation of the initial runs.
+	 * @param maxNumFileHandles The maximum number of files to be merged at once.
+	 * @param startSpillingFraction The faction of the buffers that have to be filled before the spilling thread
+	 *                              actually begins spilling data to disk.
+	 * @param numSortThreads The number of threads with which each buffer is sorted. With one thread, the
+	 *                       sorting thread sorts the buffers alone.
+	 * @param numMergeReadBuffers The minimal number of read buffers of each run that is merged. The merge fan-in
+	 *                            is limited such that every run gets this many buffers to read ahead.
+	 * 
+	 * @throws IOException Thrown, if an error occurs initializing the resources for external sorting.
+	 * @throws MemoryAllocationException Thrown, if not enough memory can be obtained from the memory manager to
+	 *                                   perform the sort.
+	 */
+	public UnilateralSortMerger(MemoryManager memoryManager, IOManager ioManager,
+			MutableObjectIterator<E> input, AbstractInvokable parentTask, 
+			TypeSerializer<E> serializer, TypeComparator<E> comparator,
+			long totalMemory, int numSortBuffers, int maxNumFileHandles, 
+			float startSpillingFraction, int numSortThreads, int numMergeReadBuffers)
+	throws IOException, MemoryAllocationException
+	{
+		this(memoryManager, ioManager, input, parentTask, serializer, comparator,
+			totalMemory, numSortBuffers, maxNumFileHandles, startSpillingFraction, numSortThreads,
+			numMergeReadBuffers, false);
 	}
 	
 	/**
@@ -238,6 +291,10 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	 * @param maxNumFileHandles The maximum number of files to be merged at once.
 	 * @param startSpillingFraction The faction of the buffers that have to be filled before the spilling thread
 	 *                              actually begins spilling data to disk.
+	 * @param numSortThreads The number of threads with which each buffer is sorted. With one thread, the
+	 *                       sorting thread sorts the buffers alone.
+	 * @param numMergeReadBuffers The minimal number of read buffers of each run that is merged. The merge fan-in
+	 *                            is limited such that every run gets this many buffers to read ahead.
 	 * @param noSpilling When set to true, no memory will be allocated for writing and no spilling thread
 	 *                   will be spawned.
 	 * 
@@ -249,7 +306,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			MutableObjectIterator<E> input, AbstractInvokable parentTask, 
 			TypeSerializer<E> serializer, TypeComparator<E> comparator,
 			long totalMemory, int numSortBuffers, int maxNumFileHandles, 
-			float startSpillingFraction, boolean noSpillingMemory)
+			float startSpillingFraction, int numSortThreads, int numMergeReadBuffers, boolean noSpillingMemory)
 	throws IOException, MemoryAllocationException
 	{
 		// sanity checks
@@ -262,6 +319,12 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		if (maxNumFileHandles < 2) {
 			throw new IllegalArgumentException("Merger cannot work with less than two file handles.");
 		}
+		if (numSortThreads < 1) {
+			throw new IllegalArgumentException("The buffers must be sorted with at least one thread.");
+		}
+		if (numMergeReadBuffers < 1) {
+			throw new IllegalArgumentException("Each merged run needs at least one read buffer.");
+		}
 		
 		this.memoryManager = memoryManager;
 		
@@ -383,6 +446,14 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		this.channelsToDeleteAtShutdown = new HashSet<Channel.ID>(64);
 		this.openChannels = new HashSet<BlockChannelAccess<?,?>>(64);
 
+		// sort the buffers in parallel only if more than one thread is configured
+		numSortThreads = Math.min(numSortThreads, MAX_NUM_SORT_THREADS);
+		this.parallelSort = numSortThreads > 1 ? new ParallelQuickSort(numSortThreads, "SortMerger parallel sorting thread") : null;
+		
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Sorting buffers with " + numSortThreads + " thread(s).");
+		}
+
 		// start the thread that reads the input channels
 		this.readThread = getReadingThread(exceptionHandler, input, circularQueues, parentTask,
 			serializer, ((long) (startSpillingFraction * sortMemory)));
@@ -393,7 +464,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		// start the thread that handles spilling to secondary storage
 		this.spillThread = getSpillingThread(exceptionHandler, circularQueues, parentTask, 
 				memoryManager, ioManager, serializer, comparator, this.sortReadMemory, this.writeMemory, 
-				maxNumFileHandles);
+				maxNumFileHandles, numMergeReadBuffers);
 		
 		startThreads();
 	}
@@ -589,7 +660,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	protected ThreadBase<E> getSortingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 			AbstractInvokable parentTask)
 	{
-		return new SortingThread<E>(exceptionHandler, queues, parentTask);
+		return new SortingThread<E>(exceptionHandler, queues, parentTask, this.parallelSort);
 	}
 
 	/**
@@ -608,10 +679,12 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	protected ThreadBase<E> getSpillingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 			AbstractInvokable parentTask, MemoryManager memoryManager, IOManager ioManager, 
 			TypeSerializer<E> serializer, TypeComparator<E> comparator,
-			List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxFileHandles)
+			List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxFileHandles,
+			int numMergeReadBuffers)
 	{
 		return new SpillingThread(exceptionHandler, queues, parentTask,
-			memoryManager, ioManager, serializer, comparator, sortReadMemory, writeMemory, maxFileHandles);
+			memoryManager, ioManager, serializer, comparator, sortReadMemory, writeMemory, maxFileHandles,
+			numMergeReadBuffers);
 	}
 
 	// ------------------------------------------------------------------------
@@ -1103,6 +1176,8 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 	protected static class SortingThread<E> extends ThreadBase<E>
 	{		
 		private final IndexedSorter sorter;
+		
+		private final ParallelQuickSort parallelSort;
 
 		/**
 		 * Creates a new sorting thread.
@@ -1113,17 +1188,44 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		 */
 		public SortingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 				AbstractInvokable parentTask) {
+			this(exceptionHandler, queues, parentTask, null);
+		}
+		
+		/**
+		 * Creates a new sorting thread that sorts the buffers with the given parallel sort. With a parallel sort,
+		 * several buffers may be sorted at the same time. They are still passed on in the order in which they were
+		 * received.
+		 * 
+		 * @param exceptionHandler The exception handler to call for all exceptions.
+		 * @param queues The queues used to pass buffers between the threads.
+		 * @param parentTask The task that started this thread. If non-null, it is used to register this thread.
+		 * @param parallelSort The parallel sort to sort the buffers with. If null, the buffers are sorted one
+		 *                     after the other by this thread.
+		 */
+		public SortingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
+				AbstractInvokable parentTask, ParallelQuickSort parallelSort) {
 			super(exceptionHandler, "SortMerger sorting thread", queues, parentTask);
 
-			// members
-			this.sorter = new QuickSort();
+			// without a parallel sort, this thread radix sorts the buffers itself. the radix sort falls back to
+			// a quick sort if the normalized keys do not fully determine the order
+			this.sorter = new RadixSort();
+			this.parallelSort = parallelSort;
 		}
 
 		/**
 		 * Entry point of the thread.
 		 */
 		public void go() throws IOException
-		{			
+		{
+			if (this.parallelSort != null) {
+				try {
+					sortConcurrently();
+				} finally {
+					this.parallelSort.shutdown();
+				}
+				return;
+			}
+			
 			boolean alive = true;
 
 			// loop as long as the thread is marked alive
@@ -1162,8 +1264,99 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 				this.queues.spill.add(element);
 			}
 		}
+		
+		/**
+		 * Starts sorting each buffer as soon as it is received, while the buffers received before are still being
+		 * sorted. The buffers and markers are passed on in the order in which they were received.
+		 */
+		private void sortConcurrently() throws IOException
+		{
+			final Queue<CircularElement<E>> elements = new ArrayDeque<CircularElement<E>>();
+			// markers have no sort, so this queue holds nulls for them
+			final Queue<ParallelQuickSort.PendingSort> sorts = new LinkedList<ParallelQuickSort.PendingSort>();
+			boolean alive = true;
+			
+			// loop as long as the thread is marked alive and buffers are being sorted
+			while (isRunning() && (alive || !elements.isEmpty())) {
+				CircularElement<E> element = null;
+				try {
+					if (!alive) {
+						sorts.peek().waitForCompletion();
+					} else if (elements.isEmpty()) {
+						element = this.queues.sort.take();
+					} else if ((element = this.queues.sort.poll()) == null) {
+						// no further buffer to start, so wait for the oldest one
+						sorts.peek().waitForCompletion();
+					}
+				}
+				catch (InterruptedException iex) {
+					if (isRunning()) {
+						if (LOG.isErrorEnabled())
+							LOG.error(
+								"Sorting thread was interrupted (without being shut down) while grabbing a buffer. " +
+								"Retrying to grab buffer...");
+						continue;
+					}
+					else {
+						return;
+					}
+				}
+				
+				if (element != null) {
+					if (element != EOF_MARKER && element != SPILLING_MARKER) {
+						if (LOG.isDebugEnabled())
+							LOG.debug("Sorting buffer " + element.id + " with " + this.parallelSort.getParallelism() + " threads.");
+						
+						elements.add(element);
+						sorts.add(this.parallelSort.startSort(element.buffer));
+					}
+					else {
+						if (element == EOF_MARKER) {
+							if (LOG.isDebugEnabled())
+								LOG.debug("Sorting thread done.");
+							alive = false;
+						}
+						if (elements.isEmpty()) {
+							this.queues.spill.add(element);
+						} else {
+							elements.add(element);
+							sorts.add(null);
+						}
+					}
+				}
+				
+				// pass on the sorted buffers and the markers behind them, in the order in which they were received
+				while (!elements.isEmpty() && (sorts.peek() == null || sorts.peek().isDone())) {
+					final ParallelQuickSort.PendingSort sort = sorts.poll();
+					final CircularElement<E> done = elements.poll();
+					if (sort != null) {
+						try {
+							sort.waitForCompletion();
+						} catch (InterruptedException iex) {
+							// cannot happen, the sort is complete
+						}
+						if (LOG.isDebugEnabled())
+							LOG.debug("Sorted buffer " + done.id + ".");
+					}
+					this.queues.spill.add(done);
+				}
+			}
+		}
 	}
 
+	/**
+	 * Computes how many runs the first intermediate merge must merge, such that all subsequent merges
+	 * merge {@code fanIn} runs and leave exactly {@code fanIn} runs for the final merge.
+	 * 
+	 * @param numRuns The number of runs to be merged, greater than the fan-in.
+	 * @param fanIn The maximal number of runs merged at once, at least two.
+	 * @return The number of runs for the first merge, between two and the fan-in.
+	 */
+	static int getNumRunsForFirstMerge(int numRuns, int fanIn) {
+		// every merge of k runs reduces the number of runs by k - 1
+		return (numRuns - fanIn - 1) % (fanIn - 1) + 2;
+	}
+	
 	/**
 	 * The thread that handles the spilling of intermediate results and sets up the merging. It also merges the 
 	 * channels until sufficiently few channels remain to perform the final streamed merge. 
@@ -1184,6 +1377,8 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		
 		protected final int maxNumFileHandles;
 		
+		protected final int mergeFanIn;					// the number of runs merged at once, limited by memory
+		
 		protected final int numWriteBuffersToCluster;
 		
 		/**
@@ -1199,11 +1394,13 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		 * @param sortReadMemory
 		 * @param writeMemory
 		 * @param maxNumFileHandles
+		 * @param numMergeReadBuffers The minimal number of read buffers of each merged run.
 		 */
 		public SpillingThread(ExceptionHandler<IOException> exceptionHandler, CircularQueues<E> queues,
 				AbstractInvokable parentTask, MemoryManager memManager, IOManager ioManager, 
 				TypeSerializer<E> serializer, TypeComparator<E> comparator, 
-				List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxNumFileHandles)
+				List<MemorySegment> sortReadMemory, List<MemorySegment> writeMemory, int maxNumFileHandles,
+				int numMergeReadBuffers)
 		{
 			super(exceptionHandler, "SortMerger spilling thread", queues, parentTask);
 			this.memManager = memManager;
@@ -1214,6 +1411,9 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			this.writeMemory = writeMemory;
 			this.maxNumFileHandles = maxNumFileHandles;
 			this.numWriteBuffersToCluster = writeMemory.size() >= 4 ? writeMemory.size() / 2 : 1;
+			
+			// merge only so many runs at once that each run has enough buffers to read ahead
+			this.mergeFanIn = Math.max(2, Math.min(maxNumFileHandles, sortReadMemory.size() / numMergeReadBuffers));
 		}
 
 		/**
@@ -1351,7 +1551,7 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 			// ------------------- Merging Phase ------------------------
 			
 			// merge channels until sufficient file handles are available
-			while (isRunning() && channelIDs.size() > this.maxNumFileHandles) {
+			while (isRunning() && channelIDs.size() > this.mergeFanIn) {
 				channelIDs = mergeChannelList(channelIDs, this.sortReadMemory, this.writeMemory);
 			}
 			
@@ -1459,50 +1659,60 @@ public class UnilateralSortMerger<E> implements Sorter<E> {
 		}
 
 		/**
-		 * Merges the given sorted runs to a smaller number of sorted runs. 
+		 * Merges the given sorted runs to at most {@link #mergeFanIn} sorted runs, such that these runs can be
+		 * merged in a single final merge.
+		 * <p>
+		 * Like in the construction of a Huffman code, each step merges the smallest runs, including the results
+		 * of earlier steps. The first step merges only as many runs as necessary for all subsequent steps to merge
+		 * a full fan-in of runs. That minimizes the number of blocks that are written and read again before the
+		 * final merge. Each step distributes all read buffers among its runs.
 		 * 
 		 * @param channelIDs The IDs of the sorted runs that need to be merged.
+		 * @param allReadBuffers The buffers to be used by the readers.
 		 * @param writeBuffers The buffers to be used by the writers.
-		 * @param writeBufferSize The size of the write buffers.
-		 * @param  readMemorySize The amount of memory dedicated to the readers.
 		 * @return A list of the IDs of the merged channels.
 		 * @throws IOException Thrown, if the readers or writers encountered an I/O problem.
-		 * @throws MemoryAllocationException Thrown, if the specified memory is insufficient to merge the channels
-		 *                                   or if the memory manager could not provide the requested memory.
 		 */
 		protected final List<ChannelWithBlockCount> mergeChannelList(final List<ChannelWithBlockCount> channelIDs,
 					final List<MemorySegment> allReadBuffers, final List<MemorySegment> writeBuffers)
 		throws IOException
 		{
-			final double numMerges = Math.ceil(channelIDs.size() / ((double) this.maxNumFileHandles));
-			final int channelsToMergePerStep = (int) Math.ceil(channelIDs.size() / numMerges);
+			final int fanIn = this.mergeFanIn;
+			if (channelIDs.size() <= fanIn) {
+				return channelIDs;
+			}
 			
-			// allocate the memory for the merging step
-			final List<List<MemorySegment>> readBuffers = new ArrayList<List<MemorySegment>>(channelsToMergePerStep);
-			getSegmentsForReaders(readBuffers, allReadBuffers, channelsToMergePerStep);
+			final PriorityQueue<ChannelWithBlockCount> runs = new PriorityQueue<ChannelWithBlockCount>(
+				channelIDs.size(), new Comparator<ChannelWithBlockCount>() {
+					@Override
+					public int compare(ChannelWithBlockCount o1, ChannelWithBlockCount o2) {
+						return o1.getBlockCount() < o2.getBlockCount() ? -1 : o1.getBlockCount() > o2.getBlockCount() ? 1 : 0;
+					}
+				});
+			runs.addAll(channelIDs);
 			
-			// the list containing the IDs of the merged channels
-			final ArrayList<ChannelWithBlockCount> mergedChannelIDs = new ArrayList<ChannelWithBlockCount>((int) (numMerges + 1));
-
-			final ArrayList<ChannelWithBlockCount> channelsToMergeThisStep = new ArrayList<ChannelWithBlockCount>(channelsToMergePerStep);
-			int channelNum = 0;
-			while (isRunning() && channelNum < channelIDs.size()) {
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Merging " + channelIDs.size() + " sorted runs with a fan-in of " + fanIn + 
+					" before the final merge.");
+			}
+			
+			final ArrayList<ChannelWithBlockCount> channelsToMergeThisStep = new ArrayList<ChannelWithBlockCount>(fanIn);
+			final List<List<MemorySegment>> readBuffers = new ArrayList<List<MemorySegment>>(fanIn);
+			
+			int runsToMerge = getNumRunsForFirstMerge(runs.size(), fanIn);
+			while (isRunning() && runs.size() > fanIn) {
 				channelsToMergeThisStep.clear();
-
-				for (int i = 0; i < channelsToMergePerStep && channelNum < channelIDs.size(); i++, channelNum++) {
-					channelsToMergeThisStep.add(channelIDs.get(channelNum));
+				for (int i = 0; i < runsToMerge; i++) {
+					channelsToMergeThisStep.add(runs.poll());
 				}
 				
-				// merge only, if there is more than one channel
-				if (channelsToMergeThisStep.size() < 2)  {
-					mergedChannelIDs.addAll(channelsToMergeThisStep);
-				}
-				else {
-					mergedChannelIDs.add(mergeChannels(channelsToMergeThisStep, readBuffers, writeBuffers));
-				}
+				readBuffers.clear();
+				getSegmentsForReaders(readBuffers, allReadBuffers, runsToMerge);
+				runs.add(mergeChannels(channelsToMergeThisStep, readBuffers, writeBuffers));
+				runsToMerge = fanIn;
 			}
 			
-			return mergedChannelIDs;
+			return new ArrayList<ChannelWithBlockCount>(runs);
 		}
 
 		/**
@@ -75,11 +75,19 @@ public abstract class AbstractCachedBuildSideMatchDriver<IT1, IT2, OT> extends M
 			MutableHashTable<IT1, IT2> hashJoin = new MutableHashTable<IT1, IT2>(serializer1, serializer2, comparator1, comparator2,
 					pairComparatorFactory.createComparator21(comparator1, comparator2), memSegments, this.taskContext.getIOManager());
 			this.hashJoin = hashJoin;
+			hashJoin.setBuildSideEstimates(config.getEstimatedNumRecordsInput(0), config.getEstimatedRecordWidthInput(0));
+			hashJoin.setUseBloomFilters(config.getHashJoinBloomFilters());
+			hashJoin.setAdaptiveTableSize(config.getHashJoinAdaptiveTableSize());
+			hashJoin.setSkewHandling(config.getHashJoinSkewHandling());
 			hashJoin.open(input1, EmptyMutableObjectIterator.<IT2>get());
 		} else if (buildSideIndex == 1 && probeSideIndex == 0) {
 			MutableHashTable<IT2, IT1> hashJoin = new MutableHashTable<IT2, IT1>(serializer2, serializer1, comparator2, comparator1,
 					pairComparatorFactory.createComparator12(comparator1, comparator2), memSegments, this.taskContext.getIOManager());
 			this.hashJoin = hashJoin;
+			hashJoin.setBuildSideEstimates(config.getEstimatedNumRecordsInput(1), config.getEstimatedRecordWidthInput(1));
+			hashJoin.setUseBloomFilters(config.getHashJoinBloomFilters());
+			hashJoin.setAdaptiveTableSize(config.getHashJoinAdaptiveTableSize());
+			hashJoin.setSkewHandling(config.getHashJoinSkewHandling());
 			hashJoin.open(input2, EmptyMutableObjectIterator.<IT1>get());
 		} else {
 			throw new Exception("Error: Inconcistent setup for repeatable hash join driver.");
@@ -134,8 +134,9 @@ public class DataSinkTask<IT> extends AbstractOutputTask
 							getEnvironment().getMemoryManager(), 
 							getEnvironment().getIOManager(),
 							this.reader, this, this.inputTypeSerializer, compFact.createComparator(),
-							this.config.getMemoryInput(0), this.config.getFilehandlesInput(0),
-							this.config.getSpillingThresholdInput(0));
+							this.config.getMemoryInput(0), -1, this.config.getFilehandlesInput(0),
+							this.config.getSpillingThresholdInput(0), this.config.getSortThreadsInput(0),
+							this.config.getSortMergeReadBuffersInput(0));
 					
 					this.localStrategy = sorter;
 					this.input = sorter.getIterator();
@@ -17,6 +17,7 @@ import eu.stratosphere.pact.runtime.task.chaining.ChainedDriver;
 import eu.stratosphere.pact.runtime.task.chaining.ChainedCollectorMapDriver;
 import eu.stratosphere.pact.runtime.task.chaining.ChainedFlatMapDriver;
 import eu.stratosphere.pact.runtime.task.chaining.ChainedMapDriver;
+import eu.stratosphere.pact.runtime.task.chaining.ChainedHashCombineDriver;
 import eu.stratosphere.pact.runtime.task.chaining.SynchronousChainedCombineDriver;
 
 import static eu.stratosphere.pact.runtime.task.DamBehavior.*;
@@ -41,6 +42,12 @@ public enum DriverStrategy {
 	SORTED_GROUP(ReduceDriver.class, null, PIPELINED, true),
 	// partially grouping inputs (best effort resulting possibly in duplicates --> combiner)
 	PARTIAL_GROUP(CombineDriver.class, SynchronousChainedCombineDriver.class, MATERIALIZING, true),
+	// pairwise reduction of grouped inputs
+	SORTED_REDUCE(SortedReduceDriver.class, null, PIPELINED, true),
+	// partially reducing inputs in a hash table (best effort resulting possibly in duplicates --> combiner)
+	HASH_COMBINE(HashCombineDriver.class, ChainedHashCombineDriver.class, MATERIALIZING, true),
+	// reducing inputs in a hash table, falling back to sorting when the table is full
+	HASH_REDUCE(HashReduceDriver.class, null, FULL_DAM, true),
 	// group everything together into one group
 	ALL_GROUP(AllReduceDriver.class, null, PIPELINED, false),
 	// already grouped input, within a key values are crossed in a nested loop fashion
@@ -0,0 +1,162 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.task;
+
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.functions.GenericReduce;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.pact.runtime.hash.CompactingHashTable;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Combine driver for {@link GenericReduce} functions that pre-aggregates its input in an in-memory hash table,
+ * rather than sorting it. Whenever the hash table runs out of memory, its contents are emitted and the table
+ * starts over empty. The output may hence contain several partial aggregates for the same key, which is fine
+ * for a combiner.
+ * <p>
+ * Hash aggregation is much cheaper than sorting, if the input contains few distinct keys.
+ *
+ * @param <T> The data type consumed and produced by the combiner.
+ */
+public class HashCombineDriver<T> implements PactDriver<GenericReduce<T>, T> {
+
+	private static final Log LOG = LogFactory.getLog(HashCombineDriver.class);
+
+
+	private PactTaskContext<GenericReduce<T>, T> taskContext;
+
+	private MemoryManager memManager;
+
+	private CompactingHashTable<T, T> table;
+
+	private TypeSerializer<T> serializer;
+
+	private volatile boolean running;
+
+	// ------------------------------------------------------------------------
+
+	@Override
+	public void setup(PactTaskContext<GenericReduce<T>, T> context) {
+		this.taskContext = context;
+		this.running = true;
+	}
+
+	@Override
+	public int getNumberOfInputs() {
+		return 1;
+	}
+
+	@Override
+	public Class<GenericReduce<T>> getStubType() {
+		@SuppressWarnings("unchecked")
+		final Class<GenericReduce<T>> clazz = (Class<GenericReduce<T>>) (Class<?>) GenericReduce.class;
+		return clazz;
+	}
+
+	@Override
+	public boolean requiresComparatorOnInput() {
+		return true;
+	}
+
+	@Override
+	public void prepare() throws Exception {
+		if (this.taskContext.getTaskConfig().getDriverStrategy() != DriverStrategy.HASH_COMBINE) {
+			throw new Exception("Invalid strategy " + this.taskContext.getTaskConfig().getDriverStrategy() + " for hash combiner.");
+		}
+
+		this.memManager = this.taskContext.getMemoryManager();
+		final int numPages = this.memManager.computeNumberOfPages(this.taskContext.getTaskConfig().getMemoryDriver());
+
+		this.serializer = this.taskContext.getInputSerializer(0);
+		final TypeComparator<T> comparator = this.taskContext.getInputComparator(0);
+
+		final List<MemorySegment> memory = this.memManager.allocatePages(this.taskContext.getOwningNepheleTask(), numPages);
+		this.table = new CompactingHashTable<T, T>(this.serializer, comparator.duplicate(), null, null, memory);
+		this.table.open();
+	}
+
+	@Override
+	public void run() throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(this.taskContext.formatLogString("Preprocessing done, running hash combiner."));
+		}
+
+		final MutableObjectIterator<T> input = this.taskContext.<T>getInput(0);
+		final GenericReduce<T> stub = this.taskContext.getStub();
+		final Collector<T> output = this.taskContext.getOutputCollector();
+		final CompactingHashTable<T, T> table = this.table;
+
+		final T value = this.serializer.createInstance();
+		final T match = this.serializer.createInstance();
+
+		while (this.running && input.next(value)) {
+			if (table.getMatchForBuildSideRecord(value, match)) {
+				final T res = stub.reduce(match, value);
+				if (!table.updateMatch(res)) {
+					// the aggregate does not fit. emit it right away and make room for the next records
+					table.removeRecord(res);
+					output.collect(res);
+					flush(table, output, match);
+				}
+			}
+			else if (!table.insertOrReplaceRecord(value)) {
+				flush(table, output, match);
+				if (!table.insertOrReplaceRecord(value)) {
+					// the record is too large for the table
+					output.collect(value);
+				}
+			}
+		}
+
+		if (this.running) {
+			flush(table, output, match);
+		}
+	}
+
+	@Override
+	public void cleanup() throws Exception {
+		if (this.table != null) {
+			this.table.close();
+			this.memManager.release(this.table.getFreedMemory());
+			this.table = null;
+		}
+	}
+
+	@Override
+	public void cancel() {
+		this.running = false;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Emits all partial aggregates from the given table and empties the table.
+	 */
+	private static <T> void flush(CompactingHashTable<T, T> table, Collector<T> output, T reuse) throws Exception {
+		final MutableObjectIterator<T> entries = table.getEntryIterator();
+		while (entries.next(reuse)) {
+			output.collect(reuse);
+		}
+		table.close();
+		table.open();
+	}
+}
@@ -0,0 +1,319 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.task;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.functions.GenericReduce;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.iomanager.BlockChannelReader;
+import eu.stratosphere.nephele.services.iomanager.BlockChannelWriter;
+import eu.stratosphere.nephele.services.iomanager.Channel;
+import eu.stratosphere.nephele.services.iomanager.ChannelReaderInputView;
+import eu.stratosphere.nephele.services.iomanager.ChannelWriterOutputView;
+import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.pact.runtime.hash.CompactingHashTable;
+import eu.stratosphere.pact.runtime.io.ChannelReaderInputViewIterator;
+import eu.stratosphere.pact.runtime.sort.UnilateralSortMerger;
+import eu.stratosphere.pact.runtime.task.util.TaskConfig;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Reduce driver for {@link GenericReduce} functions that aggregates its (unsorted) input in an in-memory hash
+ * table and emits one record per key once the input is consumed.
+ * <p>
+ * If the aggregates do not fit into the hash table, the driver falls back to sort-based aggregation: The partial
+ * aggregates from the hash table are spilled to a temporary file, the table's memory is handed to an external
+ * sorter, and the sorter merges the spilled partial aggregates with the rest of the input. The sorted stream is
+ * then reduced key by key, as in the {@link SortedReduceDriver}.
+ *
+ * @param <T> The data type consumed and produced by the reducer.
+ */
+public class HashReduceDriver<T> implements PactDriver<GenericReduce<T>, T> {
+
+	private static final Log LOG = LogFactory.getLog(HashReduceDriver.class);
+
+	/**
+	 * The number of memory pages kept aside for spilling the hash table's contents.
+	 */
+	private static final int NUM_SPILL_BUFFERS = 2;
+
+
+	private PactTaskContext<GenericReduce<T>, T> taskContext;
+
+	private MemoryManager memManager;
+
+	private CompactingHashTable<T, T> table;
+
+	private TypeSerializer<T> serializer;
+
+	private TypeComparator<T> comparator;
+
+	private List<MemorySegment> spillBuffers;
+
+	private BlockChannelReader spillReader;
+
+	private UnilateralSortMerger<T> sorter;
+
+	private int numPages;
+
+	private volatile boolean running;
+
+	// ------------------------------------------------------------------------
+
+	@Override
+	public void setup(PactTaskContext<GenericReduce<T>, T> context) {
+		this.taskContext = context;
+		this.running = true;
+	}
+
+	@Override
+	public int getNumberOfInputs() {
+		return 1;
+	}
+
+	@Override
+	public Class<GenericReduce<T>> getStubType() {
+		@SuppressWarnings("unchecked")
+		final Class<GenericReduce<T>> clazz = (Class<GenericReduce<T>>) (Class<?>) GenericReduce.class;
+		return clazz;
+	}
+
+	@Override
+	public boolean requiresComparatorOnInput() {
+		return true;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void prepare() throws Exception {
+		final TaskConfig config = this.taskContext.getTaskConfig();
+		if (config.getDriverStrategy() != DriverStrategy.HASH_REDUCE) {
+			throw new Exception("Unrecognized driver strategy for hash reduce driver: " + config.getDriverStrategy().name());
+		}
+
+		this.memManager = this.taskContext.getMemoryManager();
+		this.numPages = this.memManager.computeNumberOfPages(config.getMemoryDriver());
+
+		this.serializer = this.taskContext.getInputSerializer(0);
+		this.comparator = this.taskContext.getInputComparator(0);
+
+		final List<MemorySegment> memory = this.memManager.allocatePages(this.taskContext.getOwningNepheleTask(), this.numPages);
+		this.spillBuffers = new ArrayList<MemorySegment>(NUM_SPILL_BUFFERS);
+		for (int i = 0; i < NUM_SPILL_BUFFERS; i++) {
+			this.spillBuffers.add(memory.remove(memory.size() - 1));
+		}
+
+		this.table = new CompactingHashTable<T, T>(this.serializer, this.comparator.duplicate(), null, null, memory);
+		this.table.open();
+	}
+
+	@Override
+	public void run() throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(this.taskContext.formatLogString("Preprocessing done, running hash reducer."));
+		}
+
+		final MutableObjectIterator<T> input = this.taskContext.<T>getInput(0);
+		final GenericReduce<T> stub = this.taskContext.getStub();
+		final Collector<T> output = this.taskContext.getOutputCollector();
+		final CompactingHashTable<T, T> table = this.table;
+
+		final T value = this.serializer.createInstance();
+		final T match = this.serializer.createInstance();
+
+		while (this.running && input.next(value)) {
+			if (table.getMatchForBuildSideRecord(value, match)) {
+				final T res = stub.reduce(match, value);
+				if (!table.updateMatch(res)) {
+					table.removeRecord(res);
+					spillAndSort(res, input);
+					reduceSorted(this.sorter.getIterator(), stub, output);
+					return;
+				}
+			}
+			else if (!table.insertOrReplaceRecord(value)) {
+				spillAndSort(value, input);
+				reduceSorted(this.sorter.getIterator(), stub, output);
+				return;
+			}
+		}
+
+		// all aggregates fit into the table, emit them
+		final MutableObjectIterator<T> entries = table.getEntryIterator();
+		while (this.running && entries.next(match)) {
+			output.collect(match);
+		}
+	}
+
+	@Override
+	public void cleanup() throws Exception {
+		if (this.table != null) {
+			this.table.close();
+			this.memManager.release(this.table.getFreedMemory());
+			this.table = null;
+		}
+		if (this.sorter != null) {
+			this.sorter.close();
+			this.sorter = null;
+		}
+		if (this.spillReader != null) {
+			try {
+				this.spillReader.closeAndDelete();
+			} catch (Throwable t) {
+				LOG.error("Could not delete the spill file of the hash reducer.", t);
+			}
+			this.spillReader = null;
+		}
+		if (this.spillBuffers != null) {
+			this.memManager.release(this.spillBuffers);
+			this.spillBuffers = null;
+		}
+	}
+
+	@Override
+	public void cancel() {
+		this.running = false;
+	}
+
+	// --------------------------------------------------------------------------------------------
+	//                                   Sort-based Fallback
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * Writes the given record and the contents of the hash table to a temporary file and sets up an external
+	 * sorter over the spilled records and the remaining input, using the memory that was held by the hash table.
+	 */
+	private void spillAndSort(T pending, MutableObjectIterator<T> remainingInput) throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(this.taskContext.formatLogString("Hash table is full after " + this.table.getNumRecords() +
+				" keys. Falling back to sort-based aggregation."));
+		}
+
+		final IOManager ioManager = this.taskContext.getIOManager();
+		final int pageSize = this.memManager.getPageSize();
+
+		// spill the partial aggregates
+		final Channel.ID channel = ioManager.createChannel();
+		final BlockChannelWriter writer = ioManager.createBlockChannelWriter(channel);
+		final ChannelWriterOutputView spillOut = new ChannelWriterOutputView(writer, this.spillBuffers, pageSize);
+
+		this.serializer.serialize(pending, spillOut);
+		final T record = this.serializer.createInstance();
+		final MutableObjectIterator<T> entries = this.table.getEntryIterator();
+		while (entries.next(record)) {
+			this.serializer.serialize(record, spillOut);
+		}
+		final int numBlocks = spillOut.getBlockCount();
+		this.spillBuffers = new ArrayList<MemorySegment>(spillOut.close());
+
+		// hand the hash table's memory to the sorter
+		this.table.close();
+		this.memManager.release(this.table.getFreedMemory());
+		this.table = null;
+
+		this.spillReader = ioManager.createBlockChannelReader(channel);
+		final List<MemorySegment> readBuffers = new ArrayList<MemorySegment>(this.spillBuffers);
+		this.spillBuffers.clear();
+		final ChannelReaderInputView spillIn = new ChannelReaderInputView(this.spillReader, readBuffers, numBlocks, false);
+		final MutableObjectIterator<T> spilled = new ChannelReaderInputViewIterator<T>(spillIn, this.spillBuffers, this.serializer);
+
+		final TaskConfig config = this.taskContext.getTaskConfig();
+		this.sorter = new UnilateralSortMerger<T>(this.memManager, ioManager,
+			new ConcatenatingIterator<T>(spilled, remainingInput), this.taskContext.getOwningNepheleTask(),
+			this.serializer, this.comparator.duplicate(), ((long) (this.numPages - NUM_SPILL_BUFFERS)) * pageSize,
+			config.getFilehandlesDriver(), config.getSpillingThresholdDriver());
+	}
+
+	/**
+	 * Reduces the records of the given sorted input key by key.
+	 */
+	private void reduceSorted(MutableObjectIterator<T> sorted, GenericReduce<T> stub, Collector<T> output) throws Exception {
+		final TypeComparator<T> comparator = this.comparator;
+		final TypeSerializer<T> serializer = this.serializer;
+
+		T reduced = serializer.createInstance();
+		T value = serializer.createInstance();
+
+		if (!sorted.next(reduced)) {
+			return;
+		}
+		comparator.setReference(reduced);
+
+		while (this.running && sorted.next(value)) {
+			if (comparator.equalToReference(value)) {
+				final T res = stub.reduce(reduced, value);
+				if (res == value) {
+					value = reduced;
+					reduced = res;
+					comparator.setReference(reduced);
+				} else if (res != reduced) {
+					serializer.copyTo(res, reduced);
+				}
+			} else {
+				output.collect(reduced);
+
+				final T tmp = reduced;
+				reduced = value;
+				value = tmp;
+				comparator.setReference(reduced);
+			}
+		}
+
+		if (this.running) {
+			output.collect(reduced);
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	/**
+	 * An iterator that returns the records of a first iterator, followed by the records of a second iterator.
+	 */
+	private static final class ConcatenatingIterator<E> implements MutableObjectIterator<E> {
+
+		private MutableObjectIterator<E> current;
+
+		private MutableObjectIterator<E> next;
+
+		ConcatenatingIterator(MutableObjectIterator<E> first, MutableObjectIterator<E> second) {
+			this.current = first;
+			this.next = second;
+		}
+
+		@Override
+		public boolean next(E target) throws IOException {
+			while (true) {
+				if (this.current.next(target)) {
+					return true;
+				} else if (this.next != null) {
+					this.current = this.next;
+					this.next = null;
+				} else {
+					return false;
+				}
+			}
+		}
+	}
+}
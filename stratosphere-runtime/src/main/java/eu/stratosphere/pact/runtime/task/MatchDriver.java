@@ -111,16 +111,28 @@ public class MatchDriver<IT1, IT2, OT> implements PactDriver<GenericJoiner<IT1,
 					serializer2, comparator2, pairComparatorFactory.createComparator12(comparator1, comparator2),
 					memoryManager, ioManager, numPages, this.taskContext.getOwningNepheleTask());
 			break;
-		case HYBRIDHASH_BUILD_FIRST:
-			this.matchIterator = new BuildFirstHashMatchIterator<IT1, IT2, OT>(in1, in2, serializer1, comparator1,
-				serializer2, comparator2, pairComparatorFactory.createComparator21(comparator1, comparator2),
+		case HYBRIDHASH_BUILD_FIRST: {
+			final BuildFirstHashMatchIterator<IT1, IT2, OT> iter = new BuildFirstHashMatchIterator<IT1, IT2, OT>(in1, in2,
+				serializer1, comparator1, serializer2, comparator2, pairComparatorFactory.createComparator21(comparator1, comparator2),
 				memoryManager, ioManager, this.taskContext.getOwningNepheleTask(), availableMemory);
+			iter.setBuildSideEstimates(config.getEstimatedNumRecordsInput(0), config.getEstimatedRecordWidthInput(0));
+			iter.setUseBloomFilters(config.getHashJoinBloomFilters());
+			iter.setAdaptiveTableSize(config.getHashJoinAdaptiveTableSize());
+			iter.setSkewHandling(config.getHashJoinSkewHandling());
+			this.matchIterator = iter;
 			break;
-		case HYBRIDHASH_BUILD_SECOND:
-			this.matchIterator = new BuildSecondHashMatchIterator<IT1, IT2, OT>(in1, in2, serializer1, comparator1,
-					serializer2, comparator2, pairComparatorFactory.createComparator12(comparator1, comparator2),
-					memoryManager, ioManager, this.taskContext.getOwningNepheleTask(), availableMemory);
+		}
+		case HYBRIDHASH_BUILD_SECOND: {
+			final BuildSecondHashMatchIterator<IT1, IT2, OT> iter = new BuildSecondHashMatchIterator<IT1, IT2, OT>(in1, in2,
+				serializer1, comparator1, serializer2, comparator2, pairComparatorFactory.createComparator12(comparator1, comparator2),
+				memoryManager, ioManager, this.taskContext.getOwningNepheleTask(), availableMemory);
+			iter.setBuildSideEstimates(config.getEstimatedNumRecordsInput(1), config.getEstimatedRecordWidthInput(1));
+			iter.setUseBloomFilters(config.getHashJoinBloomFilters());
+			iter.setAdaptiveTableSize(config.getHashJoinAdaptiveTableSize());
+			iter.setSkewHandling(config.getHashJoinSkewHandling());
+			this.matchIterator = iter;
 			break;
+		}
 		default:
 			throw new Exception("Unsupported driver strategy for Match driver: " + ls.name());
 		}
@@ -943,8 +943,9 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 				@SuppressWarnings({ "rawtypes", "unchecked" })
 				UnilateralSortMerger<?> sorter = new UnilateralSortMerger(getMemoryManager(), getIOManager(),
 					this.inputIterators[inputNum], this, this.inputSerializers[inputNum], getLocalStrategyComparator(inputNum),
-					this.config.getMemoryInput(inputNum), this.config.getFilehandlesInput(inputNum),
-					this.config.getSpillingThresholdInput(inputNum));
+					this.config.getMemoryInput(inputNum), -1, this.config.getFilehandlesInput(inputNum),
+					this.config.getSpillingThresholdInput(inputNum), this.config.getSortThreadsInput(inputNum),
+					this.config.getSortMergeReadBuffersInput(inputNum));
 				// set the input to null such that it will be lazily fetched from the input strategy
 				this.inputs[inputNum] = null;
 				this.localStrategies[inputNum] = sorter;
@@ -977,8 +978,9 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 				CombiningUnilateralSortMerger<?> cSorter = new CombiningUnilateralSortMerger(
 					(GenericGroupReduce) localStub, getMemoryManager(), getIOManager(), this.inputIterators[inputNum], 
 					this, this.inputSerializers[inputNum], getLocalStrategyComparator(inputNum),
-					this.config.getMemoryInput(inputNum), this.config.getFilehandlesInput(inputNum),
-					this.config.getSpillingThresholdInput(inputNum));
+					this.config.getMemoryInput(inputNum), -1, this.config.getFilehandlesInput(inputNum),
+					this.config.getSpillingThresholdInput(inputNum), this.config.getSortThreadsInput(inputNum),
+					this.config.getSortMergeReadBuffersInput(inputNum));
 				cSorter.setUdfConfiguration(this.config.getStubParameters());
 				
 				// set the input to null such that it will be lazily fetched from the input strategy
@@ -1293,6 +1295,10 @@ public class RegularPactTask<S extends Function, OT> extends AbstractTask implem
 				final ChannelSelector<SerializationDelegate<T>> oe;
 				if (compFactory == null) {
 					oe = new OutputEmitter<T>(strategy);
+				} else if (strategy == ShipStrategyType.PARTITION_RANGE && dataDist == null) {
+					final TypeComparator<T> comparator = compFactory.createComparator();
+					final List<T> boundaries = config.getOutputRangeBoundaries(i, serializerFactory.getSerializer());
+					oe = new OutputEmitter<T>(strategy, comparator, boundaries);
 				} else if (dataDist == null){
 					final TypeComparator<T> comparator = compFactory.createComparator();
 					oe = new OutputEmitter<T>(strategy, comparator);
@@ -0,0 +1,139 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.task;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import eu.stratosphere.api.common.functions.GenericReduce;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.pact.runtime.task.util.TaskConfig;
+import eu.stratosphere.util.Collector;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Reduce driver for {@link GenericReduce} functions on input that is grouped by the key. The records of each
+ * key are combined pairwise with the reduce function, and the final result is emitted when the key changes.
+ * 
+ * @see GenericReduce
+ */
+public class SortedReduceDriver<T> implements PactDriver<GenericReduce<T>, T> {
+	
+	private static final Log LOG = LogFactory.getLog(SortedReduceDriver.class);
+
+	private PactTaskContext<GenericReduce<T>, T> taskContext;
+	
+	private MutableObjectIterator<T> input;
+
+	private TypeSerializer<T> serializer;
+
+	private TypeComparator<T> comparator;
+	
+	private volatile boolean running;
+
+	// ------------------------------------------------------------------------
+
+	@Override
+	public void setup(PactTaskContext<GenericReduce<T>, T> context) {
+		this.taskContext = context;
+		this.running = true;
+	}
+	
+	@Override
+	public int getNumberOfInputs() {
+		return 1;
+	}
+
+	@Override
+	public Class<GenericReduce<T>> getStubType() {
+		@SuppressWarnings("unchecked")
+		final Class<GenericReduce<T>> clazz = (Class<GenericReduce<T>>) (Class<?>) GenericReduce.class;
+		return clazz;
+	}
+
+	@Override
+	public boolean requiresComparatorOnInput() {
+		return true;
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void prepare() throws Exception {
+		TaskConfig config = this.taskContext.getTaskConfig();
+		if (config.getDriverStrategy() != DriverStrategy.SORTED_REDUCE) {
+			throw new Exception("Unrecognized driver strategy for sorted reduce driver: " + config.getDriverStrategy().name());
+		}
+		this.serializer = this.taskContext.getInputSerializer(0);
+		this.comparator = this.taskContext.getInputComparator(0);
+		this.input = this.taskContext.getInput(0);
+	}
+
+	@Override
+	public void run() throws Exception {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug(this.taskContext.formatLogString("Reducer preprocessing done. Running Reducer code."));
+		}
+
+		// cache references on the stack
+		final MutableObjectIterator<T> input = this.input;
+		final TypeSerializer<T> serializer = this.serializer;
+		final TypeComparator<T> comparator = this.comparator;
+		final GenericReduce<T> stub = this.taskContext.getStub();
+		final Collector<T> output = this.taskContext.getOutputCollector();
+
+		T reduced = serializer.createInstance();
+		T value = serializer.createInstance();
+
+		if (!input.next(reduced)) {
+			return;
+		}
+		comparator.setReference(reduced);
+
+		while (this.running && input.next(value)) {
+			if (comparator.equalToReference(value)) {
+				final T res = stub.reduce(reduced, value);
+				if (res == value) {
+					// the function returned the second instance, keep that one as the aggregate
+					value = reduced;
+					reduced = res;
+					comparator.setReference(reduced);
+				} else if (res != reduced) {
+					serializer.copyTo(res, reduced);
+				}
+			} else {
+				// the key changed, emit the aggregate and start with the next key
+				output.collect(reduced);
+
+				final T tmp = reduced;
+				reduced = value;
+				value = tmp;
+				comparator.setReference(reduced);
+			}
+		}
+
+		if (this.running) {
+			output.collect(reduced);
+		}
+	}
+
+	@Override
+	public void cleanup() {}
+
+	@Override
+	public void cancel() {
+		this.running = false;
+	}
+}
@@ -0,0 +1,175 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.task.chaining;
+
+import java.io.IOException;
+import java.util.List;
+
+import eu.stratosphere.api.common.functions.Function;
+import eu.stratosphere.api.common.functions.GenericReduce;
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeComparatorFactory;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.api.common.typeutils.TypeSerializerFactory;
+import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.pact.runtime.hash.CompactingHashTable;
+import eu.stratosphere.pact.runtime.task.RegularPactTask;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * The chained variant of the {@link eu.stratosphere.pact.runtime.task.HashCombineDriver}. It aggregates the records
+ * pushed into it in an in-memory hash table and emits the table's contents when the table is full and when the
+ * chain is closed.
+ *
+ * @param <T> The data type consumed and produced by the combiner.
+ */
+public class ChainedHashCombineDriver<T> extends ChainedDriver<T, T> {
+
+	private CompactingHashTable<T, T> table;
+
+	private GenericReduce<T> combiner;
+
+	private TypeSerializer<T> serializer;
+
+	private AbstractInvokable parent;
+
+	private MemoryManager memManager;
+
+	private T match;
+
+	private volatile boolean running = true;
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void setup(AbstractInvokable parent) {
+		this.parent = parent;
+
+		@SuppressWarnings("unchecked")
+		final GenericReduce<T> combiner =
+			RegularPactTask.instantiateUserCode(this.config, userCodeClassLoader, GenericReduce.class);
+		this.combiner = combiner;
+		combiner.setRuntimeContext(getUdfRuntimeContext());
+	}
+
+	@Override
+	public void openTask() throws Exception {
+		// open the stub first
+		final Configuration stubConfig = this.config.getStubParameters();
+		RegularPactTask.openUserCode(this.combiner, stubConfig);
+
+		// ----------------- Set up the hash table -------------------------
+
+		this.memManager = this.parent.getEnvironment().getMemoryManager();
+		final int numMemoryPages = this.memManager.computeNumberOfPages(this.config.getMemoryDriver());
+
+		// instantiate the serializer / comparator
+		final TypeSerializerFactory<T> serializerFactory = this.config.getInputSerializer(0, this.userCodeClassLoader);
+		final TypeComparatorFactory<T> comparatorFactory = this.config.getDriverComparator(0, this.userCodeClassLoader);
+		this.serializer = serializerFactory.getSerializer();
+		final TypeComparator<T> comparator = comparatorFactory.createComparator();
+		this.match = this.serializer.createInstance();
+
+		final List<MemorySegment> memory = this.memManager.allocatePages(this.parent, numMemoryPages);
+		this.table = new CompactingHashTable<T, T>(this.serializer, comparator, null, null, memory);
+		this.table.open();
+	}
+
+	@Override
+	public void closeTask() throws Exception {
+		releaseTable();
+
+		if (!this.running)
+			return;
+
+		RegularPactTask.closeUserCode(this.combiner);
+	}
+
+	@Override
+	public void cancelTask() {
+		this.running = false;
+		releaseTable();
+	}
+
+	private void releaseTable() {
+		if (this.table != null) {
+			this.table.close();
+			this.memManager.release(this.table.getFreedMemory());
+			this.table = null;
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	public Function getStub() {
+		return this.combiner;
+	}
+
+	public String getTaskName() {
+		return this.taskName;
+	}
+
+	@Override
+	public void collect(T record) {
+		final CompactingHashTable<T, T> table = this.table;
+
+		try {
+			if (table.getMatchForBuildSideRecord(record, this.match)) {
+				final T res = this.combiner.reduce(this.match, record);
+				if (!table.updateMatch(res)) {
+					// the aggregate does not fit. emit it right away and make room for the next records
+					table.removeRecord(res);
+					this.outputCollector.collect(res);
+					flush();
+				}
+			}
+			else if (!table.insertOrReplaceRecord(record)) {
+				flush();
+				if (!table.insertOrReplaceRecord(record)) {
+					// the record is too large for the table
+					this.outputCollector.collect(record);
+				}
+			}
+		} catch (Exception e) {
+			throw new ExceptionInChainedStubException(this.taskName, e);
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	@Override
+	public void close() {
+		try {
+			if (this.running) {
+				flush();
+			}
+		} catch (Exception e) {
+			throw new ExceptionInChainedStubException(this.taskName, e);
+		}
+		this.outputCollector.close();
+	}
+
+	private void flush() throws IOException {
+		final MutableObjectIterator<T> entries = this.table.getEntryIterator();
+		final T reuse = this.match;
+		while (entries.next(reuse)) {
+			this.outputCollector.collect(reuse);
+		}
+		this.table.close();
+		this.table.open();
+	}
+}
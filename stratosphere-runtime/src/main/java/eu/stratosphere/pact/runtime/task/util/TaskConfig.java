@@ -35,8 +35,11 @@ import eu.stratosphere.api.common.functions.Function;
 import eu.stratosphere.api.common.operators.util.UserCodeWrapper;
 import eu.stratosphere.api.common.typeutils.TypeComparatorFactory;
 import eu.stratosphere.api.common.typeutils.TypePairComparatorFactory;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
 import eu.stratosphere.api.common.typeutils.TypeSerializerFactory;
 import eu.stratosphere.configuration.Configuration;
+import eu.stratosphere.pact.runtime.plugable.DeserializationDelegate;
+import eu.stratosphere.pact.runtime.plugable.SerializationDelegate;
 import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
 import eu.stratosphere.pact.runtime.task.DriverStrategy;
 import eu.stratosphere.pact.runtime.task.PactDriver;
@@ -131,6 +134,10 @@ public class TaskConfig {
 	
 	private static final String OUTPUT_DATA_DISTRIBUTION_PREFIX = "out.distribution.";
 	
+	private static final String OUTPUT_RANGE_BOUNDARIES_NUM_PREFIX = "out.boundaries.num.";
+	
+	private static final String OUTPUT_RANGE_BOUNDARIES_PREFIX = "out.boundaries.";
+	
 	// ------------------------------------- Chaining ---------------------------------------------
 	
 	private static final String CHAINING_NUM_STUBS = "chaining.num";
@@ -155,6 +162,20 @@ public class TaskConfig {
 	
 	private static final String SORT_SPILLING_THRESHOLD_INPUT_PREFIX = "sort-spill-threshold.input.";
 	
+	private static final String SORT_THREADS_INPUT_PREFIX = "sort-threads.input.";
+	
+	private static final String SORT_MERGE_READ_BUFFERS_INPUT_PREFIX = "sort-merge-read-buffers.input.";
+	
+	private static final String ESTIMATED_NUM_RECORDS_INPUT_PREFIX = "estimates.records.input.";
+	
+	private static final String ESTIMATED_RECORD_WIDTH_INPUT_PREFIX = "estimates.width.input.";
+	
+	private static final String HASHJOIN_BLOOM_FILTERS = "hashjoin.bloom-filters";
+	
+	private static final String HASHJOIN_ADAPTIVE_TABLE_SIZE = "hashjoin.adaptive-table-size";
+	
+	private static final String HASHJOIN_SKEW_HANDLING = "hashjoin.skew-handling";
+	
 	// ----------------------------------- Iterations ---------------------------------------------
 	
 	private static final String NUMBER_OF_ITERATIONS = "iterative.num-iterations";
@@ -583,6 +604,51 @@ public class TaskConfig {
 		}
 	}
 	
+	public <T> void setOutputRangeBoundaries(List<T> boundaries, TypeSerializer<T> serializer, int outputNum) {
+		final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		final DataOutputStream dos = new DataOutputStream(baos);
+		final SerializationDelegate<T> delegate = new SerializationDelegate<T>(serializer);
+		try {
+			for (T boundary : boundaries) {
+				delegate.setInstance(boundary);
+				delegate.write(dos);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Error serializing the partition boundaries: " + e.getMessage(), e);
+		}
+		
+		this.config.setInteger(OUTPUT_RANGE_BOUNDARIES_NUM_PREFIX + outputNum, boundaries.size());
+		this.config.setBytes(OUTPUT_RANGE_BOUNDARIES_PREFIX + outputNum, baos.toByteArray());
+	}
+	
+	public <T> List<T> getOutputRangeBoundaries(int outputNum, TypeSerializer<T> serializer) {
+		final int numBoundaries = this.config.getInteger(OUTPUT_RANGE_BOUNDARIES_NUM_PREFIX + outputNum, -1);
+		if (numBoundaries < 0) {
+			return null;
+		}
+		
+		final byte[] encoded = this.config.getBytes(OUTPUT_RANGE_BOUNDARIES_PREFIX + outputNum, null);
+		if (encoded == null) {
+			throw new CorruptConfigurationException(
+						"The configuration contained the number of partition boundaries, but no serialized boundaries.");
+		}
+		
+		final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+		final DeserializationDelegate<T> delegate = new DeserializationDelegate<T>(serializer);
+		final List<T> boundaries = new ArrayList<T>(numBoundaries);
+		try {
+			for (int i = 0; i < numBoundaries; i++) {
+				final T boundary = serializer.createInstance();
+				delegate.setInstance(boundary);
+				delegate.read(in);
+				boundaries.add(boundary);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Error deserializing the partition boundaries: " + e.getMessage(), e);
+		}
+		return boundaries;
+	}
+	
 	// --------------------------------------------------------------------------------------------
 	//                       Parameters to configure the memory and I/O behavior
 	// --------------------------------------------------------------------------------------------
@@ -651,6 +717,98 @@ public class TaskConfig {
 		return this.config.getFloat(SORT_SPILLING_THRESHOLD_INPUT_PREFIX + inputNum, 0.7f);
 	}
 	
+	// --------------------------------------------------------------------------------------------
+	
+	public void setSortThreadsInput(int inputNum, int numThreads) {
+		if (numThreads < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.config.setInteger(SORT_THREADS_INPUT_PREFIX + inputNum, numThreads);
+	}
+
+	public int getSortThreadsInput(int inputNum) {
+		return this.config.getInteger(SORT_THREADS_INPUT_PREFIX + inputNum, 1);
+	}
+	
+	public void setSortMergeReadBuffersInput(int inputNum, int numBuffers) {
+		if (numBuffers < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.config.setInteger(SORT_MERGE_READ_BUFFERS_INPUT_PREFIX + inputNum, numBuffers);
+	}
+
+	public int getSortMergeReadBuffersInput(int inputNum) {
+		return this.config.getInteger(SORT_MERGE_READ_BUFFERS_INPUT_PREFIX + inputNum, 2);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Sets the compiler's estimate of the number of records that one parallel instance of the task
+	 * receives through the given input.
+	 */
+	public void setEstimatedNumRecordsInput(int inputNum, long numRecords) {
+		this.config.setLong(ESTIMATED_NUM_RECORDS_INPUT_PREFIX + inputNum, numRecords);
+	}
+	
+	/**
+	 * Gets the estimated number of records that one parallel instance of the task receives through the
+	 * given input, or <code>-1</code>, if no estimate is known.
+	 */
+	public long getEstimatedNumRecordsInput(int inputNum) {
+		return this.config.getLong(ESTIMATED_NUM_RECORDS_INPUT_PREFIX + inputNum, -1);
+	}
+	
+	/**
+	 * Sets the compiler's estimate of the average width in bytes of the records of the given input.
+	 */
+	public void setEstimatedRecordWidthInput(int inputNum, float width) {
+		this.config.setFloat(ESTIMATED_RECORD_WIDTH_INPUT_PREFIX + inputNum, width);
+	}
+	
+	/**
+	 * Gets the estimated average width in bytes of the records of the given input, or <code>-1</code>,
+	 * if no estimate is known.
+	 */
+	public float getEstimatedRecordWidthInput(int inputNum) {
+		return this.config.getFloat(ESTIMATED_RECORD_WIDTH_INPUT_PREFIX + inputNum, -1.0f);
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	/**
+	 * Sets whether the hash join of the task keeps bloom filters for its spilled partitions.
+	 */
+	public void setHashJoinBloomFilters(boolean useBloomFilters) {
+		this.config.setBoolean(HASHJOIN_BLOOM_FILTERS, useBloomFilters);
+	}
+	
+	public boolean getHashJoinBloomFilters() {
+		return this.config.getBoolean(HASHJOIN_BLOOM_FILTERS, true);
+	}
+	
+	/**
+	 * Sets whether the hash join of the task re-sizes its initial bucket table after the first build-side records.
+	 */
+	public void setHashJoinAdaptiveTableSize(boolean adaptiveTableSize) {
+		this.config.setBoolean(HASHJOIN_ADAPTIVE_TABLE_SIZE, adaptiveTableSize);
+	}
+	
+	public boolean getHashJoinAdaptiveTableSize() {
+		return this.config.getBoolean(HASHJOIN_ADAPTIVE_TABLE_SIZE, true);
+	}
+	
+	/**
+	 * Sets whether the hash join of the task joins keys with very many build-side records separately.
+	 */
+	public void setHashJoinSkewHandling(boolean skewHandling) {
+		this.config.setBoolean(HASHJOIN_SKEW_HANDLING, skewHandling);
+	}
+	
+	public boolean getHashJoinSkewHandling() {
+		return this.config.getBoolean(HASHJOIN_SKEW_HANDLING, true);
+	}
+	
 	// --------------------------------------------------------------------------------------------
 	//                                    Parameters for Function Chaining
 	// --------------------------------------------------------------------------------------------
@@ -111,7 +111,7 @@ public class GateDeploymentDescriptorTest {
 		channels.add(cdd);
 
 		final GateDeploymentDescriptor orig = new GateDeploymentDescriptor(gateID, channelType,
-			channels);
+			channels, true);
 
 		GateDeploymentDescriptor copy = null;
 
@@ -125,6 +125,7 @@ public class GateDeploymentDescriptorTest {
 
 		assertEquals(orig.getGateID(), copy.getGateID());
 		assertEquals(orig.getChannelType(), copy.getChannelType());
+		assertEquals(orig.isCompressionEnabled(), copy.isCompressionEnabled());
 		assertEquals(orig.getNumberOfChannelDescriptors(), copy.getNumberOfChannelDescriptors());
 		assertEquals(orig.getChannelDescriptor(0).getOutputChannelID(), copy.getChannelDescriptor(0)
 			.getOutputChannelID());
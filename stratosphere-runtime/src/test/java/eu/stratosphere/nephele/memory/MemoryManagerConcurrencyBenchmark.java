@@ -0,0 +1,138 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.DefaultMemoryManagerTest;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+
+/**
+ * Measures the throughput of page allocations and releases, when many invokables share one memory manager,
+ * as the tasks of a worker do. Each thread acts as a separate owner and repeatedly allocates and releases a
+ * few pages. The benchmark runs with an increasing number of threads, for example:
+ * <pre>
+ * java MemoryManagerConcurrencyBenchmark 64 4
+ * </pre>
+ * where the first argument is the maximal number of threads and the second argument the number of pages
+ * per allocation.
+ */
+public class MemoryManagerConcurrencyBenchmark {
+	
+	private static final long MEMORY_SIZE = 256 * 1024 * 1024;
+	
+	private static final int WARMUP_MILLIS = 1000;
+	
+	private static final int MEASURE_MILLIS = 3000;
+	
+	
+	public static void main(String[] args) throws Exception {
+		final int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+		final int pagesPerAllocation = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		
+		final DefaultMemoryManager memManager = new DefaultMemoryManager(MEMORY_SIZE);
+		
+		for (int numThreads = 1; numThreads <= maxThreads; numThreads <<= 1) {
+			final long ops = run(memManager, numThreads, pagesPerAllocation);
+			System.out.println(numThreads + " threads: " + (ops * 1000 / MEASURE_MILLIS) + " allocate/release pairs per second.");
+		}
+		
+		if (!memManager.verifyEmpty()) {
+			throw new IllegalStateException("Memory was not returned to the memory manager.");
+		}
+		memManager.shutdown();
+	}
+	
+	private static long run(final DefaultMemoryManager memManager, int numThreads, final int pagesPerAllocation)
+			throws Exception
+	{
+		final CountDownLatch start = new CountDownLatch(1);
+		final Worker[] workers = new Worker[numThreads];
+		
+		for (int i = 0; i < numThreads; i++) {
+			workers[i] = new Worker(memManager, pagesPerAllocation, start);
+			workers[i].start();
+		}
+		
+		start.countDown();
+		Thread.sleep(WARMUP_MILLIS);
+		
+		final long[] countsBefore = new long[numThreads];
+		for (int i = 0; i < numThreads; i++) {
+			countsBefore[i] = workers[i].count;
+		}
+		Thread.sleep(MEASURE_MILLIS);
+		
+		long ops = 0;
+		for (int i = 0; i < numThreads; i++) {
+			ops += workers[i].count - countsBefore[i];
+			workers[i].running = false;
+		}
+		for (Worker worker : workers) {
+			worker.join();
+			if (worker.error != null) {
+				throw new Exception("Worker failed.", worker.error);
+			}
+		}
+		return ops;
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static final class Worker extends Thread {
+		
+		private final DefaultMemoryManager memManager;
+		
+		private final int pagesPerAllocation;
+		
+		private final CountDownLatch start;
+		
+		private final AbstractInvokable owner = new DefaultMemoryManagerTest.DummyInvokable();
+		
+		private volatile boolean running = true;
+		
+		private volatile long count;
+		
+		private volatile Throwable error;
+		
+		Worker(DefaultMemoryManager memManager, int pagesPerAllocation, CountDownLatch start) {
+			this.memManager = memManager;
+			this.pagesPerAllocation = pagesPerAllocation;
+			this.start = start;
+			setDaemon(true);
+		}
+		
+		@Override
+		public void run() {
+			try {
+				this.start.await();
+				
+				final List<MemorySegment> pages = new ArrayList<MemorySegment>(this.pagesPerAllocation);
+				long count = 0;
+				while (this.running) {
+					this.memManager.allocatePages(this.owner, pages, this.pagesPerAllocation);
+					this.memManager.release(pages);
+					this.count = ++count;
+				}
+			}
+			catch (Throwable t) {
+				this.error = t;
+			}
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.memory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.DefaultMemoryManagerTest;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.types.IntValue;
+
+/**
+ * Compares the garbage collection time of a JVM whose managed memory lives on the heap with one whose
+ * managed memory lives outside the heap. The benchmark allocates the managed memory, fills it, and then
+ * produces short lived garbage, as user code does. Run it once per mode in a fresh JVM, with a fixed heap
+ * size that holds the managed memory only in the heap mode, for example:
+ * <pre>
+ * java -Xms24g -Xmx24g MemoryManagerGCBenchmark 20480 heap
+ * java -Xms4g -Xmx4g -XX:MaxDirectMemorySize=21g MemoryManagerGCBenchmark 20480 offheap
+ * </pre>
+ */
+public class MemoryManagerGCBenchmark {
+	
+	private static final int GARBAGE_ROUNDS = 200;
+	
+	private static final int OBJECTS_PER_ROUND = 2000000;
+	
+	@SuppressWarnings("unused")
+	private static long sideEffect = 0;
+	
+	
+	public static void main(String[] args) throws Exception {
+		final long memoryMegabytes = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+		final boolean offHeap = args.length > 1 && args[1].equalsIgnoreCase("offheap");
+		
+		final long start = System.currentTimeMillis();
+		final DefaultMemoryManager memManager = new DefaultMemoryManager(memoryMegabytes * 1024 * 1024,
+			DefaultMemoryManager.DEFAULT_PAGE_SIZE, offHeap);
+		System.out.println("Allocated " + memoryMegabytes + " MiBytes of " + (offHeap ? "off-heap" : "heap") +
+			" memory in " + (System.currentTimeMillis() - start) + " msecs.");
+		
+		// take all the memory and write to it, as a sort would
+		final AbstractInvokable owner = new DefaultMemoryManagerTest.DummyInvokable();
+		final int numPages = memManager.computeNumberOfPages(memoryMegabytes * 1024 * 1024);
+		final List<MemorySegment> pages = memManager.allocatePages(owner, numPages);
+		for (MemorySegment page : pages) {
+			for (int i = 0; i < page.size(); i += 8) {
+				page.putLong(i, i);
+			}
+		}
+		
+		final long gcTimeBefore = getTotalGarbageCollectionTime();
+		final long gcCountBefore = getTotalGarbageCollections();
+		final long runStart = System.currentTimeMillis();
+		
+		// produce short lived garbage, while the managed memory is in use
+		final List<IntValue> garbage = new ArrayList<IntValue>(OBJECTS_PER_ROUND);
+		for (int round = 0; round < GARBAGE_ROUNDS; round++) {
+			for (int i = 0; i < OBJECTS_PER_ROUND; i++) {
+				garbage.add(new IntValue(i));
+			}
+			sideEffect += garbage.size() + pages.get(round % pages.size()).getLong(0);
+			garbage.clear();
+		}
+		
+		System.out.println("Run time: " + (System.currentTimeMillis() - runStart) + " msecs, garbage collections: " + 
+			(getTotalGarbageCollections() - gcCountBefore) + ", garbage collection time: " +
+			(getTotalGarbageCollectionTime() - gcTimeBefore) + " msecs.");
+		
+		memManager.release(pages);
+		memManager.shutdown();
+	}
+	
+	private static long getTotalGarbageCollectionTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(bean.getCollectionTime(), 0);
+		}
+		return time;
+	}
+	
+	private static long getTotalGarbageCollections() {
+		long count = 0;
+		for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(bean.getCollectionCount(), 0);
+		}
+		return count;
+	}
+}
@@ -15,7 +15,9 @@ package eu.stratosphere.nephele.services.iomanager;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import junit.framework.Assert;
 
@@ -188,6 +190,165 @@ public class IOManagerTest
 		}
 	}
 
+	@Test
+	public void channelReadWriteMultipleThreadsPerPath()
+	{
+		final int NUM_IOS = 333;
+		final int NUM_CHANNELS = 8;
+		final int NUM_SEGS_PER_CHANNEL = 4;
+		
+		final IOManager multiThreadedManager = new IOManager(new String[] { System.getProperty("java.io.tmpdir") }, 4);
+		try {
+			final List<MemorySegment> memSegs = this.memoryManager.allocatePages(new DummyInvokable(), NUM_CHANNELS * NUM_SEGS_PER_CHANNEL);
+			final Channel.ID[] channelIDs = new Channel.ID[NUM_CHANNELS];
+			final BlockChannelWriter[] writers = new BlockChannelWriter[NUM_CHANNELS];
+			final List<List<MemorySegment>> freeSegs = new ArrayList<List<MemorySegment>>();
+			
+			for (int c = 0; c < NUM_CHANNELS; c++) {
+				channelIDs[c] = multiThreadedManager.createChannel();
+				writers[c] = multiThreadedManager.createBlockChannelWriter(channelIDs[c]);
+				freeSegs.add(new ArrayList<MemorySegment>(memSegs.subList(c * NUM_SEGS_PER_CHANNEL, (c + 1) * NUM_SEGS_PER_CHANNEL)));
+			}
+			memSegs.clear();
+			
+			// write to all channels in an interleaved fashion
+			for (int i = 0; i < NUM_IOS; i++) {
+				for (int c = 0; c < NUM_CHANNELS; c++) {
+					final List<MemorySegment> free = freeSegs.get(c);
+					final MemorySegment memSeg = free.isEmpty() ? writers[c].getNextReturnedSegment() : free.remove(0);
+					
+					for (int pos = 0; pos < memSeg.size(); pos += 4) {
+						memSeg.putInt(pos, i * NUM_CHANNELS + c);
+					}
+					writers[c].writeBlock(memSeg);
+				}
+			}
+			
+			final BlockChannelReader[] readers = new BlockChannelReader[NUM_CHANNELS];
+			for (int c = 0; c < NUM_CHANNELS; c++) {
+				writers[c].close();
+				final List<MemorySegment> free = freeSegs.get(c);
+				while (free.size() < NUM_SEGS_PER_CHANNEL) {
+					free.add(writers[c].getNextReturnedSegment());
+				}
+				
+				readers[c] = multiThreadedManager.createBlockChannelReader(channelIDs[c]);
+				while (!free.isEmpty()) {
+					readers[c].readBlock(free.remove(0));
+				}
+			}
+			
+			// read all channels in an interleaved fashion, the blocks of each channel must come back in order
+			for (int i = 0; i < NUM_IOS; i++) {
+				for (int c = 0; c < NUM_CHANNELS; c++) {
+					final MemorySegment memSeg = readers[c].getNextReturnedSegment();
+					for (int pos = 0; pos < memSeg.size(); pos += 4) {
+						if (memSeg.getInt(pos) != i * NUM_CHANNELS + c) {
+							Assert.fail("Read memory segment contains invalid data.");
+						}
+					}
+					readers[c].readBlock(memSeg);
+				}
+			}
+			
+			for (int c = 0; c < NUM_CHANNELS; c++) {
+				readers[c].closeAndDelete();
+				while (memSegs.size() < (c + 1) * NUM_SEGS_PER_CHANNEL) {
+					memSegs.add(readers[c].getNextReturnedSegment());
+				}
+			}
+			
+			final IOManager.PathStatistics stats = multiThreadedManager.getStatistics()[0];
+			Assert.assertEquals(NUM_IOS * NUM_CHANNELS, stats.getNumWriteRequests());
+			Assert.assertTrue(stats.getNumWriteCalls() <= stats.getNumWriteRequests());
+			Assert.assertEquals(((long) NUM_IOS) * NUM_CHANNELS * this.memoryManager.getPageSize(), stats.getNumBytesWritten());
+			Assert.assertTrue(stats.getNumReadRequests() >= NUM_IOS * NUM_CHANNELS);
+			
+			this.memoryManager.release(memSegs);
+			
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			Assert.fail("Test encountered an exception: " + ex.getMessage());
+		} finally {
+			multiThreadedManager.shutdown();
+			Assert.assertTrue("IO Manager has not properly shut down.", multiThreadedManager.isProperlyShutDown());
+		}
+	}
+
+	@Test
+	public void channelReadWriteCompressed()
+	{
+		final int NUM_IOS = 333;
+		final int NUM_SEGS = 8;
+		
+		final IOManager compressingManager = this.ioManager.withCompression(IOManager.getCompressionCodec("lz4"));
+		final Random rnd = new Random(0x5eed);
+		
+		try {
+			final List<MemorySegment> memSegs = this.memoryManager.allocatePages(new DummyInvokable(), NUM_SEGS);
+			final Channel.ID channelID = compressingManager.createChannel();
+			final BlockChannelWriter writer = compressingManager.createBlockChannelWriter(channelID);
+			
+			// every other block is random and does not compress
+			for (int i = 0; i < NUM_IOS; i++) {
+				final MemorySegment memSeg = memSegs.isEmpty() ? writer.getNextReturnedSegment() : memSegs.remove(0);
+				fillSegment(memSeg, i, rnd);
+				writer.writeBlock(memSeg);
+			}
+			writer.close();
+			
+			while (memSegs.size() < NUM_SEGS) {
+				memSegs.add(writer.getNextReturnedSegment());
+			}
+			
+			final long fileSize = new File(channelID.getPath()).length();
+			Assert.assertTrue("Blocks were not compressed.", fileSize < ((long) NUM_IOS) * this.memoryManager.getPageSize());
+			
+			final BlockChannelReader reader = compressingManager.createBlockChannelReader(channelID);
+			while(!memSegs.isEmpty()) {
+				reader.readBlock(memSegs.remove(0));
+			}
+			
+			final Random verifyRnd = new Random(0x5eed);
+			final MemorySegment expected = new MemorySegment(new byte[this.memoryManager.getPageSize()]);
+			for (int i = 0; i < NUM_IOS; i++) {
+				final MemorySegment memSeg = reader.getNextReturnedSegment();
+				fillSegment(expected, i, verifyRnd);
+				
+				for (int pos = 0; pos < memSeg.size(); pos += 8) {
+					if (memSeg.getLong(pos) != expected.getLong(pos)) {
+						Assert.fail("Read memory segment contains invalid data.");
+					}
+				}
+				reader.readBlock(memSeg);
+			}
+			
+			reader.closeAndDelete();
+			
+			while (memSegs.size() < NUM_SEGS) {
+				memSegs.add(reader.getNextReturnedSegment());
+			}
+			this.memoryManager.release(memSegs);
+			
+		} catch (Exception ex) {
+			ex.printStackTrace();
+			Assert.fail("Test encountered an exception: " + ex.getMessage());
+		}
+	}
+	
+	private static void fillSegment(MemorySegment seg, int blockNum, Random rnd)
+	{
+		if (blockNum % 2 == 0) {
+			for (int pos = 0; pos < seg.size(); pos += 4) {
+				seg.putInt(pos, blockNum + (pos % 64));
+			}
+		} else {
+			for (int pos = 0; pos < seg.size(); pos += 8) {
+				seg.putLong(pos, rnd.nextLong());
+			}
+		}
+	}
+
 	// ============================================================================================
 	
 	final class FailingSegmentReadRequest implements ReadRequest
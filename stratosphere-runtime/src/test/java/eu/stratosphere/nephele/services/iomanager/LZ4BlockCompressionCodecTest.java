@@ -0,0 +1,125 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+package eu.stratosphere.nephele.services.iomanager;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class LZ4BlockCompressionCodecTest
+{
+	private static final long SEED = 8475361273645291L;
+	
+	private final BlockCompressionCodec codec = new LZ4BlockCompressionCodec();
+	
+	@Test
+	public void compressEmptyAndShortBlocks() throws Exception
+	{
+		for (int len = 0; len < 40; len++) {
+			final byte[] data = new byte[len];
+			for (int i = 0; i < len; i++) {
+				data[i] = (byte) (i % 3);
+			}
+			assertRoundTrip(data, 0, len);
+		}
+	}
+	
+	@Test
+	public void compressRandomData() throws Exception
+	{
+		final byte[] data = new byte[32 * 1024];
+		new Random(SEED).nextBytes(data);
+		assertRoundTrip(data, 0, data.length);
+	}
+	
+	@Test
+	public void compressRepetitiveData() throws Exception
+	{
+		final Random rnd = new Random(SEED);
+		final byte[] data = new byte[32 * 1024];
+		final byte[] words = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes();
+		
+		for (int i = 0; i < data.length; ) {
+			if (rnd.nextBoolean()) {
+				// a run of equal bytes, encoded as an overlapping match
+				final int run = Math.min(rnd.nextInt(300), data.length - i);
+				Arrays.fill(data, i, i + run, (byte) rnd.nextInt());
+				i += run;
+			} else {
+				final int start = rnd.nextInt(words.length);
+				final int len = Math.min(words.length - start, data.length - i);
+				System.arraycopy(words, start, data, i, len);
+				i += len;
+			}
+		}
+		
+		final int compressedLength = assertRoundTrip(data, 0, data.length);
+		Assert.assertTrue("Repetitive data was not compressed.", compressedLength < data.length / 2);
+	}
+	
+	@Test
+	public void compressWithOffsets() throws Exception
+	{
+		final byte[] data = new byte[10000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i % 100);
+		}
+		assertRoundTrip(data, 1234, 5678);
+	}
+	
+	@Test
+	public void detectCorruptData() throws Exception
+	{
+		final byte[] data = new byte[4096];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i % 17);
+		}
+		final byte[] compressed = new byte[this.codec.getMaxCompressedLength(data.length)];
+		final int compressedLength = this.codec.compress(data, 0, data.length, compressed, 0);
+		
+		// truncated input
+		try {
+			this.codec.decompress(compressed, 0, compressedLength / 2, new byte[data.length], 0, data.length);
+			Assert.fail("Truncated data was not detected.");
+		} catch (IOException ioex) {
+			// expected
+		}
+		
+		// too small target
+		try {
+			this.codec.decompress(compressed, 0, compressedLength, new byte[data.length], 0, data.length / 2);
+			Assert.fail("Too small target was not detected.");
+		} catch (IOException ioex) {
+			// expected
+		}
+	}
+	
+	private int assertRoundTrip(byte[] data, int offset, int length) throws IOException
+	{
+		final byte[] compressed = new byte[7 + this.codec.getMaxCompressedLength(length)];
+		final int compressedLength = this.codec.compress(data, offset, length, compressed, 7);
+		Assert.assertTrue(compressedLength <= this.codec.getMaxCompressedLength(length));
+		
+		final byte[] restored = new byte[length + 3];
+		final int restoredLength = this.codec.decompress(compressed, 7, compressedLength, restored, 3, length);
+		Assert.assertEquals(length, restoredLength);
+		for (int i = 0; i < length; i++) {
+			Assert.assertEquals("Wrong byte at position " + i, data[offset + i], restored[3 + i]);
+		}
+		return compressedLength;
+	}
+}
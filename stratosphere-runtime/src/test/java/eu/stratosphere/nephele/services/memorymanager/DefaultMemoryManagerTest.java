@@ -159,6 +159,138 @@ public class DefaultMemoryManagerTest
 		}
 	}
 	
+	@Test
+	public void lazyAllocationAndIdleRelease()
+	{
+		final DefaultMemoryManager lazyManager = new DefaultMemoryManager(MEMORY_SIZE, PAGE_SIZE, false, true, 50);
+		try {
+			final AbstractInvokable mockInvoke = new DummyInvokable();
+			Assert.assertEquals(0, lazyManager.getNumberOfMaterializedPages());
+			
+			List<MemorySegment> segs = lazyManager.allocatePages(mockInvoke, NUM_PAGES / 4);
+			Assert.assertEquals(NUM_PAGES / 4, lazyManager.getNumberOfMaterializedPages());
+			
+			// free pages are reused before new ones are materialized
+			lazyManager.release(segs);
+			segs = lazyManager.allocatePages(mockInvoke, NUM_PAGES / 8);
+			Assert.assertEquals(NUM_PAGES / 4, lazyManager.getNumberOfMaterializedPages());
+			
+			// the limit holds for lazily allocated memory as well
+			segs.addAll(lazyManager.allocatePages(mockInvoke, NUM_PAGES - NUM_PAGES / 8));
+			Assert.assertEquals(NUM_PAGES, lazyManager.getNumberOfMaterializedPages());
+			try {
+				lazyManager.allocatePages(mockInvoke, 1);
+				Assert.fail("Expected MemoryAllocationException.");
+			} catch (MemoryAllocationException maex) {
+				// expected
+			}
+			
+			// released pages are dropped after the idle timeout
+			lazyManager.releaseAll(mockInvoke);
+			Assert.assertTrue(lazyManager.verifyEmpty());
+			final long deadline = System.currentTimeMillis() + 10000;
+			while (lazyManager.getNumberOfMaterializedPages() > 0 && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			Assert.assertEquals(0, lazyManager.getNumberOfMaterializedPages());
+			Assert.assertTrue(lazyManager.verifyEmpty());
+			
+			// and materialized again when requested
+			segs = lazyManager.allocatePages(mockInvoke, NUM_PAGES);
+			Assert.assertTrue(allMemorySegmentsValid(segs));
+			lazyManager.release(segs);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("Test encountered an exception: " + e.getMessage());
+		}
+		finally {
+			lazyManager.shutdown();
+		}
+	}
+	
+	@Test
+	public void concurrentAllocateAndRelease()
+	{
+		final DefaultMemoryManager lazyManager = new DefaultMemoryManager(MEMORY_SIZE, PAGE_SIZE, false, true, -1);
+		try {
+			final int numThreads = 16;
+			final int numRounds = 2000;
+			final int maxPagesPerThread = NUM_PAGES / numThreads;
+			
+			final Thread[] threads = new Thread[numThreads];
+			final Throwable[] errors = new Throwable[numThreads];
+			
+			for (int t = 0; t < numThreads; t++) {
+				final int threadNum = t;
+				final DefaultMemoryManager[] managers = { this.memoryManager, lazyManager };
+				
+				threads[t] = new Thread() {
+					@Override
+					public void run() {
+						try {
+							final AbstractInvokable owner = new DummyInvokable();
+							final Random rnd = new Random(RANDOM_SEED + threadNum);
+							
+							for (int round = 0; round < numRounds; round++) {
+								final DefaultMemoryManager manager = managers[round % 2];
+								final List<MemorySegment> segs = manager.allocatePages(owner, 1 + rnd.nextInt(maxPagesPerThread));
+								
+								if (!allMemorySegmentsValid(segs)) {
+									throw new Exception("Allocated segments are not valid.");
+								}
+								
+								// use all ways of returning the memory
+								switch (rnd.nextInt(3)) {
+								case 0:
+									manager.release(segs);
+									break;
+								case 1:
+									for (MemorySegment seg : segs) {
+										manager.release(seg);
+									}
+									break;
+								default:
+									manager.releaseAll(owner);
+								}
+								
+								if (!allMemorySegmentsFreed(segs)) {
+									throw new Exception("Released segments were not freed.");
+								}
+							}
+						}
+						catch (Throwable t) {
+							errors[threadNum] = t;
+						}
+					}
+				};
+			}
+			
+			for (Thread thread : threads) {
+				thread.start();
+			}
+			for (Thread thread : threads) {
+				thread.join();
+			}
+			for (Throwable t : errors) {
+				if (t != null) {
+					t.printStackTrace();
+					Assert.fail("Concurrent allocation failed: " + t.getMessage());
+				}
+			}
+			
+			Assert.assertTrue(lazyManager.verifyEmpty());
+			Assert.assertTrue(lazyManager.getNumberOfMaterializedPages() <= NUM_PAGES);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("Test encountered an exception: " + e.getMessage());
+		}
+		finally {
+			lazyManager.shutdown();
+		}
+	}
+	
 	private boolean allMemorySegmentsValid(List<MemorySegment> memSegs)
 	{
 		for (MemorySegment seg : memSegs) {
@@ -18,6 +18,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Random;
 
 import junit.framework.Assert;
@@ -25,10 +28,14 @@ import junit.framework.Assert;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 import eu.stratosphere.core.memory.MemorySegment;
 import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
 
+@RunWith(Parameterized.class)
 public class MemorySegmentTest {
 	
 	public static final long RANDOM_SEED = 643196033469871L;
@@ -42,11 +49,22 @@ public class MemorySegmentTest {
 	private MemorySegment segment;
 
 	private Random random;
+	
+	private final boolean offHeap;
+	
+	public MemorySegmentTest(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+	
+	@Parameters
+	public static Collection<Object[]> getConfigurations() {
+		return Arrays.asList(new Object[][] { { false }, { true } });
+	}
 
 	@Before
 	public void setUp() throws Exception{
 		try {
-			this.manager = new DefaultMemoryManager(MANAGED_MEMORY_SIZE, PAGE_SIZE);
+			this.manager = new DefaultMemoryManager(MANAGED_MEMORY_SIZE, PAGE_SIZE, this.offHeap);
 			this.segment = manager.allocatePages(new DefaultMemoryManagerTest.DummyInvokable(), 1).get(0);
 			this.random = new Random(RANDOM_SEED);
 		} catch (Exception e) {
@@ -540,4 +558,63 @@ public class MemorySegmentTest {
 			}
 		}
 	}
+
+	@Test
+	public void copyBetweenHeapAndOffHeap() {
+		final MemorySegment heap = new MemorySegment(new byte[PAGE_SIZE]);
+		final MemorySegment offHeap = new MemorySegment(ByteBuffer.allocateDirect(PAGE_SIZE));
+		assertTrue(offHeap.isOffHeap());
+		
+		final byte[] bytes = new byte[1024];
+		random.nextBytes(bytes);
+		segment.put(100, bytes);
+		
+		// copy in both directions and through the other kind of memory
+		segment.copyTo(100, heap, 0, bytes.length);
+		segment.copyTo(100, offHeap, 10, bytes.length);
+		offHeap.copyTo(10, heap, 2000, bytes.length);
+		heap.copyTo(2000, segment, 5000, bytes.length);
+		
+		assertEquals(0, MemorySegment.compare(segment, heap, 100, 0, bytes.length));
+		assertEquals(0, MemorySegment.compare(segment, offHeap, 5000, 10, bytes.length));
+		
+		final byte[] result = new byte[bytes.length];
+		segment.get(5000, result);
+		assertArrayEquals(bytes, result);
+		
+		// swap with a zeroed region
+		MemorySegment.swapBytes(offHeap, segment, new byte[bytes.length], 10, 8000, bytes.length);
+		offHeap.get(10, result);
+		assertArrayEquals(new byte[bytes.length], result);
+		segment.get(8000, result);
+		assertArrayEquals(bytes, result);
+		
+		// the I/O wrapper sees the same bytes
+		final ByteBuffer wrapped = segment.wrap(8000, bytes.length);
+		assertEquals(bytes.length, wrapped.remaining());
+		for (int i = 0; i < bytes.length; i++) {
+			assertEquals(bytes[i], wrapped.get());
+		}
+	}
+	
+	@Test
+	public void accessAfterRelease() {
+		final MemorySegment released = this.segment;
+		released.putInt(0, 42);
+		this.manager.release(released);
+		assertTrue(released.isFreed());
+		
+		try {
+			released.getInt(0);
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			released.put(0, (byte) 1);
+			fail("IllegalStateException expected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
 }
@@ -0,0 +1,81 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.nephele.taskmanager.bytebuffered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetSocketAddress;
+
+import org.junit.Test;
+
+/**
+ * This class contains tests covering the assignment of connections to the network connection threads.
+ * 
+ */
+public class NetworkConnectionManagerTest {
+
+	/**
+	 * Tests that the two candidate threads of a connection are valid and distinct.
+	 */
+	@Test
+	public void testCandidateThreads() {
+
+		for (int numberOfThreads = 1; numberOfThreads <= 8; ++numberOfThreads) {
+			for (int hashCode = -1000; hashCode < 1000; ++hashCode) {
+
+				final int first = NetworkConnectionManager.getFirstChoice(hashCode, numberOfThreads);
+				final int second = NetworkConnectionManager.getSecondChoice(hashCode, numberOfThreads);
+
+				assertTrue(first >= 0 && first < numberOfThreads);
+				assertTrue(second >= 0 && second < numberOfThreads);
+				if (numberOfThreads > 1) {
+					assertTrue(first != second);
+				} else {
+					assertEquals(0, first);
+					assertEquals(0, second);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that connections to the hosts of a cluster, which only differ in the last octet of their address, are
+	 * spread evenly across the threads when each connection picks the less loaded of its two candidate threads.
+	 */
+	@Test
+	public void testBalancedAssignment() {
+
+		final int numberOfThreads = 8;
+		final int numberOfHosts = 64;
+		final int[] numberOfConnections = new int[numberOfThreads];
+
+		for (int i = 0; i < numberOfHosts; ++i) {
+
+			final RemoteReceiver remoteReceiver = new RemoteReceiver(new InetSocketAddress("10.0.0." + (i + 1), 6122), 0);
+			final int hashCode = remoteReceiver.hashCode();
+
+			final int first = NetworkConnectionManager.getFirstChoice(hashCode, numberOfThreads);
+			final int second = NetworkConnectionManager.getSecondChoice(hashCode, numberOfThreads);
+
+			++numberOfConnections[numberOfConnections[second] < numberOfConnections[first] ? second : first];
+		}
+
+		final int average = numberOfHosts / numberOfThreads;
+		for (int i = 0; i < numberOfThreads; ++i) {
+			assertTrue("Thread " + i + " serves " + numberOfConnections[i] + " connections",
+				Math.abs(numberOfConnections[i] - average) <= 2);
+		}
+	}
+}
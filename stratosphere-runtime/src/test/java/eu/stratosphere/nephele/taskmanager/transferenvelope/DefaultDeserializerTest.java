@@ -192,7 +192,27 @@ public class DefaultDeserializerTest {
 	private ReadableByteChannel createByteChannel(final int[] readInterruptPositions, final int testBufferSize)
 			throws IOException {
 
+		return createByteChannel(readInterruptPositions, testBufferSize, false);
+	}
+
+	/**
+	 * Constructs an {@link InterruptibleByteChannel} from which the deserializer to be tested can read its data.
+	 * 
+	 * @param readInterruptPositions
+	 *        the positions after which the byte stream shall be interrupted
+	 * @param testBufferSize
+	 *        the size of the test buffer to create
+	 * @param compressed
+	 *        <code>true</code> to fill the test buffer with repetitive data and to compress it
+	 * @return an {@link InterruptibleByteChannel} holding the serialized data in memory
+	 * @throws IOException
+	 *         thrown if an error occurs while serializing the original data
+	 */
+	private ReadableByteChannel createByteChannel(final int[] readInterruptPositions, final int testBufferSize,
+			final boolean compressed) throws IOException {
+
 		final TransferEnvelope te = new TransferEnvelope(SEQUENCE_NUMBER, JOB_ID, CHANNEL_ID);
+		te.setBufferCompressible(compressed);
 
 		if (testBufferSize >= 0) {
 
@@ -207,7 +227,7 @@ public class DefaultDeserializerTest {
 
 			final ByteBuffer srcBuffer = ByteBuffer.allocate(testBufferSize);
 			for (int i = 0; i < testBufferSize; ++i) {
-				srcBuffer.put((byte) i);
+				srcBuffer.put(getTestByte(i, compressed));
 			}
 			srcBuffer.flip();
 
@@ -229,6 +249,14 @@ public class DefaultDeserializerTest {
 		return ibc;
 	}
 
+	/**
+	 * Returns the byte at the given position of the test buffer.
+	 */
+	private static byte getTestByte(final int position, final boolean compressed) {
+
+		return compressed ? (byte) (position % 4) : (byte) position;
+	}
+
 	/**
 	 * Executes the deserialization method.
 	 * 
@@ -311,6 +339,38 @@ public class DefaultDeserializerTest {
 		}
 	}
 
+	/**
+	 * Tests the deserialization process of a {@link TransferEnvelope} with a compressed buffer and interruptions of the
+	 * byte stream.
+	 */
+	@Test
+	public void testDeserializationWithCompressedBufferAndInterruptions() {
+
+		try {
+
+			final ReadableByteChannel rbc = createByteChannel(new int[] { 3, 7, 24, 52, 60 }, 100, true);
+
+			final TestBufferProviderBroker tbpb = new TestBufferProviderBroker(new TestBufferProvider(1));
+
+			final TransferEnvelope te = executeDeserialization(rbc, tbpb);
+
+			final Buffer buffer = te.getBuffer();
+			assertNotNull(buffer);
+			assertEquals(100, buffer.size());
+
+			final ByteBuffer data = ByteBuffer.allocate(100);
+			buffer.read(data);
+			for (int i = 0; i < 100; ++i) {
+				assertEquals(getTestByte(i, true), data.get(i));
+			}
+
+		} catch (IOException ioe) {
+			fail(StringUtils.stringifyException(ioe));
+		} catch (NoBufferAvailableException nbae) {
+			fail(StringUtils.stringifyException(nbae));
+		}
+	}
+
 	/**
 	 * Tests the deserialization process of a {@link TransferEnvelope} without a buffer and without interruptions of the
 	 * byte stream.
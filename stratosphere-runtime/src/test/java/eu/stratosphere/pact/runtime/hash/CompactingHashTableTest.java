@@ -0,0 +1,218 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordPairComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializer;
+import eu.stratosphere.pact.runtime.test.util.UniformIntPairGenerator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPair;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairSerializer;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.Key;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.types.StringValue;
+import eu.stratosphere.util.MutableObjectIterator;
+
+public class CompactingHashTableTest {
+
+	private static final int PAGE_SIZE = 4096;
+
+	private static final long SEED = 649180756312423613L;
+
+	// --------------------------------------------------------------------------------------------
+
+	@Test
+	public void testBuildProbeAndUpdateFixedLength() {
+		try {
+			final int numKeys = 10000;
+
+			final CompactingHashTable<IntPair, IntPair> table = new CompactingHashTable<IntPair, IntPair>(
+				new IntPairSerializer(), new IntPairComparator(), new IntPairComparator(), new IntPairPairComparator(),
+				getMemory(128));
+			table.open();
+			table.buildTable(new UniformIntPairGenerator(numKeys, 1, false));
+			assertEquals(numKeys, table.getNumRecords());
+
+			final IntPair probe = new IntPair();
+			final IntPair target = new IntPair();
+
+			for (int i = 0; i < numKeys; i++) {
+				probe.setKey(i);
+				assertTrue("No match for key " + i, table.getMatchFor(probe, target));
+				assertEquals(i, target.getKey());
+
+				target.setValue(i * 3);
+				table.updateMatch(target);
+			}
+
+			probe.setKey(numKeys + 1);
+			assertFalse(table.getMatchFor(probe, target));
+
+			// check that every key appears exactly once with its updated value
+			final BitSet seen = new BitSet(numKeys);
+			final MutableObjectIterator<IntPair> entries = table.getEntryIterator();
+			int count = 0;
+			while (entries.next(target)) {
+				assertFalse("Duplicate key " + target.getKey(), seen.get(target.getKey()));
+				seen.set(target.getKey());
+				assertEquals(target.getKey() * 3, target.getValue());
+				count++;
+			}
+			assertEquals(numKeys, count);
+			assertEquals(0, table.getNumCompactions());
+
+			table.close();
+			assertEquals(128, table.getFreedMemory().size());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testVariableLengthUpdatesWithCompaction() {
+		try {
+			final int numKeys = 2000;
+			final int numRounds = 20;
+			final Random rnd = new Random(SEED);
+
+			@SuppressWarnings("unchecked")
+			final Class<? extends Key>[] keyTypes = new Class[] { IntValue.class };
+			final int[] keyPos = new int[] { 0 };
+
+			final CompactingHashTable<Record, Record> table = new CompactingHashTable<Record, Record>(
+				RecordSerializer.get(), new RecordComparator(keyPos, keyTypes), new RecordComparator(keyPos, keyTypes),
+				new RecordPairComparator(keyPos, keyPos, keyTypes), getMemory(64));
+			table.open();
+
+			final Record record = new Record(2);
+			final int[] lengths = new int[numKeys];
+
+			for (int i = 0; i < numKeys; i++) {
+				lengths[i] = rnd.nextInt(32);
+				record.setField(0, new IntValue(i));
+				record.setField(1, new StringValue(getString(lengths[i])));
+				table.insertOrReplaceRecord(record);
+			}
+			assertEquals(numKeys, table.getNumRecords());
+
+			final Record probe = new Record(1);
+			final Record target = new Record();
+
+			// alternate between re-probing and fast updates, with growing and shrinking records
+			for (int round = 0; round < numRounds; round++) {
+				for (int i = 0; i < numKeys; i++) {
+					lengths[i] = rnd.nextInt(32);
+					record.setField(0, new IntValue(i));
+					record.setField(1, new StringValue(getString(lengths[i])));
+
+					if (round % 2 == 0) {
+						table.insertOrReplaceRecord(record);
+					} else {
+						probe.setField(0, new IntValue(i));
+						assertTrue("No match for key " + i, table.getMatchFor(probe, target));
+						table.updateMatch(record);
+					}
+				}
+			}
+			assertEquals(numKeys, table.getNumRecords());
+			assertTrue("The updates did not cause any compaction.", table.getNumCompactions() > 0);
+
+			for (int i = 0; i < numKeys; i++) {
+				probe.setField(0, new IntValue(i));
+				assertTrue("No match for key " + i, table.getMatchFor(probe, target));
+				assertEquals(lengths[i], target.getField(1, StringValue.class).length());
+			}
+
+			final BitSet seen = new BitSet(numKeys);
+			final MutableObjectIterator<Record> entries = table.getEntryIterator();
+			int count = 0;
+			while (entries.next(target)) {
+				final int key = target.getField(0, IntValue.class).getValue();
+				assertFalse("Duplicate key " + key, seen.get(key));
+				seen.set(key);
+				assertEquals(lengths[key], target.getField(1, StringValue.class).length());
+				count++;
+			}
+			assertEquals(numKeys, count);
+
+			table.close();
+			assertEquals(64, table.getFreedMemory().size());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	@Test
+	public void testOutOfMemory() {
+		try {
+			final CompactingHashTable<IntPair, IntPair> table = new CompactingHashTable<IntPair, IntPair>(
+				new IntPairSerializer(), new IntPairComparator(), new IntPairComparator(), new IntPairPairComparator(),
+				getMemory(8));
+			table.open();
+
+			try {
+				table.buildTable(new UniformIntPairGenerator(100000, 1, false));
+				fail("The hash table should have run out of memory.");
+			}
+			catch (RuntimeException rex) {
+				// expected
+			}
+
+			table.close();
+			assertEquals(8, table.getFreedMemory().size());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			fail(e.getMessage());
+		}
+	}
+
+	// --------------------------------------------------------------------------------------------
+
+	private static List<MemorySegment> getMemory(int numPages) {
+		final List<MemorySegment> memory = new ArrayList<MemorySegment>(numPages);
+		for (int i = 0; i < numPages; i++) {
+			memory.add(new MemorySegment(new byte[PAGE_SIZE]));
+		}
+		return memory;
+	}
+
+	private static String getString(int length) {
+		final StringBuilder bld = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			bld.append((char) ('a' + (i % 26)));
+		}
+		return bld.toString();
+	}
+}
@@ -392,6 +392,388 @@ public class HashMatchIteratorITCase {
 		}
 	}
 	
+	@Test
+	public void testBuildFirstWithRoleReversal() {
+		final int buildSize = 150000;
+		final int probeSize = 3000;
+		final long memory = 48 * 32 * 1024;
+		
+		try {
+			Generator generator1 = new Generator(SEED1, 1000000, 100, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			Generator generator2 = new Generator(SEED2, 1000000, 100, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			
+			final TestData.GeneratorIterator input1 = new TestData.GeneratorIterator(generator1, buildSize);
+			final TestData.GeneratorIterator input2 = new TestData.GeneratorIterator(generator2, probeSize);
+			
+			// collect expected data
+			final Map<TestData.Key, Collection<RecordMatch>> expectedMatchesMap = matchRecordValues(
+				collectRecordData(input1),
+				collectRecordData(input2));
+			
+			final JoinFunction matcher = new RecordMatchRemovingJoin(expectedMatchesMap);
+			final Collector<Record> collector = new DiscardingOutputCollector();
+	
+			// reset the generators
+			generator1.reset();
+			generator2.reset();
+			input1.reset();
+			input2.reset();
+	
+			// the build side is much larger than the memory and the probe side, so the spilled
+			// partitions are joined with the probe side as the build side
+			BuildFirstHashMatchIterator<Record, Record, Record> iterator = 
+					new BuildFirstHashMatchIterator<Record, Record, Record>(
+						input1, input2, this.recordSerializer, this.record1Comparator, 
+						this.recordSerializer, this.record2Comparator, this.recordPairComparator,
+						this.memoryManager, ioManager, this.parentTask, memory);
+			
+			iterator.open();
+			
+			while (iterator.callWithNextKey(matcher, collector));
+			
+			iterator.close();
+	
+			// assert that each expected match was seen
+			for (Entry<TestData.Key, Collection<RecordMatch>> entry : expectedMatchesMap.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					Assert.fail("Collection for key " + entry.getKey() + " is not empty");
+				}
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testBuildSecondWithRoleReversal() {
+		final int probeSize = 3000;
+		final int buildSize = 150000;
+		final long memory = 48 * 32 * 1024;
+		
+		try {
+			Generator generator1 = new Generator(SEED1, 1000000, 100, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			Generator generator2 = new Generator(SEED2, 1000000, 100, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			
+			final TestData.GeneratorIterator input1 = new TestData.GeneratorIterator(generator1, probeSize);
+			final TestData.GeneratorIterator input2 = new TestData.GeneratorIterator(generator2, buildSize);
+			
+			// collect expected data
+			final Map<TestData.Key, Collection<RecordMatch>> expectedMatchesMap = matchRecordValues(
+				collectRecordData(input1),
+				collectRecordData(input2));
+			
+			final JoinFunction matcher = new RecordMatchRemovingJoin(expectedMatchesMap);
+			final Collector<Record> collector = new DiscardingOutputCollector();
+	
+			// reset the generators
+			generator1.reset();
+			generator2.reset();
+			input1.reset();
+			input2.reset();
+	
+			// the build side is much larger than the memory and the probe side, so the spilled
+			// partitions are joined with the probe side as the build side
+			BuildSecondHashMatchIterator<Record, Record, Record> iterator = 
+					new BuildSecondHashMatchIterator<Record, Record, Record>(
+						input1, input2, this.recordSerializer, this.record1Comparator, 
+						this.recordSerializer, this.record2Comparator, this.recordPairComparator,
+						this.memoryManager, ioManager, this.parentTask, memory);
+			
+			iterator.open();
+			
+			while (iterator.callWithNextKey(matcher, collector));
+			
+			iterator.close();
+	
+			// assert that each expected match was seen
+			for (Entry<TestData.Key, Collection<RecordMatch>> entry : expectedMatchesMap.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					Assert.fail("Collection for key " + entry.getKey() + " is not empty");
+				}
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testBuildFirstSortMergeFallbackForDuplicateKeys() {
+		// both inputs consist of a single key, so the partitions cannot be reduced by hashing
+		final int INPUT_1_DUPLICATES = 2500;
+		final int INPUT_2_DUPLICATES = 2600;
+		final int DUPLICATE_KEY = 13;
+		
+		final int pageSize = 4096;
+		final int numPages = 110;
+		
+		final StringBuilder bld = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			bld.append("Value for Duplicate Keys");
+		}
+		final String leftValue = "LEFT " + bld;
+		final String rightValue = "RIGHT " + bld;
+		
+		final MemoryManager memManager = new DefaultMemoryManager(numPages * pageSize, pageSize);
+		try {
+			final MutableObjectIterator<Record> input1 =
+					new TestData.ConstantValueIterator(DUPLICATE_KEY, leftValue, INPUT_1_DUPLICATES);
+			final MutableObjectIterator<Record> input2 =
+					new TestData.ConstantValueIterator(DUPLICATE_KEY, rightValue, INPUT_2_DUPLICATES);
+			
+			final CountingDuplicateKeyJoin matcher = new CountingDuplicateKeyJoin(DUPLICATE_KEY, leftValue, rightValue);
+			final Collector<Record> collector = new DiscardingOutputCollector();
+			
+			BuildFirstHashMatchIterator<Record, Record, Record> iterator = 
+					new BuildFirstHashMatchIterator<Record, Record, Record>(
+						input1, input2, this.recordSerializer, this.record1Comparator, 
+						this.recordSerializer, this.record2Comparator, this.recordPairComparator,
+						memManager, ioManager, this.parentTask, numPages * pageSize);
+			
+			iterator.open();
+			
+			while (iterator.callWithNextKey(matcher, collector));
+			
+			iterator.close();
+			
+			Assert.assertEquals("Wrong number of join results.",
+				((long) INPUT_1_DUPLICATES) * INPUT_2_DUPLICATES, matcher.getCount());
+			Assert.assertTrue("Memory Leak: Not all memory has been returned to the memory manager.",
+				memManager.verifyEmpty());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+		finally {
+			memManager.shutdown();
+		}
+	}
+	
+	@Test
+	public void testBuildFirstWithHeavyHitterKey() {
+		// one key has more build-side records than fit into the memory
+		final int INPUT_1_SIZE = 20000;
+		final int INPUT_2_SIZE = 1000;
+		
+		final int INPUT_1_DUPLICATES = 40000;
+		final int INPUT_2_DUPLICATES = 100;
+		final int HEAVY_KEY = 1000000;
+		
+		final long memory = 48 * 32 * 1024;
+		
+		try {
+			Generator generator1 = new Generator(SEED1, 500000, 20, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			Generator generator2 = new Generator(SEED2, 500000, 20, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			
+			final TestData.GeneratorIterator gen1Iter = new TestData.GeneratorIterator(generator1, INPUT_1_SIZE);
+			final TestData.GeneratorIterator gen2Iter = new TestData.GeneratorIterator(generator2, INPUT_2_SIZE);
+			
+			// collect expected data of the regular keys
+			final Map<TestData.Key, Collection<RecordMatch>> expectedMatchesMap = matchRecordValues(
+				collectRecordData(gen1Iter),
+				collectRecordData(gen2Iter));
+			
+			generator1.reset();
+			generator2.reset();
+			gen1Iter.reset();
+			gen2Iter.reset();
+			
+			final List<MutableObjectIterator<Record>> inList1 = new ArrayList<MutableObjectIterator<Record>>();
+			inList1.add(gen1Iter);
+			inList1.add(new TestData.ConstantValueIterator(HEAVY_KEY, "LEFT String for Heavy Key", INPUT_1_DUPLICATES));
+			
+			final List<MutableObjectIterator<Record>> inList2 = new ArrayList<MutableObjectIterator<Record>>();
+			inList2.add(new TestData.ConstantValueIterator(HEAVY_KEY, "RIGHT String for Heavy Key", INPUT_2_DUPLICATES));
+			inList2.add(gen2Iter);
+			
+			final MutableObjectIterator<Record> input1 = new UnionIterator<Record>(inList1);
+			final MutableObjectIterator<Record> input2 = new UnionIterator<Record>(inList2);
+			
+			final CountingDuplicateKeyJoin matcher = new CountingDuplicateKeyJoin(HEAVY_KEY,
+				"LEFT String for Heavy Key", "RIGHT String for Heavy Key", new RecordMatchRemovingJoin(expectedMatchesMap));
+			final Collector<Record> collector = new DiscardingOutputCollector();
+	
+			BuildFirstHashMatchIterator<Record, Record, Record> iterator = 
+					new BuildFirstHashMatchIterator<Record, Record, Record>(
+						input1, input2, this.recordSerializer, this.record1Comparator, 
+						this.recordSerializer, this.record2Comparator, this.recordPairComparator,
+						this.memoryManager, ioManager, this.parentTask, memory);
+			iterator.setBuildSideEstimates(INPUT_1_SIZE + INPUT_1_DUPLICATES, 40);
+			
+			iterator.open();
+			
+			while (iterator.callWithNextKey(matcher, collector));
+			
+			iterator.close();
+			
+			Assert.assertEquals("Wrong number of join results for the heavy hitter key.",
+				((long) INPUT_1_DUPLICATES) * INPUT_2_DUPLICATES, matcher.getCount());
+			
+			// assert that each expected match was seen
+			for (Entry<TestData.Key, Collection<RecordMatch>> entry : expectedMatchesMap.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					Assert.fail("Collection for key " + entry.getKey() + " is not empty");
+				}
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testBuildFirstWithHeavyHitterKeyWithoutSkewHandling() {
+		// one key has more build-side records than fit into the memory, and without skew handling its partition
+		// is recursed into until it is joined by sorting and merging
+		final int INPUT_1_SIZE = 20000;
+		final int INPUT_2_SIZE = 1000;
+		
+		final int INPUT_1_DUPLICATES = 40000;
+		final int INPUT_2_DUPLICATES = 100;
+		final int HEAVY_KEY = 1000000;
+		
+		final long memory = 48 * 32 * 1024;
+		
+		try {
+			Generator generator1 = new Generator(SEED1, 500000, 20, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			Generator generator2 = new Generator(SEED2, 500000, 20, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			
+			final TestData.GeneratorIterator gen1Iter = new TestData.GeneratorIterator(generator1, INPUT_1_SIZE);
+			final TestData.GeneratorIterator gen2Iter = new TestData.GeneratorIterator(generator2, INPUT_2_SIZE);
+			
+			// collect expected data of the regular keys
+			final Map<TestData.Key, Collection<RecordMatch>> expectedMatchesMap = matchRecordValues(
+				collectRecordData(gen1Iter),
+				collectRecordData(gen2Iter));
+			
+			generator1.reset();
+			generator2.reset();
+			gen1Iter.reset();
+			gen2Iter.reset();
+			
+			final List<MutableObjectIterator<Record>> inList1 = new ArrayList<MutableObjectIterator<Record>>();
+			inList1.add(gen1Iter);
+			inList1.add(new TestData.ConstantValueIterator(HEAVY_KEY, "LEFT String for Heavy Key", INPUT_1_DUPLICATES));
+			
+			final List<MutableObjectIterator<Record>> inList2 = new ArrayList<MutableObjectIterator<Record>>();
+			inList2.add(new TestData.ConstantValueIterator(HEAVY_KEY, "RIGHT String for Heavy Key", INPUT_2_DUPLICATES));
+			inList2.add(gen2Iter);
+			
+			final MutableObjectIterator<Record> input1 = new UnionIterator<Record>(inList1);
+			final MutableObjectIterator<Record> input2 = new UnionIterator<Record>(inList2);
+			
+			final CountingDuplicateKeyJoin matcher = new CountingDuplicateKeyJoin(HEAVY_KEY,
+				"LEFT String for Heavy Key", "RIGHT String for Heavy Key", new RecordMatchRemovingJoin(expectedMatchesMap));
+			final Collector<Record> collector = new DiscardingOutputCollector();
+	
+			BuildFirstHashMatchIterator<Record, Record, Record> iterator = 
+					new BuildFirstHashMatchIterator<Record, Record, Record>(
+						input1, input2, this.recordSerializer, this.record1Comparator, 
+						this.recordSerializer, this.record2Comparator, this.recordPairComparator,
+						this.memoryManager, ioManager, this.parentTask, memory);
+			iterator.setBuildSideEstimates(INPUT_1_SIZE + INPUT_1_DUPLICATES, 40);
+			iterator.setSkewHandling(false);
+			
+			iterator.open();
+			
+			while (iterator.callWithNextKey(matcher, collector));
+			
+			iterator.close();
+			
+			Assert.assertEquals("Wrong number of join results for the heavy hitter key.",
+				((long) INPUT_1_DUPLICATES) * INPUT_2_DUPLICATES, matcher.getCount());
+			
+			// assert that each expected match was seen
+			for (Entry<TestData.Key, Collection<RecordMatch>> entry : expectedMatchesMap.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					Assert.fail("Collection for key " + entry.getKey() + " is not empty");
+				}
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testBuildSecondWithHeavyHitterKey() {
+		// one key has more build-side records than fit into the memory
+		final int INPUT_1_SIZE = 1000;
+		final int INPUT_2_SIZE = 20000;
+		
+		final int INPUT_1_DUPLICATES = 100;
+		final int INPUT_2_DUPLICATES = 40000;
+		final int HEAVY_KEY = 1000000;
+		
+		final long memory = 48 * 32 * 1024;
+		
+		try {
+			Generator generator1 = new Generator(SEED1, 500000, 20, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			Generator generator2 = new Generator(SEED2, 500000, 20, KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+			
+			final TestData.GeneratorIterator gen1Iter = new TestData.GeneratorIterator(generator1, INPUT_1_SIZE);
+			final TestData.GeneratorIterator gen2Iter = new TestData.GeneratorIterator(generator2, INPUT_2_SIZE);
+			
+			// collect expected data of the regular keys
+			final Map<TestData.Key, Collection<RecordMatch>> expectedMatchesMap = matchRecordValues(
+				collectRecordData(gen1Iter),
+				collectRecordData(gen2Iter));
+			
+			generator1.reset();
+			generator2.reset();
+			gen1Iter.reset();
+			gen2Iter.reset();
+			
+			final List<MutableObjectIterator<Record>> inList1 = new ArrayList<MutableObjectIterator<Record>>();
+			inList1.add(gen1Iter);
+			inList1.add(new TestData.ConstantValueIterator(HEAVY_KEY, "LEFT String for Heavy Key", INPUT_1_DUPLICATES));
+			
+			final List<MutableObjectIterator<Record>> inList2 = new ArrayList<MutableObjectIterator<Record>>();
+			inList2.add(new TestData.ConstantValueIterator(HEAVY_KEY, "RIGHT String for Heavy Key", INPUT_2_DUPLICATES));
+			inList2.add(gen2Iter);
+			
+			final MutableObjectIterator<Record> input1 = new UnionIterator<Record>(inList1);
+			final MutableObjectIterator<Record> input2 = new UnionIterator<Record>(inList2);
+			
+			final CountingDuplicateKeyJoin matcher = new CountingDuplicateKeyJoin(HEAVY_KEY,
+				"LEFT String for Heavy Key", "RIGHT String for Heavy Key", new RecordMatchRemovingJoin(expectedMatchesMap));
+			final Collector<Record> collector = new DiscardingOutputCollector();
+	
+			BuildSecondHashMatchIterator<Record, Record, Record> iterator = 
+					new BuildSecondHashMatchIterator<Record, Record, Record>(
+						input1, input2, this.recordSerializer, this.record1Comparator, 
+						this.recordSerializer, this.record2Comparator, this.recordPairComparator,
+						this.memoryManager, ioManager, this.parentTask, memory);
+			iterator.setBuildSideEstimates(INPUT_2_SIZE + INPUT_2_DUPLICATES, 40);
+			
+			iterator.open();
+			
+			while (iterator.callWithNextKey(matcher, collector));
+			
+			iterator.close();
+			
+			Assert.assertEquals("Wrong number of join results for the heavy hitter key.",
+				((long) INPUT_1_DUPLICATES) * INPUT_2_DUPLICATES, matcher.getCount());
+			
+			// assert that each expected match was seen
+			for (Entry<TestData.Key, Collection<RecordMatch>> entry : expectedMatchesMap.entrySet()) {
+				if (!entry.getValue().isEmpty()) {
+					Assert.fail("Collection for key " + entry.getKey() + " is not empty");
+				}
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
 	@Test
 	public void testBuildFirstWithMixedDataTypes() {
 		try {
@@ -684,6 +1066,48 @@ public class HashMatchIteratorITCase {
 		}
 	}
 	
+	static final class CountingDuplicateKeyJoin extends JoinFunction
+	{
+		private final int key;
+		
+		private final String leftPrefix;
+		
+		private final String rightPrefix;
+		
+		private final JoinFunction otherKeysJoin;
+		
+		private long count;
+		
+		CountingDuplicateKeyJoin(int key, String leftPrefix, String rightPrefix) {
+			this(key, leftPrefix, rightPrefix, null);
+		}
+		
+		CountingDuplicateKeyJoin(int key, String leftPrefix, String rightPrefix, JoinFunction otherKeysJoin) {
+			this.key = key;
+			this.leftPrefix = leftPrefix;
+			this.rightPrefix = rightPrefix;
+			this.otherKeysJoin = otherKeysJoin;
+		}
+		
+		@Override
+		public void join(Record rec1, Record rec2, Collector<Record> out) throws Exception
+		{
+			if (this.otherKeysJoin != null && rec1.getField(0, TestData.Key.class).getKey() != this.key) {
+				this.otherKeysJoin.join(rec1, rec2, out);
+				return;
+			}
+			Assert.assertEquals(this.key, rec1.getField(0, TestData.Key.class).getKey());
+			Assert.assertEquals(this.key, rec2.getField(0, TestData.Key.class).getKey());
+			Assert.assertTrue(rec1.getField(1, TestData.Value.class).getValue().startsWith(this.leftPrefix));
+			Assert.assertTrue(rec2.getField(1, TestData.Value.class).getValue().startsWith(this.rightPrefix));
+			this.count++;
+		}
+		
+		long getCount() {
+			return this.count;
+		}
+	}
+	
 	static final class RecordIntPairMatchRemovingMatcher extends AbstractFunction implements GenericJoiner<IntPair, Record, Record>
 	{
 		private final Map<TestData.Key, Collection<RecordIntPairMatch>> toRemoveFrom;
@@ -136,6 +136,39 @@ public class HashTableITCase
 		assertEquals(6, MutableHashTable.getNumWriteBehindBuffers(Integer.MAX_VALUE));
 	}
 	
+	@Test
+	public void testTableLayoutComputationWithEstimates()
+	{
+		final int PAGE_SIZE = 32 * 1024;
+		final int NUM_BUFFERS = 1000;
+		
+		// without estimates, the layout is the same as before
+		assertEquals(MutableHashTable.getNumWriteBehindBuffers(NUM_BUFFERS),
+			MutableHashTable.getNumWriteBehindBuffers(NUM_BUFFERS, PAGE_SIZE, -1));
+		assertEquals(MutableHashTable.getPartitioningFanOutNoEstimates(NUM_BUFFERS),
+			MutableHashTable.getPartitioningFanOut(NUM_BUFFERS, PAGE_SIZE, -1));
+		assertEquals(MutableHashTable.getInitialTableSize(NUM_BUFFERS, PAGE_SIZE, 10, 8),
+			MutableHashTable.getInitialTableSize(NUM_BUFFERS, PAGE_SIZE, 10, 8, -1));
+		
+		// a small build side needs few partitions and write-behind buffers
+		assertEquals(1, MutableHashTable.getNumWriteBehindBuffers(NUM_BUFFERS, PAGE_SIZE, 1024 * 1024));
+		assertEquals(10, MutableHashTable.getPartitioningFanOut(NUM_BUFFERS, PAGE_SIZE, 1024 * 1024));
+		
+		// a large build side keeps the write-behind buffers and is split into more partitions
+		assertEquals(MutableHashTable.getNumWriteBehindBuffers(NUM_BUFFERS),
+			MutableHashTable.getNumWriteBehindBuffers(NUM_BUFFERS, PAGE_SIZE, 100L * 1024 * 1024));
+		assertEquals(127, MutableHashTable.getPartitioningFanOut(NUM_BUFFERS, PAGE_SIZE, 10L * 1024 * 1024 * 1024));
+		
+		// the table for a known number of records that fit into memory holds them without overflow buckets
+		final int numBuckets = MutableHashTable.getInitialTableSize(NUM_BUFFERS, PAGE_SIZE, 10, 8, 100000);
+		Assert.assertTrue(numBuckets < MutableHashTable.getInitialTableSize(NUM_BUFFERS, PAGE_SIZE, 10, 8));
+		Assert.assertTrue(numBuckets >= 100000 / 9);
+		
+		// records that do not fit into memory give the same table as without estimates
+		assertEquals(MutableHashTable.getInitialTableSize(NUM_BUFFERS, PAGE_SIZE, 10, 8),
+			MutableHashTable.getInitialTableSize(NUM_BUFFERS, PAGE_SIZE, 10, 8, 10000000));
+	}
+	
 	@Test
 	public void testInMemoryMutableHashTable() throws IOException
 	{
@@ -923,6 +956,99 @@ public class HashTableITCase
 	}
 	
 
+	@Test
+	public void testSpillingHashJoinOneRecursionValidityBatchedProbeIntPair() throws IOException
+	{
+		final int NUM_KEYS = 1000000;
+		final int BUILD_VALS_PER_KEY = 3;
+		final int PROBE_VALS_PER_KEY = 10;
+		
+		// create a build input that gives 3 million pairs with 3 values sharing the same key
+		MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_KEYS, BUILD_VALS_PER_KEY, false);
+
+		// create a probe input that gives 10 million pairs with 10 values sharing a key
+		MutableObjectIterator<IntPair> probeInput = new UniformIntPairGenerator(NUM_KEYS, PROBE_VALS_PER_KEY, true);
+
+		// allocate the memory for the HashTable
+		List<MemorySegment> memSegments;
+		try {
+			memSegments = this.memManager.allocatePages(MEM_OWNER, 896);
+		}
+		catch (MemoryAllocationException maex) {
+			fail("Memory for the Join could not be provided.");
+			return;
+		}
+		
+		// create the I/O access for spilling
+		IOManager ioManager = new IOManager();
+		
+		// create the map for validating the results
+		HashMap<Integer, Long> map = new HashMap<Integer, Long>(NUM_KEYS);
+		
+		// ----------------------------------------------------------------------------------------
+		
+		final MutableHashTable<IntPair, IntPair> join = new MutableHashTable<IntPair, IntPair>(
+				this.pairBuildSideAccesssor, this.pairProbeSideAccesssor, 
+				this.pairBuildSideComparator, this.pairProbeSideComparator, this.pairComparator,
+				memSegments, ioManager);
+		join.setProbeBatchSize(MutableHashTable.MAX_PROBE_BATCH_SIZE);
+		join.open(buildInput, probeInput);
+	
+		final IntPair record = new IntPair();
+		
+		while (join.nextRecord())
+		{
+			int numBuildValues = 0;
+			
+			int key = 0;
+			
+			HashBucketIterator<IntPair, IntPair> buildSide = join.getBuildSideIterator();
+			if (buildSide.next(record)) {
+				numBuildValues = 1;
+				key = record.getKey();
+			}
+			else {
+				fail("No build side values found for a probe key.");
+			}
+			while (buildSide.next(record)) {
+				numBuildValues++;
+			}
+			
+			if (numBuildValues != 3) {
+				fail("Other than 3 build values!!!");
+			}
+			
+			IntPair pr = join.getCurrentProbeRecord();
+			Assert.assertEquals("Probe-side key was different than build-side key.", key, pr.getKey()); 
+			
+			Long contained = map.get(key);
+			if (contained == null) {
+				contained = new Long(numBuildValues);
+			}
+			else {
+				contained = new Long(contained.longValue() + (numBuildValues));
+			}
+			
+			map.put(key, contained);
+		}
+		
+		join.close();
+		
+		Assert.assertEquals("Wrong number of keys", NUM_KEYS, map.size());
+		for (Map.Entry<Integer, Long> entry : map.entrySet()) {
+			long val = entry.getValue();
+			int key = entry.getKey();
+	
+			Assert.assertEquals("Wrong number of values in per-key cross product for key " + key, 
+				PROBE_VALS_PER_KEY * BUILD_VALS_PER_KEY, val);
+		}
+		
+		
+		// ----------------------------------------------------------------------------------------
+		
+		this.memManager.release(join.getFreedMemory());
+	}
+	
 	@Test
 	public void testSpillingHashJoinWithMassiveCollisionsIntPair() throws IOException
 	{
@@ -1273,6 +1399,212 @@ public class HashTableITCase
 		this.memManager.release(join.getFreedMemory());
 	}
 	
+	/*
+	 * This test validates that the bloom filters of the spilled partitions drop the probe-side records
+	 * without join partner, but none of the records with join partners.
+	 */
+	@Test
+	public void testSelectiveSpillingHashJoinBloomFiltersIntPair() throws IOException, MemoryAllocationException
+	{
+		final int NUM_BUILD_KEYS = 500000;
+		final int NUM_PROBE_KEYS = 5000000;
+
+		MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_BUILD_KEYS, 1, false);
+		MutableObjectIterator<IntPair> probeInput = new UniformIntPairGenerator(NUM_PROBE_KEYS, 1, true);
+
+		List<MemorySegment> memSegments = this.memManager.allocatePages(MEM_OWNER, 128);
+
+		final MutableHashTable<IntPair, IntPair> join = new MutableHashTable<IntPair, IntPair>(
+				this.pairBuildSideAccesssor, this.pairProbeSideAccesssor, 
+				this.pairBuildSideComparator, this.pairProbeSideComparator, this.pairComparator,
+				memSegments, ioManager);
+		join.open(buildInput, probeInput);
+
+		final IntPair record = new IntPair();
+		int numRecordsInJoinResult = 0;
+		
+		while (join.nextRecord()) {
+			HashBucketIterator<IntPair, IntPair> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(record)) {
+				Assert.assertEquals("Probe-side key was different than build-side key.",
+					record.getKey(), join.getCurrentProbeRecord().getKey());
+				numRecordsInJoinResult++;
+			}
+		}
+		Assert.assertEquals("Wrong number of records in join result.", NUM_BUILD_KEYS, numRecordsInJoinResult);
+		Assert.assertTrue("Bloom filters did not drop any probe-side records.", join.getNumProbeRecordsFiltered() > 0);
+		Assert.assertTrue("Bloom filters let too many probe-side records pass.",
+			join.getNumProbeRecordsFiltered() > join.getNumProbeRecordsSpilled());
+
+		join.close();
+		
+		this.memManager.release(join.getFreedMemory());
+	}
+	
+	/*
+	 * This test validates that a hash table without bloom filters spills all probe-side records of its
+	 * spilled partitions, and still joins all of them.
+	 */
+	@Test
+	public void testSelectiveSpillingHashJoinWithoutBloomFiltersIntPair() throws IOException, MemoryAllocationException
+	{
+		final int NUM_BUILD_KEYS = 500000;
+		final int NUM_PROBE_KEYS = 5000000;
+
+		MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_BUILD_KEYS, 1, false);
+		MutableObjectIterator<IntPair> probeInput = new UniformIntPairGenerator(NUM_PROBE_KEYS, 1, true);
+
+		List<MemorySegment> memSegments = this.memManager.allocatePages(MEM_OWNER, 128);
+
+		final MutableHashTable<IntPair, IntPair> join = new MutableHashTable<IntPair, IntPair>(
+				this.pairBuildSideAccesssor, this.pairProbeSideAccesssor, 
+				this.pairBuildSideComparator, this.pairProbeSideComparator, this.pairComparator,
+				memSegments, ioManager);
+		join.setUseBloomFilters(false);
+		join.open(buildInput, probeInput);
+
+		final IntPair record = new IntPair();
+		int numRecordsInJoinResult = 0;
+		
+		while (join.nextRecord()) {
+			HashBucketIterator<IntPair, IntPair> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(record)) {
+				Assert.assertEquals("Probe-side key was different than build-side key.",
+					record.getKey(), join.getCurrentProbeRecord().getKey());
+				numRecordsInJoinResult++;
+			}
+		}
+		Assert.assertEquals("Wrong number of records in join result.", NUM_BUILD_KEYS, numRecordsInJoinResult);
+		Assert.assertEquals("Probe-side records were filtered without bloom filters.", 0, join.getNumProbeRecordsFiltered());
+		Assert.assertTrue("No probe-side records were spilled.", join.getNumProbeRecordsSpilled() > 0);
+
+		join.close();
+		
+		this.memManager.release(join.getFreedMemory());
+	}
+	
+	@Test
+	public void testInMemoryHashJoinWithBuildSideEstimatesIntPair() throws IOException, MemoryAllocationException
+	{
+		final int NUM_KEYS = 100000;
+		final int PROBE_VALS_PER_KEY = 3;
+
+		MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_KEYS, 1, false);
+		MutableObjectIterator<IntPair> probeInput = new UniformIntPairGenerator(NUM_KEYS, PROBE_VALS_PER_KEY, true);
+
+		List<MemorySegment> memSegments = this.memManager.allocatePages(MEM_OWNER, 128);
+
+		final MutableHashTable<IntPair, IntPair> join = new MutableHashTable<IntPair, IntPair>(
+				this.pairBuildSideAccesssor, this.pairProbeSideAccesssor, 
+				this.pairBuildSideComparator, this.pairProbeSideComparator, this.pairComparator,
+				memSegments, ioManager);
+		join.setBuildSideEstimates(NUM_KEYS, 8.0f);
+		join.open(buildInput, probeInput);
+
+		final IntPair record = new IntPair();
+		int numRecordsInJoinResult = 0;
+		
+		while (join.nextRecord()) {
+			HashBucketIterator<IntPair, IntPair> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(record)) {
+				Assert.assertEquals("Probe-side key was different than build-side key.",
+					record.getKey(), join.getCurrentProbeRecord().getKey());
+				numRecordsInJoinResult++;
+			}
+		}
+		Assert.assertEquals("Wrong number of records in join result.", NUM_KEYS * PROBE_VALS_PER_KEY, numRecordsInJoinResult);
+		Assert.assertEquals("The build side was spilled, though it was estimated to fit.", 0, join.getNumProbeRecordsSpilled());
+
+		join.close();
+		
+		this.memManager.release(join.getFreedMemory());
+	}
+	
+	@Test
+	public void testAdaptiveTableResizeIntPair() throws IOException, MemoryAllocationException
+	{
+		final int NUM_KEYS = 100000;
+		final int PROBE_VALS_PER_KEY = 3;
+
+		MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_KEYS, 1, false);
+		MutableObjectIterator<IntPair> probeInput = new UniformIntPairGenerator(NUM_KEYS, PROBE_VALS_PER_KEY, true);
+
+		List<MemorySegment> memSegments = this.memManager.allocatePages(MEM_OWNER, 128);
+		final int pageSize = memSegments.get(0).size();
+
+		final MutableHashTable<IntPair, IntPair> join = new MutableHashTable<IntPair, IntPair>(
+				this.pairBuildSideAccesssor, this.pairProbeSideAccesssor, 
+				this.pairBuildSideComparator, this.pairProbeSideComparator, this.pairComparator,
+				memSegments, ioManager);
+		
+		// a far too large record width gives a far too small initial table
+		join.setBuildSideEstimates(-1, 1000.0f);
+		join.open(buildInput, probeInput);
+		
+		Assert.assertTrue("The table was not re-sized to the actual record width.",
+			join.numBuckets >= 2 * MutableHashTable.getInitialTableSize(128, pageSize, 12, 1000));
+
+		final IntPair record = new IntPair();
+		int numRecordsInJoinResult = 0;
+		
+		while (join.nextRecord()) {
+			HashBucketIterator<IntPair, IntPair> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(record)) {
+				Assert.assertEquals("Probe-side key was different than build-side key.",
+					record.getKey(), join.getCurrentProbeRecord().getKey());
+				numRecordsInJoinResult++;
+			}
+		}
+		Assert.assertEquals("Wrong number of records in join result.", NUM_KEYS * PROBE_VALS_PER_KEY, numRecordsInJoinResult);
+
+		join.close();
+		
+		this.memManager.release(join.getFreedMemory());
+	}
+	
+	@Test
+	public void testFixedTableSizeIntPair() throws IOException, MemoryAllocationException
+	{
+		final int NUM_KEYS = 100000;
+		final int PROBE_VALS_PER_KEY = 3;
+
+		MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_KEYS, 1, false);
+		MutableObjectIterator<IntPair> probeInput = new UniformIntPairGenerator(NUM_KEYS, PROBE_VALS_PER_KEY, true);
+
+		List<MemorySegment> memSegments = this.memManager.allocatePages(MEM_OWNER, 128);
+		final int pageSize = memSegments.get(0).size();
+
+		final MutableHashTable<IntPair, IntPair> join = new MutableHashTable<IntPair, IntPair>(
+				this.pairBuildSideAccesssor, this.pairProbeSideAccesssor, 
+				this.pairBuildSideComparator, this.pairProbeSideComparator, this.pairComparator,
+				memSegments, ioManager);
+		
+		// the same far too small initial table as above, which must now keep its size
+		join.setBuildSideEstimates(-1, 1000.0f);
+		join.setAdaptiveTableSize(false);
+		join.open(buildInput, probeInput);
+		
+		Assert.assertTrue("The table was re-sized, although the adaptive table size was switched off.",
+			join.numBuckets < 2 * MutableHashTable.getInitialTableSize(128, pageSize, 12, 1000));
+
+		final IntPair record = new IntPair();
+		int numRecordsInJoinResult = 0;
+		
+		while (join.nextRecord()) {
+			HashBucketIterator<IntPair, IntPair> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(record)) {
+				Assert.assertEquals("Probe-side key was different than build-side key.",
+					record.getKey(), join.getCurrentProbeRecord().getKey());
+				numRecordsInJoinResult++;
+			}
+		}
+		Assert.assertEquals("Wrong number of records in join result.", NUM_KEYS * PROBE_VALS_PER_KEY, numRecordsInJoinResult);
+
+		join.close();
+		
+		this.memManager.release(join.getFreedMemory());
+	}
+	
 	/*
 	 * This test validates a bug fix against former memory loss in the case where a partition was spilled
 	 * during an insert into the same.
@@ -0,0 +1,176 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.hash;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypePairComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.MemoryManager;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.template.AbstractTask;
+import eu.stratosphere.pact.runtime.test.util.DummyInvokable;
+import eu.stratosphere.pact.runtime.test.util.UniformIntPairGenerator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPair;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairSerializer;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Compares probing the hash table one record at a time with probing it in batches. The table is built in memory
+ * and is much larger than the processor caches, and the probe keys are random, such that almost every lookup
+ * misses the cache.
+ */
+public class HashTableProbeMiniBenchmark {
+
+	private static final int MEMORY_SIZE = 256 * 1024 * 1024;
+
+	private static final int PAGE_SIZE = 32 * 1024;
+
+	private static final int NUM_BUILD_KEYS = 4000000;
+
+	private static final int NUM_PROBE_RECORDS = 20000000;
+
+	private static final int NUM_RUNS = 3;
+
+	private static final long SEED = 561349061987311L;
+
+	private final AbstractTask parentTask = new DummyInvokable();
+
+	private IOManager ioManager;
+	private MemoryManager memoryManager;
+
+	private TypeSerializer<IntPair> serializer;
+	private TypeComparator<IntPair> comparator;
+	private TypePairComparator<IntPair, IntPair> pairComparator;
+
+
+	@Before
+	public void beforeTest() {
+		this.serializer = new IntPairSerializer();
+		this.comparator = new IntPairComparator();
+		this.pairComparator = new IntPairPairComparator();
+
+		this.memoryManager = new DefaultMemoryManager(MEMORY_SIZE, PAGE_SIZE);
+		this.ioManager = new IOManager();
+	}
+
+	@After
+	public void afterTest() {
+		if (this.memoryManager != null) {
+			Assert.assertTrue("Memory Leak: Not all memory has been returned to the memory manager.",
+				this.memoryManager.verifyEmpty());
+			this.memoryManager.shutdown();
+			this.memoryManager = null;
+		}
+
+		if (this.ioManager != null) {
+			this.ioManager.shutdown();
+			if (!this.ioManager.isProperlyShutDown()) {
+				Assert.fail("I/O manager failed to properly shut down.");
+			}
+			this.ioManager = null;
+		}
+	}
+
+	@Test
+	public void testProbeSingleVersusBatched() {
+		try {
+			for (int run = 0; run < NUM_RUNS; run++) {
+				final long single = probe(1);
+				final long batched = probe(MutableHashTable.MAX_PROBE_BATCH_SIZE);
+
+				System.out.println("Probing one record at a time took " + single + " msecs, probing batches of " +
+					MutableHashTable.MAX_PROBE_BATCH_SIZE + " records took " + batched + " msecs.");
+			}
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+
+	private long probe(int batchSize) throws Exception {
+		final List<MemorySegment> memory = this.memoryManager.allocatePages(this.parentTask, MEMORY_SIZE / PAGE_SIZE);
+		final MutableHashTable<IntPair, IntPair> table = new MutableHashTable<IntPair, IntPair>(
+			this.serializer, this.serializer, this.comparator, this.comparator, this.pairComparator,
+			memory, this.ioManager);
+		table.setProbeBatchSize(batchSize);
+
+		final MutableObjectIterator<IntPair> buildInput = new UniformIntPairGenerator(NUM_BUILD_KEYS, 1, false);
+		final MutableObjectIterator<IntPair> probeInput = new RandomKeyIntPairGenerator(SEED, NUM_BUILD_KEYS, NUM_PROBE_RECORDS);
+
+		table.open(buildInput, probeInput);
+
+		final long start = System.nanoTime();
+
+		final IntPair buildRecord = this.serializer.createInstance();
+		long numMatches = 0;
+		while (table.nextRecord()) {
+			final MutableHashTable.HashBucketIterator<IntPair, IntPair> matches = table.getBuildSideIterator();
+			while (matches.next(buildRecord)) {
+				numMatches++;
+			}
+		}
+
+		final long msecs = (System.nanoTime() - start) / 1000000;
+
+		table.close();
+		this.memoryManager.release(table.getFreedMemory());
+
+		Assert.assertEquals("Wrong number of matches.", NUM_PROBE_RECORDS, numMatches);
+		return msecs;
+	}
+
+	/**
+	 * Generates records with random keys from a fixed range.
+	 */
+	private static final class RandomKeyIntPairGenerator implements MutableObjectIterator<IntPair> {
+
+		private final Random rnd;
+
+		private final int numKeys;
+
+		private final long numRecords;
+
+		private long count;
+
+		RandomKeyIntPairGenerator(long seed, int numKeys, long numRecords) {
+			this.rnd = new Random(seed);
+			this.numKeys = numKeys;
+			this.numRecords = numRecords;
+		}
+
+		@Override
+		public boolean next(IntPair target) {
+			if (this.count++ < this.numRecords) {
+				target.setKey(this.rnd.nextInt(this.numKeys));
+				target.setValue(0);
+				return true;
+			} else {
+				return false;
+			}
+		}
+	}
+}
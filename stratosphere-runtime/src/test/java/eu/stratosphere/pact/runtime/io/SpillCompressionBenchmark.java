@@ -0,0 +1,161 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+package eu.stratosphere.pact.runtime.io;
+
+import java.util.List;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.pact.runtime.hash.HashTableITCase;
+import eu.stratosphere.pact.runtime.hash.MutableHashTable;
+import eu.stratosphere.pact.runtime.hash.MutableHashTable.HashBucketIterator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializer;
+import eu.stratosphere.pact.runtime.sort.UnilateralSortMerger;
+import eu.stratosphere.pact.runtime.test.util.DummyInvokable;
+import eu.stratosphere.pact.runtime.test.util.TestData;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.KeyMode;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.ValueMode;
+import eu.stratosphere.pact.runtime.test.util.UniformRecordGenerator;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.Key;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Compares spill-heavy external sorts and hybrid hash joins with and without compression of the spilled data.
+ * For each workload and codec, the benchmark reports the run time and the number of bytes written to disk.
+ * Run it with the temp directory on the disk to test, for example:
+ * <pre>
+ * java SpillCompressionBenchmark /data/tmp
+ * </pre>
+ */
+public class SpillCompressionBenchmark {
+	
+	private static final long SEED = 649180756312423613L;
+	
+	private static final int NUM_SORT_RECORDS = 5000000;
+	
+	private static final int SORT_MEMORY = 32 * 1024 * 1024;
+	
+	private static final int NUM_JOIN_KEYS = 1000000;
+	
+	private static final int JOIN_MEMORY_PAGES = 896;
+	
+	private static final String[] CODECS = { "none", "lz4" };
+	
+	private static final AbstractInvokable OWNER = new DummyInvokable();
+	
+	
+	public static void main(String[] args) throws Exception {
+		final String tempDir = args.length > 0 ? args[0] : System.getProperty("java.io.tmpdir");
+		final DefaultMemoryManager memManager = new DefaultMemoryManager(SORT_MEMORY + 2 * JOIN_MEMORY_PAGES * DefaultMemoryManager.DEFAULT_PAGE_SIZE);
+		final IOManager ioManager = new IOManager(tempDir);
+		
+		try {
+			for (int round = 0; round < 2; round++) {
+				// the first round warms up the JVM
+				final boolean report = round > 0;
+				
+				for (String codec : CODECS) {
+					final IOManager io = ioManager.withCompression(IOManager.getCompressionCodec(codec));
+					
+					long bytesBefore = getBytesWritten(ioManager);
+					long start = System.currentTimeMillis();
+					sort(memManager, io);
+					if (report) {
+						System.out.println("Sort (" + codec + "): " + (System.currentTimeMillis() - start) + " msecs, " + 
+							((getBytesWritten(ioManager) - bytesBefore) >>> 20) + " MiBytes spilled.");
+					}
+					
+					bytesBefore = getBytesWritten(ioManager);
+					start = System.currentTimeMillis();
+					hashJoin(memManager, io);
+					if (report) {
+						System.out.println("Hash join (" + codec + "): " + (System.currentTimeMillis() - start) + " msecs, " + 
+							((getBytesWritten(ioManager) - bytesBefore) >>> 20) + " MiBytes spilled.");
+					}
+				}
+			}
+		}
+		finally {
+			ioManager.shutdown();
+			memManager.shutdown();
+		}
+	}
+	
+	private static void sort(DefaultMemoryManager memManager, IOManager ioManager) throws Exception {
+		final TestData.Generator generator = new TestData.Generator(SEED, Integer.MAX_VALUE, 100,
+			KeyMode.RANDOM, ValueMode.RANDOM_LENGTH);
+		final MutableObjectIterator<Record> source = new TestData.GeneratorIterator(generator, NUM_SORT_RECORDS);
+		
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> comparator = new RecordComparator(new int[] {0}, new Class[] {TestData.Key.class});
+		final UnilateralSortMerger<Record> sorter = new UnilateralSortMerger<Record>(memManager, ioManager,
+			source, OWNER, RecordSerializer.get(), comparator, SORT_MEMORY, 64, 0.8f);
+		
+		final MutableObjectIterator<Record> sorted = sorter.getIterator();
+		final Record rec = new Record();
+		int count = 0;
+		while (sorted.next(rec)) {
+			count++;
+		}
+		sorter.close();
+		
+		if (count != NUM_SORT_RECORDS) {
+			throw new Exception("Wrong number of sorted records: " + count);
+		}
+	}
+	
+	private static void hashJoin(DefaultMemoryManager memManager, IOManager ioManager) throws Exception {
+		final MutableObjectIterator<Record> buildInput = new UniformRecordGenerator(NUM_JOIN_KEYS, 3, false);
+		final MutableObjectIterator<Record> probeInput = new UniformRecordGenerator(NUM_JOIN_KEYS, 10, true);
+		
+		@SuppressWarnings("unchecked")
+		final Class<? extends Key>[] keyType = (Class<? extends Key>[]) new Class[] { IntValue.class };
+		final TypeSerializer<Record> serializer = RecordSerializer.get();
+		final List<MemorySegment> memory = memManager.allocatePages(OWNER, JOIN_MEMORY_PAGES);
+		
+		final MutableHashTable<Record, Record> join = new MutableHashTable<Record, Record>(serializer, serializer,
+			new RecordComparator(new int[] {0}, keyType), new RecordComparator(new int[] {0}, keyType),
+			new HashTableITCase.RecordPairComparatorFirstInt(), memory, ioManager);
+		join.open(buildInput, probeInput);
+		
+		final Record record = new Record();
+		long count = 0;
+		while (join.nextRecord()) {
+			final HashBucketIterator<Record, Record> buildSide = join.getBuildSideIterator();
+			while (buildSide.next(record)) {
+				count++;
+			}
+		}
+		join.close();
+		memManager.release(join.getFreedMemory());
+		
+		if (count != NUM_JOIN_KEYS * 30L) {
+			throw new Exception("Wrong number of join results: " + count);
+		}
+	}
+	
+	private static long getBytesWritten(IOManager ioManager) {
+		long bytes = 0;
+		for (IOManager.PathStatistics stats : ioManager.getStatistics()) {
+			bytes += stats.getNumBytesWritten();
+		}
+		return bytes;
+	}
+}
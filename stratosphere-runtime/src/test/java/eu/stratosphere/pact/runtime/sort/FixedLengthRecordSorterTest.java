@@ -362,4 +362,57 @@ public class FixedLengthRecordSorterTest
 		// release the memory occupied by the buffers
 		this.memoryManager.release(sorter.dispose());
 	}
+	
+	@Test
+	public void testParallelSort() throws Exception {
+		final int NUM_RECORDS = 559273;
+		final int numSegments = MEMORY_SIZE / MEMORY_PAGE_SIZE;
+		final List<MemorySegment> memory = this.memoryManager.allocatePages(new DummyInvokable(), numSegments);
+		
+		FixedLengthRecordSorter<IntPair> sorter = newSortBuffer(memory);
+		RandomIntPairGenerator generator = new RandomIntPairGenerator(SEED);
+		
+		// write the records
+		IntPair record = new IntPair();
+		int num = -1;
+		do {
+			generator.next(record);
+			num++;
+		}
+		while (sorter.write(record) && num < NUM_RECORDS);
+		
+		ParallelQuickSort qs = new ParallelQuickSort(4, "Test sorting thread");
+		try {
+			qs.sort(sorter);
+		} finally {
+			qs.shutdown();
+		}
+		
+		MutableObjectIterator<IntPair> iter = sorter.getIterator();
+		IntPair readTarget = new IntPair();
+		
+		int current = 0;
+		int last = 0;
+		
+		iter.next(readTarget);
+		last = readTarget.getKey();
+		int numRead = 1;
+		
+		while (iter.next(readTarget)) {
+			current = readTarget.getKey();
+			numRead++;
+			
+			final int cmp = last - current;
+			if (cmp > 0)
+				Assert.fail("Next key is not larger or equal to previous key.");
+			
+			int tmp = current;
+			current = last;
+			last = tmp;
+		}
+		Assert.assertEquals("Wrong number of records after sorting.", sorter.size(), numRead);
+		
+		// release the memory occupied by the buffers
+		this.memoryManager.release(sorter.dispose());
+	}
 }
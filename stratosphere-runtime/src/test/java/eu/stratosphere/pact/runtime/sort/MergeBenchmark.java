@@ -0,0 +1,243 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializer;
+import eu.stratosphere.pact.runtime.test.util.TestData;
+import eu.stratosphere.pact.runtime.test.util.types.IntPair;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairSerializer;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Compares the {@link MergeIterator} with a merge over a {@link PartialOrderPriorityQueue} of the stream heads
+ * (the way the merge iterator used to be implemented), for fan-ins of 16, 64 and 128 sorted in-memory streams.
+ * The benchmark reports the number of merged records per second for records with integer keys, once as
+ * {@link Record}s and once as {@link IntPair}s.
+ */
+public class MergeBenchmark {
+	
+	private static final long SEED = 3215687216843214L;
+	
+	private static final int NUM_RECORDS = 4 * 1024 * 1024;
+	
+	private static final int[] FAN_INS = { 16, 64, 128 };
+	
+	private static final int NUM_RUNS = 5;
+	
+	
+	public static void main(String[] args) throws Exception {
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> recordComparator = new RecordComparator(new int[] {0}, new Class[] {TestData.Key.class});
+		final TypeSerializer<Record> recordSerializer = RecordSerializer.get();
+		final TypeComparator<IntPair> pairComparator = new IntPairComparator();
+		final TypeSerializer<IntPair> pairSerializer = new IntPairSerializer();
+		
+		for (int round = 0; round < 2; round++) {
+			// the first round warms up the JVM
+			final boolean report = round > 0;
+			
+			for (int fanIn : FAN_INS) {
+				final int[][] streams = createStreams(fanIn);
+				
+				for (int heap = 0; heap < 2; heap++) {
+					long time = 0;
+					for (int run = 0; run < NUM_RUNS; run++) {
+						final List<MutableObjectIterator<Record>> inputs = new ArrayList<MutableObjectIterator<Record>>(fanIn);
+						for (int[] stream : streams) {
+							inputs.add(new RecordStream(stream));
+						}
+						final long start = System.nanoTime();
+						consume(heap == 1 ?
+							new HeapMergeIterator<Record>(inputs, recordSerializer, recordComparator) :
+							new MergeIterator<Record>(inputs, recordSerializer, recordComparator), new Record());
+						time += System.nanoTime() - start;
+					}
+					if (report) {
+						print("Record", heap == 1, fanIn, time);
+					}
+				}
+				
+				for (int heap = 0; heap < 2; heap++) {
+					long time = 0;
+					for (int run = 0; run < NUM_RUNS; run++) {
+						final List<MutableObjectIterator<IntPair>> inputs = new ArrayList<MutableObjectIterator<IntPair>>(fanIn);
+						for (int[] stream : streams) {
+							inputs.add(new IntPairStream(stream));
+						}
+						final long start = System.nanoTime();
+						consume(heap == 1 ?
+							new HeapMergeIterator<IntPair>(inputs, pairSerializer, pairComparator) :
+							new MergeIterator<IntPair>(inputs, pairSerializer, pairComparator), new IntPair());
+						time += System.nanoTime() - start;
+					}
+					if (report) {
+						print("IntPair", heap == 1, fanIn, time);
+					}
+				}
+			}
+		}
+	}
+	
+	private static int[][] createStreams(int fanIn) {
+		final Random rnd = new Random(SEED + fanIn);
+		final int[][] streams = new int[fanIn][NUM_RECORDS / fanIn];
+		for (int[] stream : streams) {
+			for (int i = 0; i < stream.length; i++) {
+				stream[i] = rnd.nextInt();
+			}
+			Arrays.sort(stream);
+		}
+		return streams;
+	}
+	
+	private static <E> void consume(MutableObjectIterator<E> iterator, E target) throws IOException {
+		while (iterator.next(target));
+	}
+	
+	private static void print(String type, boolean heap, int fanIn, long nanos) {
+		System.out.println(type + ", fan-in " + fanIn + " (" + (heap ? "heap" : "loser tree") + "): " +
+			(nanos / 1000000 / NUM_RUNS) + " msecs per merge, " +
+			(((long) NUM_RECORDS) * NUM_RUNS * 1000000000L / Math.max(1, nanos)) + " records/sec.");
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private static final class RecordStream implements MutableObjectIterator<Record> {
+		
+		private final int[] keys;
+		
+		private final TestData.Key key = new TestData.Key();
+		
+		private final IntValue value = new IntValue();
+		
+		private int pos;
+		
+		RecordStream(int[] keys) {
+			this.keys = keys;
+		}
+		
+		@Override
+		public boolean next(Record target) {
+			if (this.pos < this.keys.length) {
+				this.key.setKey(this.keys[this.pos]);
+				this.value.setValue(this.pos++);
+				target.setField(0, this.key);
+				target.setField(1, this.value);
+				return true;
+			}
+			return false;
+		}
+	}
+	
+	private static final class IntPairStream implements MutableObjectIterator<IntPair> {
+		
+		private final int[] keys;
+		
+		private int pos;
+		
+		IntPairStream(int[] keys) {
+			this.keys = keys;
+		}
+		
+		@Override
+		public boolean next(IntPair target) {
+			if (this.pos < this.keys.length) {
+				target.setKey(this.keys[this.pos]);
+				target.setValue(this.pos++);
+				return true;
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * The merge over a priority queue of the stream heads, which compares the heads through their references.
+	 */
+	private static final class HeapMergeIterator<E> implements MutableObjectIterator<E> {
+		
+		private final PartialOrderPriorityQueue<HeapHead<E>> heap;
+		
+		private final TypeSerializer<E> serializer;
+		
+		HeapMergeIterator(List<MutableObjectIterator<E>> iterators, TypeSerializer<E> serializer,
+				TypeComparator<E> comparator) throws IOException
+		{
+			this.heap = new PartialOrderPriorityQueue<HeapHead<E>>(new Comparator<HeapHead<E>>() {
+				@Override
+				public int compare(HeapHead<E> o1, HeapHead<E> o2) {
+					return o2.comparator.compareToReference(o1.comparator);
+				}
+			}, iterators.size());
+			this.serializer = serializer;
+			
+			for (MutableObjectIterator<E> iterator : iterators) {
+				final HeapHead<E> head = new HeapHead<E>(iterator, serializer.createInstance(), comparator.duplicate());
+				if (head.nextHead()) {
+					this.heap.add(head);
+				}
+			}
+		}
+		
+		@Override
+		public boolean next(E target) throws IOException {
+			if (this.heap.size() > 0) {
+				final HeapHead<E> top = this.heap.peek();
+				this.serializer.copyTo(top.head, target);
+				if (!top.nextHead()) {
+					this.heap.poll();
+				} else {
+					this.heap.adjustTop();
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+	
+	private static final class HeapHead<E> {
+		
+		private final MutableObjectIterator<E> iterator;
+		
+		private final E head;
+		
+		private final TypeComparator<E> comparator;
+		
+		HeapHead(MutableObjectIterator<E> iterator, E head, TypeComparator<E> comparator) {
+			this.iterator = iterator;
+			this.head = head;
+			this.comparator = comparator;
+		}
+		
+		boolean nextHead() throws IOException {
+			if (this.iterator.next(this.head)) {
+				this.comparator.setReference(this.head);
+				return true;
+			}
+			return false;
+		}
+	}
+}
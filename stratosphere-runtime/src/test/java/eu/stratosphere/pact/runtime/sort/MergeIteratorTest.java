@@ -14,8 +14,12 @@
 package eu.stratosphere.pact.runtime.sort;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -29,6 +33,7 @@ import eu.stratosphere.pact.runtime.test.util.TestData;
 import eu.stratosphere.pact.runtime.test.util.TestData.Key;
 import eu.stratosphere.pact.runtime.test.util.TestData.Value;
 import eu.stratosphere.types.Record;
+import eu.stratosphere.types.StringValue;
 import eu.stratosphere.util.MutableObjectIterator;
 
 
@@ -206,4 +211,84 @@ public class MergeIteratorTest
 		
 		Assert.assertTrue("Merge must have returned a wrong result", violationFound);
 	}
+	
+	@Test
+	public void testMergeOfManyStreams() throws Exception
+	{
+		final Random rnd = new Random(8368235637L);
+		final int numStreams = 129;
+		
+		// build sorted streams of random lengths, some of them empty
+		final List<MutableObjectIterator<Record>> iterators = new ArrayList<MutableObjectIterator<Record>>();
+		final List<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < numStreams; i++) {
+			final int[] keys = new int[i % 10 == 0 ? 0 : rnd.nextInt(200)];
+			final String[] values = new String[keys.length];
+			for (int k = 0; k < keys.length; k++) {
+				keys[k] = rnd.nextInt(1000);
+				values[k] = String.valueOf(keys[k]);
+				expected.add(keys[k]);
+			}
+			Arrays.sort(keys);
+			iterators.add(newIterator(keys, values));
+		}
+		Collections.sort(expected);
+		
+		final MutableObjectIterator<Record> iterator = new MergeIterator<Record>(iterators, this.serializer, this.comparator);
+		
+		final Record rec = new Record();
+		for (Integer key : expected) {
+			Assert.assertTrue("Merge returned too few records.", iterator.next(rec));
+			Assert.assertEquals("Merge returned records in wrong order.", key.intValue(), rec.getField(0, TestData.Key.class).getKey());
+		}
+		Assert.assertFalse("Merge returned too many records.", iterator.next(rec));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testMergeWithKeysSharingNormalizedKeyPrefix() throws Exception
+	{
+		// the keys share a prefix that is longer than the cached normalized keys,
+		// so that the order is decided by the full comparisons
+		final String prefix = "a common prefix of the keys that exceeds the normalized key length ";
+		final TypeComparator<Record> stringComparator = new RecordComparator(new int[] {0}, new Class[] { StringValue.class });
+		
+		final List<MutableObjectIterator<Record>> iterators = new ArrayList<MutableObjectIterator<Record>>();
+		final List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 17; i++) {
+			final List<Record> records = new ArrayList<Record>();
+			for (int k = i; k < 300; k += 1 + (i % 4)) {
+				final String key = prefix + String.format("%05d", k * 31 % 997);
+				expected.add(key);
+				records.add(new Record(new StringValue(key)));
+			}
+			Collections.sort(records, new Comparator<Record>() {
+				@Override
+				public int compare(Record o1, Record o2) {
+					return o1.getField(0, StringValue.class).compareTo(o2.getField(0, StringValue.class));
+				}
+			});
+			final Iterator<Record> recIter = records.iterator();
+			iterators.add(new MutableObjectIterator<Record>() {
+				@Override
+				public boolean next(Record target) {
+					if (recIter.hasNext()) {
+						recIter.next().copyTo(target);
+						return true;
+					}
+					return false;
+				}
+			});
+		}
+		Collections.sort(expected);
+		
+		final MutableObjectIterator<Record> iterator = new MergeIterator<Record>(iterators, this.serializer, stringComparator);
+		
+		final Record rec = new Record();
+		for (String key : expected) {
+			Assert.assertTrue("Merge returned too few records.", iterator.next(rec));
+			Assert.assertEquals("Merge returned records in wrong order.", key, rec.getField(0, StringValue.class).getValue());
+		}
+		Assert.assertFalse("Merge returned too many records.", iterator.next(rec));
+	}
 }
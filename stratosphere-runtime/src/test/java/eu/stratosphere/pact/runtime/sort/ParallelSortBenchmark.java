@@ -0,0 +1,145 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.util.List;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.iomanager.IOManager;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializer;
+import eu.stratosphere.pact.runtime.test.util.DummyInvokable;
+import eu.stratosphere.pact.runtime.test.util.TestData;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.KeyMode;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.ValueMode;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Compares the throughput of the single sorting thread with sorting in parallel. The benchmark first sorts a single
+ * full sort buffer, then runs complete external sorts, each with one thread and with the given numbers of threads.
+ * It reports records per second. Run it with the thread counts to compare, for example:
+ * <pre>
+ * java ParallelSortBenchmark 2 4 8
+ * </pre>
+ */
+public class ParallelSortBenchmark {
+	
+	private static final long SEED = 649180756312423613L;
+	
+	private static final int BUFFER_MEMORY = 256 * 1024 * 1024;
+	
+	private static final int NUM_SORT_RECORDS = 5000000;
+	
+	private static final int SORT_MEMORY = 512 * 1024 * 1024;
+	
+	private static final AbstractInvokable OWNER = new DummyInvokable();
+	
+	
+	public static void main(String[] args) throws Exception {
+		final int[] threads = new int[args.length + 1];
+		threads[0] = 1;
+		for (int i = 0; i < args.length; i++) {
+			threads[i + 1] = Integer.parseInt(args[i]);
+		}
+		
+		final DefaultMemoryManager memManager = new DefaultMemoryManager(SORT_MEMORY);
+		final IOManager ioManager = new IOManager();
+		
+		try {
+			for (int round = 0; round < 2; round++) {
+				// the first round warms up the JVM
+				final boolean report = round > 0;
+				
+				for (int numThreads : threads) {
+					final long[] result = sortBuffer(memManager, numThreads);
+					if (report) {
+						System.out.println("Buffer sort (" + numThreads + " threads): " + result[1] + " msecs, " +
+							(result[0] * 1000 / Math.max(1, result[1])) + " records/sec.");
+					}
+				}
+				
+				for (int numThreads : threads) {
+					final long start = System.currentTimeMillis();
+					sort(memManager, ioManager, numThreads);
+					final long time = System.currentTimeMillis() - start;
+					if (report) {
+						System.out.println("External sort (" + numThreads + " threads): " + time + " msecs, " +
+							(NUM_SORT_RECORDS * 1000L / Math.max(1, time)) + " records/sec.");
+					}
+				}
+			}
+		}
+		finally {
+			ioManager.shutdown();
+			memManager.shutdown();
+		}
+	}
+	
+	/**
+	 * Fills a sort buffer and sorts it. Returns the number of records and the time to sort them.
+	 */
+	private static long[] sortBuffer(DefaultMemoryManager memManager, int numThreads) throws Exception {
+		final TestData.Generator generator = new TestData.Generator(SEED, Integer.MAX_VALUE, 100,
+			KeyMode.RANDOM, ValueMode.RANDOM_LENGTH);
+		
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> comparator = new RecordComparator(new int[] {0}, new Class[] {TestData.Key.class});
+		final List<MemorySegment> memory = memManager.allocatePages(OWNER, memManager.computeNumberOfPages(BUFFER_MEMORY));
+		final NormalizedKeySorter<Record> buffer = new NormalizedKeySorter<Record>(RecordSerializer.get(), comparator, memory);
+		
+		final Record rec = new Record();
+		do {
+			generator.next(rec);
+		} while (buffer.write(rec));
+		
+		final IndexedSorter sorter = numThreads == 1 ? new QuickSort() : new ParallelQuickSort(numThreads, "Benchmark sorting thread");
+		final long start = System.currentTimeMillis();
+		sorter.sort(buffer);
+		final long time = System.currentTimeMillis() - start;
+		if (sorter instanceof ParallelQuickSort) {
+			((ParallelQuickSort) sorter).shutdown();
+		}
+		
+		final long numRecords = buffer.size();
+		memManager.release(buffer.dispose());
+		return new long[] { numRecords, time };
+	}
+	
+	private static void sort(DefaultMemoryManager memManager, IOManager ioManager, int numThreads) throws Exception {
+		final TestData.Generator generator = new TestData.Generator(SEED, Integer.MAX_VALUE, 100,
+			KeyMode.RANDOM, ValueMode.RANDOM_LENGTH);
+		final MutableObjectIterator<Record> source = new TestData.GeneratorIterator(generator, NUM_SORT_RECORDS);
+		
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> comparator = new RecordComparator(new int[] {0}, new Class[] {TestData.Key.class});
+		final UnilateralSortMerger<Record> sorter = new UnilateralSortMerger<Record>(memManager, ioManager,
+			source, OWNER, RecordSerializer.get(), comparator, SORT_MEMORY, -1, 64, 0.8f, numThreads, 2);
+		
+		final MutableObjectIterator<Record> sorted = sorter.getIterator();
+		final Record rec = new Record();
+		int count = 0;
+		while (sorted.next(rec)) {
+			count++;
+		}
+		sorter.close();
+		
+		if (count != NUM_SORT_RECORDS) {
+			throw new Exception("Wrong number of sorted records: " + count);
+		}
+	}
+}
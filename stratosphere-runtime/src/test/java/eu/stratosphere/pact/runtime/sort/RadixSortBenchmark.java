@@ -0,0 +1,127 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.util.List;
+
+import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.nephele.template.AbstractInvokable;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializer;
+import eu.stratosphere.pact.runtime.test.util.DummyInvokable;
+import eu.stratosphere.pact.runtime.test.util.RandomIntPairGenerator;
+import eu.stratosphere.pact.runtime.test.util.TestData;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.KeyMode;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.ValueMode;
+import eu.stratosphere.pact.runtime.test.util.types.IntPair;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairSerializer;
+import eu.stratosphere.types.Record;
+
+/**
+ * Compares the {@link RadixSort} with the {@link QuickSort} on full sort buffers with integer keys, for both the
+ * {@link NormalizedKeySorter} and the {@link FixedLengthRecordSorter}. The benchmark reports the time to sort each
+ * buffer and the resulting number of records per second.
+ */
+public class RadixSortBenchmark {
+	
+	private static final long SEED = 649180756312423613L;
+	
+	private static final int BUFFER_MEMORY = 128 * 1024 * 1024;
+	
+	private static final int NUM_RUNS = 5;
+	
+	private static final AbstractInvokable OWNER = new DummyInvokable();
+	
+	
+	public static void main(String[] args) throws Exception {
+		final DefaultMemoryManager memManager = new DefaultMemoryManager(BUFFER_MEMORY);
+		final IndexedSorter[] sorters = { new QuickSort(), new RadixSort() };
+		
+		try {
+			for (int round = 0; round < 2; round++) {
+				// the first round warms up the JVM
+				final boolean report = round > 0;
+				
+				for (IndexedSorter sorter : sorters) {
+					long time = 0;
+					long records = 0;
+					for (int run = 0; run < NUM_RUNS; run++) {
+						final List<MemorySegment> memory = memManager.allocatePages(OWNER, memManager.computeNumberOfPages(BUFFER_MEMORY));
+						final NormalizedKeySorter<Record> buffer = fillRecordBuffer(memory, run);
+						final long start = System.nanoTime();
+						sorter.sort(buffer);
+						time += System.nanoTime() - start;
+						records += buffer.size();
+						memManager.release(buffer.dispose());
+					}
+					if (report) {
+						print("NormalizedKeySorter", sorter, records, time);
+					}
+					
+					time = 0;
+					records = 0;
+					for (int run = 0; run < NUM_RUNS; run++) {
+						final List<MemorySegment> memory = memManager.allocatePages(OWNER, memManager.computeNumberOfPages(BUFFER_MEMORY));
+						final FixedLengthRecordSorter<IntPair> buffer = fillIntPairBuffer(memory, run);
+						final long start = System.nanoTime();
+						sorter.sort(buffer);
+						time += System.nanoTime() - start;
+						records += buffer.size();
+						memManager.release(buffer.dispose());
+					}
+					if (report) {
+						print("FixedLengthRecordSorter", sorter, records, time);
+					}
+				}
+			}
+		}
+		finally {
+			memManager.shutdown();
+		}
+	}
+	
+	private static NormalizedKeySorter<Record> fillRecordBuffer(List<MemorySegment> memory, int run) throws Exception {
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> comparator = new RecordComparator(new int[] {0}, new Class[] {TestData.Key.class});
+		final NormalizedKeySorter<Record> buffer = new NormalizedKeySorter<Record>(RecordSerializer.get(), comparator, memory);
+		final TestData.Generator generator = new TestData.Generator(SEED + run, Integer.MAX_VALUE, 20,
+			KeyMode.RANDOM, ValueMode.FIX_LENGTH);
+		
+		final Record rec = new Record();
+		do {
+			generator.next(rec);
+		} while (buffer.write(rec));
+		return buffer;
+	}
+	
+	private static FixedLengthRecordSorter<IntPair> fillIntPairBuffer(List<MemorySegment> memory, int run) throws Exception {
+		final FixedLengthRecordSorter<IntPair> buffer = new FixedLengthRecordSorter<IntPair>(new IntPairSerializer(),
+			new IntPairComparator(), memory);
+		final RandomIntPairGenerator generator = new RandomIntPairGenerator(SEED + run);
+		
+		final IntPair rec = new IntPair();
+		do {
+			generator.next(rec);
+		} while (buffer.write(rec));
+		return buffer;
+	}
+	
+	private static void print(String buffer, IndexedSorter sorter, long records, long nanos) {
+		System.out.println(buffer + " (" + sorter.getClass().getSimpleName() + "): " + (nanos / 1000000 / NUM_RUNS) +
+			" msecs per buffer, " + (records * 1000000000L / Math.max(1, nanos)) + " records/sec.");
+	}
+}
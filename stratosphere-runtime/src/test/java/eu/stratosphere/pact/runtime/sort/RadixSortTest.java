@@ -0,0 +1,222 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.sort;
+
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import eu.stratosphere.core.memory.MemorySegment;
+import eu.stratosphere.nephele.services.memorymanager.spi.DefaultMemoryManager;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializer;
+import eu.stratosphere.pact.runtime.test.util.DummyInvokable;
+import eu.stratosphere.pact.runtime.test.util.RandomIntPairGenerator;
+import eu.stratosphere.pact.runtime.test.util.TestData;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.KeyMode;
+import eu.stratosphere.pact.runtime.test.util.TestData.Generator.ValueMode;
+import eu.stratosphere.pact.runtime.test.util.TestData.Key;
+import eu.stratosphere.pact.runtime.test.util.TestData.Value;
+import eu.stratosphere.pact.runtime.test.util.types.IntPair;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairComparator;
+import eu.stratosphere.pact.runtime.test.util.types.IntPairSerializer;
+import eu.stratosphere.types.Record;
+import eu.stratosphere.util.MutableObjectIterator;
+
+/**
+ * Tests the radix sort on the normalized keys of the in-memory sorters, and its fallback for keys whose normalized
+ * keys are only a prefix, both alone and as the per-range sort of the parallel quick sort.
+ */
+public class RadixSortTest
+{
+	private static final long SEED = 649180756312423613L;
+	
+	private static final int VALUE_LENGTH = 118;
+	
+	private static final int MEMORY_SIZE = 1024 * 1024 * 64;
+	
+	private static final int MEMORY_PAGE_SIZE = 32 * 1024; 
+	
+	private DefaultMemoryManager memoryManager;
+	
+	
+	@Before
+	public void beforeTest() {
+		this.memoryManager = new DefaultMemoryManager(MEMORY_SIZE, MEMORY_PAGE_SIZE);
+	}
+	
+	@After
+	public void afterTest() {
+		if (!this.memoryManager.verifyEmpty()) {
+			Assert.fail("Memory Leak: Some memory has not been returned to the memory manager.");
+		}
+		
+		if (this.memoryManager != null) {
+			this.memoryManager.shutdown();
+			this.memoryManager = null;
+		}
+	}
+	
+	@Test
+	public void testSortIntKeys() throws Exception {
+		testSortRecords(new boolean[] {true}, Integer.MAX_VALUE, new RadixSort());
+	}
+	
+	@Test
+	public void testSortIntKeysWithDuplicates() throws Exception {
+		testSortRecords(new boolean[] {true}, 1000, new RadixSort());
+	}
+	
+	@Test
+	public void testSortIntKeysDescending() throws Exception {
+		testSortRecords(new boolean[] {false}, Integer.MAX_VALUE, new RadixSort());
+	}
+	
+	@Test
+	public void testParallelSortIntKeys() throws Exception {
+		final ParallelQuickSort sort = new ParallelQuickSort(4, "Test sorting thread");
+		try {
+			testSortRecords(new boolean[] {true}, 1000, sort);
+		} finally {
+			sort.shutdown();
+		}
+	}
+	
+	@Test
+	public void testSortFixedLengthRecords() throws Exception {
+		final int numSegments = MEMORY_SIZE / MEMORY_PAGE_SIZE;
+		final List<MemorySegment> memory = this.memoryManager.allocatePages(new DummyInvokable(), numSegments);
+		
+		FixedLengthRecordSorter<IntPair> sorter = new FixedLengthRecordSorter<IntPair>(new IntPairSerializer(),
+			new IntPairComparator(), memory);
+		RandomIntPairGenerator generator = new RandomIntPairGenerator(SEED);
+		
+		// write the records
+		IntPair record = new IntPair();
+		long keySum = 0;
+		do {
+			generator.next(record);
+			keySum += record.getKey();
+		}
+		while (sorter.write(record));
+		keySum -= record.getKey();
+		
+		Assert.assertTrue(sorter.isNormalizedKeyFullyDetermining());
+		new RadixSort().sort(sorter);
+		assertSorted(sorter);
+		
+		// check that no record was lost
+		MutableObjectIterator<IntPair> iter = sorter.getIterator();
+		IntPair readTarget = new IntPair();
+		while (iter.next(readTarget)) {
+			keySum -= readTarget.getKey();
+		}
+		Assert.assertEquals(0, keySum);
+		
+		// release the memory occupied by the buffers
+		this.memoryManager.release(sorter.dispose());
+	}
+	
+	@Test
+	public void testFallbackForStringKeys() throws Exception {
+		testSortStringKeys(new RadixSort());
+	}
+	
+	@Test
+	public void testParallelFallbackForStringKeys() throws Exception {
+		final ParallelQuickSort sort = new ParallelQuickSort(4, "Test sorting thread");
+		try {
+			testSortStringKeys(sort);
+		} finally {
+			sort.shutdown();
+		}
+	}
+	
+	// --------------------------------------------------------------------------------------------
+	
+	private void testSortStringKeys(IndexedSorter sort) throws Exception {
+		final int numSegments = MEMORY_SIZE / MEMORY_PAGE_SIZE;
+		final List<MemorySegment> memory = this.memoryManager.allocatePages(new DummyInvokable(), numSegments);
+		
+		@SuppressWarnings("unchecked")
+		RecordComparator accessors = new RecordComparator(new int[] {1}, new Class[]{Value.class});
+		NormalizedKeySorter<Record> sorter = new NormalizedKeySorter<Record>(RecordSerializer.get(), accessors, memory);
+		
+		TestData.Generator generator = new TestData.Generator(SEED, Integer.MAX_VALUE, VALUE_LENGTH, KeyMode.RANDOM,
+			ValueMode.FIX_LENGTH);
+		
+		// write the records
+		Record record = new Record();
+		do {
+			generator.next(record);
+		}
+		while (sorter.write(record));
+		
+		Assert.assertFalse(sorter.isNormalizedKeyFullyDetermining());
+		sort.sort(sorter);
+		assertSorted(sorter);
+		
+		// release the memory occupied by the buffers
+		this.memoryManager.release(sorter.dispose());
+	}
+	
+	private void testSortRecords(boolean[] ascending, int keyMax, IndexedSorter sort) throws Exception {
+		final int numSegments = MEMORY_SIZE / MEMORY_PAGE_SIZE;
+		final List<MemorySegment> memory = this.memoryManager.allocatePages(new DummyInvokable(), numSegments);
+		
+		@SuppressWarnings("unchecked")
+		RecordComparator accessors = new RecordComparator(new int[] {0}, new Class[]{Key.class}, ascending);
+		NormalizedKeySorter<Record> sorter = new NormalizedKeySorter<Record>(RecordSerializer.get(), accessors, memory);
+		
+		TestData.Generator generator = new TestData.Generator(SEED, keyMax, VALUE_LENGTH, KeyMode.RANDOM,
+			ValueMode.RANDOM_LENGTH);
+		
+		// write the records
+		Record record = new Record();
+		Key key = new Key();
+		long keySum = 0;
+		do {
+			generator.next(record);
+			keySum += record.getField(0, key).getKey();
+		}
+		while (sorter.write(record));
+		keySum -= record.getField(0, key).getKey();
+		
+		Assert.assertTrue(sorter.isNormalizedKeyFullyDetermining());
+		sort.sort(sorter);
+		assertSorted(sorter);
+		
+		// check that no record was lost
+		MutableObjectIterator<Record> iter = sorter.getIterator();
+		Record readTarget = new Record();
+		while (iter.next(readTarget)) {
+			keySum -= readTarget.getField(0, key).getKey();
+		}
+		Assert.assertEquals(0, keySum);
+		
+		// release the memory occupied by the buffers
+		this.memoryManager.release(sorter.dispose());
+	}
+	
+	private static void assertSorted(IndexedSortable sortable) {
+		for (int i = 1; i < sortable.size(); i++) {
+			if (sortable.compare(i - 1, i) > 0) {
+				Assert.fail("Entry " + i + " is smaller than its predecessor.");
+			}
+		}
+	}
+}
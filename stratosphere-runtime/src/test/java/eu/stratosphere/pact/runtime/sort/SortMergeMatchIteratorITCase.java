@@ -250,6 +250,67 @@ public class SortMergeMatchIteratorITCase
 		}
 	}
 	
+	@Test
+	public void testMergeWithSmallGroupInMemory() {
+		try {
+			final MutableObjectIterator<Record> input1 = new TestData.ConstantValueIterator(13, "LEFT", 50);
+			final MutableObjectIterator<Record> input2 = new TestData.ConstantValueIterator(13, "RIGHT", 3000);
+			
+			final CountingMatcher matcher = new CountingMatcher();
+			
+			MergeMatchIterator<Record, Record, Record> iterator = 
+				new MergeMatchIterator<Record, Record, Record>(
+					input1, input2, this.serializer1, this.comparator1, this.serializer2, this.comparator2,
+					this.pairComparator, this.memoryManager, this.ioManager, PAGES_FOR_BNLJN, this.parentTask);
+	
+			iterator.open();
+			while (iterator.callWithNextKey(matcher, new DiscardingOutputCollector()));
+			iterator.close();
+			
+			Assert.assertEquals("Wrong number of matches.", 50 * 3000, matcher.count);
+			Assert.assertEquals(1, iterator.getNumGroupsCrossed());
+			Assert.assertEquals("The smaller group should have been kept in memory.", 0, iterator.getNumGroupsSpilled());
+			Assert.assertEquals(0, iterator.getNumRecordsReread());
+			Assert.assertEquals(3000, iterator.getLargestGroupSize());
+			Assert.assertEquals(3050, iterator.getNumCrossedGroupRecords());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testMergeWithLargeGroupsOnBothSides() {
+		try {
+			final MutableObjectIterator<Record> input1 = new TestData.ConstantValueIterator(13, "LEFT", 3000);
+			final MutableObjectIterator<Record> input2 = new TestData.ConstantValueIterator(13, "RIGHT", 2000);
+			
+			final CountingMatcher matcher = new CountingMatcher();
+			
+			// little memory, such that neither group fits and the spilled group is read once per block
+			MergeMatchIterator<Record, Record, Record> iterator = 
+				new MergeMatchIterator<Record, Record, Record>(
+					input1, input2, this.serializer1, this.comparator1, this.serializer2, this.comparator2,
+					this.pairComparator, this.memoryManager, this.ioManager, PAGES_FOR_BNLJN, this.parentTask);
+	
+			iterator.open();
+			while (iterator.callWithNextKey(matcher, new DiscardingOutputCollector()));
+			iterator.close();
+			
+			Assert.assertEquals("Wrong number of matches.", 3000 * 2000, matcher.count);
+			Assert.assertEquals(1, iterator.getNumGroupsCrossed());
+			Assert.assertEquals(1, iterator.getNumGroupsSpilled());
+			Assert.assertTrue("The spilled group should have been read again.", iterator.getNumRecordsReread() > 0);
+			Assert.assertEquals(3000, iterator.getLargestGroupSize());
+			Assert.assertEquals(5000, iterator.getNumCrossedGroupRecords());
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("An exception occurred during the test: " + e.getMessage());
+		}
+	}
+	
 	
 	
 	// --------------------------------------------------------------------------------------------
@@ -367,4 +428,18 @@ public class SortMergeMatchIteratorITCase
 			}
 		}
 	}
+	
+	private static final class CountingMatcher extends JoinFunction {
+		private static final long serialVersionUID = 1L;
+		
+		private long count;
+		
+		@Override
+		public void join(Record rec1, Record rec2, Collector<Record> out) {
+			// the values must be passed in the order of the inputs, regardless of which group was buffered
+			Assert.assertTrue(rec1.getField(1, TestData.Value.class).getValue().startsWith("LEFT"));
+			Assert.assertTrue(rec2.getField(1, TestData.Value.class).getValue().startsWith("RIGHT"));
+			this.count++;
+		}
+	}
 }
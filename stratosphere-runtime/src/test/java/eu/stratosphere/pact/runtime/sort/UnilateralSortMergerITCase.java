@@ -238,6 +238,101 @@ public class UnilateralSortMergerITCase {
 		merger.close();
 	}
 
+	@Test
+	public void testSpillingSortWithParallelSortThreads() throws Exception {
+		// sort each buffer with several threads
+		final Comparator<TestData.Key> keyComparator = new TestData.KeyComparator();
+		
+		final TestData.Generator generator = new TestData.Generator(SEED, KEY_MAX, VALUE_LENGTH, KeyMode.RANDOM, ValueMode.CONSTANT, VAL);
+		final MutableObjectIterator<Record> source = new TestData.GeneratorIterator(generator, NUM_PAIRS);
+
+		// merge iterator
+		LOG.debug("Initializing sortmerger...");
+		
+		Sorter<Record> merger = new UnilateralSortMerger<Record>(this.memoryManager, this.ioManager, 
+				source, this.parentTask, this.pactRecordSerializer, this.pactRecordComparator,
+				32 * 1024 * 1024, 3, 64, 0.7f, 4, 2);
+
+		// emit data
+		LOG.debug("Reading and sorting data...");
+
+		// check order
+		MutableObjectIterator<Record> iterator = merger.getIterator();
+		
+		LOG.debug("Checking results...");
+		int pairsEmitted = 1;
+
+		Record rec1 = new Record();
+		Record rec2 = new Record();
+		
+		Assert.assertTrue(iterator.next(rec1));
+		while (iterator.next(rec2)) {
+			final Key k1 = rec1.getField(0, TestData.Key.class);
+			final Key k2 = rec2.getField(0, TestData.Key.class);
+			pairsEmitted++;
+			
+			Assert.assertTrue(keyComparator.compare(k1, k2) <= 0); 
+			
+			Record tmp = rec1;
+			rec1 = rec2;
+			k1.setKey(k2.getKey());
+			
+			rec2 = tmp;
+		}
+		Assert.assertTrue(NUM_PAIRS == pairsEmitted);
+		
+		merger.close();
+	}
+
+	@Test
+	public void testSpillingSortWithSmallMergeFanIn() throws Exception {
+		// little memory and few file handles cause many runs and several intermediate merges
+		final Comparator<TestData.Key> keyComparator = new TestData.KeyComparator();
+		
+		final TestData.Generator generator = new TestData.Generator(SEED, KEY_MAX, VALUE_LENGTH, KeyMode.RANDOM, ValueMode.CONSTANT, VAL);
+		final MutableObjectIterator<Record> source = new TestData.GeneratorIterator(generator, NUM_PAIRS);
+		
+		Sorter<Record> merger = new UnilateralSortMerger<Record>(this.memoryManager, this.ioManager, 
+				source, this.parentTask, this.pactRecordSerializer, this.pactRecordComparator,
+				4 * 1024 * 1024, 2, 3, 0.7f);
+		
+		MutableObjectIterator<Record> iterator = merger.getIterator();
+		int pairsEmitted = 1;
+		
+		Record rec1 = new Record();
+		Record rec2 = new Record();
+		
+		Assert.assertTrue(iterator.next(rec1));
+		while (iterator.next(rec2)) {
+			final Key k1 = rec1.getField(0, TestData.Key.class);
+			final Key k2 = rec2.getField(0, TestData.Key.class);
+			pairsEmitted++;
+			
+			Assert.assertTrue(keyComparator.compare(k1, k2) <= 0); 
+			
+			Record tmp = rec1;
+			rec1 = rec2;
+			k1.setKey(k2.getKey());
+			
+			rec2 = tmp;
+		}
+		Assert.assertEquals("Not all pairs were read back in.", NUM_PAIRS, pairsEmitted);
+		
+		merger.close();
+	}
+	
+	@Test
+	public void testNumRunsForFirstMerge() {
+		// the first merge leaves a number of runs that full merges reduce to exactly the fan-in
+		for (int fanIn = 2; fanIn < 20; fanIn++) {
+			for (int numRuns = fanIn + 1; numRuns < 200; numRuns++) {
+				final int first = UnilateralSortMerger.getNumRunsForFirstMerge(numRuns, fanIn);
+				Assert.assertTrue(first >= 2 && first <= fanIn);
+				Assert.assertEquals(0, (numRuns - first + 1 - fanIn) % (fanIn - 1));
+			}
+		}
+	}
+
 //	@Test
 	public void testSpillingSortWithIntermediateMerge() throws Exception {
 		// amount of pairs
@@ -0,0 +1,136 @@
+/***********************************************************************************************************************
+ * Copyright (C) 2010-2013 by the Stratosphere project (http://stratosphere.eu)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ **********************************************************************************************************************/
+
+package eu.stratosphere.pact.runtime.task;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import eu.stratosphere.api.common.functions.AbstractFunction;
+import eu.stratosphere.api.common.functions.GenericReduce;
+import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparator;
+import eu.stratosphere.pact.runtime.test.util.DriverTestBase;
+import eu.stratosphere.pact.runtime.test.util.UniformRecordGenerator;
+import eu.stratosphere.types.IntValue;
+import eu.stratosphere.types.Key;
+import eu.stratosphere.types.Record;
+
+public class HashReduceTaskTest extends DriverTestBase<GenericReduce<Record>>
+{
+	private static final long REDUCE_MEM = 2 * 1024 * 1024;
+	
+	private final ArrayList<Record> outList = new ArrayList<Record>();
+	
+	@SuppressWarnings("unchecked")
+	private final RecordComparator comparator = new RecordComparator(
+		new int[]{0}, (Class<? extends Key>[])new Class[]{ IntValue.class });
+
+	public HashReduceTaskTest() {
+		super(REDUCE_MEM, 1, REDUCE_MEM);
+	}
+	
+	@Test
+	public void testHashReduceInMemory() {
+		runHashReduce(DriverStrategy.HASH_REDUCE, new HashReduceDriver<Record>(), 100, 20);
+	}
+	
+	@Test
+	public void testHashReduceWithSortFallback() {
+		// the aggregates of that many keys exceed the hash table memory
+		runHashReduce(DriverStrategy.HASH_REDUCE, new HashReduceDriver<Record>(), 100000, 3);
+	}
+	
+	@Test
+	public void testHashCombine() {
+		runHashReduce(DriverStrategy.HASH_COMBINE, new HashCombineDriver<Record>(), 100, 20);
+	}
+	
+	@Test
+	public void testSortedReduce() {
+		final int keyCnt = 100;
+		final int valCnt = 20;
+		
+		try {
+			addInputSorted(new UniformRecordGenerator(keyCnt, valCnt, false), this.comparator.duplicate());
+			addInputComparator(this.comparator);
+			setOutput(this.outList);
+			getTaskConfig().setDriverStrategy(DriverStrategy.SORTED_REDUCE);
+			
+			testDriver(new SortedReduceDriver<Record>(), MockSumReduceStub.class);
+		} catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("Invoke method caused exception.");
+		}
+		
+		checkResult(keyCnt, valCnt);
+	}
+	
+	private void runHashReduce(DriverStrategy strategy, PactDriver<GenericReduce<Record>, Record> driver, int keyCnt, int valCnt) {
+		addInput(new UniformRecordGenerator(keyCnt, valCnt, false));
+		addInputComparator(this.comparator);
+		setOutput(this.outList);
+		
+		getTaskConfig().setDriverStrategy(strategy);
+		getTaskConfig().setMemoryDriver(REDUCE_MEM);
+		getTaskConfig().setFilehandlesDriver(4);
+		getTaskConfig().setSpillingThresholdDriver(0.8f);
+		
+		try {
+			testDriver(driver, MockSumReduceStub.class);
+		} catch (Exception e) {
+			e.printStackTrace();
+			Assert.fail("Invoke method caused exception.");
+		}
+		
+		checkResult(keyCnt, valCnt);
+	}
+	
+	private void checkResult(int keyCnt, int valCnt) {
+		int expSum = 0;
+		for (int i = 0; i < valCnt; i++) {
+			expSum += i;
+		}
+		
+		Assert.assertEquals("Wrong result set size.", keyCnt, this.outList.size());
+		
+		final BitSet keys = new BitSet(keyCnt);
+		for (Record record : this.outList) {
+			final int key = record.getField(0, IntValue.class).getValue();
+			Assert.assertFalse("Duplicate key " + key, keys.get(key));
+			keys.set(key);
+			Assert.assertEquals("Incorrect result", expSum, record.getField(1, IntValue.class).getValue());
+		}
+		
+		this.outList.clear();
+	}
+	
+	public static class MockSumReduceStub extends AbstractFunction implements GenericReduce<Record> {
+		private static final long serialVersionUID = 1L;
+		
+		private final IntValue value1 = new IntValue();
+		private final IntValue value2 = new IntValue();
+		
+		@Override
+		public Record reduce(Record record1, Record record2) {
+			record1.getFieldInto(1, this.value1);
+			record2.getFieldInto(1, this.value2);
+			this.value1.setValue(this.value1.getValue() + this.value2.getValue());
+			record1.setField(1, this.value1);
+			return record1;
+		}
+	}
+}
@@ -18,6 +18,8 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.List;
+import java.util.Random;
 
 import junit.framework.Assert;
 import junit.framework.TestCase;
@@ -25,11 +27,13 @@ import junit.framework.TestCase;
 import org.junit.Test;
 
 import eu.stratosphere.api.common.typeutils.TypeComparator;
+import eu.stratosphere.api.common.typeutils.TypeSerializer;
 import eu.stratosphere.nephele.io.ChannelSelector;
 import eu.stratosphere.pact.runtime.plugable.SerializationDelegate;
 import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordComparatorFactory;
 import eu.stratosphere.pact.runtime.plugable.pactrecord.RecordSerializerFactory;
 import eu.stratosphere.pact.runtime.shipping.OutputEmitter;
+import eu.stratosphere.pact.runtime.shipping.RangeBoundarySampler;
 import eu.stratosphere.pact.runtime.shipping.ShipStrategyType;
 import eu.stratosphere.types.DeserializationException;
 import eu.stratosphere.types.KeyFieldOutOfBoundsException;
@@ -41,7 +45,7 @@ import eu.stratosphere.types.StringValue;
 
 public class OutputEmitterTest extends TestCase {
 	
-//	private static final long SEED = 485213591485399L;
+	private static final long SEED = 485213591485399L;
 	
 	@Test
 	public void testPartitionHash() {
@@ -332,51 +336,101 @@ public class OutputEmitterTest extends TestCase {
 		Assert.fail("Expected a NullKeyFieldException.");
 	}
 	
-//	@Test
-//	public void testPartitionRange() {
-//		final Random rnd = new Random(SEED);
-//		
-//		final int DISTR_MIN = 0;
-//		final int DISTR_MAX = 1000000;
-//		final int DISTR_RANGE = DISTR_MAX - DISTR_MIN + 1;
-//		final int NUM_BUCKETS = 137;
-//		final float BUCKET_WIDTH = DISTR_RANGE / ((float) NUM_BUCKETS);
-//		
-//		final int NUM_ELEMENTS = 10000000;
-//		
-//		final DataDistribution distri = new UniformIntegerDistribution(DISTR_MIN, DISTR_MAX);
-//		
-//		@SuppressWarnings("unchecked")
-//		final TypeComparator<Record> intComp = new RecordComparatorFactory(new int[] {0}, new Class[] {IntValue.class}).createComparator();
-//		final ChannelSelector<SerializationDelegate<Record>> oe = new OutputEmitter<Record>(ShipStrategyType.PARTITION_RANGE, intComp, distri);
-//		final SerializationDelegate<Record> delegate = new SerializationDelegate<Record>(new RecordSerializerFactory().getSerializer());
-//		
-//		final IntValue integer = new IntValue();
-//		final Record rec = new Record();
-//		
-//		for (int i = 0; i < NUM_ELEMENTS; i++) {
-//			final int nextValue = rnd.nextInt(DISTR_RANGE) + DISTR_MIN;
-//			integer.setValue(nextValue);
-//			rec.setField(0, integer);
-//			delegate.setInstance(rec);
-//			
-//			final int[] channels = oe.selectChannels(delegate, NUM_BUCKETS);
-//			if (channels.length != 1) {
-//				Assert.fail("Resulting channels array has more than one channel.");
-//			}
-//			
-//			final int bucket = channels[0];
-//			final int shouldBeBucket = (int) ((nextValue - DISTR_MIN) / BUCKET_WIDTH);
-//			
-//			if (shouldBeBucket != bucket) {
-//				// we may have a rounding imprecision in the 'should be bucket' computation.
-//				final int lowerBoundaryForSelectedBucket = DISTR_MIN + (int) ((bucket    ) * BUCKET_WIDTH);
-//				final int upperBoundaryForSelectedBucket = DISTR_MIN + (int) ((bucket + 1) * BUCKET_WIDTH);
-//				if (nextValue <= lowerBoundaryForSelectedBucket || nextValue > upperBoundaryForSelectedBucket) {
-//					Assert.fail("Wrong bucket selected");
-//				}
-//			}
-//			
-//		}
-//	}
+	@Test
+	public void testPartitionRange() {
+		final Random rnd = new Random(SEED);
+		
+		final int NUM_BUCKETS = 37;
+		final int NUM_ELEMENTS = 100000;
+		
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> intComp = new RecordComparatorFactory(new int[] {0}, new Class[] {IntValue.class}).createComparator();
+		final TypeSerializer<Record> serializer = new RecordSerializerFactory().getSerializer();
+		
+		// sample the boundaries
+		final RangeBoundarySampler<Record> sampler = new RangeBoundarySampler<Record>(serializer, intComp, 10000, SEED);
+		final Record rec = new Record();
+		final IntValue integer = new IntValue();
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			integer.setValue(rnd.nextInt());
+			rec.setField(0, integer);
+			sampler.add(rec);
+		}
+		final List<Record> boundaries = sampler.getBoundaries(NUM_BUCKETS);
+		assertEquals(NUM_BUCKETS - 1, boundaries.size());
+		
+		final ChannelSelector<SerializationDelegate<Record>> oe = new OutputEmitter<Record>(ShipStrategyType.PARTITION_RANGE, intComp, boundaries);
+		final SerializationDelegate<Record> delegate = new SerializationDelegate<Record>(serializer);
+		
+		final int[] hits = new int[NUM_BUCKETS];
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			final int nextValue = rnd.nextInt();
+			integer.setValue(nextValue);
+			rec.setField(0, integer);
+			delegate.setInstance(rec);
+			
+			final int[] channels = oe.selectChannels(delegate, NUM_BUCKETS);
+			assertEquals(1, channels.length);
+			
+			final int bucket = channels[0];
+			if (bucket > 0) {
+				assertTrue(nextValue > boundaries.get(bucket - 1).getField(0, IntValue.class).getValue());
+			}
+			if (bucket < NUM_BUCKETS - 1) {
+				assertTrue(nextValue <= boundaries.get(bucket).getField(0, IntValue.class).getValue());
+			}
+			hits[bucket]++;
+		}
+		
+		// the sampled boundaries should balance the buckets reasonably well
+		for (int i = 0; i < NUM_BUCKETS; i++) {
+			assertTrue(hits[i] > NUM_ELEMENTS / NUM_BUCKETS / 2);
+		}
+	}
+	
+	@Test
+	public void testPartitionRangeWithPrefixKeys() {
+		final Random rnd = new Random(SEED);
+		
+		final int NUM_BUCKETS = 16;
+		final int NUM_ELEMENTS = 20000;
+		
+		@SuppressWarnings("unchecked")
+		final TypeComparator<Record> stringComp = new RecordComparatorFactory(new int[] {0}, new Class[] {StringValue.class}).createComparator();
+		final TypeSerializer<Record> serializer = new RecordSerializerFactory().getSerializer();
+		
+		// strings with a long common prefix, such that the normalized keys do not decide the comparisons
+		final String prefix = "a-long-common-prefix-";
+		
+		final RangeBoundarySampler<Record> sampler = new RangeBoundarySampler<Record>(serializer, stringComp, 1000, SEED);
+		final Record rec = new Record();
+		final StringValue string = new StringValue();
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			string.setValue(prefix + rnd.nextInt(1000000));
+			rec.setField(0, string);
+			sampler.add(rec);
+		}
+		final List<Record> boundaries = sampler.getBoundaries(2 * NUM_BUCKETS);
+		
+		// twice as many ranges as channels, so every second boundary is used
+		final ChannelSelector<SerializationDelegate<Record>> oe = new OutputEmitter<Record>(ShipStrategyType.PARTITION_RANGE, stringComp, boundaries);
+		final SerializationDelegate<Record> delegate = new SerializationDelegate<Record>(serializer);
+		
+		for (int i = 0; i < NUM_ELEMENTS; i++) {
+			final String nextValue = prefix + rnd.nextInt(1000000);
+			string.setValue(nextValue);
+			rec.setField(0, string);
+			delegate.setInstance(rec);
+			
+			final int bucket = oe.selectChannels(delegate, NUM_BUCKETS)[0];
+			if (bucket > 0) {
+				final String lower = boundaries.get(2 * bucket - 1).getField(0, StringValue.class).getValue();
+				assertTrue(nextValue.compareTo(lower) > 0);
+			}
+			if (bucket < NUM_BUCKETS - 1) {
+				final String upper = boundaries.get(2 * bucket + 1).getField(0, StringValue.class).getValue();
+				assertTrue(nextValue.compareTo(upper) <= 0);
+			}
+		}
+	}
 }